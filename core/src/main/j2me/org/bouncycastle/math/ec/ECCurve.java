@@ -4,7 +4,6 @@
 import java.security.SecureRandom;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Hashtable;
 import java.util.Random;
 import java.util.Set;
 
@@ -163,21 +162,9 @@ public PreCompInfo getPreCompInfo(ECPoint point, String name)
     {
         checkPoint(point);
 
-        Hashtable table;
-        synchronized (point)
-        {
-            table = point.preCompTable;
-        }
-
-        if (null == table)
-        {
-            return null;
-        }
+        PreCompTable table = point.preCompInfoTable;
 
-        synchronized (table)
-        {
-            return (PreCompInfo)table.get(name);
-        }
+        return null == table ? null : table.get(name);
     }
 
     /**
@@ -196,27 +183,31 @@ public PreCompInfo precompute(ECPoint point, String name, PreCompCallback callba
     {
         checkPoint(point);
 
-        Hashtable table;
-        synchronized (point)
+        for (;;)
         {
-            table = point.preCompTable;
-            if (null == table)
-            {
-                point.preCompTable = table = new Hashtable(4);
-            }
-        }
-
-        synchronized (table)
-        {
-            PreCompInfo existing = (PreCompInfo)table.get(name);
+            PreCompTable table = point.preCompInfoTable;
+            PreCompInfo existing = null == table ? null : table.get(name);
             PreCompInfo result = callback.precompute(existing);
 
-            if (result != existing)
+            if (result == existing)
             {
-                table.put(name, result);
+                return result;
             }
 
-            return result;
+            synchronized (point)
+            {
+                table = point.preCompInfoTable;
+                if (null == table)
+                {
+                    table = new PreCompTable();
+                }
+
+                if (table.get(name) == existing)
+                {
+                    point.preCompInfoTable = table.put(name, result);
+                    return result;
+                }
+            }
         }
     }
 
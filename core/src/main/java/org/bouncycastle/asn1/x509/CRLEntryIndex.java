@@ -0,0 +1,162 @@
+package org.bouncycastle.asn1.x509;
+
+import java.math.BigInteger;
+
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * An index of the revokedCertificates in a {@link TBSCertList} by serial number, so that repeated
+ * revocation lookups on a large CRL don't need to scan every entry.
+ * <p>
+ * The index holds a sorted array of serial number hashes against entry positions, and, for an
+ * indirect CRL, the positions at which the certificateIssuer changes. Entries are looked up in the
+ * underlying TBSCertList, which is not copied.
+ * </p>
+ */
+public class CRLEntryIndex
+{
+    private final ASN1Sequence entries;
+    private final long[] hashIndex;
+    private final int[] issuerPositions;
+    private final GeneralNames[] issuers;
+
+    /**
+     * Build an index over the revoked certificates in a TBSCertList.
+     *
+     * @param tbsCertList the TBSCertList to index.
+     * @param isIndirect true if the CRL is an indirect CRL, so that certificateIssuer entry extensions
+     *                   need to be tracked.
+     */
+    public CRLEntryIndex(TBSCertList tbsCertList, boolean isIndirect)
+    {
+        this.entries = tbsCertList.revokedCertificates;
+
+        int count = entries == null ? 0 : entries.size();
+        long[] hashIndex = new long[count];
+
+        int issuerCount = 0;
+        int[] issuerPositions = new int[isIndirect ? 4 : 0];
+        GeneralNames[] issuers = new GeneralNames[issuerPositions.length];
+
+        for (int i = 0; i < count; ++i)
+        {
+            TBSCertList.CRLEntry entry = getEntry(i);
+
+            hashIndex[i] = ((long)entry.getUserCertificate().getValue().hashCode() << 32) | i;
+
+            if (isIndirect && entry.hasExtensions())
+            {
+                Extension currentCaName = entry.getExtensions().getExtension(Extension.certificateIssuer);
+
+                if (currentCaName != null)
+                {
+                    if (issuerCount == issuerPositions.length)
+                    {
+                        issuerPositions = Arrays.copyOf(issuerPositions, issuerCount * 2);
+
+                        GeneralNames[] tmp = new GeneralNames[issuerCount * 2];
+                        System.arraycopy(issuers, 0, tmp, 0, issuerCount);
+                        issuers = tmp;
+                    }
+
+                    issuerPositions[issuerCount] = i;
+                    issuers[issuerCount] = GeneralNames.getInstance(currentCaName.getParsedValue());
+                    ++issuerCount;
+                }
+            }
+        }
+
+        java.util.Arrays.sort(hashIndex);
+
+        this.hashIndex = hashIndex;
+        this.issuerPositions = Arrays.copyOf(issuerPositions, issuerCount);
+        this.issuers = new GeneralNames[issuerCount];
+        System.arraycopy(issuers, 0, this.issuers, 0, issuerCount);
+    }
+
+    /**
+     * Return the number of entries in the index.
+     *
+     * @return the number of revoked certificates.
+     */
+    public int size()
+    {
+        return hashIndex.length;
+    }
+
+    /**
+     * Find the first entry for a serial number.
+     *
+     * @param serialNumber the serial number to look for.
+     * @return the position of the first entry with this serial number, or -1 if there is none.
+     */
+    public int indexOf(BigInteger serialNumber)
+    {
+        long key = (long)serialNumber.hashCode() << 32;
+
+        // find the first slot for this hash; entries with equal hashes are ordered by position
+        int low = 0, high = hashIndex.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (hashIndex[mid] < key)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+
+        for (int i = low; i < hashIndex.length && (hashIndex[i] & 0xFFFFFFFF00000000L) == key; ++i)
+        {
+            int position = (int)hashIndex[i];
+            if (getEntry(position).getUserCertificate().hasValue(serialNumber))
+            {
+                return position;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Return the entry at the given position.
+     *
+     * @param position the position of the entry in the revokedCertificates.
+     * @return the CRL entry.
+     */
+    public TBSCertList.CRLEntry getEntry(int position)
+    {
+        return TBSCertList.CRLEntry.getInstance(entries.getObjectAt(position));
+    }
+
+    /**
+     * Return the certificate issuer in effect for the entry at the given position of an indirect CRL,
+     * taking into account a certificateIssuer extension on the entry itself.
+     *
+     * @param position the position of the entry in the revokedCertificates.
+     * @return the certificate issuer, or null if it is the CRL issuer.
+     */
+    public GeneralNames getCertificateIssuer(int position)
+    {
+        // find the last issuer change at or before the position
+        int low = 0, high = issuerPositions.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (issuerPositions[mid] <= position)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+
+        return low == 0 ? null : issuers[low - 1];
+    }
+}
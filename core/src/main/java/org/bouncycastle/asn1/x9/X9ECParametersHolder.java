@@ -7,27 +7,43 @@
  */
 public abstract class X9ECParametersHolder
 {
-    private ECCurve curve;
-    private X9ECParameters params;
+    private volatile ECCurve curve;
+    private volatile X9ECParameters params;
 
-    public synchronized ECCurve getCurve()
+    public ECCurve getCurve()
     {
-        if (curve == null)
+        ECCurve result = curve;
+        if (result == null)
         {
-            curve = createCurve();
+            synchronized (this)
+            {
+                result = curve;
+                if (result == null)
+                {
+                    curve = result = createCurve();
+                }
+            }
         }
 
-        return curve;
+        return result;
     }
 
-    public synchronized X9ECParameters getParameters()
+    public X9ECParameters getParameters()
     {
-        if (params == null)
+        X9ECParameters result = params;
+        if (result == null)
         {
-            params = createParameters();
+            synchronized (this)
+            {
+                result = params;
+                if (result == null)
+                {
+                    params = result = createParameters();
+                }
+            }
         }
 
-        return params;
+        return result;
     }
 
     protected ECCurve createCurve()
@@ -17,7 +17,7 @@
     private final ASN1OctetString encoding;
 
     private ECCurve c;
-    private ECPoint p;
+    private volatile ECPoint p;
 
     public X9ECPoint(
         ECPoint p,
@@ -47,14 +47,22 @@ public byte[] getPointEncoding()
         return Arrays.clone(encoding.getOctets());
     }
 
-    public synchronized ECPoint getPoint()
+    public ECPoint getPoint()
     {
-        if (p == null)
+        ECPoint result = p;
+        if (result == null)
         {
-            p = c.decodePoint(encoding.getOctets()).normalize();
+            synchronized (this)
+            {
+                result = p;
+                if (result == null)
+                {
+                    p = result = c.decodePoint(encoding.getOctets()).normalize();
+                }
+            }
         }
 
-        return p;
+        return result;
     }
 
     public boolean isPointCompressed()
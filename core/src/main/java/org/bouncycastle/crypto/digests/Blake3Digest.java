@@ -2,6 +2,7 @@
 
 import java.util.Iterator;
 import java.util.Stack;
+import java.util.concurrent.Executor;
 
 import org.bouncycastle.crypto.CryptoServicePurpose;
 import org.bouncycastle.crypto.CryptoServicesRegistrar;
@@ -9,6 +10,7 @@
 import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.Xof;
 import org.bouncycastle.crypto.params.Blake3Parameters;
+import org.bouncycastle.crypto.util.ParallelTaskHelper;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Integers;
 import org.bouncycastle.util.Memoable;
@@ -80,6 +82,11 @@
      */
     private static final int DERIVEKEY = 64;
 
+    /**
+     * Maximum number of chunks hashed by one task in parallel mode.
+     */
+    private static final int PARALLELCHUNKS = 64;
+
     /**
      * Chaining0 State Locations.
      */
@@ -255,6 +262,11 @@
     // digest purpose
     private final CryptoServicePurpose purpose;
 
+    /**
+     * The executor for parallel hashing (null for sequential).
+     */
+    private final Executor theExecutor;
+
     /**
      * Constructor.
      */
@@ -283,8 +295,25 @@ public Blake3Digest(final int pDigestSize)
      * @param purpose usage purpose.
      */
     public Blake3Digest(final int pDigestSize, CryptoServicePurpose purpose)
+    {
+        this(pDigestSize, purpose, null);
+    }
+
+    /**
+     * Base constructor with purpose and an executor for hashing large updates in parallel.
+     * <p>
+     * With an executor, an update of at least 64KiB has its whole chunks split into subtrees which are
+     * hashed concurrently and then merged, giving the same result as the sequential calculation.
+     * </p>
+     *
+     * @param pDigestSize size of digest (in bits)
+     * @param purpose usage purpose.
+     * @param pExecutor the executor to hash subtrees with, null for sequential operation.
+     */
+    public Blake3Digest(final int pDigestSize, CryptoServicePurpose purpose, final Executor pExecutor)
     {
         this.purpose = purpose;
+        this.theExecutor = pExecutor;
         theDigestLen = pDigestSize / 8;
 
         CryptoServicesRegistrar.checkConstraints(Utils.getDefaultProperties(this, getDigestSize() * 8, purpose));
@@ -302,6 +331,7 @@ public Blake3Digest(final Blake3Digest pSource)
         /* Copy default digest length */
         theDigestLen = pSource.theDigestLen;
         purpose = pSource.purpose;
+        theExecutor = pSource.theExecutor;
 
         /* Initialise from source */
         reset(pSource);
@@ -408,6 +438,28 @@ public void update(final byte[] pMessage,
             throw new IllegalStateException(ERR_OUTPUTTING);
         }
 
+        /* Hash large updates in parallel if we can */
+        if (theExecutor != null && pLen >= PARALLELCHUNKS * CHUNKLEN)
+        {
+            updateParallel(pMessage, pOffset, pLen);
+            return;
+        }
+
+        /* Process the message */
+        updateSequential(pMessage, pOffset, pLen);
+    }
+
+    /**
+     * Process message data one block at a time.
+     *
+     * @param pMessage the message
+     * @param pOffset  the offset of the data in the message
+     * @param pLen     the length of the data
+     */
+    private void updateSequential(final byte[] pMessage,
+                                  final int pOffset,
+                                  final int pLen)
+    {
         /* Process any bytes currently in the buffer */
         int remainingLen = 0; // left bytes of buffer
         if (thePos != 0)
@@ -450,6 +502,152 @@ public void update(final byte[] pMessage,
         thePos += pOffset + len;
     }
 
+    /**
+     * Process message data with the whole chunks hashed as subtrees in parallel.
+     *
+     * @param pMessage the message
+     * @param pOffset  the offset of the data in the message
+     * @param pLen     the length of the data
+     */
+    private void updateParallel(final byte[] pMessage,
+                                final int pOffset,
+                                final int pLen)
+    {
+        /* Complete the current chunk */
+        final int myToBoundary = (CHUNKLEN - (theCurrBytes + thePos) % CHUNKLEN) % CHUNKLEN;
+        if (myToBoundary > 0)
+        {
+            updateSequential(pMessage, pOffset, myToBoundary);
+        }
+
+        /* Process the last block of the chunk if it is still in the buffer */
+        if (thePos == BLOCKLEN)
+        {
+            compressBlock(theBuffer, 0);
+            thePos = 0;
+            Arrays.fill(theBuffer, (byte)0);
+        }
+
+        /* Determine the subtrees, holding back at least one byte so the final chunk is done as normal */
+        final int[] mySizes = subtreeSizes(theCounter, (pLen - myToBoundary - 1) / CHUNKLEN);
+        final int myLast = mySizes.length - 1;
+
+        /* Hash all but the last subtree in the executor, and the last one on this thread */
+        final int[][] myResults = new int[mySizes.length][];
+        final Runnable[] myTasks = new Runnable[myLast];
+        int myMsgPos = pOffset + myToBoundary;
+        long myCounter = theCounter;
+        for (int i = 0; i < myLast; i++)
+        {
+            myTasks[i] = new SubtreeHasher(this, pMessage, myMsgPos, myCounter, mySizes[i], myResults, i);
+
+            myMsgPos += mySizes[i] * CHUNKLEN;
+            myCounter += mySizes[i];
+        }
+        final Runnable myLastTask = new SubtreeHasher(this, pMessage, myMsgPos, myCounter, mySizes[myLast], myResults,
+            myLast);
+        myMsgPos += mySizes[myLast] * CHUNKLEN;
+
+        try
+        {
+            ParallelTaskHelper.run(theExecutor, myTasks, myLastTask, "subtree hashing");
+        }
+        catch (RuntimeException e)
+        {
+            /* Part of the message has already been absorbed, so the state is no longer usable */
+            reset();
+            throw e;
+        }
+
+        /* Merge the subtrees into the stack in order */
+        for (int i = 0; i <= myLast; i++)
+        {
+            addSubtree(myResults[i], mySizes[i]);
+        }
+
+        /* Process the remaining data */
+        updateSequential(pMessage, myMsgPos, pOffset + pLen - myMsgPos);
+    }
+
+    /**
+     * Split a run of chunks into subtrees, each being the largest that fits and starts on a multiple of its size.
+     *
+     * @param pCounter the index of the first chunk
+     * @param pChunks  the number of chunks
+     * @return the sizes of the subtrees (in chunks)
+     */
+    private static int[] subtreeSizes(final long pCounter,
+                                      final int pChunks)
+    {
+        final int[] mySizes = new int[pChunks / PARALLELCHUNKS + 2 * Integers.numberOfTrailingZeros(PARALLELCHUNKS)];
+        long myCounter = pCounter;
+        int myChunks = pChunks;
+        int myCount = 0;
+        while (myChunks > 0)
+        {
+            int mySize = PARALLELCHUNKS;
+            while (mySize > myChunks || (myCounter & (mySize - 1)) != 0)
+            {
+                mySize >>= 1;
+            }
+            mySizes[myCount++] = mySize;
+            myCounter += mySize;
+            myChunks -= mySize;
+        }
+        return Arrays.copyOf(mySizes, myCount);
+    }
+
+    /**
+     * Hash a complete subtree of whole chunks.
+     *
+     * @param pMessage the message
+     * @param pMsgPos  the position of the first chunk in the message
+     * @param pCounter the index of the first chunk
+     * @param pChunks  the number of chunks (a power of 2, with pCounter a multiple of it)
+     * @return the chaining value of the subtree
+     */
+    private int[] hashSubtree(final byte[] pMessage,
+                              final int pMsgPos,
+                              final long pCounter,
+                              final int pChunks)
+    {
+        theStack.clear();
+        theCounter = pCounter;
+        theCurrBytes = 0;
+
+        int myMsgPos = pMsgPos;
+        for (int i = 1; i <= pChunks; i++)
+        {
+            /* Compress the blocks of the chunk */
+            for (int j = 0; j < CHUNKLEN; j += BLOCKLEN)
+            {
+                initChunkBlock(BLOCKLEN, false);
+                initM(pMessage, myMsgPos);
+                compress();
+                myMsgPos += BLOCKLEN;
+            }
+
+            /* Combine with the chunks before it in the subtree */
+            adjustStack(i);
+        }
+
+        return (int[])theStack.pop();
+    }
+
+    /**
+     * Add the chaining value of a subtree of whole chunks to the stack.
+     *
+     * @param pChaining the chaining value
+     * @param pChunks   the number of chunks in the subtree
+     */
+    private void addSubtree(final int[] pChaining,
+                            final int pChunks)
+    {
+        System.arraycopy(pChaining, 0, theChaining, 0, NUMWORDS);
+        theCounter += pChunks;
+        adjustStack(theCounter / pChunks);
+    }
+
     public int doFinal(final byte[] pOutput,
                        final int pOutOffset)
     {
@@ -531,6 +729,7 @@ public int doOutput(final byte[] pOut,
 
     public void reset()
     {
+        theStack.clear();
         resetBlockCount();
         thePos = 0;
         outputting = false;
@@ -592,17 +791,19 @@ private void compressBlock(final byte[] pMessage,
         /* Adjust stack if we have completed a block */
         if (theCurrBytes == 0)
         {
-            adjustStack();
+            adjustStack(theCounter);
         }
     }
 
     /**
      * Adjust the stack.
+     *
+     * @param pCount the number of completed subtrees of the size just added
      */
-    private void adjustStack()
+    private void adjustStack(final long pCount)
     {
         /* Loop to combine blocks */
-        long myCount = theCounter;
+        long myCount = pCount;
         while (myCount > 0)
         {
             /* Break loop if we are not combining */
@@ -928,4 +1129,40 @@ private void setRoot()
         System.arraycopy(theV, 0, theChaining, 0, NUMWORDS);
     }
 
+    /**
+     * Subtree hashing task.
+     */
+    private static class SubtreeHasher
+        implements Runnable
+    {
+        private final Blake3Digest theDigest;
+        private final byte[] theMessage;
+        private final int theMsgPos;
+        private final long theFirstChunk;
+        private final int theChunks;
+        private final int[][] theResults;
+        private final int theIndex;
+
+        SubtreeHasher(final Blake3Digest pSource,
+                      final byte[] pMessage,
+                      final int pMsgPos,
+                      final long pFirstChunk,
+                      final int pChunks,
+                      final int[][] pResults,
+                      final int pIndex)
+        {
+            theDigest = new Blake3Digest(pSource);
+            theMessage = pMessage;
+            theMsgPos = pMsgPos;
+            theFirstChunk = pFirstChunk;
+            theChunks = pChunks;
+            theResults = pResults;
+            theIndex = pIndex;
+        }
+
+        public void run()
+        {
+            theResults[theIndex] = theDigest.hashSubtree(theMessage, theMsgPos, theFirstChunk, theChunks);
+        }
+    }
 }
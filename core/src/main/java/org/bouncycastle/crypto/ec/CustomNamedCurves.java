@@ -13,6 +13,7 @@
 import org.bouncycastle.asn1.x9.X9ECPoint;
 import org.bouncycastle.internal.asn1.cryptlib.CryptlibObjectIdentifiers;
 import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.FixedPointUtil;
 import org.bouncycastle.math.ec.WNafUtil;
 import org.bouncycastle.math.ec.custom.djb.Curve25519;
 import org.bouncycastle.math.ec.custom.gm.SM2P256V1Curve;
@@ -908,6 +909,25 @@ public static X9ECParametersHolder getByOIDLazy(ASN1ObjectIdentifier oid)
         return (X9ECParametersHolder)oidToCurve.get(oid);
     }
 
+    /**
+     * Precompute the tables used for fixed-point multiplication of the base point of a named curve, for
+     * example at start-up, so that the first key generation or signature on the curve doesn't pay for
+     * them. The parameters for a named curve are created once and retained, so the tables stay in place
+     * for later use of the same base point.
+     *
+     * @param name the name of the curve.
+     * @return the parameters for the curve, or null if there is no curve with the given name.
+     */
+    public static X9ECParameters precomputeBasePoint(String name)
+    {
+        X9ECParameters x9 = getByName(name);
+        if (x9 != null)
+        {
+            FixedPointUtil.precompute(x9.getG());
+        }
+        return x9;
+    }
+
     /**
      * return the object identifier signified by the passed in name. Null if there is no object
      * identifier associated with name.
@@ -512,6 +512,51 @@ public int processBlock(byte[] in, int inOff, byte[] out, int outOff)
         return BLOCK_SIZE;
     }
 
+    /**
+     * Process blockCount consecutive blocks, with the state and bounds checks done once for the whole run.
+     */
+    public int processBlocks(byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        if (WorkingKey == null)
+        {
+            throw new IllegalStateException("AES engine not initialised");
+        }
+
+        int len = blockCount * BLOCK_SIZE;
+
+        if (blockCount < 0 || inOff > (in.length - len))
+        {
+            throw new DataLengthException("input buffer too short");
+        }
+
+        if (outOff > (out.length - len))
+        {
+            throw new OutputLengthException("output buffer too short");
+        }
+
+        if (forEncryption)
+        {
+            while (blockCount-- > 0)
+            {
+                encryptBlock(in, inOff, out, outOff, WorkingKey);
+                inOff += BLOCK_SIZE;
+                outOff += BLOCK_SIZE;
+            }
+        }
+        else
+        {
+            while (blockCount-- > 0)
+            {
+                decryptBlock(in, inOff, out, outOff, WorkingKey);
+                inOff += BLOCK_SIZE;
+                outOff += BLOCK_SIZE;
+            }
+        }
+
+        return len;
+    }
+
     public void reset()
     {
     }
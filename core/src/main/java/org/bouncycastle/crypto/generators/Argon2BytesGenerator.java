@@ -1,8 +1,11 @@
 package org.bouncycastle.crypto.generators;
 
+import java.util.concurrent.Executor;
+
 import org.bouncycastle.crypto.Digest;
 import org.bouncycastle.crypto.digests.Blake2bDigest;
 import org.bouncycastle.crypto.params.Argon2Parameters;
+import org.bouncycastle.crypto.util.ParallelTaskHelper;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Longs;
 import org.bouncycastle.util.Pack;
@@ -156,6 +159,13 @@ private void initMemory(int memoryBlocks)
 
     private void fillMemoryBlocks()
     {
+        Executor executor = parameters.getExecutor();
+        if (executor != null && parameters.getLanes() > 1)
+        {
+            fillMemoryBlocks(executor);
+            return;
+        }
+
         FillBlock filler = new FillBlock();
         Position position = new Position();
         for (int pass = 0; pass < parameters.getIterations(); ++pass)
@@ -176,6 +186,53 @@ private void fillMemoryBlocks()
         }
     }
 
+    /*
+     * Within a slice a lane only writes its own segment, and only references blocks of other lanes
+     * from outside the current slice, so the segments of a slice can be filled concurrently provided
+     * every lane finishes the slice before any lane starts the next one. Lane 0 is done on the
+     * calling thread. Every lane has finished a slice before the next starts or an exception is
+     * thrown, so memory is never still being written after this returns.
+     */
+    private void fillMemoryBlocks(Executor executor)
+    {
+        int lanes = parameters.getLanes();
+        final Position[] positions = new Position[lanes];
+        Runnable[] laneTasks = new Runnable[lanes];
+
+        for (int lane = 0; lane < lanes; ++lane)
+        {
+            final FillBlock filler = new FillBlock();
+            final Position position = new Position();
+            position.lane = lane;
+            positions[lane] = position;
+
+            laneTasks[lane] = new Runnable()
+            {
+                public void run()
+                {
+                    fillSegment(filler, position);
+                }
+            };
+        }
+
+        Runnable[] tasks = new Runnable[lanes - 1];
+        System.arraycopy(laneTasks, 1, tasks, 0, tasks.length);
+
+        for (int pass = 0; pass < parameters.getIterations(); ++pass)
+        {
+            for (int slice = 0; slice < ARGON2_SYNC_POINTS; ++slice)
+            {
+                for (int lane = 0; lane < lanes; ++lane)
+                {
+                    positions[lane].pass = pass;
+                    positions[lane].slice = slice;
+                }
+
+                ParallelTaskHelper.run(executor, tasks, laneTasks[0], "Argon2 lane");
+            }
+        }
+    }
+
     private void fillSegment(FillBlock filler, Position position)
     {
         Block addressBlock = null, inputBlock = null;
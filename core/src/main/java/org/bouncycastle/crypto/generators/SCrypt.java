@@ -1,9 +1,12 @@
 package org.bouncycastle.crypto.generators;
 
+import java.util.concurrent.Executor;
+
 import org.bouncycastle.crypto.PBEParametersGenerator;
 import org.bouncycastle.crypto.digests.SHA256Digest;
 import org.bouncycastle.crypto.engines.Salsa20Engine;
 import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.crypto.util.ParallelTaskHelper;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Integers;
 import org.bouncycastle.util.Pack;
@@ -35,6 +38,31 @@ private SCrypt()
      * @return the generated key.
      */
     public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen)
+    {
+        return generate(P, S, N, r, p, dkLen, null);
+    }
+
+    /**
+     * Generate a key using the scrypt key derivation function, running the p independent SMix
+     * computations concurrently using the passed in executor.
+     * <p>
+     * Note: as each SMix computation needs its own <code>128 * r * N</code> bytes of working memory, running
+     * them concurrently multiplies the peak memory use by up to p. The result is identical to the sequential
+     * calculation.
+     * </p>
+     *
+     * @param P     the bytes of the pass phrase.
+     * @param S     the salt to use for this invocation.
+     * @param N     CPU/Memory cost parameter. Must be larger than 1, a power of 2 and less than
+     *              <code>2^(128 * r / 8)</code>.
+     * @param r     the block size, must be &gt;= 1.
+     * @param p     Parallelization parameter. Must be a positive integer less than or equal to
+     *              <code>Integer.MAX_VALUE / (128 * r * 8)</code>.
+     * @param dkLen the length of the key to generate.
+     * @param executor the executor to run the SMix computations with, null to run them on the calling thread.
+     * @return the generated key.
+     */
+    public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen, Executor executor)
     {
         if (P == null)
         {
@@ -67,10 +95,10 @@ public static byte[] generate(byte[] P, byte[] S, int N, int r, int p, int dkLen
         {
             throw new IllegalArgumentException("Generated key length dkLen must be >= 1.");
         }
-        return MFcrypt(P, S, N, r, p, dkLen);
+        return MFcrypt(P, S, N, r, p, dkLen, executor);
     }
 
-    private static byte[] MFcrypt(byte[] P, byte[] S, int N, int r, int p, int dkLen)
+    private static byte[] MFcrypt(byte[] P, byte[] S, int N, int r, int p, int dkLen, Executor executor)
     {
         int MFLenBytes = r * 128;
         byte[] bytes = SingleIterationPBKDF2(P, S, p * MFLenBytes);
@@ -96,10 +124,16 @@ private static byte[] MFcrypt(byte[] P, byte[] S, int N, int r, int p, int dkLen
             }
 
             int MFLenWords = MFLenBytes >>> 2;
-            for (int BOff = 0; BOff < BLen; BOff += MFLenWords)
+            if (executor == null || p == 1)
+            {
+                for (int BOff = 0; BOff < BLen; BOff += MFLenWords)
+                {
+                    SMix(B, BOff, N, d, r);
+                }
+            }
+            else
             {
-                // TODO These can be done in parallel threads
-                SMix(B, BOff, N, d, r);
+                SMixParallel(executor, B, MFLenWords, N, d, r);
             }
 
             Pack.intToLittleEndian(B, bytes, 0);
@@ -121,6 +155,40 @@ private static byte[] SingleIterationPBKDF2(byte[] P, byte[] S, int dkLen)
         return key.getKey();
     }
 
+    /*
+     * Each SMix only reads and writes its own MFLenWords block of B, so the blocks can be processed
+     * concurrently. The last block is done on the calling thread while the others run, and every
+     * block has finished before this returns, even on failure, so B can then be cleared safely.
+     */
+    private static void SMixParallel(Executor executor, final int[] B, int MFLenWords, final int N, final int d,
+        final int r)
+    {
+        Runnable[] tasks = new Runnable[B.length / MFLenWords - 1];
+
+        for (int i = 0; i != tasks.length; i++)
+        {
+            final int BOff = i * MFLenWords;
+
+            tasks[i] = new Runnable()
+            {
+                public void run()
+                {
+                    SMix(B, BOff, N, d, r);
+                }
+            };
+        }
+
+        final int lastBOff = tasks.length * MFLenWords;
+
+        ParallelTaskHelper.run(executor, tasks, new Runnable()
+        {
+            public void run()
+            {
+                SMix(B, lastBOff, N, d, r);
+            }
+        }, "SMix");
+    }
+
     private static void SMix(int[] B, int BOff, int N, int d, int r)
     {
         int powN = Integers.numberOfTrailingZeros(N);
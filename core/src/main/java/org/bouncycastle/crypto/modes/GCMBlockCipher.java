@@ -4,9 +4,11 @@
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
 import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.MultiBlockCipher;
 import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.modes.gcm.BasicGCMExponentiator;
 import org.bouncycastle.crypto.modes.gcm.GCMExponentiator;
+import org.bouncycastle.crypto.modes.gcm.GCMMultiBlockMultiplier;
 import org.bouncycastle.crypto.modes.gcm.GCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.GCMUtil;
 import org.bouncycastle.crypto.modes.gcm.Tables4kGCMMultiplier;
@@ -24,11 +26,15 @@
     implements GCMModeCipher
 {
     private static final int BLOCK_SIZE = 16;
+    // number of counter blocks handed to a MultiBlockCipher at once
+    private static final int MULTI_BLOCK_COUNT = 8;
 
     // not final due to a compiler bug
     private BlockCipher   cipher;
     private GCMMultiplier multiplier;
+    private GCMMultiBlockMultiplier multiMultiplier;
     private GCMExponentiator exp;
+    private MultiBlockCipher multiCipher;
 
     // These fields are set by init and not modified by processing
     private boolean             forEncryption;
@@ -45,6 +51,7 @@
     private byte[]      macBlock;
     private byte[]      S, S_at, S_atPre;
     private byte[]      counter;
+    private byte[]      ctrBlocks;
     private int         blocksRemaining;
     private int         bufOff;
     private long        totalLength;
@@ -107,6 +114,17 @@ public GCMBlockCipher(BlockCipher c, GCMMultiplier m)
 
         this.cipher = c;
         this.multiplier = m;
+
+        if (m instanceof GCMMultiBlockMultiplier)
+        {
+            this.multiMultiplier = (GCMMultiBlockMultiplier)m;
+        }
+
+        if (c instanceof MultiBlockCipher)
+        {
+            this.multiCipher = (MultiBlockCipher)c;
+            this.ctrBlocks = new byte[MULTI_BLOCK_COUNT * BLOCK_SIZE];
+        }
     }
 
     public BlockCipher getUnderlyingCipher()
@@ -318,6 +336,14 @@ public void processAADBytes(byte[] in, int inOff, int len)
 
         int inLimit = inOff + len - BLOCK_SIZE;
 
+        if (multiMultiplier != null && inOff <= inLimit)
+        {
+            int blockCount = (inLimit - inOff) / BLOCK_SIZE + 1;
+            multiMultiplier.multiplyBlocks(S_at, in, inOff, blockCount);
+            atLength += blockCount * BLOCK_SIZE;
+            inOff += blockCount * BLOCK_SIZE;
+        }
+
         while (inOff <= inLimit)
         {
             gHASHBlock(S_at, in, inOff);
@@ -410,9 +436,17 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
 
             while (inOff <= inLimit)
             {
-                encryptBlock(in, inOff, out, outOff + resultLen);
-                inOff += BLOCK_SIZE;
-                resultLen += BLOCK_SIZE;
+                int blockCount = getBulkBlockCount(inLimit - inOff);
+                if (blockCount > 1)
+                {
+                    encryptBlocks(in, inOff, blockCount, out, outOff + resultLen);
+                }
+                else
+                {
+                    encryptBlock(in, inOff, out, outOff + resultLen);
+                }
+                inOff += blockCount * BLOCK_SIZE;
+                resultLen += blockCount * BLOCK_SIZE;
             }
 
             bufOff = BLOCK_SIZE + inLimit - inOff;
@@ -454,9 +488,17 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
 
             while (inOff <= inLimit)
             {
-                decryptBlock(in, inOff, out, outOff + resultLen);
-                inOff += BLOCK_SIZE;
-                resultLen += BLOCK_SIZE;
+                int blockCount = getBulkBlockCount(inLimit - inOff);
+                if (blockCount > 1)
+                {
+                    decryptBlocks(in, inOff, blockCount, out, outOff + resultLen);
+                }
+                else
+                {
+                    decryptBlock(in, inOff, out, outOff + resultLen);
+                }
+                inOff += blockCount * BLOCK_SIZE;
+                resultLen += blockCount * BLOCK_SIZE;
             }
 
             bufOff = bufBlock.length + inLimit - inOff;
@@ -674,6 +716,76 @@ private void encryptBlock(byte[] buf, int bufOff, byte[] out, int outOff)
         totalLength += BLOCK_SIZE;
     }
 
+    private void decryptBlocks(byte[] buf, int bufOff, int blockCount, byte[] out, int outOff)
+    {
+        int len = blockCount * BLOCK_SIZE;
+        if ((out.length - outOff) < len)
+        {
+            throw new OutputLengthException("Output buffer too short");
+        }
+        if (totalLength == 0)
+        {
+            initCipher();
+        }
+
+        getNextCTRBlocks(blockCount);
+
+        if (multiMultiplier != null)
+        {
+            multiMultiplier.multiplyBlocks(S, buf, bufOff, blockCount);
+
+            for (int i = 0; i < len; i += BLOCK_SIZE)
+            {
+                GCMUtil.xor(ctrBlocks, i, buf, bufOff + i, out, outOff + i);
+            }
+        }
+        else
+        {
+            for (int i = 0; i < len; i += BLOCK_SIZE)
+            {
+                gHASHBlock(S, buf, bufOff + i);
+                GCMUtil.xor(ctrBlocks, i, buf, bufOff + i, out, outOff + i);
+            }
+        }
+
+        totalLength += len;
+    }
+
+    private void encryptBlocks(byte[] buf, int bufOff, int blockCount, byte[] out, int outOff)
+    {
+        int len = blockCount * BLOCK_SIZE;
+        if ((out.length - outOff) < len)
+        {
+            throw new OutputLengthException("Output buffer too short");
+        }
+        if (totalLength == 0)
+        {
+            initCipher();
+        }
+
+        getNextCTRBlocks(blockCount);
+
+        if (multiMultiplier != null)
+        {
+            for (int i = 0; i < len; i += BLOCK_SIZE)
+            {
+                GCMUtil.xor(ctrBlocks, i, buf, bufOff + i, out, outOff + i);
+            }
+
+            multiMultiplier.multiplyBlocks(S, out, outOff, blockCount);
+        }
+        else
+        {
+            for (int i = 0; i < len; i += BLOCK_SIZE)
+            {
+                GCMUtil.xor(ctrBlocks, i, buf, bufOff + i, out, outOff + i);
+                gHASHBlock(S, out, outOff + i);
+            }
+        }
+
+        totalLength += len;
+    }
+
     private void processPartial(byte[] buf, int off, int len, byte[] out, int outOff)
     {
         byte[] ctrBlock = new byte[BLOCK_SIZE];
@@ -722,6 +834,37 @@ private void gHASHPartial(byte[] Y, byte[] b, int off, int len)
     }
 
     private void getNextCTRBlock(byte[] block)
+    {
+        incrementCounter();
+
+        cipher.processBlock(counter, 0, block, 0);
+    }
+
+    /**
+     * Fill ctrBlocks with the key stream for the next blockCount counter values, generating
+     * them in a single call to the underlying multi-block cipher.
+     */
+    private void getNextCTRBlocks(int blockCount)
+    {
+        for (int i = 0; i < blockCount; ++i)
+        {
+            incrementCounter();
+            System.arraycopy(counter, 0, ctrBlocks, i * BLOCK_SIZE, BLOCK_SIZE);
+        }
+
+        multiCipher.processBlocks(ctrBlocks, 0, blockCount, ctrBlocks, 0);
+    }
+
+    private int getBulkBlockCount(int available)
+    {
+        if (multiCipher == null)
+        {
+            return 1;
+        }
+        return Math.min(MULTI_BLOCK_COUNT, available / BLOCK_SIZE + 1);
+    }
+
+    private void incrementCounter()
     {
         if (blocksRemaining == 0)
         {
@@ -734,8 +877,6 @@ private void getNextCTRBlock(byte[] block)
         c += counter[14] & 0xFF; counter[14] = (byte)c; c >>>= 8;
         c += counter[13] & 0xFF; counter[13] = (byte)c; c >>>= 8;
         c += counter[12] & 0xFF; counter[12] = (byte)c;
-
-        cipher.processBlock(counter, 0, block, 0);
     }
 
     private void checkStatus()
@@ -3,6 +3,7 @@
 import org.bouncycastle.crypto.BlockCipher;
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DataLengthException;
+import org.bouncycastle.crypto.MultiBlockCipher;
 import org.bouncycastle.crypto.OutputLengthException;
 import org.bouncycastle.crypto.StreamBlockCipher;
 import org.bouncycastle.crypto.params.ParametersWithIV;
@@ -17,13 +18,18 @@
     extends StreamBlockCipher
     implements CTRModeCipher
 {
+    // number of counter blocks handed to a MultiBlockCipher at once
+    private static final int MULTI_BLOCK_COUNT = 8;
+
     private final BlockCipher     cipher;
+    private final MultiBlockCipher multiCipher;
     private final int             blockSize;
 
     private byte[]          IV;
     private byte[]          counter;
     private byte[]          counterOut;
     private int             byteCount;
+    private byte[]          counterBlocks;
 
     /**
      * Return a new SIC/CTR mode cipher based on the passed in base cipher
@@ -51,6 +57,16 @@ public SICBlockCipher(BlockCipher c)
         this.counter = new byte[blockSize];
         this.counterOut = new byte[blockSize];
         this.byteCount = 0;
+
+        if (c instanceof MultiBlockCipher)
+        {
+            this.multiCipher = (MultiBlockCipher)c;
+            this.counterBlocks = new byte[MULTI_BLOCK_COUNT * blockSize];
+        }
+        else
+        {
+            this.multiCipher = null;
+        }
     }
 
     public void init(
@@ -138,7 +154,19 @@ public int processBytes(byte[] in, int inOff, int len, byte[] out, int outOff)
             throw new OutputLengthException("output buffer too short");
         }
 
-        for (int i = 0; i < len; ++i)
+        int i = 0;
+
+        // whole blocks on a block boundary can have their key stream generated in bulk
+        if (multiCipher != null && byteCount == 0)
+        {
+            int blockCount = len / blockSize;
+            if (blockCount > 1)
+            {
+                i = processBlocks(in, inOff, blockCount, out, outOff);
+            }
+        }
+
+        for (; i < len; ++i)
         {
             byte next;
 
@@ -187,6 +215,54 @@ protected byte calculateByte(byte in)
         return rv;
     }
 
+    public int processBlocks(byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+        throws DataLengthException, IllegalStateException
+    {
+        if (multiCipher == null || byteCount != 0)
+        {
+            return super.processBlocks(in, inOff, blockCount, out, outOff);
+        }
+
+        int len = blockCount * blockSize;
+        if (inOff + len > in.length)
+        {
+            throw new DataLengthException("input buffer too small");
+        }
+        if (outOff + len > out.length)
+        {
+            throw new OutputLengthException("output buffer too short");
+        }
+
+        int pos = 0;
+        while (blockCount > 0)
+        {
+            int count = Math.min(blockCount, MULTI_BLOCK_COUNT);
+            processCounterBlocks(in, inOff + pos, count, out, outOff + pos);
+            pos += count * blockSize;
+            blockCount -= count;
+        }
+
+        return len;
+    }
+
+    private void processCounterBlocks(byte[] in, int inOff, int blockCount, byte[] out, int outOff)
+    {
+        for (int b = 0; b < blockCount; ++b)
+        {
+            checkLastIncrement();
+            System.arraycopy(counter, 0, counterBlocks, b * blockSize, blockSize);
+            incrementCounter();
+        }
+
+        multiCipher.processBlocks(counterBlocks, 0, blockCount, counterBlocks, 0);
+
+        int len = blockCount * blockSize;
+        for (int i = 0; i < len; ++i)
+        {
+            out[outOff + i] = (byte)(in[inOff + i] ^ counterBlocks[i]);
+        }
+    }
+
     private void checkCounter()
     {
         // if the IV is the same as the blocksize we assume the user knows what they are doing
@@ -0,0 +1,139 @@
+package org.bouncycastle.crypto.modes.gcm;
+
+import org.bouncycastle.util.Pack;
+
+/**
+ * A table based GCM multiplier using aggregated reduction. Tables are kept for H, H^2, H^3 and H^4
+ * (16k in total), so that four consecutive blocks can be folded into the GHASH state as
+ * (x ^ b0).H^4 ^ b1.H^3 ^ b2.H^2 ^ b3.H, with the four table lookups for each byte position
+ * sharing a single shift and reduction step.
+ */
+public class AggregatedGCMMultiplier
+    implements GCMMultiBlockMultiplier
+{
+    private static final int AGGREGATE = 4;
+
+    private byte[] H;
+    private long[] T1, T2, T3, T4;
+
+    public void init(byte[] H)
+    {
+        if (T1 != null && 0 != GCMUtil.areEqual(this.H, H))
+        {
+            return;
+        }
+
+        this.H = new byte[GCMUtil.SIZE_BYTES];
+        GCMUtil.copy(H, this.H);
+
+        long[] h1 = GCMUtil.asLongs(this.H);
+        long[] h2 = new long[GCMUtil.SIZE_LONGS];
+        long[] h3 = new long[GCMUtil.SIZE_LONGS];
+        long[] h4 = new long[GCMUtil.SIZE_LONGS];
+
+        GCMUtil.copy(h1, h2);
+        GCMUtil.multiply(h2, h1);
+        GCMUtil.copy(h2, h3);
+        GCMUtil.multiply(h3, h1);
+        GCMUtil.copy(h3, h4);
+        GCMUtil.multiply(h4, h1);
+
+        T1 = createTable(h1);
+        T2 = createTable(h2);
+        T3 = createTable(h3);
+        T4 = createTable(h4);
+    }
+
+    public void multiplyH(byte[] x)
+    {
+        long[] T = T1;
+
+        int t = (x[15] & 0xFF) << 1;
+        long z0 = T[t], z1 = T[t + 1];
+
+        for (int i = 14; i >= 0; --i)
+        {
+            t = (x[i] & 0xFF) << 1;
+
+            long c = z1 << 56;
+            z1 = T[t + 1] ^ ((z1 >>> 8) | (z0 << 56));
+            z0 = T[t] ^ (z0 >>> 8) ^ c ^ (c >>> 1) ^ (c >>> 2) ^ (c >>> 7);
+        }
+
+        Pack.longToBigEndian(z0, x, 0);
+        Pack.longToBigEndian(z1, x, 8);
+    }
+
+    public void multiplyBlocks(byte[] x, byte[] buf, int off, int blockCount)
+    {
+        long[] T1 = this.T1, T2 = this.T2, T3 = this.T3, T4 = this.T4;
+
+        while (blockCount >= AGGREGATE)
+        {
+            int o1 = off + 16, o2 = off + 32, o3 = off + 48;
+
+            int t4 = ((x[15] ^ buf[off + 15]) & 0xFF) << 1;
+            int t3 = (buf[o1 + 15] & 0xFF) << 1;
+            int t2 = (buf[o2 + 15] & 0xFF) << 1;
+            int t1 = (buf[o3 + 15] & 0xFF) << 1;
+
+            long z0 = T4[t4] ^ T3[t3] ^ T2[t2] ^ T1[t1];
+            long z1 = T4[t4 + 1] ^ T3[t3 + 1] ^ T2[t2 + 1] ^ T1[t1 + 1];
+
+            for (int i = 14; i >= 0; --i)
+            {
+                t4 = ((x[i] ^ buf[off + i]) & 0xFF) << 1;
+                t3 = (buf[o1 + i] & 0xFF) << 1;
+                t2 = (buf[o2 + i] & 0xFF) << 1;
+                t1 = (buf[o3 + i] & 0xFF) << 1;
+
+                long c = z1 << 56;
+                z1 = T4[t4 + 1] ^ T3[t3 + 1] ^ T2[t2 + 1] ^ T1[t1 + 1] ^ ((z1 >>> 8) | (z0 << 56));
+                z0 = T4[t4] ^ T3[t3] ^ T2[t2] ^ T1[t1] ^ (z0 >>> 8) ^ c ^ (c >>> 1) ^ (c >>> 2) ^ (c >>> 7);
+            }
+
+            Pack.longToBigEndian(z0, x, 0);
+            Pack.longToBigEndian(z1, x, 8);
+
+            off += AGGREGATE * GCMUtil.SIZE_BYTES;
+            blockCount -= AGGREGATE;
+        }
+
+        while (blockCount > 0)
+        {
+            GCMUtil.xor(x, buf, off);
+            multiplyH(x);
+
+            off += GCMUtil.SIZE_BYTES;
+            --blockCount;
+        }
+    }
+
+    private static long[] createTable(long[] h)
+    {
+        long[][] T = new long[256][2];
+
+        // T[0] = 0
+
+        // T[1] = h.p^7
+        GCMUtil.multiplyP7(h, T[1]);
+
+        for (int n = 2; n < 256; n += 2)
+        {
+            // T[2.n] = T[n].p^-1
+            GCMUtil.divideP(T[n >> 1], T[n]);
+
+            // T[2.n + 1] = T[2.n] + T[1]
+            GCMUtil.xor(T[n], T[1], T[n + 1]);
+        }
+
+        // flatten so each lookup is a single array access
+        long[] t = new long[512];
+        for (int n = 0; n < 256; ++n)
+        {
+            t[n << 1] = T[n][0];
+            t[(n << 1) + 1] = T[n][1];
+        }
+        return t;
+    }
+}
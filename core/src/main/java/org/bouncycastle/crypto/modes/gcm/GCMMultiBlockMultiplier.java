@@ -0,0 +1,19 @@
+package org.bouncycastle.crypto.modes.gcm;
+
+/**
+ * A GCM multiplier that can fold several consecutive blocks into the GHASH state in one call.
+ */
+public interface GCMMultiBlockMultiplier
+    extends GCMMultiplier
+{
+    /**
+     * Fold blockCount consecutive blocks from buf into x, leaving the same result as
+     * applying x = (x ^ block) * H for each block in turn.
+     *
+     * @param x the GHASH state, updated in place.
+     * @param buf the buffer containing the blocks.
+     * @param off offset into buf of the first block.
+     * @param blockCount the number of 16 byte blocks to process.
+     */
+    void multiplyBlocks(byte[] x, byte[] buf, int off, int blockCount);
+}
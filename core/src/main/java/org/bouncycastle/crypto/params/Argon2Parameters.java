@@ -1,5 +1,7 @@
 package org.bouncycastle.crypto.params;
 
+import java.util.concurrent.Executor;
+
 import org.bouncycastle.crypto.CharToByteConverter;
 import org.bouncycastle.crypto.PasswordConverter;
 import org.bouncycastle.util.Arrays;
@@ -33,6 +35,7 @@
         private final int type;
         
         private CharToByteConverter converter = PasswordConverter.UTF8;
+        private Executor executor = null;
 
         public Builder()
         {
@@ -104,9 +107,22 @@ public Builder withCharToByteConverter(CharToByteConverter converter)
             return this;
         }
 
+        /**
+         * Fill the lanes of each slice concurrently using the passed in executor. The output is the same
+         * as for the sequential calculation, which is used if the executor is null (the default).
+         *
+         * @param executor the executor to run the lanes with.
+         * @return the current builder.
+         */
+        public Builder withExecutor(Executor executor)
+        {
+            this.executor = executor;
+            return this;
+        }
+
         public Argon2Parameters build()
         {
-            return new Argon2Parameters(type, salt, secret, additional, iterations, memory, lanes, version, converter);
+            return new Argon2Parameters(type, salt, secret, additional, iterations, memory, lanes, version, converter, executor);
         }
 
         public void clear()
@@ -128,6 +144,7 @@ public void clear()
     private final int version;
     private final int type;
     private final CharToByteConverter converter;
+    private final Executor executor;
 
     private Argon2Parameters(
         int type,
@@ -138,7 +155,8 @@ private Argon2Parameters(
         int memory,
         int lanes,
         int version,
-        CharToByteConverter converter)
+        CharToByteConverter converter,
+        Executor executor)
     {
 
         this.salt = Arrays.clone(salt);
@@ -150,6 +168,7 @@ private Argon2Parameters(
         this.version = version;
         this.type = type;
         this.converter = converter;
+        this.executor = executor;
     }
 
     public byte[] getSalt()
@@ -197,6 +216,11 @@ public CharToByteConverter getCharToByteConverter()
         return converter;
     }
 
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+
     public void clear()
     {
         Arrays.clear(salt);
@@ -3,6 +3,7 @@
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.SecureRandom;
 
 import org.bouncycastle.math.ec.rfc8032.Ed25519;
 import org.bouncycastle.util.io.Streams;
@@ -114,6 +115,28 @@ public boolean verify(int algorithm, byte[] ctx, byte[] msg, int msgOff, int msg
         }
     }
 
+    /**
+     * Verify a batch of pure Ed25519 signatures together. See {@link Ed25519#verifyBatch} for details.
+     *
+     * @param publicKeys the public keys, in the same order as the signatures.
+     * @param msgs the signed messages, in the same order as the signatures.
+     * @param sigs the signatures.
+     * @param count the number of signatures in the batch.
+     * @param random a source of randomness for the batch check.
+     * @return true if all the signatures are valid, false otherwise.
+     */
+    public static boolean verifyBatch(Ed25519PublicKeyParameters[] publicKeys, byte[][] msgs, byte[][] sigs,
+        int count, SecureRandom random)
+    {
+        Ed25519.PublicPoint[] publicPoints = new Ed25519.PublicPoint[count];
+        for (int i = 0; i < count; ++i)
+        {
+            publicPoints[i] = publicKeys[i].publicPoint;
+        }
+
+        return Ed25519.verifyBatch(sigs, publicPoints, msgs, count, random);
+    }
+
     private static Ed25519.PublicPoint parse(byte[] buf, int off)
     {
         Ed25519.PublicPoint publicPoint = Ed25519.validatePublicKeyPartialExport(buf, off);
@@ -3,6 +3,7 @@
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.SecureRandom;
 
 import org.bouncycastle.math.ec.rfc8032.Ed448;
 import org.bouncycastle.util.io.Streams;
@@ -105,6 +106,38 @@ public boolean verify(int algorithm, byte[] ctx, byte[] msg, int msgOff, int msg
         }
     }
 
+    /**
+     * Verify a batch of Ed448 signatures together. See {@link Ed448#verifyBatch} for details.
+     *
+     * @param publicKeys the public keys, in the same order as the signatures.
+     * @param ctx the context shared by all the signatures.
+     * @param msgs the signed messages, in the same order as the signatures.
+     * @param sigs the signatures.
+     * @param count the number of signatures in the batch.
+     * @param random a source of randomness for the batch check.
+     * @return true if all the signatures are valid, false otherwise.
+     */
+    public static boolean verifyBatch(Ed448PublicKeyParameters[] publicKeys, byte[] ctx, byte[][] msgs,
+        byte[][] sigs, int count, SecureRandom random)
+    {
+        if (null == ctx)
+        {
+            throw new NullPointerException("'ctx' cannot be null");
+        }
+        if (ctx.length > 255)
+        {
+            throw new IllegalArgumentException("ctx");
+        }
+
+        Ed448.PublicPoint[] publicPoints = new Ed448.PublicPoint[count];
+        for (int i = 0; i < count; ++i)
+        {
+            publicPoints[i] = publicKeys[i].publicPoint;
+        }
+
+        return Ed448.verifyBatch(sigs, publicPoints, ctx, msgs, count, random);
+    }
+
     private static Ed448.PublicPoint parse(byte[] buf, int off)
     {
         Ed448.PublicPoint publicPoint = Ed448.validatePublicKeyPartialExport(buf, off);
@@ -1,6 +1,7 @@
 package org.bouncycastle.crypto.prng.drbg;
 
 import org.bouncycastle.crypto.BlockCipher;
+import org.bouncycastle.crypto.MultiBlockCipher;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.crypto.prng.EntropySource;
 import org.bouncycastle.util.Arrays;
@@ -17,6 +18,7 @@
     private static final long       AES_RESEED_MAX = 1L << (48 - 1);
     private static final int        TDEA_MAX_BITS_REQUEST = 1 << (13 - 1);
     private static final int        AES_MAX_BITS_REQUEST = 1 << (19 - 1);
+    private static final int        MIN_BATCH_BLOCKS = 16;
 
     private EntropySource          _entropySource;
     private BlockCipher           _engine;
@@ -376,23 +378,30 @@ public int generate(byte[] output, byte[] additionalInput, boolean predictionRes
             additionalInput = new byte[_seedLength / 8];
         }
 
-        byte[] out = new byte[_V.length];
-
         _engine.init(true, new KeyParameter(expandKey(_Key)));
 
-        for (int i = 0; i <= output.length / out.length; i++)
+        if (_engine instanceof MultiBlockCipher)
+        {
+            generateBlocks((MultiBlockCipher)_engine, output);
+        }
+        else
         {
-            int bytesToCopy = ((output.length - i * out.length) > out.length)
-                    ? out.length
-                    : (output.length - i * _V.length);
+            byte[] out = new byte[_V.length];
 
-            if (bytesToCopy != 0)
+            for (int i = 0; i <= output.length / out.length; i++)
             {
-                addOneTo(_V);
+                int bytesToCopy = ((output.length - i * out.length) > out.length)
+                        ? out.length
+                        : (output.length - i * _V.length);
+
+                if (bytesToCopy != 0)
+                {
+                    addOneTo(_V);
 
-                _engine.processBlock(_V, 0, out, 0);
+                    _engine.processBlock(_V, 0, out, 0);
 
-                System.arraycopy(out, 0, output, i * out.length, bytesToCopy);
+                    System.arraycopy(out, 0, output, i * out.length, bytesToCopy);
+                }
             }
         }
 
@@ -403,6 +412,53 @@ public int generate(byte[] output, byte[] additionalInput, boolean predictionRes
         return output.length * 8;
     }
 
+    /*
+     * Same output as the block at a time loop, but the successive values of V are laid out in a buffer
+     * so the engine can encrypt a batch of counter blocks per call, straight into output where whole
+     * blocks are wanted.
+     */
+    private void generateBlocks(MultiBlockCipher engine, byte[] output)
+    {
+        int blockSize = _V.length;
+        int blocksRequired = (output.length + blockSize - 1) / blockSize;
+        int batchBlocks = Math.min(blocksRequired, Math.max(MIN_BATCH_BLOCKS, engine.getMultiBlockSize() / blockSize));
+
+        byte[] counters = new byte[batchBlocks * blockSize];
+        byte[] out = null;
+
+        int outOff = 0;
+        while (blocksRequired > 0)
+        {
+            int blocks = Math.min(batchBlocks, blocksRequired);
+            for (int i = 0; i < blocks; i++)
+            {
+                addOneTo(_V);
+                System.arraycopy(_V, 0, counters, i * blockSize, blockSize);
+            }
+
+            int len = Math.min(blocks * blockSize, output.length - outOff);
+            if (len == blocks * blockSize)
+            {
+                engine.processBlocks(counters, 0, blocks, output, outOff);
+            }
+            else
+            {
+                out = new byte[blocks * blockSize];
+                engine.processBlocks(counters, 0, blocks, out, 0);
+                System.arraycopy(out, 0, output, outOff, len);
+            }
+
+            outOff += len;
+            blocksRequired -= blocks;
+        }
+
+        Arrays.fill(counters, (byte)0);
+        if (out != null)
+        {
+            Arrays.fill(out, (byte)0);
+        }
+    }
+
     /**
       * Reseed the DRBG.
       *
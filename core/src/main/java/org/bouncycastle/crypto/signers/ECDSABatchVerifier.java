@@ -0,0 +1,305 @@
+package org.bouncycastle.crypto.signers;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECConstants;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECFieldElement;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.BigIntegers;
+import org.bouncycastle.util.Integers;
+
+/**
+ * Verifies a batch of ECDSA signatures, possibly under many different keys, sharing the work that
+ * {@link ECDSASigner#verifySignature(byte[], BigInteger, BigInteger)} would otherwise repeat for each one:
+ * the inverses of the s values are calculated together with a single modular inversion per group order,
+ * and result points that need to be normalized are normalized together with a single field inversion per
+ * curve.
+ * <p>
+ * Each signature is still checked individually, so the result for every signature is the same as
+ * ECDSASigner would give.
+ * </p>
+ */
+public class ECDSABatchVerifier
+    implements ECConstants
+{
+    private final ECDSASigner signer = new ECDSASigner();
+
+    private ECPublicKeyParameters[] publicKeys = new ECPublicKeyParameters[16];
+    private byte[][] messages = new byte[16][];
+    private BigInteger[] rs = new BigInteger[16];
+    private BigInteger[] ss = new BigInteger[16];
+    private int count = 0;
+
+    /**
+     * Add a signature to the batch.
+     *
+     * @param publicKey the public key to verify the signature against.
+     * @param message the message (usually a digest) that was signed.
+     * @param r the r value of the signature.
+     * @param s the s value of the signature.
+     */
+    public void add(ECPublicKeyParameters publicKey, byte[] message, BigInteger r, BigInteger s)
+    {
+        if (null == publicKey)
+        {
+            throw new NullPointerException("'publicKey' cannot be null");
+        }
+
+        if (count == publicKeys.length)
+        {
+            int newLength = count * 2;
+
+            ECPublicKeyParameters[] tmpKeys = new ECPublicKeyParameters[newLength];
+            System.arraycopy(publicKeys, 0, tmpKeys, 0, count);
+            publicKeys = tmpKeys;
+
+            byte[][] tmpMessages = new byte[newLength][];
+            System.arraycopy(messages, 0, tmpMessages, 0, count);
+            messages = tmpMessages;
+
+            rs = copyOf(rs, newLength);
+            ss = copyOf(ss, newLength);
+        }
+
+        publicKeys[count] = publicKey;
+        messages[count] = Arrays.clone(message);
+        rs[count] = r;
+        ss[count] = s;
+        ++count;
+    }
+
+    /**
+     * Return the number of signatures in the batch.
+     *
+     * @return the batch size.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Verify all the signatures in the batch, and clear it.
+     *
+     * @return true if every signature in the batch is valid, false otherwise.
+     */
+    public boolean verify()
+    {
+        boolean[] results = verifyEach();
+        for (int i = 0; i < results.length; ++i)
+        {
+            if (!results[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Verify each of the signatures in the batch, and clear it.
+     *
+     * @return the verification result for each signature, in the order they were added.
+     */
+    public boolean[] verifyEach()
+    {
+        try
+        {
+            return implVerifyEach();
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Clear the batch.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < count; ++i)
+        {
+            publicKeys[i] = null;
+            messages[i] = null;
+            rs[i] = null;
+            ss[i] = null;
+        }
+        count = 0;
+    }
+
+    private boolean[] implVerifyEach()
+    {
+        boolean[] results = new boolean[count];
+
+        /*
+         * Group the signatures with r and s in the range [1,n-1] by group order, so the inverses of
+         * the s values can be calculated together.
+         */
+        Map orderGroups = new HashMap();
+        for (int i = 0; i < count; ++i)
+        {
+            BigInteger n = publicKeys[i].getParameters().getN();
+            BigInteger r = rs[i], s = ss[i];
+
+            if (r.compareTo(ONE) < 0 || r.compareTo(n) >= 0 || s.compareTo(ONE) < 0 || s.compareTo(n) >= 0)
+            {
+                continue;
+            }
+
+            List group = (List)orderGroups.get(n);
+            if (group == null)
+            {
+                group = new ArrayList();
+                orderGroups.put(n, group);
+            }
+            group.add(Integers.valueOf(i));
+        }
+
+        BigInteger[] cs = new BigInteger[count];
+        for (Iterator it = orderGroups.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry entry = (Map.Entry)it.next();
+            invertAll((BigInteger)entry.getKey(), (List)entry.getValue(), cs);
+        }
+
+        ECPoint[] points = new ECPoint[count];
+        Map curveGroups = new HashMap();
+
+        for (int i = 0; i < count; ++i)
+        {
+            BigInteger c = cs[i];
+            if (c == null)
+            {
+                continue;
+            }
+
+            ECDomainParameters ec = publicKeys[i].getParameters();
+            BigInteger n = ec.getN();
+            BigInteger e = signer.calculateE(n, messages[i]);
+
+            BigInteger u1 = e.multiply(c).mod(n);
+            BigInteger u2 = rs[i].multiply(c).mod(n);
+
+            ECPoint point = ECAlgorithms.sumOfTwoMultiplies(ec.getG(), u1, publicKeys[i].getQ(), u2);
+
+            // components must be bogus.
+            if (point.isInfinity())
+            {
+                continue;
+            }
+
+            /*
+             * As in ECDSASigner, avoid normalizing the point if possible, by comparing against the
+             * projected candidate values for r.
+             */
+            ECCurve curve = point.getCurve();
+            BigInteger cofactor = curve.getCofactor();
+            if (cofactor != null && cofactor.compareTo(EIGHT) <= 0)
+            {
+                ECFieldElement D = signer.getDenominator(curve.getCoordinateSystem(), point);
+                if (D != null && !D.isZero())
+                {
+                    results[i] = checkProjective(curve, point.getXCoord(), D, rs[i], n);
+                    continue;
+                }
+            }
+
+            points[i] = point;
+
+            List group = (List)curveGroups.get(curve);
+            if (group == null)
+            {
+                group = new ArrayList();
+                curveGroups.put(curve, group);
+            }
+            group.add(Integers.valueOf(i));
+        }
+
+        // normalize the remaining points together, one curve at a time
+        for (Iterator it = curveGroups.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry entry = (Map.Entry)it.next();
+            ECCurve curve = (ECCurve)entry.getKey();
+            List group = (List)entry.getValue();
+
+            ECPoint[] groupPoints = new ECPoint[group.size()];
+            for (int j = 0; j < groupPoints.length; ++j)
+            {
+                groupPoints[j] = ECAlgorithms.importPoint(curve, points[((Integer)group.get(j)).intValue()]);
+            }
+
+            curve.normalizeAll(groupPoints);
+
+            for (int j = 0; j < groupPoints.length; ++j)
+            {
+                int i = ((Integer)group.get(j)).intValue();
+                BigInteger n = publicKeys[i].getParameters().getN();
+
+                BigInteger v = groupPoints[j].getAffineXCoord().toBigInteger().mod(n);
+                results[i] = v.equals(rs[i]);
+            }
+        }
+
+        return results;
+    }
+
+    private static boolean checkProjective(ECCurve curve, ECFieldElement X, ECFieldElement D, BigInteger r,
+        BigInteger n)
+    {
+        while (curve.isValidFieldElement(r))
+        {
+            ECFieldElement R = curve.fromBigInteger(r).multiply(D);
+            if (R.equals(X))
+            {
+                return true;
+            }
+            r = r.add(n);
+        }
+        return false;
+    }
+
+    /*
+     * Montgomery's trick: invert all the s values for the listed signatures modulo n using a single
+     * modular inversion.
+     */
+    private void invertAll(BigInteger n, List indices, BigInteger[] cs)
+    {
+        int len = indices.size();
+        BigInteger[] c = new BigInteger[len];
+
+        c[0] = ss[((Integer)indices.get(0)).intValue()];
+        for (int j = 1; j < len; ++j)
+        {
+            c[j] = c[j - 1].multiply(ss[((Integer)indices.get(j)).intValue()]).mod(n);
+        }
+
+        BigInteger u = BigIntegers.modOddInverseVar(n, c[len - 1]);
+
+        for (int j = len - 1; j > 0; --j)
+        {
+            int i = ((Integer)indices.get(j)).intValue();
+            cs[i] = c[j - 1].multiply(u).mod(n);
+            u = u.multiply(ss[i]).mod(n);
+        }
+
+        cs[((Integer)indices.get(0)).intValue()] = u;
+    }
+
+    private static BigInteger[] copyOf(BigInteger[] data, int newLength)
+    {
+        BigInteger[] tmp = new BigInteger[newLength];
+        System.arraycopy(data, 0, tmp, 0, Math.min(data.length, newLength));
+        return tmp;
+    }
+}
@@ -0,0 +1,189 @@
+package org.bouncycastle.crypto.signers;
+
+import java.security.SecureRandom;
+
+import org.bouncycastle.crypto.CryptoServicesRegistrar;
+import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.math.ec.rfc8032.Ed25519;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Verifies a batch of Ed25519 signatures together, which is significantly faster than using an
+ * {@link Ed25519Signer} for each one, particularly when many of the signatures are under the same key.
+ * <p>
+ * Signatures are added with {@link #add}, then checked with {@link #verify()}, which reports whether all of
+ * them are valid, or {@link #verifyEach()}, which falls back to checking signatures individually if the batch
+ * check fails. Either call clears the batch.
+ * </p>
+ */
+public class Ed25519BatchVerifier
+{
+    private static final int MAX_BATCH_SIZE = 512;
+
+    private final SecureRandom random;
+
+    private Ed25519PublicKeyParameters[] publicKeys = new Ed25519PublicKeyParameters[16];
+    private byte[][] msgs = new byte[16][];
+    private byte[][] sigs = new byte[16][];
+    private int count = 0;
+
+    public Ed25519BatchVerifier()
+    {
+        this(null);
+    }
+
+    /**
+     * Base constructor.
+     *
+     * @param random source of randomness for the batch check, may be null for the default.
+     */
+    public Ed25519BatchVerifier(SecureRandom random)
+    {
+        this.random = CryptoServicesRegistrar.getSecureRandom(random);
+    }
+
+    /**
+     * Add a signature to the batch.
+     *
+     * @param publicKey the public key to verify the signature against.
+     * @param msg buffer holding the signed message.
+     * @param msgOff offset of the message in msg.
+     * @param msgLen length of the message.
+     * @param signature the signature.
+     */
+    public void add(Ed25519PublicKeyParameters publicKey, byte[] msg, int msgOff, int msgLen, byte[] signature)
+    {
+        if (null == publicKey)
+        {
+            throw new NullPointerException("'publicKey' cannot be null");
+        }
+
+        if (count == sigs.length)
+        {
+            int newLength = count * 2;
+            Ed25519PublicKeyParameters[] tmp = new Ed25519PublicKeyParameters[newLength];
+            System.arraycopy(publicKeys, 0, tmp, 0, count);
+            publicKeys = tmp;
+            msgs = copyOf(msgs, newLength);
+            sigs = copyOf(sigs, newLength);
+        }
+
+        publicKeys[count] = publicKey;
+        msgs[count] = Arrays.copyOfRange(msg, msgOff, msgOff + msgLen);
+        sigs[count] = Arrays.clone(signature);
+        ++count;
+    }
+
+    /**
+     * Return the number of signatures in the batch.
+     *
+     * @return the batch size.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Verify all the signatures in the batch, and clear it.
+     *
+     * @return true if every signature in the batch is valid, false otherwise.
+     */
+    public boolean verify()
+    {
+        try
+        {
+            for (int off = 0; off < count; off += MAX_BATCH_SIZE)
+            {
+                if (!verifyBatch(off, Math.min(MAX_BATCH_SIZE, count - off)))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Verify the signatures in the batch, and clear it. If the batch check fails, each signature is
+     * verified individually to find the invalid ones.
+     *
+     * @return the verification result for each signature, in the order they were added.
+     */
+    public boolean[] verifyEach()
+    {
+        try
+        {
+            boolean[] results = new boolean[count];
+
+            for (int off = 0; off < count; off += MAX_BATCH_SIZE)
+            {
+                int len = Math.min(MAX_BATCH_SIZE, count - off);
+                if (verifyBatch(off, len))
+                {
+                    Arrays.fill(results, off, off + len, true);
+                }
+                else
+                {
+                    for (int i = off; i < off + len; ++i)
+                    {
+                        results[i] = Ed25519.SIGNATURE_SIZE == sigs[i].length && publicKeys[i].verify(
+                            Ed25519.Algorithm.Ed25519, null, msgs[i], 0, msgs[i].length, sigs[i], 0);
+                    }
+                }
+            }
+
+            return results;
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Clear the batch.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < count; ++i)
+        {
+            publicKeys[i] = null;
+            msgs[i] = null;
+            sigs[i] = null;
+        }
+        count = 0;
+    }
+
+    private boolean verifyBatch(int off, int len)
+    {
+        if (off == 0 && len == count)
+        {
+            return Ed25519PublicKeyParameters.verifyBatch(publicKeys, msgs, sigs, len, random);
+        }
+
+        Ed25519PublicKeyParameters[] batchKeys = new Ed25519PublicKeyParameters[len];
+        System.arraycopy(publicKeys, off, batchKeys, 0, len);
+
+        return Ed25519PublicKeyParameters.verifyBatch(batchKeys, copyOfRange(msgs, off, len),
+            copyOfRange(sigs, off, len), len, random);
+    }
+
+    static byte[][] copyOf(byte[][] data, int newLength)
+    {
+        byte[][] tmp = new byte[newLength][];
+        System.arraycopy(data, 0, tmp, 0, Math.min(data.length, newLength));
+        return tmp;
+    }
+
+    static byte[][] copyOfRange(byte[][] data, int off, int len)
+    {
+        byte[][] tmp = new byte[len][];
+        System.arraycopy(data, off, tmp, 0, len);
+        return tmp;
+    }
+}
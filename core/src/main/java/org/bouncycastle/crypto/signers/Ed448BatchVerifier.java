@@ -0,0 +1,184 @@
+package org.bouncycastle.crypto.signers;
+
+import java.security.SecureRandom;
+
+import org.bouncycastle.crypto.CryptoServicesRegistrar;
+import org.bouncycastle.crypto.params.Ed448PublicKeyParameters;
+import org.bouncycastle.math.ec.rfc8032.Ed448;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Verifies a batch of Ed448 signatures together, which is significantly faster than using an
+ * {@link Ed448Signer} for each one, particularly when many of the signatures are under the same key.
+ * <p>
+ * Signatures are added with {@link #add}, then checked with {@link #verify()}, which reports whether all of
+ * them are valid, or {@link #verifyEach()}, which falls back to checking signatures individually if the batch
+ * check fails. Either call clears the batch.
+ * </p>
+ */
+public class Ed448BatchVerifier
+{
+    private static final int MAX_BATCH_SIZE = 512;
+
+    private final byte[] context;
+    private final SecureRandom random;
+
+    private Ed448PublicKeyParameters[] publicKeys = new Ed448PublicKeyParameters[16];
+    private byte[][] msgs = new byte[16][];
+    private byte[][] sigs = new byte[16][];
+    private int count = 0;
+
+    public Ed448BatchVerifier(byte[] context)
+    {
+        this(context, null);
+    }
+
+    /**
+     * Base constructor.
+     *
+     * @param context the context all the signatures in the batch were made with.
+     * @param random source of randomness for the batch check, may be null for the default.
+     */
+    public Ed448BatchVerifier(byte[] context, SecureRandom random)
+    {
+        if (null == context)
+        {
+            throw new NullPointerException("'context' cannot be null");
+        }
+
+        this.context = Arrays.clone(context);
+        this.random = CryptoServicesRegistrar.getSecureRandom(random);
+    }
+
+    /**
+     * Add a signature to the batch.
+     *
+     * @param publicKey the public key to verify the signature against.
+     * @param msg buffer holding the signed message.
+     * @param msgOff offset of the message in msg.
+     * @param msgLen length of the message.
+     * @param signature the signature.
+     */
+    public void add(Ed448PublicKeyParameters publicKey, byte[] msg, int msgOff, int msgLen, byte[] signature)
+    {
+        if (null == publicKey)
+        {
+            throw new NullPointerException("'publicKey' cannot be null");
+        }
+
+        if (count == sigs.length)
+        {
+            int newLength = count * 2;
+            Ed448PublicKeyParameters[] tmp = new Ed448PublicKeyParameters[newLength];
+            System.arraycopy(publicKeys, 0, tmp, 0, count);
+            publicKeys = tmp;
+            msgs = Ed25519BatchVerifier.copyOf(msgs, newLength);
+            sigs = Ed25519BatchVerifier.copyOf(sigs, newLength);
+        }
+
+        publicKeys[count] = publicKey;
+        msgs[count] = Arrays.copyOfRange(msg, msgOff, msgOff + msgLen);
+        sigs[count] = Arrays.clone(signature);
+        ++count;
+    }
+
+    /**
+     * Return the number of signatures in the batch.
+     *
+     * @return the batch size.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Verify all the signatures in the batch, and clear it.
+     *
+     * @return true if every signature in the batch is valid, false otherwise.
+     */
+    public boolean verify()
+    {
+        try
+        {
+            for (int off = 0; off < count; off += MAX_BATCH_SIZE)
+            {
+                if (!verifyBatch(off, Math.min(MAX_BATCH_SIZE, count - off)))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Verify the signatures in the batch, and clear it. If the batch check fails, each signature is
+     * verified individually to find the invalid ones.
+     *
+     * @return the verification result for each signature, in the order they were added.
+     */
+    public boolean[] verifyEach()
+    {
+        try
+        {
+            boolean[] results = new boolean[count];
+
+            for (int off = 0; off < count; off += MAX_BATCH_SIZE)
+            {
+                int len = Math.min(MAX_BATCH_SIZE, count - off);
+                if (verifyBatch(off, len))
+                {
+                    Arrays.fill(results, off, off + len, true);
+                }
+                else
+                {
+                    for (int i = off; i < off + len; ++i)
+                    {
+                        results[i] = Ed448.SIGNATURE_SIZE == sigs[i].length && publicKeys[i].verify(
+                            Ed448.Algorithm.Ed448, context, msgs[i], 0, msgs[i].length, sigs[i], 0);
+                    }
+                }
+            }
+
+            return results;
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Clear the batch.
+     */
+    public void reset()
+    {
+        for (int i = 0; i < count; ++i)
+        {
+            publicKeys[i] = null;
+            msgs[i] = null;
+            sigs[i] = null;
+        }
+        count = 0;
+    }
+
+    private boolean verifyBatch(int off, int len)
+    {
+        if (off == 0 && len == count)
+        {
+            return Ed448PublicKeyParameters.verifyBatch(publicKeys, context, msgs, sigs, len, random);
+        }
+
+        Ed448PublicKeyParameters[] batchKeys = new Ed448PublicKeyParameters[len];
+        System.arraycopy(publicKeys, off, batchKeys, 0, len);
+
+        return Ed448PublicKeyParameters.verifyBatch(batchKeys, context,
+            Ed25519BatchVerifier.copyOfRange(msgs, off, len), Ed25519BatchVerifier.copyOfRange(sigs, off, len), len,
+            random);
+    }
+}
@@ -0,0 +1,131 @@
+package org.bouncycastle.crypto.util;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Utility class for passing the contents of a file to a digest in large pieces.
+ * <p>
+ * The file is read a region at a time into a single reused buffer, and each region is passed to the digest in a
+ * single update, so a digest which can process large updates in parallel, such as a Blake3Digest created with an
+ * executor, sees the file in large pieces.
+ * </p>
+ */
+public class FileDigester
+{
+    private static final int DEFAULT_REGION_SIZE = 16 * 1024 * 1024;
+
+    private FileDigester()
+    {
+
+    }
+
+    /**
+     * Update a digest with the contents of a file.
+     *
+     * @param digest the digest to update.
+     * @param file the file to read.
+     * @throws IOException if the file cannot be read.
+     */
+    public static void update(Digest digest, File file)
+        throws IOException
+    {
+        update(digest, file, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Update a digest with the contents of a file, reading regionSize bytes at a time.
+     *
+     * @param digest the digest to update.
+     * @param file the file to read.
+     * @param regionSize the number of bytes to read, and pass to the digest, at a time.
+     * @throws IOException if the file cannot be read.
+     */
+    public static void update(Digest digest, File file, int regionSize)
+        throws IOException
+    {
+        FileInputStream fIn = new FileInputStream(file);
+
+        try
+        {
+            FileChannel channel = fIn.getChannel();
+
+            update(digest, channel, 0, channel.size(), regionSize);
+        }
+        finally
+        {
+            fIn.close();
+        }
+    }
+
+    /**
+     * Update a digest with length bytes of a file channel starting at position, reading regionSize bytes at a time.
+     * The channel's own position is not changed.
+     *
+     * @param digest the digest to update.
+     * @param channel the channel to read.
+     * @param position the position in the channel to start at.
+     * @param length the number of bytes to read.
+     * @param regionSize the number of bytes to read, and pass to the digest, at a time.
+     * @throws IOException if the channel cannot be read.
+     * @throws IllegalArgumentException if position or length is negative, position + length is past the end of
+     * the channel, or regionSize is not positive.
+     */
+    public static void update(Digest digest, FileChannel channel, long position, long length, int regionSize)
+        throws IOException
+    {
+        if (regionSize <= 0)
+        {
+            throw new IllegalArgumentException("regionSize must be greater than 0");
+        }
+        if (position < 0)
+        {
+            throw new IllegalArgumentException("position must be non-negative");
+        }
+        if (length < 0)
+        {
+            throw new IllegalArgumentException("length must be non-negative");
+        }
+        if (length > channel.size() - position)
+        {
+            throw new IllegalArgumentException("position + length past end of channel");
+        }
+
+        byte[] buf = new byte[(int)Math.min(regionSize, length)];
+        ByteBuffer region = ByteBuffer.wrap(buf);
+
+        try
+        {
+            while (length > 0)
+            {
+                int len = (int)Math.min(buf.length, length);
+
+                ((java.nio.Buffer)region).clear();
+                ((java.nio.Buffer)region).limit(len);
+                while (region.hasRemaining())
+                {
+                    if (channel.read(region, position + region.position()) < 0)
+                    {
+                        throw new EOFException("channel ended before position + length");
+                    }
+                }
+
+                digest.update(buf, 0, len);
+
+                position += len;
+                length -= len;
+            }
+        }
+        finally
+        {
+            Arrays.fill(buf, (byte)0);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.bouncycastle.crypto.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a batch of tasks on an executor while another runs on the calling thread. Control only
+ * returns to the caller once every submitted task has finished (or been skipped), whatever goes
+ * wrong, so the caller may safely clear the memory the tasks work on.
+ */
+public class ParallelTaskHelper
+{
+    private ParallelTaskHelper()
+    {
+    }
+
+    /**
+     * Run each of tasks on the executor and callerTask on the calling thread, then wait for them all.
+     * If a task fails, the executor rejects a task, or the calling thread is interrupted, tasks that
+     * have not started yet are skipped, and the ones already running are still waited for.
+     *
+     * @param executor the executor for tasks.
+     * @param tasks the tasks to hand to the executor.
+     * @param callerTask the task to run on the calling thread.
+     * @param name a name for the work, for exception messages.
+     * @throws IllegalStateException if a task failed (with the failure as its cause), or the calling
+     * thread was interrupted (with its interrupt status restored).
+     */
+    public static void run(Executor executor, Runnable[] tasks, Runnable callerTask, String name)
+    {
+        Batch batch = new Batch(tasks.length);
+
+        int submitted = 0;
+        RuntimeException callerFailure = null;
+        try
+        {
+            while (submitted < tasks.length)
+            {
+                executor.execute(new BatchTask(batch, tasks[submitted]));
+                ++submitted;
+            }
+
+            callerTask.run();
+        }
+        catch (RuntimeException e)
+        {
+            callerFailure = e;
+        }
+        catch (Error e)
+        {
+            callerFailure = new IllegalStateException(name + " failed: " + e, e);
+        }
+
+        if (callerFailure != null)
+        {
+            batch.cancel();
+
+            // NOTE: Tasks that were never submitted will never count down themselves
+            for (int i = submitted; i < tasks.length; ++i)
+            {
+                batch.done.countDown();
+            }
+        }
+
+        boolean interrupted = false;
+        for (;;)
+        {
+            try
+            {
+                batch.done.await();
+                break;
+            }
+            catch (InterruptedException e)
+            {
+                interrupted = true;
+                batch.cancel();
+            }
+        }
+
+        if (callerFailure != null)
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+            throw callerFailure;
+        }
+
+        Throwable taskFailure = batch.failure.get();
+        if (taskFailure != null)
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException(name + " task failed: " + taskFailure, taskFailure);
+        }
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted during " + name);
+        }
+    }
+
+    private static class Batch
+    {
+        final CountDownLatch done;
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        volatile boolean cancelled = false;
+
+        Batch(int count)
+        {
+            this.done = new CountDownLatch(count);
+        }
+
+        void cancel()
+        {
+            cancelled = true;
+        }
+
+        void fail(Throwable t)
+        {
+            failure.compareAndSet(null, t);
+            cancel();
+        }
+    }
+
+    private static class BatchTask
+        implements Runnable
+    {
+        private final Batch batch;
+        private final Runnable task;
+
+        BatchTask(Batch batch, Runnable task)
+        {
+            this.batch = batch;
+            this.task = task;
+        }
+
+        public void run()
+        {
+            try
+            {
+                if (!batch.cancelled)
+                {
+                    task.run();
+                }
+            }
+            catch (Throwable t)
+            {
+                batch.fail(t);
+            }
+            finally
+            {
+                batch.done.countDown();
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.bouncycastle.crypto.util;
 
+import java.util.concurrent.Executor;
+
 import org.bouncycastle.internal.asn1.misc.MiscObjectIdentifiers;
 
 /**
@@ -15,6 +17,7 @@
         private final int parallelizationParameter;
 
         private int saltLength = 16;
+        private Executor executor = null;
 
         /**
          * Base constructor.
@@ -48,6 +51,27 @@ public Builder withSaltLength(int saltLength)
             return this;
         }
 
+        /**
+         * Set an executor to run the parallelization lanes of scrypt concurrently. This does not
+         * change the derived key, but does raise the peak memory used by up to a factor of the
+         * parallelization parameter.
+         * <p>
+         * When used as the store PBKDF config of a BCFKS key store the executor only applies to the
+         * store-level key derivations (the integrity check and store encryption) done by load and store.
+         * Keys protecting individual entries are derived by setKeyEntry() and getKey(), which do not see
+         * this config, so those derivations always run on the calling thread.
+         * </p>
+         *
+         * @param executor the executor to use, null (the default) to run the lanes sequentially.
+         * @return the current builder.
+         */
+        public Builder withExecutor(Executor executor)
+        {
+            this.executor = executor;
+
+            return this;
+        }
+
         public ScryptConfig build()
         {
             return new ScryptConfig(this);
@@ -64,6 +88,7 @@ private static boolean isPowerOf2(int x)
     private final int blockSize;
     private final int parallelizationParameter;
     private final int saltLength;
+    private final Executor executor;
 
     private ScryptConfig(Builder builder)
     {
@@ -73,6 +98,7 @@ private ScryptConfig(Builder builder)
         this.blockSize = builder.blockSize;
         this.parallelizationParameter = builder.parallelizationParameter;
         this.saltLength = builder.saltLength;
+        this.executor = builder.executor;
     }
 
     public int getCostParameter()
@@ -94,4 +120,14 @@ public int getSaltLength()
     {
         return saltLength;
     }
+
+    /**
+     * Return the executor to run the parallelization lanes with, if one was set.
+     *
+     * @return an executor, or null if the lanes are to be run sequentially.
+     */
+    public Executor getExecutor()
+    {
+        return executor;
+    }
 }
@@ -11,6 +11,11 @@
 
 public class ECAlgorithms
 {
+    /*
+     * Above this many terms, sumOfMultiplies uses the bucket (Pippenger) method instead of interleaved wNAF.
+     */
+    private static final int PIPPENGER_THRESHOLD = 256;
+
     public static boolean isF2mCurve(ECCurve c)
     {
         return isF2mField(c.getField());
@@ -66,6 +71,11 @@ public static ECPoint sumOfMultiplies(ECPoint[] ps, BigInteger[] ks)
             return implCheckResult(implSumOfMultipliesGLV(imported, ks, (GLVEndomorphism)endomorphism));
         }
 
+        if (count >= PIPPENGER_THRESHOLD)
+        {
+            return implCheckResult(implSumOfMultipliesPippenger(imported, ks));
+        }
+
         return implCheckResult(implSumOfMultiplies(imported, ks));
     }
 
@@ -434,7 +444,8 @@ static ECPoint implSumOfMultipliesGLV(ECPoint[] ps, BigInteger[] ks, GLVEndomorp
             abs[j++] = ab[1];
         }
 
-        if (glvEndomorphism.hasEfficientPointMap())
+        boolean usePippenger = len >= PIPPENGER_THRESHOLD;
+        if (!usePippenger && glvEndomorphism.hasEfficientPointMap())
         {
             return implSumOfMultiplies(glvEndomorphism, ps, abs);
         }
@@ -448,6 +459,11 @@ static ECPoint implSumOfMultipliesGLV(ECPoint[] ps, BigInteger[] ks, GLVEndomorp
             pqs[j++] = q;
         }
 
+        if (usePippenger)
+        {
+            return implSumOfMultipliesPippenger(pqs, abs);
+        }
+
         return implSumOfMultiplies(pqs, abs);
     }
 
@@ -487,6 +503,119 @@ static ECPoint implSumOfMultiplies(ECEndomorphism endomorphism, ECPoint[] ps, Bi
         return implSumOfMultiplies(negs, infos, wnafs);
     }
 
+    /**
+     * Bucket method for a sum of many multiplies. Each scalar is recoded into signed base-2^c digits;
+     * then for each digit position (most significant first) the points are added into buckets by digit
+     * value, and the buckets combined with a running sum, at a cost of about one point addition per
+     * term per window.
+     */
+    static ECPoint implSumOfMultipliesPippenger(ECPoint[] ps, BigInteger[] ks)
+    {
+        int count = ps.length;
+
+        int bits = 0;
+        for (int i = 0; i < count; ++i)
+        {
+            bits = Math.max(bits, ks[i].bitLength());
+        }
+
+        /*
+         * Choose the window size minimising the estimated number of additions; each window costs one
+         * addition per term, plus two per bucket to combine the buckets.
+         */
+        int c = 1, cost = Integer.MAX_VALUE;
+        for (int w = 1; w <= 16; ++w)
+        {
+            int windows = (bits + w) / w;
+            int wCost = windows * (count + (1 << w));
+            if (wCost < cost)
+            {
+                c = w;
+                cost = wCost;
+            }
+        }
+
+        int windows = (bits + c) / c, buckets = 1 << (c - 1), mask = (1 << c) - 1;
+
+        ECCurve curve = ps[0].getCurve();
+        ECPoint infinity = curve.getInfinity();
+
+        ECPoint[] pos = new ECPoint[count], neg = new ECPoint[count];
+        int[][] digits = new int[count][];
+
+        for (int i = 0; i < count; ++i)
+        {
+            BigInteger ki = ks[i];
+            boolean negate = ki.signum() < 0;
+
+            ECPoint p = negate ? ps[i].negate() : ps[i];
+            pos[i] = p;
+
+            int[] x = Nat.fromBigInteger(windows * c + 32, ki.abs());
+            int[] d = new int[windows];
+            int carry = 0;
+            for (int w = 0; w < windows; ++w)
+            {
+                int bit = w * c, word = bit >>> 5, shift = bit & 31;
+                int v = x[word] >>> shift;
+                if (shift + c > 32)
+                {
+                    v |= x[word + 1] << (32 - shift);
+                }
+                v = (v & mask) + carry;
+
+                carry = v > buckets ? 1 : 0;
+                d[w] = v - (carry << c);
+            }
+            digits[i] = d;
+        }
+
+        // Let the bucket additions use the cheaper mixed addition
+        curve.normalizeAll(pos);
+        for (int i = 0; i < count; ++i)
+        {
+            neg[i] = pos[i].negate();
+        }
+
+        ECPoint[] bucket = new ECPoint[buckets];
+        ECPoint R = infinity;
+
+        for (int w = windows - 1; w >= 0; --w)
+        {
+            R = R.timesPow2(c);
+
+            for (int j = 0; j < buckets; ++j)
+            {
+                bucket[j] = infinity;
+            }
+
+            for (int i = 0; i < count; ++i)
+            {
+                int d = digits[i][w];
+                if (d > 0)
+                {
+                    bucket[d - 1] = bucket[d - 1].add(pos[i]);
+                }
+                else if (d < 0)
+                {
+                    bucket[-d - 1] = bucket[-d - 1].add(neg[i]);
+                }
+            }
+
+            // sum of (j + 1) * bucket[j]
+            ECPoint sum = infinity, acc = infinity;
+            for (int j = buckets - 1; j >= 0; --j)
+            {
+                sum = sum.add(bucket[j]);
+                acc = acc.add(sum);
+            }
+
+            R = R.add(acc);
+        }
+
+        return R;
+    }
+
     private static ECPoint implSumOfMultiplies(boolean[] negs, WNafPreCompInfo[] infos, byte[][] wnafs)
     {
         int len = 0, count = wnafs.length;
@@ -4,9 +4,9 @@
 import java.security.SecureRandom;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Hashtable;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.bouncycastle.crypto.CryptoServicesRegistrar;
 import org.bouncycastle.math.Primes;
@@ -33,6 +33,10 @@
     public static final int COORD_LAMBDA_PROJECTIVE = 6;
     public static final int COORD_SKEWED = 7;
 
+    private static final PreCompTable EMPTY_PRECOMP_TABLE = new PreCompTable();
+    private static final AtomicReferenceFieldUpdater PRECOMP_TABLE_UPDATER = AtomicReferenceFieldUpdater.newUpdater(
+        ECPoint.class, PreCompTable.class, "preCompInfoTable");
+
     public static int[] getAllCoordinateSystems()
     {
         return new int[]{ COORD_AFFINE, COORD_HOMOGENEOUS, COORD_JACOBIAN, COORD_JACOBIAN_CHUDNOVSKY,
@@ -163,21 +167,9 @@ public PreCompInfo getPreCompInfo(ECPoint point, String name)
     {
         checkPoint(point);
 
-        Hashtable table;
-        synchronized (point)
-        {
-            table = point.preCompTable;
-        }
-
-        if (null == table)
-        {
-            return null;
-        }
+        PreCompTable table = point.preCompInfoTable;
 
-        synchronized (table)
-        {
-            return (PreCompInfo)table.get(name);
-        }
+        return null == table ? null : table.get(name);
     }
 
     /**
@@ -196,27 +188,37 @@ public PreCompInfo precompute(ECPoint point, String name, PreCompCallback callba
     {
         checkPoint(point);
 
-        Hashtable table;
-        synchronized (point)
-        {
-            table = point.preCompTable;
-            if (null == table)
-            {
-                point.preCompTable = table = new Hashtable(4);
-            }
-        }
-
-        synchronized (table)
+        /*
+         * The table is copied on write and published with a compare-and-set, so that readers (the common
+         * case, once a point's precomputation is in place) never take a lock. If another thread publishes
+         * first, the callback is re-run against its entry, which normally just returns it.
+         */
+        for (;;)
         {
-            PreCompInfo existing = (PreCompInfo)table.get(name);
+            PreCompTable table = point.preCompInfoTable;
+            PreCompInfo existing = null == table ? null : table.get(name);
             PreCompInfo result = callback.precompute(existing);
 
-            if (result != existing)
+            if (result == existing)
             {
-                table.put(name, result);
+                return result;
             }
 
-            return result;
+            for (;;)
+            {
+                PreCompTable updated = (null == table ? EMPTY_PRECOMP_TABLE : table).put(name, result);
+                if (PRECOMP_TABLE_UPDATER.compareAndSet(point, table, updated))
+                {
+                    return result;
+                }
+
+                // Retry directly only if the race was over a different name
+                table = point.preCompInfoTable;
+                if (table.get(name) != existing)
+                {
+                    break;
+                }
+            }
         }
     }
 
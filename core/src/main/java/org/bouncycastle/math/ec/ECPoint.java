@@ -49,9 +49,15 @@ protected static ECFieldElement[] getInitialZCoords(ECCurve curve)
     protected ECFieldElement y;
     protected ECFieldElement[] zs;
 
-    // Hashtable is (String -> PreCompInfo)
+    /**
+     * @deprecated no longer used; precomputations are now held in an internal lock-free table, see
+     * {@link ECCurve#getPreCompInfo(ECPoint, String)}.
+     */
     protected Hashtable preCompTable = null;
 
+    // Replaced, never modified, once published; see ECCurve.precompute
+    volatile PreCompTable preCompInfoTable = null;
+
     protected ECPoint(ECCurve curve, ECFieldElement x, ECFieldElement y)
     {
         this(curve, x, y, getInitialZCoords(curve));
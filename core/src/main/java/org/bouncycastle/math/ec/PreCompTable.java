@@ -0,0 +1,58 @@
+package org.bouncycastle.math.ec;
+
+/**
+ * Immutable map from name to <code>PreCompInfo</code> for a single point. A point holds at most a handful
+ * of precomputations, so the entries are held in arrays and searched linearly. Updates produce a new
+ * table, so that a published table can be read without locking.
+ */
+final class PreCompTable
+{
+    private final String[] names;
+    private final PreCompInfo[] infos;
+
+    PreCompTable()
+    {
+        this(new String[0], new PreCompInfo[0]);
+    }
+
+    private PreCompTable(String[] names, PreCompInfo[] infos)
+    {
+        this.names = names;
+        this.infos = infos;
+    }
+
+    PreCompInfo get(String name)
+    {
+        for (int i = 0; i < names.length; ++i)
+        {
+            if (names[i].equals(name))
+            {
+                return infos[i];
+            }
+        }
+        return null;
+    }
+
+    PreCompTable put(String name, PreCompInfo info)
+    {
+        int count = names.length;
+        for (int i = 0; i < count; ++i)
+        {
+            if (names[i].equals(name))
+            {
+                PreCompInfo[] newInfos = new PreCompInfo[count];
+                System.arraycopy(infos, 0, newInfos, 0, count);
+                newInfos[i] = info;
+                return new PreCompTable(names, newInfos);
+            }
+        }
+
+        String[] newNames = new String[count + 1];
+        PreCompInfo[] newInfos = new PreCompInfo[count + 1];
+        System.arraycopy(names, 0, newNames, 0, count);
+        System.arraycopy(infos, 0, newInfos, 0, count);
+        newNames[count] = name;
+        newInfos[count] = info;
+        return new PreCompTable(newNames, newInfos);
+    }
+}
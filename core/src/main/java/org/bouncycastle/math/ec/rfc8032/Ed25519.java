@@ -1,13 +1,17 @@
 package org.bouncycastle.math.ec.rfc8032;
 
 import java.security.SecureRandom;
+import java.util.HashMap;
 
 import org.bouncycastle.crypto.Digest;
 import org.bouncycastle.crypto.digests.SHA512Digest;
 import org.bouncycastle.math.ec.rfc7748.X25519;
 import org.bouncycastle.math.ec.rfc7748.X25519Field;
 import org.bouncycastle.math.raw.Interleave;
+import org.bouncycastle.math.raw.Nat;
 import org.bouncycastle.math.raw.Nat256;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Integers;
 
 /**
  * A low-level implementation of the Ed25519, Ed25519ctx, and Ed25519ph instantiations of the Edwards-Curve
@@ -35,6 +39,10 @@
     {
         final int[] data;
 
+        // Odd multiples of the negated point, calculated once the point has been used for a few verifications.
+        volatile PointPrecomp[] precompNeg = null;
+        volatile int precompCountdown = PRECOMP_PUBLIC_COUNTDOWN;
+
         PublicPoint(int[] data)
         {
             this.data = data;
@@ -87,7 +95,12 @@ private static class F extends X25519Field {};
 
 //    private static final int WNAF_WIDTH = 5;
     private static final int WNAF_WIDTH_128 = 4;
+    private static final int WNAF_WIDTH_BATCH = 5;
     private static final int WNAF_WIDTH_BASE = 6;
+    private static final int WNAF_WIDTH_PUBLIC = 6;
+
+    // Number of verifications with a PublicPoint before its precomputed table is built
+    private static final int PRECOMP_PUBLIC_COUNTDOWN = 4;
 
     // scalarMultBase is hard-coded for these values of blocks, teeth, spacing so they can't be freely changed
     private static final int PRECOMP_BLOCKS = 8;
@@ -147,6 +160,29 @@ private static class F extends X25519Field {};
         int[] r1 = F.create();;
     }
 
+    // Groups the signatures of a batch by public key.
+    private static final class PublicKeyKey
+    {
+        private final byte[] encoding;
+        private final int hashCode;
+
+        PublicKeyKey(byte[] encoding)
+        {
+            this.encoding = encoding;
+            this.hashCode = Arrays.hashCode(encoding);
+        }
+
+        public boolean equals(Object o)
+        {
+            return o instanceof PublicKeyKey && Arrays.areEqual(encoding, ((PublicKeyKey)o).encoding);
+        }
+
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+
     private static byte[] calculateS(byte[] r, byte[] k, byte[] s)
     {
         int[] t = new int[SCALAR_INTS * 2];     Scalar25519.decode(r, t);
@@ -417,6 +453,25 @@ public static PublicPoint generatePublicKey(byte[] sk, int skOff)
         return exportPoint(q);
     }
 
+    private static PointPrecomp[] getPublicPrecompVar(PublicPoint publicPoint, PointAffine negA)
+    {
+        PointPrecomp[] precomp = publicPoint.precompNeg;
+        if (null == precomp)
+        {
+            int countdown = publicPoint.precompCountdown;
+            if (countdown > 0)
+            {
+                publicPoint.precompCountdown = countdown - 1;
+                return null;
+            }
+
+            // NOTE: Concurrent callers may each build the table; they are all equivalent.
+            precomp = pointPrecomputeVar(negA, 1 << (WNAF_WIDTH_PUBLIC - 2));
+            publicPoint.precompNeg = precomp;
+        }
+        return precomp;
+    }
+
     private static int getWindow4(int[] x, int n)
     {
         int w = n >>> 3, b = (n & 7) << 2;
@@ -611,6 +666,8 @@ private static boolean implVerify(byte[] sig, int sigOff, PublicPoint publicPoin
         F.negate(publicPoint.data, pA.x);
         F.copy(publicPoint.data, F.SIZE, pA.y, 0);
 
+        PointPrecomp[] tA = getPublicPrecompVar(publicPoint, pA);
+
         byte[] A = new byte[PUBLIC_KEY_SIZE];
         encodePublicPoint(publicPoint, A, 0);
 
@@ -642,7 +699,118 @@ private static boolean implVerify(byte[] sig, int sigOff, PublicPoint publicPoin
         Scalar25519.multiply128Var(nS, v1, nS);
 
         PointAccum pZ = new PointAccum();
-        scalarMultStraus128Var(nS, v0, pA, v1, pR, pZ);
+        if (null != tA)
+        {
+            scalarMultStraus128Var(nS, v0, tA, v1, pR, pZ);
+        }
+        else
+        {
+            scalarMultStraus128Var(nS, v0, pA, v1, pR, pZ);
+        }
+        return normalizeToNeutralElementVar(pZ);
+    }
+
+    private static boolean implVerifyBatch(byte[][] sigs, PublicPoint[] publicPoints, byte[][] ms, int count,
+        SecureRandom random)
+    {
+        /*
+         * Checks a random linear combination of the verification equations, i.e. that
+         * [sum(z_i.S_i)]B - sum([z_i]R_i) - sum([z_i.k_i]A_i) is a small-order point, for random 127-bit z_i.
+         * Terms for signatures under the same public key are collected into a single point.
+         */
+        Digest d = createDigest();
+        byte[] h = new byte[64];
+        byte[] zBytes = new byte[16];
+
+        int[] nB = new int[SCALAR_INTS];
+        int[] nS = new int[SCALAR_INTS];
+        int[] nk = new int[SCALAR_INTS];
+
+        PointAffine[] pRs = new PointAffine[count];
+        int[][] nRs = new int[count][];
+
+        HashMap keyIndexes = new HashMap();
+        PointAffine[] pAs = new PointAffine[count];
+        int[][] nAs = new int[count][];
+        int keyCount = 0;
+
+        for (int i = 0; i < count; ++i)
+        {
+            byte[] sig = sigs[i];
+            if (sig.length != SIGNATURE_SIZE)
+            {
+                return false;
+            }
+
+            byte[] R = copy(sig, 0, POINT_BYTES);
+            byte[] S = copy(sig, POINT_BYTES, SCALAR_BYTES);
+
+            if (!checkPointVar(R))
+            {
+                return false;
+            }
+
+            if (!Scalar25519.checkVar(S, nS))
+            {
+                return false;
+            }
+
+            PointAffine pR = new PointAffine();
+            if (!decodePointVar(R, true, pR))
+            {
+                return false;
+            }
+
+            PublicPoint publicPoint = publicPoints[i];
+
+            byte[] A = new byte[PUBLIC_KEY_SIZE];
+            encodePublicPoint(publicPoint, A, 0);
+
+            d.update(R, 0, POINT_BYTES);
+            d.update(A, 0, POINT_BYTES);
+            d.update(ms[i], 0, ms[i].length);
+            d.doFinal(h, 0);
+
+            Scalar25519.decode(Scalar25519.reduce512(h), nk);
+
+            int[] z = new int[4];
+            do
+            {
+                random.nextBytes(zBytes);
+                Codec.decode32(zBytes, 0, z, 0, 4);
+                z[3] &= 0x7FFFFFFF;
+            }
+            while (Nat.isZero(4, z));
+
+            pRs[i] = pR;
+            nRs[i] = z;
+
+            Scalar25519.multiply128Var(nS, z, nS);
+            Scalar25519.addVar(nB, nS, nB);
+
+            Scalar25519.multiply128Var(nk, z, nk);
+
+            PublicKeyKey key = new PublicKeyKey(A);
+            Integer keyIndex = (Integer)keyIndexes.get(key);
+            if (keyIndex == null)
+            {
+                PointAffine pA = new PointAffine();
+                F.negate(publicPoint.data, pA.x);
+                F.copy(publicPoint.data, F.SIZE, pA.y, 0);
+
+                pAs[keyCount] = pA;
+                nAs[keyCount] = Arrays.clone(nk);
+                keyIndexes.put(key, Integers.valueOf(keyCount++));
+            }
+            else
+            {
+                int[] nA = nAs[keyIndex.intValue()];
+                Scalar25519.addVar(nA, nk, nA);
+            }
+        }
+
+        PointAccum pZ = new PointAccum();
+        scalarMultStrausBatchVar(nB, nAs, pAs, keyCount, nRs, pRs, count, pZ);
         return normalizeToNeutralElementVar(pZ);
     }
 
@@ -858,6 +1026,25 @@ private static void pointCopy(PointAffine p, PointExtended r)
         F.mul(p.x, p.y, r.t);
     }
 
+    // NOTE: p.z must hold 1/(2.z); see invertDoubleZs. p.x and p.y are overwritten.
+    private static void pointCopyInvDoubleZ(PointExtended p, PointPrecomp r)
+    {
+        // Calculate x/2 and y/2 (because the z value holds half the inverse; see above).
+        F.mul(p.x, p.z, p.x);
+        F.mul(p.y, p.z, p.y);
+
+        // y/2 +/- x/2
+        F.apm(p.y, p.x, r.ypx_h, r.ymx_h);
+
+        // x/2 * y/2 * (4.d) == x.y.d
+        F.mul(p.x, p.y, r.xyd);
+        F.mul(r.xyd, C_d4, r.xyd);
+
+        F.normalize(r.ymx_h);
+        F.normalize(r.ypx_h);
+        F.normalize(r.xyd);
+    }
+
     private static void pointCopy(PointExtended p, PointPrecompZ r)
     {
         // To avoid halving x and y, we double t and z instead.
@@ -948,6 +1135,24 @@ private static void pointPrecompute(PointAffine p, PointExtended[] points, int p
         }
     }
 
+    private static PointPrecomp[] pointPrecomputeVar(PointAffine p, int count)
+    {
+//        assert count > 0;
+
+        PointExtended[] points = new PointExtended[count];
+        pointPrecompute(p, points, 0, count, new PointTemp());
+
+        // Set each z coordinate to 1/(2.z) to avoid calculating halves of x, y in the following code
+        invertDoubleZs(points);
+
+        PointPrecomp[] r = new PointPrecomp[count];
+        for (int i = 0; i < count; ++i)
+        {
+            pointCopyInvDoubleZ(points[i], r[i] = new PointPrecomp());
+        }
+        return r;
+    }
+
     private static int[] pointPrecomputeZ(PointAffine p, int count, PointTemp t)
     {
 //        assert count > 0;
@@ -1109,45 +1314,13 @@ public static void precompute()
             PRECOMP_BASE_WNAF = new PointPrecomp[wnafPoints];
             for (int i = 0; i < wnafPoints; ++i)
             {
-                PointExtended q = points[i];
-                PointPrecomp r = PRECOMP_BASE_WNAF[i] = new PointPrecomp();
-
-                // Calculate x/2 and y/2 (because the z value holds half the inverse; see above).
-                F.mul(q.x, q.z, q.x);
-                F.mul(q.y, q.z, q.y);
-
-                // y/2 +/- x/2
-                F.apm(q.y, q.x, r.ypx_h, r.ymx_h);
-
-                // x/2 * y/2 * (4.d) == x.y.d
-                F.mul(q.x, q.y, r.xyd);
-                F.mul(r.xyd, C_d4, r.xyd);
-
-                F.normalize(r.ymx_h);
-                F.normalize(r.ypx_h);
-                F.normalize(r.xyd);
+                pointCopyInvDoubleZ(points[i], PRECOMP_BASE_WNAF[i] = new PointPrecomp());
             }
 
             PRECOMP_BASE128_WNAF = new PointPrecomp[wnafPoints];
             for (int i = 0; i < wnafPoints; ++i)
             {
-                PointExtended q = points[wnafPoints + i];
-                PointPrecomp r = PRECOMP_BASE128_WNAF[i] = new PointPrecomp();
-
-                // Calculate x/2 and y/2 (because the z value holds half the inverse; see above).
-                F.mul(q.x, q.z, q.x);
-                F.mul(q.y, q.z, q.y);
-
-                // y/2 +/- x/2
-                F.apm(q.y, q.x, r.ypx_h, r.ymx_h);
-
-                // x/2 * y/2 * (4.d) == x.y.d
-                F.mul(q.x, q.y, r.xyd);
-                F.mul(r.xyd, C_d4, r.xyd);
-
-                F.normalize(r.ymx_h);
-                F.normalize(r.ypx_h);
-                F.normalize(r.xyd);
+                pointCopyInvDoubleZ(points[wnafPoints + i], PRECOMP_BASE128_WNAF[i] = new PointPrecomp());
             }
 
             PRECOMP_BASE_COMB = F.createTable(combPoints * 3);
@@ -1412,6 +1585,158 @@ private static void scalarMultStraus128Var(int[] nb, int[] np, PointAffine p, in
         pointDouble(r);
     }
 
+    private static void scalarMultStraus128Var(int[] nb, int[] np, PointPrecomp[] tp, int[] nq, PointAffine q,
+        PointAccum r)
+    {
+//        assert nb.length == SCALAR_INTS;
+//        assert nb[SCALAR_INTS - 1] >>> 29 == 0;
+//        assert np.length == 4;
+//        assert nq.length == 4;
+//        assert tp.length == 1 << (WNAF_WIDTH_PUBLIC - 2);
+
+        precompute();
+
+        byte[] ws_b = new byte[256];
+        byte[] ws_p = new byte[128];
+        byte[] ws_q = new byte[128];
+
+        Wnaf.getSignedVar(nb, WNAF_WIDTH_BASE, ws_b);
+        Wnaf.getSignedVar(np, WNAF_WIDTH_PUBLIC, ws_p);
+        Wnaf.getSignedVar(nq, WNAF_WIDTH_128, ws_q);
+
+        int count = 1 << (WNAF_WIDTH_128 - 2);
+        PointPrecompZ[] tq = new PointPrecompZ[count];
+        PointTemp t = new PointTemp();
+        pointPrecomputeZ(q, tq, count, t);
+
+        pointSetNeutral(r);
+
+        int bit = 128;
+        while (--bit >= 0)
+        {
+            if ((ws_b[bit] | ws_b[128 + bit] | ws_p[bit] | ws_q[bit]) != 0)
+            {
+                break;
+            }
+        }
+
+        for (; bit >= 0; --bit)
+        {
+            int wb = ws_b[bit];
+            if (wb != 0)
+            {
+                int index = (wb >> 1) ^ (wb >> 31);
+                pointAddVar(wb < 0, PRECOMP_BASE_WNAF[index], r, t);
+            }
+
+            int wb128 = ws_b[128 + bit];
+            if (wb128 != 0)
+            {
+                int index = (wb128 >> 1) ^ (wb128 >> 31);
+                pointAddVar(wb128 < 0, PRECOMP_BASE128_WNAF[index], r, t);
+            }
+
+            int wp = ws_p[bit];
+            if (wp != 0)
+            {
+                int index = (wp >> 1) ^ (wp >> 31);
+                pointAddVar(wp < 0, tp[index], r, t);
+            }
+
+            int wq = ws_q[bit];
+            if (wq != 0)
+            {
+                int index = (wq >> 1) ^ (wq >> 31);
+                pointAddVar(wq < 0, tq[index], r, t);
+            }
+
+            pointDouble(r);
+        }
+
+        // NOTE: Together with the final pointDouble of the loop, this clears the cofactor of 8
+        pointDouble(r);
+        pointDouble(r);
+    }
+
+    private static void scalarMultStrausBatchVar(int[] nb, int[][] nps, PointAffine[] ps, int pCount, int[][] nqs,
+        PointAffine[] qs, int qCount, PointAccum r)
+    {
+//        assert nb.length == SCALAR_INTS;
+//        assert nb[SCALAR_INTS - 1] >>> 29 == 0;
+//        assert nps[i].length == SCALAR_INTS;
+//        assert nqs[i].length == 4;
+
+        precompute();
+
+        byte[] ws_b = new byte[256];
+        Wnaf.getSignedVar(nb, WNAF_WIDTH_BASE, ws_b);
+
+        PointTemp t = new PointTemp();
+
+        int countP = 1 << (WNAF_WIDTH_BATCH - 2);
+        byte[][] ws_p = new byte[pCount][];
+        PointPrecompZ[][] tp = new PointPrecompZ[pCount][];
+        for (int i = 0; i < pCount; ++i)
+        {
+            ws_p[i] = new byte[256];
+            Wnaf.getSignedVar(nps[i], WNAF_WIDTH_BATCH, ws_p[i]);
+            tp[i] = new PointPrecompZ[countP];
+            pointPrecomputeZ(ps[i], tp[i], countP, t);
+        }
+
+        int countQ = 1 << (WNAF_WIDTH_128 - 2);
+        byte[][] ws_q = new byte[qCount][];
+        PointPrecompZ[][] tq = new PointPrecompZ[qCount][];
+        for (int i = 0; i < qCount; ++i)
+        {
+            ws_q[i] = new byte[128];
+            Wnaf.getSignedVar(nqs[i], WNAF_WIDTH_128, ws_q[i]);
+            tq[i] = new PointPrecompZ[countQ];
+            pointPrecomputeZ(qs[i], tq[i], countQ, t);
+        }
+
+        pointSetNeutral(r);
+
+        for (int bit = 255; bit >= 0; --bit)
+        {
+            int wb = ws_b[bit];
+            if (wb != 0)
+            {
+                int index = (wb >> 1) ^ (wb >> 31);
+                pointAddVar(wb < 0, PRECOMP_BASE_WNAF[index], r, t);
+            }
+
+            for (int i = 0; i < pCount; ++i)
+            {
+                int wp = ws_p[i][bit];
+                if (wp != 0)
+                {
+                    int index = (wp >> 1) ^ (wp >> 31);
+                    pointAddVar(wp < 0, tp[i][index], r, t);
+                }
+            }
+
+            if (bit < 128)
+            {
+                for (int i = 0; i < qCount; ++i)
+                {
+                    int wq = ws_q[i][bit];
+                    if (wq != 0)
+                    {
+                        int index = (wq >> 1) ^ (wq >> 31);
+                        pointAddVar(wq < 0, tq[i][index], r, t);
+                    }
+                }
+            }
+
+            pointDouble(r);
+        }
+
+        // NOTE: Together with the final pointDouble of the loop, this clears the cofactor of 8
+        pointDouble(r);
+        pointDouble(r);
+    }
+
     public static void sign(byte[] sk, int skOff, byte[] m, int mOff, int mLen, byte[] sig, int sigOff)
     {
         byte[] ctx = null;
@@ -1589,6 +1914,33 @@ public static boolean verify(byte[] sig, int sigOff, PublicPoint publicPoint, by
         return implVerify(sig, sigOff, publicPoint, ctx, phflag, m, mOff, mLen);
     }
 
+    /**
+     * Verify a batch of Ed25519 signatures together, which is significantly faster than verifying each one
+     * separately, particularly when many of the signatures are under the same public key.
+     * <p>
+     * A random linear combination of the verification equations is checked, so a result of true means that,
+     * except with negligible probability, every signature would pass {@link #verify}. A result of false only
+     * says that at least one signature is invalid; the signatures can then be checked individually.
+     * </p>
+     *
+     * @param sigs the signatures, each {@link #SIGNATURE_SIZE} bytes.
+     * @param publicPoints the public keys, in the same order as the signatures.
+     * @param ms the signed messages, in the same order as the signatures.
+     * @param count the number of signatures in the batch.
+     * @param random a source of randomness for the linear combination.
+     * @return true if all the signatures are valid, false otherwise.
+     */
+    public static boolean verifyBatch(byte[][] sigs, PublicPoint[] publicPoints, byte[][] ms, int count,
+        SecureRandom random)
+    {
+        if (count < 1)
+        {
+            return true;
+        }
+
+        return implVerifyBatch(sigs, publicPoints, ms, count, random);
+    }
+
     public static boolean verifyPrehash(byte[] sig, int sigOff, byte[] pk, int pkOff, byte[] ctx, byte[] ph, int phOff)
     {
         byte phflag = 0x01;
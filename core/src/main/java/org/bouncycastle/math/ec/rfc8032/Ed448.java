@@ -1,12 +1,15 @@
 package org.bouncycastle.math.ec.rfc8032;
 
 import java.security.SecureRandom;
+import java.util.HashMap;
 
 import org.bouncycastle.crypto.Xof;
 import org.bouncycastle.crypto.digests.SHAKEDigest;
 import org.bouncycastle.math.ec.rfc7748.X448;
 import org.bouncycastle.math.ec.rfc7748.X448Field;
 import org.bouncycastle.math.raw.Nat;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Integers;
 
 /**
  * A low-level implementation of the Ed448 and Ed448ph instantiations of the Edwards-Curve Digital Signature
@@ -74,6 +77,8 @@ private static class F extends X448Field {};
 
 //    private static final int WNAF_WIDTH = 6;
     private static final int WNAF_WIDTH_225 = 5;
+    private static final int WNAF_WIDTH_BATCH = 5;
+    private static final int WNAF_WIDTH_BATCH_Z = 4;
     private static final int WNAF_WIDTH_BASE = 7;
 
     // scalarMultBase supports varying blocks, teeth, spacing so long as their product is in range [449, 479]
@@ -115,6 +120,29 @@ private static class F extends X448Field {};
         int[] r7 = F.create();;
     }
 
+    // Groups the signatures of a batch by public key.
+    private static final class PublicKeyKey
+    {
+        private final byte[] encoding;
+        private final int hashCode;
+
+        PublicKeyKey(byte[] encoding)
+        {
+            this.encoding = encoding;
+            this.hashCode = Arrays.hashCode(encoding);
+        }
+
+        public boolean equals(Object o)
+        {
+            return o instanceof PublicKeyKey && Arrays.areEqual(encoding, ((PublicKeyKey)o).encoding);
+        }
+
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+
     private static byte[] calculateS(byte[] r, byte[] k, byte[] s)
     {
         int[] t = new int[SCALAR_INTS * 2];     Scalar448.decode(r, t);
@@ -587,6 +615,119 @@ private static boolean implVerify(byte[] sig, int sigOff, PublicPoint publicPoin
         return normalizeToNeutralElementVar(pZ);
     }
 
+    private static boolean implVerifyBatch(byte[][] sigs, PublicPoint[] publicPoints, byte[] ctx, byte[][] ms,
+        int count, SecureRandom random)
+    {
+        if (!checkContextVar(ctx))
+        {
+            throw new IllegalArgumentException("ctx");
+        }
+
+        /*
+         * Checks a random linear combination of the verification equations, i.e. that
+         * [sum(z_i.S_i)]B - sum([z_i]R_i) - sum([z_i.k_i]A_i) is a small-order point, for random 127-bit z_i.
+         * Terms for signatures under the same public key are collected into a single point.
+         */
+        byte phflag = 0x00;
+
+        Xof d = createXof();
+        byte[] h = new byte[SCALAR_BYTES * 2];
+        byte[] zBytes = new byte[16];
+
+        int[] nB = new int[SCALAR_INTS];
+        int[] nS = new int[SCALAR_INTS];
+        int[] nk = new int[SCALAR_INTS];
+
+        PointAffine[] pRs = new PointAffine[count];
+        int[][] nRs = new int[count][];
+
+        HashMap keyIndexes = new HashMap();
+        PointAffine[] pAs = new PointAffine[count];
+        int[][] nAs = new int[count][];
+        int keyCount = 0;
+
+        for (int i = 0; i < count; ++i)
+        {
+            byte[] sig = sigs[i];
+            if (sig.length != SIGNATURE_SIZE)
+            {
+                return false;
+            }
+
+            byte[] R = copy(sig, 0, POINT_BYTES);
+            byte[] S = copy(sig, POINT_BYTES, SCALAR_BYTES);
+
+            if (!checkPointVar(R))
+            {
+                return false;
+            }
+
+            if (!Scalar448.checkVar(S, nS))
+            {
+                return false;
+            }
+
+            PointAffine pR = new PointAffine();
+            if (!decodePointVar(R, true, pR))
+            {
+                return false;
+            }
+
+            PublicPoint publicPoint = publicPoints[i];
+
+            byte[] A = new byte[PUBLIC_KEY_SIZE];
+            encodePublicPoint(publicPoint, A, 0);
+
+            dom4(d, phflag, ctx);
+            d.update(R, 0, POINT_BYTES);
+            d.update(A, 0, POINT_BYTES);
+            d.update(ms[i], 0, ms[i].length);
+            d.doFinal(h, 0, h.length);
+
+            Scalar448.decode(Scalar448.reduce912(h), nk);
+
+            // NOTE: multiply225Var takes a signed 225-bit multiplier
+            int[] z = new int[8];
+            do
+            {
+                random.nextBytes(zBytes);
+                Codec.decode32(zBytes, 0, z, 0, 4);
+                z[3] &= 0x7FFFFFFF;
+            }
+            while (Nat.isZero(4, z));
+
+            pRs[i] = pR;
+            nRs[i] = z;
+
+            Scalar448.multiply225Var(nS, z, nS);
+            Scalar448.addVar(nB, nS, nB);
+
+            Scalar448.multiply225Var(nk, z, nk);
+
+            PublicKeyKey key = new PublicKeyKey(A);
+            Integer keyIndex = (Integer)keyIndexes.get(key);
+            if (keyIndex == null)
+            {
+                PointAffine pA = new PointAffine();
+                F.negate(publicPoint.data, pA.x);
+                F.copy(publicPoint.data, F.SIZE, pA.y, 0);
+
+                pAs[keyCount] = pA;
+                nAs[keyCount] = Arrays.clone(nk);
+                keyIndexes.put(key, Integers.valueOf(keyCount++));
+            }
+            else
+            {
+                int[] nA = nAs[keyIndex.intValue()];
+                Scalar448.addVar(nA, nk, nA);
+            }
+        }
+
+        PointProjective pZ = new PointProjective();
+        scalarMultStrausBatchVar(nB, nAs, pAs, keyCount, nRs, pRs, count, pZ);
+        return normalizeToNeutralElementVar(pZ);
+    }
+
     private static void invertZs(PointProjective[] points)
     {
         int count = points.length;
@@ -1305,6 +1446,85 @@ private static void scalarMultStraus225Var(int[] nb, int[] np, PointAffine p, in
         pointDouble(r, t);
     }
 
+    private static void scalarMultStrausBatchVar(int[] nb, int[][] nps, PointAffine[] ps, int pCount, int[][] nqs,
+        PointAffine[] qs, int qCount, PointProjective r)
+    {
+//        assert nb.length == SCALAR_INTS;
+//        assert nb[SCALAR_INTS - 1] >>> 30 == 0;
+//        assert nps[i].length == SCALAR_INTS;
+//        assert nqs[i].length == 8;
+//        assert nqs[i][7] == 0 && nqs[i][3] >>> 31 == 0;
+
+        precompute();
+
+        byte[] ws_b = new byte[448];
+        Wnaf.getSignedVar(nb, WNAF_WIDTH_BASE, ws_b);
+
+        PointTemp t = new PointTemp();
+
+        int countP = 1 << (WNAF_WIDTH_BATCH - 2);
+        byte[][] ws_p = new byte[pCount][];
+        PointProjective[][] tp = new PointProjective[pCount][];
+        for (int i = 0; i < pCount; ++i)
+        {
+            ws_p[i] = new byte[448];
+            Wnaf.getSignedVar(nps[i], WNAF_WIDTH_BATCH, ws_p[i]);
+            tp[i] = new PointProjective[countP];
+            pointPrecompute(ps[i], tp[i], 0, countP, t);
+        }
+
+        int countQ = 1 << (WNAF_WIDTH_BATCH_Z - 2);
+        byte[][] ws_q = new byte[qCount][];
+        PointProjective[][] tq = new PointProjective[qCount][];
+        for (int i = 0; i < qCount; ++i)
+        {
+            ws_q[i] = new byte[256];
+            Wnaf.getSignedVar(nqs[i], WNAF_WIDTH_BATCH_Z, ws_q[i]);
+            tq[i] = new PointProjective[countQ];
+            pointPrecompute(qs[i], tq[i], 0, countQ, t);
+        }
+
+        pointSetNeutral(r);
+
+        for (int bit = 447; bit >= 0; --bit)
+        {
+            int wb = ws_b[bit];
+            if (wb != 0)
+            {
+                int index = (wb >> 1) ^ (wb >> 31);
+                pointAddVar(wb < 0, PRECOMP_BASE_WNAF[index], r, t);
+            }
+
+            for (int i = 0; i < pCount; ++i)
+            {
+                int wp = ws_p[i][bit];
+                if (wp != 0)
+                {
+                    int index = (wp >> 1) ^ (wp >> 31);
+                    pointAddVar(wp < 0, tp[i][index], r, t);
+                }
+            }
+
+            if (bit < 128)
+            {
+                for (int i = 0; i < qCount; ++i)
+                {
+                    int wq = ws_q[i][bit];
+                    if (wq != 0)
+                    {
+                        int index = (wq >> 1) ^ (wq >> 31);
+                        pointAddVar(wq < 0, tq[i][index], r, t);
+                    }
+                }
+            }
+
+            pointDouble(r, t);
+        }
+
+        // NOTE: Together with the final pointDouble of the loop, this clears the cofactor of 4
+        pointDouble(r, t);
+    }
+
     public static void sign(byte[] sk, int skOff, byte[] ctx, byte[] m, int mOff, int mLen, byte[] sig, int sigOff)
     {
         byte phflag = 0x00;
@@ -1449,6 +1669,34 @@ public static boolean verify(byte[] sig, int sigOff, PublicPoint publicPoint, by
         return implVerify(sig, sigOff, publicPoint, ctx, phflag, m, mOff, mLen);
     }
 
+    /**
+     * Verify a batch of Ed448 signatures together, which is significantly faster than verifying each one
+     * separately, particularly when many of the signatures are under the same public key.
+     * <p>
+     * A random linear combination of the verification equations is checked, so a result of true means that,
+     * except with negligible probability, every signature would pass {@link #verify}. A result of false only
+     * says that at least one signature is invalid; the signatures can then be checked individually.
+     * </p>
+     *
+     * @param sigs the signatures, each {@link #SIGNATURE_SIZE} bytes.
+     * @param publicPoints the public keys, in the same order as the signatures.
+     * @param ctx the context shared by all the signatures.
+     * @param ms the signed messages, in the same order as the signatures.
+     * @param count the number of signatures in the batch.
+     * @param random a source of randomness for the linear combination.
+     * @return true if all the signatures are valid, false otherwise.
+     */
+    public static boolean verifyBatch(byte[][] sigs, PublicPoint[] publicPoints, byte[] ctx, byte[][] ms, int count,
+        SecureRandom random)
+    {
+        if (count < 1)
+        {
+            return true;
+        }
+
+        return implVerifyBatch(sigs, publicPoints, ctx, ms, count, random);
+    }
+
     public static boolean verifyPrehash(byte[] sig, int sigOff, byte[] pk, int pkOff, byte[] ctx, byte[] ph, int phOff)
     {
         byte phflag = 0x01;
@@ -318,7 +318,25 @@ public byte[][] generateKeyPair()
         return new byte[][]{ sk[0], sk[1], sk[2], sk[3], sk[4], sk[5], encT1};
     }
 
+    /**
+     * Expand the matrix A from the seed rho, as used by both signing and verification.
+     *
+     * @param rho the public seed.
+     * @return the expanded matrix, in the NTT domain.
+     */
+    PolyVecMatrix expandMatrix(byte[] rho)
+    {
+        PolyVecMatrix aMatrix = new PolyVecMatrix(this);
+        aMatrix.expandMatrix(rho);
+        return aMatrix;
+    }
+
     public byte[] signSignature(byte[] msg, int msglen, byte[] rho, byte[] key, byte[] tr, byte[] t0Enc, byte[] s1Enc, byte[] s2Enc)
+    {
+        return signSignature(expandMatrix(rho), msg, msglen, key, tr, t0Enc, s1Enc, s2Enc);
+    }
+
+    byte[] signSignature(PolyVecMatrix aMatrix, byte[] msg, int msglen, byte[] key, byte[] tr, byte[] t0Enc, byte[] s1Enc, byte[] s2Enc)
     {
         int n;
         byte[] outSig = new byte[CryptoBytes + msglen];
@@ -327,7 +345,6 @@ public byte[] signSignature(byte[] msg, int msglen, byte[] rho, byte[] key, byte
         PolyVecL s1 = new PolyVecL(this), y = new PolyVecL(this), z = new PolyVecL(this);
         PolyVecK t0 = new PolyVecK(this), s2 = new PolyVecK(this), w1 = new PolyVecK(this), w0 = new PolyVecK(this), h = new PolyVecK(this);
         Poly cp = new Poly(this);
-        PolyVecMatrix aMatrix = new PolyVecMatrix(this);
 
         Packing.unpackSecretKey(t0, s1, s2, t0Enc, s1Enc, s2Enc, this);
 
@@ -347,8 +364,6 @@ public byte[] signSignature(byte[] msg, int msglen, byte[] rho, byte[] key, byte
         shake256Digest.update(keyMu, 0, SeedBytes + RndBytes + CrhBytes);
         shake256Digest.doFinal(rhoPrime, 0, CrhBytes);
 
-        aMatrix.expandMatrix(rho);
-
         s1.polyVecNtt();
         s2.polyVecNtt();
 
@@ -429,13 +444,17 @@ public byte[] sign(byte[] msg, int mlen, byte[] rho, byte[] key, byte[] tr, byte
     }
 
     public boolean signVerify(byte[] sig, int siglen, byte[] msg, int msglen, byte[] rho, byte[] encT1)
+    {
+        return signVerify(expandMatrix(rho), sig, siglen, msg, msglen, rho, encT1);
+    }
+
+    boolean signVerify(PolyVecMatrix aMatrix, byte[] sig, int siglen, byte[] msg, int msglen, byte[] rho, byte[] encT1)
     {
         byte[] buf,
             mu = new byte[CrhBytes],
             c,
             c2 = new byte[DilithiumCTilde];
         Poly cp = new Poly(this);
-        PolyVecMatrix aMatrix = new PolyVecMatrix(this);
         PolyVecL z = new PolyVecL(this);
         PolyVecK t1 = new PolyVecK(this), w1 = new PolyVecK(this), h = new PolyVecK(this);
 
@@ -487,7 +506,6 @@ public boolean signVerify(byte[] sig, int siglen, byte[] msg, int msglen, byte[]
         // System.out.println("cp = ");
         // System.out.println(cp.toString());
 
-        aMatrix.expandMatrix(rho);
         // System.out.println(aMatrix.toString("aMatrix = "));
 
 
@@ -1,12 +1,21 @@
 package org.bouncycastle.pqc.crypto.crystals.dilithium;
 
 import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
+import org.bouncycastle.util.Properties;
 
 public class DilithiumKeyParameters
     extends AsymmetricKeyParameter
 {
+    /**
+     * If set, keys keep their expanded matrix A after its first use, so later signing or verification
+     * with the same key skips the expansion, at the cost of K * L * 1KB of memory per key.
+     */
+    public static final String CACHE_MATRIX = "org.bouncycastle.dilithium.cache_matrix";
+
     private final DilithiumParameters params;
 
+    private volatile PolyVecMatrix aMatrix = null;
+
     public DilithiumKeyParameters(
         boolean isPrivate,
         DilithiumParameters params)
@@ -20,4 +29,20 @@ public DilithiumParameters getParameters()
         return params;
     }
 
+    PolyVecMatrix getMatrix(DilithiumEngine engine, byte[] rho)
+    {
+        PolyVecMatrix result = aMatrix;
+        if (result == null)
+        {
+            if (!Properties.isOverrideSet(CACHE_MATRIX))
+            {
+                return engine.expandMatrix(rho);
+            }
+
+            // NOTE: Use an engine without the caller's SecureRandom, since the key keeps the matrix.
+            result = params.getEngine(null).expandMatrix(rho);
+            aMatrix = result;
+        }
+        return result;
+    }
 }
@@ -43,13 +43,15 @@ public byte[] generateSignature(byte[] message)
     {
         DilithiumEngine engine = privKey.getParameters().getEngine(random);
 
-        return engine.sign(message, message.length, privKey.rho, privKey.k, privKey.tr, privKey.t0, privKey.s1, privKey.s2);
+        return engine.signSignature(privKey.getMatrix(engine, privKey.rho), message, message.length, privKey.k, privKey.tr,
+            privKey.t0, privKey.s1, privKey.s2);
     }
 
     public boolean verifySignature(byte[] message, byte[] signature)
     {
         DilithiumEngine engine = pubKey.getParameters().getEngine(random);
 
-        return engine.signOpen(message, signature, signature.length, pubKey.rho, pubKey.t1);
+        return engine.signVerify(pubKey.getMatrix(engine, pubKey.rho), signature, signature.length, message,
+            message.length, pubKey.rho, pubKey.t1);
     }
 }
@@ -217,6 +217,18 @@ public byte[][] generateKemKeyPair()
     }
 
     public byte[][] kemEncrypt(byte[] publicKeyInput)
+    {
+        return kemEncrypt(preparePublicKey(publicKeyInput));
+    }
+
+    /**
+     * Validate and unpack an encoded public key, expanding its matrix, so it can be used for any number
+     * of encapsulations.
+     *
+     * @param publicKeyInput the encoded public key.
+     * @return the prepared public key.
+     */
+    KyberPreparedPublicKey preparePublicKey(byte[] publicKeyInput)
     {
         // Input validation (6.2 ML-KEM Encaps)
         // Type Check
@@ -233,7 +245,15 @@ public byte[][] kemEncrypt(byte[] publicKeyInput)
             throw new IllegalArgumentException("Input validation: Modulus check failed for ml-kem encapsulation");
         }
 
+        // SHA3-256 Public Key
+        byte[] hashedPublicKey = new byte[KyberSymBytes];
+        symmetric.hash_h(hashedPublicKey, publicKeyInput, 0);
 
+        return new KyberPreparedPublicKey(polyVec, indCpa.generateMatrix(seed, true), hashedPublicKey);
+    }
+
+    byte[][] kemEncrypt(KyberPreparedPublicKey publicKey)
+    {
         byte[] outputCipherText;
 
         byte[] buf = new byte[2 * KyberSymBytes];
@@ -246,13 +266,14 @@ public byte[][] kemEncrypt(byte[] publicKeyInput)
         System.arraycopy(randBytes, 0, buf, 0, KyberSymBytes);
 
         // SHA3-256 Public Key
-        symmetric.hash_h(buf, publicKeyInput, KyberSymBytes);
+        System.arraycopy(publicKey.hashedPublicKey, 0, buf, KyberSymBytes, KyberSymBytes);
 
         // SHA3-512( SHA3-256(RandBytes) || SHA3-256(PublicKey) )
         symmetric.hash_g(kr, buf);
 
         // IndCpa Encryption
-        outputCipherText = indCpa.encrypt(Arrays.copyOfRange(buf, 0, KyberSymBytes), publicKeyInput, Arrays.copyOfRange(kr, 32, kr.length));
+        outputCipherText = indCpa.encrypt(Arrays.copyOfRange(buf, 0, KyberSymBytes), publicKey.publicKeyPolyVec,
+            publicKey.aMatrixTranspose, Arrays.copyOfRange(kr, 32, kr.length));
 
         byte[] outputSharedSecret = new byte[sessionKeyLength];
 
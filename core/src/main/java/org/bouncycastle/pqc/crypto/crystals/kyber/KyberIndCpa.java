@@ -143,24 +143,13 @@ byte[][] generateKeyPair()
 
     public byte[] encrypt(byte[] msg, byte[] publicKeyInput, byte[] coins)
     {
-        int i;
-        byte[] seed;
-        byte nonce = (byte)0;
-        PolyVec sp = new PolyVec(engine),
-            publicKeyPolyVec = new PolyVec(engine),
-            errorPolyVector = new PolyVec(engine),
-            bp = new PolyVec(engine);
-        PolyVec[] aMatrixTranspose = new PolyVec[engine.getKyberK()];
-        Poly errorPoly = new Poly(engine),
-            v = new Poly(engine),
-            k = new Poly(engine);
-
+        PolyVec publicKeyPolyVec = new PolyVec(engine);
 
         // System.out.print("publickeyinput = ");
         // Helper.printByteArray(publicKeyInput);
         // System.out.println();
 
-        seed = unpackPublicKey(publicKeyPolyVec, publicKeyInput);
+        byte[] seed = unpackPublicKey(publicKeyPolyVec, publicKeyInput);
 
         // System.out.print("publickeyPolyVec = [");
         // for (i = 0; i < kyberK; i++) {
@@ -173,28 +162,30 @@ public byte[] encrypt(byte[] msg, byte[] publicKeyInput, byte[] coins)
         // Helper.printByteArray(seed);
         // System.out.println();
 
-        k.fromMsg(msg);
-
-        for (i = 0; i < kyberK; i++)
-        {
-            aMatrixTranspose[i] = new PolyVec(engine);
-        }
-
-        generateMatrix(aMatrixTranspose, seed, true);
+        return encrypt(msg, publicKeyPolyVec, generateMatrix(seed, true), coins);
+    }
 
-        // System.out.print("matrix transposed = ");
-        // for (i = 0; i < kyberK; i++) {
-        //     System.out.print("[");
-        //     for(int j = 0; j < kyberK; j++) {
-        //         System.out.print("[");
-        //         for (int l = 0; l < 256; l++) {
-        //             System.out.printf("%d ,", aMatrixTranspose[i].getVectorIndex(j).getCoeffIndex(l));
-        //         }
-        //         System.out.print("] ,\n");
-        //     }
-        //     System.out.println("] ,");
-        // }
+    /**
+     * Encrypt using an unpacked public key.
+     *
+     * @param msg the message to encrypt.
+     * @param publicKeyPolyVec the public vector t, in the NTT domain.
+     * @param aMatrixTranspose the transpose of the matrix A, in the NTT domain.
+     * @param coins the random coins for the encryption.
+     * @return the ciphertext.
+     */
+    byte[] encrypt(byte[] msg, PolyVec publicKeyPolyVec, PolyVec[] aMatrixTranspose, byte[] coins)
+    {
+        int i;
+        byte nonce = (byte)0;
+        PolyVec sp = new PolyVec(engine),
+            errorPolyVector = new PolyVec(engine),
+            bp = new PolyVec(engine);
+        Poly errorPoly = new Poly(engine),
+            v = new Poly(engine),
+            k = new Poly(engine);
 
+        k.fromMsg(msg);
 
         for (i = 0; i < kyberK; i++)
         {
@@ -319,6 +310,18 @@ public void unpackSecretKey(PolyVec secretKeyPolyVec, byte[] secretKey)
 
     public final int KyberGenerateMatrixNBlocks;
 
+    PolyVec[] generateMatrix(byte[] seed, boolean transposed)
+    {
+        PolyVec[] aMatrix = new PolyVec[kyberK];
+        for (int i = 0; i < kyberK; i++)
+        {
+            aMatrix[i] = new PolyVec(engine);
+        }
+
+        generateMatrix(aMatrix, seed, transposed);
+        return aMatrix;
+    }
+
     public void generateMatrix(PolyVec[] aMatrix, byte[] seed, boolean transposed)
     {
         int i, j, k, ctr, off;
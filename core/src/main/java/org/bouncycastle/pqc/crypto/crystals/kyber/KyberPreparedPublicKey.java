@@ -0,0 +1,19 @@
+package org.bouncycastle.pqc.crypto.crystals.kyber;
+
+/**
+ * A Kyber public key unpacked ready for encapsulation: the validated public vector t, the transpose of the
+ * matrix A expanded from rho (both in the NTT domain), and the hash of the encoded key.
+ */
+final class KyberPreparedPublicKey
+{
+    final PolyVec publicKeyPolyVec;
+    final PolyVec[] aMatrixTranspose;
+    final byte[] hashedPublicKey;
+
+    KyberPreparedPublicKey(PolyVec publicKeyPolyVec, PolyVec[] aMatrixTranspose, byte[] hashedPublicKey)
+    {
+        this.publicKeyPolyVec = publicKeyPolyVec;
+        this.aMatrixTranspose = aMatrixTranspose;
+        this.hashedPublicKey = hashedPublicKey;
+    }
+}
@@ -1,10 +1,17 @@
 package org.bouncycastle.pqc.crypto.crystals.kyber;
 
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Properties;
 
 public class KyberPublicKeyParameters
     extends KyberKeyParameters
 {
+    /**
+     * If set, public keys keep their unpacked form and expanded matrix A after their first use, so later
+     * encapsulations to the same key skip the expansion, at the cost of roughly K * K * 0.5KB of memory per key.
+     */
+    public static final String CACHE_MATRIX = "org.bouncycastle.kyber.cache_matrix";
+
     static byte[] getEncoded(byte[] t, byte[] rho)
     {
         return Arrays.concatenate(t, rho);
@@ -13,6 +20,8 @@ static byte[] getEncoded(byte[] t, byte[] rho)
     final byte[] t;
     final byte[] rho;
 
+    private volatile KyberPreparedPublicKey preparedKey = null;
+
     public KyberPublicKeyParameters(KyberParameters params, byte[] t, byte[] rho)
     {
         super(false, params);
@@ -32,6 +41,23 @@ public byte[] getEncoded()
         return getEncoded(t, rho);
     }
 
+    KyberPreparedPublicKey getPreparedKey(KyberEngine engine)
+    {
+        KyberPreparedPublicKey result = preparedKey;
+        if (result == null)
+        {
+            if (!Properties.isOverrideSet(CACHE_MATRIX))
+            {
+                return engine.preparePublicKey(getEncoded());
+            }
+
+            // NOTE: Use an engine without the caller's SecureRandom, since the key keeps the result.
+            result = getParameters().getEngine().preparePublicKey(getEncoded());
+            preparedKey = result;
+        }
+        return result;
+    }
+
     /** @deprecated Use {@link #getEncoded()} instead. */
     public byte[] getPublicKey()
     {
@@ -253,7 +253,7 @@ public LMSPrivateKeyParameters extractKeyShard(int usageCount)
     {
         synchronized (this)
         {
-            if (q + usageCount >= maxQ)
+            if (q + usageCount > maxQ)
             {
                 throw new IllegalArgumentException("usageCount exceeds usages remaining");
             }
@@ -61,36 +61,39 @@ byte[] treehash(byte[] skSeed, int s, int z, byte[] pkSeed, ADRS adrsParam)
 
     public SIG_FORS[] sign(byte[] md, byte[] skSeed, byte[] pkSeed, ADRS paramAdrs)
     {
-        ADRS adrs = new ADRS(paramAdrs);
-
         int[] idxs = message_to_idxs(md, engine.K, engine.A);
         SIG_FORS[] sig_fors = new SIG_FORS[engine.K];
 // compute signature elements
-        int t = engine.T;
         for (int i = 0; i < engine.K; i++)
         {
-// get next index
-            int idx = idxs[i];
+            sig_fors[i] = signTree(i, idxs[i], skSeed, pkSeed, paramAdrs);
+        }
+        return sig_fors;
+    }
+
+    // Signature element for the i'th FORS tree, independent of the other trees.
+    SIG_FORS signTree(int i, int idx, byte[] skSeed, byte[] pkSeed, ADRS paramAdrs)
+    {
+        ADRS adrs = new ADRS(paramAdrs);
+        int t = engine.T;
 // pick private key element
-            adrs.setType(ADRS.FORS_PRF);
-            adrs.setKeyPairAddress(paramAdrs.getKeyPairAddress());
-            adrs.setTreeHeight(0);
-            adrs.setTreeIndex(i * t + idx);
+        adrs.setType(ADRS.FORS_PRF);
+        adrs.setKeyPairAddress(paramAdrs.getKeyPairAddress());
+        adrs.setTreeHeight(0);
+        adrs.setTreeIndex(i * t + idx);
 
-            byte[] sk = engine.PRF(pkSeed, skSeed, adrs);
+        byte[] sk = engine.PRF(pkSeed, skSeed, adrs);
 
-            adrs.changeType(ADRS.FORS_TREE);
+        adrs.changeType(ADRS.FORS_TREE);
 
-            byte[][] authPath = new byte[engine.A][];
+        byte[][] authPath = new byte[engine.A][];
 // compute auth path
-            for (int j = 0; j < engine.A; j++)
-            {
-                int s = (idx / (1 << j)) ^ 1;
-                authPath[j] = treehash(skSeed, i * t + s * (1 << j), j, pkSeed, adrs);
-            }
-            sig_fors[i] = new SIG_FORS(sk, authPath);
+        for (int j = 0; j < engine.A; j++)
+        {
+            int s = (idx / (1 << j)) ^ 1;
+            authPath[j] = treehash(skSeed, i * t + s * (1 << j), j, pkSeed, adrs);
         }
-        return sig_fors;
+        return new SIG_FORS(sk, authPath);
     }
 
     public byte[] pkFromSig(SIG_FORS[] sig_fors, byte[] message, byte[] pkSeed, ADRS adrs)
@@ -11,8 +11,6 @@
     SPHINCSPlusEngine engine;
     WotsPlus wots;
 
-    final byte[] htPubKey;
-
     public HT(SPHINCSPlusEngine engine, byte[] skSeed, byte[] pkSeed)
     {
         this.skSeed = skSeed;
@@ -20,22 +18,29 @@ public HT(SPHINCSPlusEngine engine, byte[] skSeed, byte[] pkSeed)
 
         this.engine = engine;
         this.wots = new WotsPlus(engine);
+    }
 
+    // the root of the top layer tree, PK.root (only needed at key generation)
+    byte[] getPublicKey()
+    {
         ADRS adrs = new ADRS();
         adrs.setLayerAddress(engine.D - 1);
         adrs.setTreeAddress(0);
 
-        if (skSeed != null)
-        {
-            htPubKey = xmss_PKgen(skSeed, pkSeed, adrs);
-        }
-        else
-        {
-            htPubKey = null;
-        }
+        return xmss_PKgen(skSeed, pkSeed, adrs);
     }
 
     byte[] sign(byte[] M, long idx_tree, int idx_leaf)
+    {
+        return sign(M, idx_tree, idx_leaf, new byte[engine.D][][]);
+    }
+
+    /**
+     * Sign using any layer authentication paths that have already been calculated, see authPath().
+     *
+     * @param authPaths authentication paths for each layer, entries may be null.
+     */
+    byte[] sign(byte[] M, long idx_tree, int idx_leaf, byte[][][] authPaths)
     {
         // init
         ADRS adrs = new ADRS();
@@ -43,7 +48,7 @@ byte[] sign(byte[] M, long idx_tree, int idx_leaf)
        // adrs.setType(ADRS.TREE);
         adrs.setLayerAddress(0);
         adrs.setTreeAddress(idx_tree);
-        SIG_XMSS SIG_tmp = xmss_sign(M, skSeed, idx_leaf, pkSeed, adrs);
+        SIG_XMSS SIG_tmp = xmss_sign(M, skSeed, idx_leaf, pkSeed, adrs, authPaths[0]);
         SIG_XMSS[] SIG_HT = new SIG_XMSS[engine.D];
         SIG_HT[0] = SIG_tmp;
 
@@ -58,7 +63,7 @@ byte[] sign(byte[] M, long idx_tree, int idx_leaf)
             idx_tree >>>= engine.H_PRIME; // most significant bits of idx_tree;
             adrs.setLayerAddress(j);
             adrs.setTreeAddress(idx_tree);
-            SIG_tmp = xmss_sign(root, skSeed, idx_leaf, pkSeed, adrs);
+            SIG_tmp = xmss_sign(root, skSeed, idx_leaf, pkSeed, adrs, authPaths[j]);
             SIG_HT[j] = SIG_tmp;
             if (j < engine.D - 1)
             {
@@ -75,6 +80,24 @@ byte[] sign(byte[] M, long idx_tree, int idx_leaf)
         return Arrays.concatenate(totSigs);
     }
 
+    /**
+     * Calculate the authentication path used at one layer of the hypertree when signing at idx_tree, idx_leaf.
+     * The paths of the layers are independent of each other and of the message.
+     */
+    byte[][] authPath(int layer, long idx_tree, int idx_leaf)
+    {
+        for (int j = 0; j < layer; j++)
+        {
+            idx_leaf = (int)(idx_tree & ((1 << engine.H_PRIME) - 1));  // least significant bits of idx_tree;
+            idx_tree >>>= engine.H_PRIME; // most significant bits of idx_tree;
+        }
+
+        ADRS adrs = new ADRS();
+        adrs.setLayerAddress(layer);
+        adrs.setTreeAddress(idx_tree);
+        return xmss_authPath(skSeed, idx_leaf, pkSeed, adrs);
+    }
+
     byte[] xmss_PKgen(byte[] skSeed, byte[] pkSeed, ADRS adrs)
     {
         return treehash(skSeed, 0, engine.H_PRIME, pkSeed, adrs);
@@ -119,7 +142,24 @@ byte[] xmss_pkFromSig(int idx, SIG_XMSS sig_xmss, byte[] M, byte[] pkSeed, ADRS
     //    # Input: n-byte message M, secret seed SK.seed, index idx, public seed PK.seed,
     //    address ADRS
     //    # Output: XMSS signature SIG_XMSS = (sig || AUTH)
-    SIG_XMSS xmss_sign(byte[] M, byte[] skSeed, int idx, byte[] pkSeed, ADRS paramAdrs)
+    SIG_XMSS xmss_sign(byte[] M, byte[] skSeed, int idx, byte[] pkSeed, ADRS paramAdrs, byte[][] AUTH)
+    {
+        if (AUTH == null)
+        {
+            AUTH = xmss_authPath(skSeed, idx, pkSeed, paramAdrs);
+        }
+
+        ADRS adrs = new ADRS(paramAdrs);
+        adrs.setType(ADRS.WOTS_PK);
+        adrs.setKeyPairAddress(idx);
+
+        byte[] sig = wots.sign(M, skSeed, pkSeed, adrs);
+
+        return new SIG_XMSS(sig, AUTH);
+    }
+
+    // Authentication path for leaf idx of the XMSS tree at ADRS, which does not depend on the message
+    byte[][] xmss_authPath(byte[] skSeed, int idx, byte[] pkSeed, ADRS paramAdrs)
     {
         byte[][] AUTH = new byte[engine.H_PRIME][];
 
@@ -135,13 +175,7 @@ SIG_XMSS xmss_sign(byte[] M, byte[] skSeed, int idx, byte[] pkSeed, ADRS paramAd
             int k = (idx / (1 << j)) ^ 1;
             AUTH[j] = treehash(skSeed, k * (1 << j), j, pkSeed, adrs);
         }
-        adrs = new ADRS(paramAdrs);
-        adrs.setType(ADRS.WOTS_PK);
-        adrs.setKeyPairAddress(idx);
-
-        byte[] sig = wots.sign(M, skSeed, pkSeed, adrs);
-
-        return new SIG_XMSS(sig, AUTH);
+        return AUTH;
     }
 
     //
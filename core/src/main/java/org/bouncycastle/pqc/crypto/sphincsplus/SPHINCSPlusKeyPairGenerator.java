@@ -45,7 +45,7 @@ public AsymmetricCipherKeyPair generateKeyPair()
         engine.init(pkSeed);
 
         // TODO
-        PK pk = new PK(pkSeed, new HT(engine, sk.seed, pkSeed).htPubKey);
+        PK pk = new PK(pkSeed, new HT(engine, sk.seed, pkSeed).getPublicKey());
 
         return new AsymmetricCipherKeyPair(new SPHINCSPlusPublicKeyParameters(parameters, pk),
             new SPHINCSPlusPrivateKeyParameters(parameters, sk, pk));
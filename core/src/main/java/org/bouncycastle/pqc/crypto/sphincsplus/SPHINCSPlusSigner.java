@@ -1,9 +1,11 @@
 package org.bouncycastle.pqc.crypto.sphincsplus;
 
 import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
 
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.crypto.util.ParallelTaskHelper;
 import org.bouncycastle.pqc.crypto.MessageSigner;
 import org.bouncycastle.util.Arrays;
 
@@ -16,6 +18,12 @@
  *     "https://github.com/sphincs/sphincsplus/commit/61cd2695c6f984b4f4d6ed675378ed9a486cbede"
  *     for further details.
  * </p>
+ * <p>
+ *     Signing can optionally be spread over the threads of an {@link ExecutorService} (for example a
+ *     ForkJoinPool): the FORS trees and the authentication paths of the hypertree layers are independent
+ *     of each other, so each is calculated as a separate task. If a task fails, or the executor rejects one,
+ *     tasks which have not started are skipped and signing only fails once the running ones have finished.
+ * </p>
  */
 public class SPHINCSPlusSigner
     implements MessageSigner
@@ -23,6 +31,8 @@
     private SPHINCSPlusPrivateKeyParameters privKey;
     private SPHINCSPlusPublicKeyParameters pubKey;
 
+    private final ExecutorService executor;
+
     private SecureRandom random;
 
     /**
@@ -30,6 +40,17 @@
      */
     public SPHINCSPlusSigner()
     {
+        this(null);
+    }
+
+    /**
+     * Constructor for a signer that calculates the parts of a signature in parallel.
+     *
+     * @param executor the executor to run signing tasks on, null to sign on the calling thread.
+     */
+    public SPHINCSPlusSigner(ExecutorService executor)
+    {
+        this.executor = executor;
     }
 
     public void init(boolean forSigning, CipherParameters param)
@@ -86,7 +107,16 @@ public byte[] generateSignature(byte[] message)
         adrs.setType(ADRS.FORS_TREE);
         adrs.setTreeAddress(idx_tree);
         adrs.setKeyPairAddress(idx_leaf);
-        SIG_FORS[] sig_fors = fors.sign(mHash, privKey.sk.seed, privKey.pk.seed, adrs);
+        SIG_FORS[] sig_fors;
+        byte[][][] authPaths = new byte[engine.D][][];
+        if (executor != null)
+        {
+            sig_fors = signParallel(mHash, idx_tree, idx_leaf, adrs, authPaths);
+        }
+        else
+        {
+            sig_fors = fors.sign(mHash, privKey.sk.seed, privKey.pk.seed, adrs);
+        }
         // get FORS public key - spec shows M?
         adrs = new ADRS();
         adrs.setType(ADRS.FORS_TREE);
@@ -99,7 +129,7 @@ public byte[] generateSignature(byte[] message)
         treeAdrs.setType(ADRS.TREE);
 
         HT ht = new HT(engine, privKey.getSeed(), privKey.getPublicSeed());
-        byte[] SIG_HT = ht.sign(PK_FORS, idx_tree, idx_leaf);
+        byte[] SIG_HT = ht.sign(PK_FORS, idx_tree, idx_leaf, authPaths);
 
         byte[][] sigComponents = new byte[sig_fors.length + 2][];
         sigComponents[0] = R;
@@ -113,6 +143,60 @@ public byte[] generateSignature(byte[] message)
         return Arrays.concatenate(sigComponents);
     }
 
+    /*
+     * Calculate the FORS signature, and the authentication paths for each hypertree layer, with a task
+     * for each FORS tree and each layer. Every task uses its own engine, as engines are not thread safe.
+     */
+    private SIG_FORS[] signParallel(byte[] mHash, final long idx_tree, final int idx_leaf, final ADRS adrs,
+        final byte[][][] authPaths)
+    {
+        final SPHINCSPlusParameters parameters = privKey.getParameters();
+        final byte[] skSeed = privKey.sk.seed;
+        final byte[] pkSeed = privKey.pk.seed;
+
+        SPHINCSPlusEngine engine = parameters.getEngine();
+        final int[] idxs = Fors.message_to_idxs(mHash, engine.K, engine.A);
+
+        final SIG_FORS[] sig_fors = new SIG_FORS[engine.K];
+        Runnable[] tasks = new Runnable[engine.K + engine.D - 1];
+        for (int i = 0; i < engine.K; i++)
+        {
+            final int tree = i;
+            tasks[i] = new Runnable()
+            {
+                public void run()
+                {
+                    SPHINCSPlusEngine engine = parameters.getEngine();
+                    engine.init(pkSeed);
+
+                    sig_fors[tree] = new Fors(engine).signTree(tree, idxs[tree], skSeed, pkSeed, adrs);
+                }
+            };
+        }
+
+        Runnable[] layerTasks = new Runnable[engine.D];
+        for (int j = 0; j < engine.D; j++)
+        {
+            final int layer = j;
+            layerTasks[j] = new Runnable()
+            {
+                public void run()
+                {
+                    SPHINCSPlusEngine engine = parameters.getEngine();
+                    engine.init(pkSeed);
+
+                    authPaths[layer] = new HT(engine, skSeed, pkSeed).authPath(layer, idx_tree, idx_leaf);
+                }
+            };
+        }
+        System.arraycopy(layerTasks, 1, tasks, engine.K, engine.D - 1);
+
+        // the bottom layer's path is calculated on the calling thread while the executor works on the rest
+        ParallelTaskHelper.run(executor, tasks, layerTasks[0], "SPHINCS+ signing");
+
+        return sig_fors;
+    }
+
     public boolean verifySignature(byte[] message, byte[] signature)
     {
         //# Input: Message M, signature SIG, public key PK
@@ -151,7 +151,8 @@ else if (algOID.equals(PKCSObjectIdentifiers.id_alg_hss_lms_hashsig))
             byte[] keyEnc = ASN1OctetString.getInstance(keyInfo.parsePrivateKey()).getOctets();
             ASN1BitString pubKey = keyInfo.getPublicKeyData();
 
-            if (Pack.bigEndianToInt(keyEnc, 0) == 1)
+            // a single level HSS key is distinguished from an LMS key by its level count, as LMS type codes start at 5
+            if (Pack.bigEndianToInt(keyEnc, 0) == 1 && Pack.bigEndianToInt(keyEnc, 8) != 1)
             {
                 if (pubKey != null)
                 {
@@ -0,0 +1,442 @@
+package org.bouncycastle.pqc.crypto.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
+import org.bouncycastle.pqc.crypto.ExhaustedPrivateKeyException;
+import org.bouncycastle.pqc.crypto.lms.HSSPrivateKeyParameters;
+import org.bouncycastle.pqc.crypto.lms.LMSPrivateKeyParameters;
+import org.bouncycastle.pqc.crypto.xmss.XMSSMTPrivateKeyParameters;
+import org.bouncycastle.pqc.crypto.xmss.XMSSPrivateKeyParameters;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * A persistent store for the state of a stateful (LMS, HSS, XMSS, or XMSS^MT) private key, which guarantees
+ * that no key index is ever used twice, even if the process using the store is terminated at any point.
+ * <p>
+ * Rather than saving the key after each signature, the store reserves indices in batches: the key held in
+ * memory is moved past the batch and its state saved to the store file (and forced to the storage device)
+ * before any index in the batch is used. Signing keys are then handed out from the reserved batch without
+ * any further I/O until the batch is used up. If the process is terminated, any unused indices of the
+ * current batch are lost, but none can be reused.
+ * </p>
+ * <p>
+ * The store file is memory mapped and holds two slots for the key state, which are written alternately so
+ * that an interrupted write always leaves the previous state intact. Each slot carries a sequence number and
+ * a SHA-256 checksum, and the valid slot with the highest sequence number is the current state. An empty
+ * state records that every index has been reserved. The file is locked while the store is open so only one
+ * store can use it at a time.
+ * </p>
+ */
+public class StateAwarePrivateKeyStore
+{
+    private static final byte[] MAGIC = new byte[]{ 'B', 'C', 'K', 'S', 'T', 'A', 'T', 'E' };
+    private static final int VERSION = 1;
+
+    // magic, version, slot capacity
+    private static final int HEADER_SIZE = MAGIC.length + 4 + 4;
+    // sequence number, data length, data, checksum
+    private static final int SLOT_OVERHEAD = 8 + 4 + 32;
+
+    private final RandomAccessFile file;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+    private final int slotCapacity;
+    private final int reservationSize;
+
+    private AsymmetricKeyParameter key;         // null once every index has been reserved
+    private AsymmetricKeyParameter reserved;
+    private long sequence;
+    private int currentSlot;
+    private boolean closed;
+
+    private StateAwarePrivateKeyStore(RandomAccessFile file, FileLock lock, MappedByteBuffer buffer,
+        int slotCapacity, int reservationSize)
+    {
+        this.file = file;
+        this.lock = lock;
+        this.buffer = buffer;
+        this.slotCapacity = slotCapacity;
+        this.reservationSize = reservationSize;
+    }
+
+    /**
+     * Create a new store file holding privateKey.
+     *
+     * @param storeFile the file to create, which must not already exist.
+     * @param privateKey an LMS, HSS, XMSS, or XMSS^MT private key, which should not be used outside the store.
+     * @param reservationSize the number of indices to reserve each time the store file is written.
+     * @return an open store.
+     * @throws IOException if the file exists or cannot be written.
+     */
+    public static StateAwarePrivateKeyStore create(File storeFile, AsymmetricKeyParameter privateKey,
+        int reservationSize)
+        throws IOException
+    {
+        checkReservationSize(reservationSize);
+        getUsagesRemaining(privateKey);      // check the key type
+
+        if (!storeFile.createNewFile())
+        {
+            throw new IOException("store file " + storeFile + " already exists");
+        }
+
+        byte[] encoding = encode(privateKey);
+        // leave room for encodings that vary in length as the key state changes
+        int slotCapacity = 2 * encoding.length + 1024;
+
+        RandomAccessFile file = new RandomAccessFile(storeFile, "rw");
+        try
+        {
+            FileLock lock = lockFile(file);
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + 2L * (SLOT_OVERHEAD + slotCapacity));
+
+            buffer.put(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(slotCapacity);
+
+            StateAwarePrivateKeyStore store = new StateAwarePrivateKeyStore(file, lock, buffer, slotCapacity,
+                reservationSize);
+
+            store.key = privateKey;
+            store.currentSlot = 1;
+            store.writeState(encoding);
+
+            return store;
+        }
+        catch (IOException e)
+        {
+            file.close();
+            storeFile.delete();
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            file.close();
+            storeFile.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Open an existing store file, recovering the most recently saved key state.
+     *
+     * @param storeFile the store file.
+     * @param reservationSize the number of indices to reserve each time the store file is written.
+     * @return an open store.
+     * @throws IOException if the file cannot be read, is in use, or holds no valid key state.
+     */
+    public static StateAwarePrivateKeyStore open(File storeFile, int reservationSize)
+        throws IOException
+    {
+        checkReservationSize(reservationSize);
+
+        RandomAccessFile file = new RandomAccessFile(storeFile, "rw");
+        try
+        {
+            FileLock lock = lockFile(file);
+
+            if (file.length() < HEADER_SIZE)
+            {
+                throw new IOException("store file truncated");
+            }
+
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, file.length());
+
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.areEqual(MAGIC, magic) || buffer.getInt() != VERSION)
+            {
+                throw new IOException("not a key state store file");
+            }
+            int slotCapacity = buffer.getInt();
+            if (slotCapacity <= 0 || file.length() < HEADER_SIZE + 2L * (SLOT_OVERHEAD + slotCapacity))
+            {
+                throw new IOException("store file truncated");
+            }
+
+            StateAwarePrivateKeyStore store = new StateAwarePrivateKeyStore(file, lock, buffer, slotCapacity,
+                reservationSize);
+
+            store.readState();
+
+            return store;
+        }
+        catch (IOException e)
+        {
+            file.close();
+            throw e;
+        }
+        catch (RuntimeException e)
+        {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a private key that can be used for one signature. A new batch of indices is reserved, and the
+     * store file written, only when the current batch is used up.
+     *
+     * @return a private key good for a single signature.
+     * @throws IOException if a new batch cannot be reserved.
+     * @throws ExhaustedPrivateKeyException if no indices remain.
+     */
+    public synchronized AsymmetricKeyParameter getNextKey()
+        throws IOException
+    {
+        checkOpen();
+
+        if (reserved == null || getUsagesRemaining(reserved) == 0)
+        {
+            reserve();
+        }
+
+        return extractKeyShard(reserved, 1);
+    }
+
+    /**
+     * Return the number of signatures that can still be made with the stored key, including those left in
+     * the current reservation.
+     *
+     * @return the number of usages remaining.
+     */
+    public synchronized long getUsagesRemaining()
+    {
+        checkOpen();
+
+        long remaining = (key == null) ? 0 : getUsagesRemaining(key);
+        if (reserved != null)
+        {
+            remaining += getUsagesRemaining(reserved);
+        }
+        return remaining;
+    }
+
+    /**
+     * Close the store. Any indices left in the current reservation are discarded.
+     *
+     * @throws IOException if the store file cannot be closed.
+     */
+    public synchronized void close()
+        throws IOException
+    {
+        closed = true;
+        key = null;
+        reserved = null;
+
+        try
+        {
+            lock.release();
+        }
+        finally
+        {
+            file.close();
+        }
+    }
+
+    private void reserve()
+        throws IOException
+    {
+        long remaining = (key == null) ? 0 : getUsagesRemaining(key);
+        if (remaining == 0)
+        {
+            throw new ExhaustedPrivateKeyException("private key exhausted");
+        }
+
+        // move the key past the batch, and record that before handing out any of it
+        int batchSize = (int)Math.min(reservationSize, remaining);
+        AsymmetricKeyParameter batch = extractKeyShard(key, batchSize);
+
+        if (batchSize == remaining)
+        {
+            // some exhausted keys cannot be encoded, so record an empty state instead
+            writeState(new byte[0]);
+            key = null;
+        }
+        else
+        {
+            writeState(encode(key));
+        }
+
+        reserved = batch;
+    }
+
+    private void writeState(byte[] encoding)
+        throws IOException
+    {
+        if (encoding.length > slotCapacity)
+        {
+            throw new IOException("key state too large for store file");
+        }
+
+        int slot = 1 - currentSlot;
+        long seq = sequence + 1;
+
+        ((java.nio.Buffer)buffer).position(slotOffset(slot));
+        buffer.putLong(seq);
+        buffer.putInt(encoding.length);
+        buffer.put(encoding);
+        buffer.put(checksum(seq, encoding));
+        buffer.force();
+
+        sequence = seq;
+        currentSlot = slot;
+    }
+
+    private void readState()
+        throws IOException
+    {
+        int latest = -1;
+        long latestSeq = 0;
+        byte[] latestEncoding = null;
+
+        for (int slot = 0; slot < 2; slot++)
+        {
+            ((java.nio.Buffer)buffer).position(slotOffset(slot));
+            long seq = buffer.getLong();
+            int length = buffer.getInt();
+            if (seq <= 0 || length < 0 || length > slotCapacity)
+            {
+                continue;
+            }
+
+            byte[] encoding = new byte[length];
+            buffer.get(encoding);
+            byte[] check = new byte[32];
+            buffer.get(check);
+
+            if (Arrays.constantTimeAreEqual(check, checksum(seq, encoding)) && seq > latestSeq)
+            {
+                latest = slot;
+                latestSeq = seq;
+                latestEncoding = encoding;
+            }
+        }
+
+        if (latest < 0)
+        {
+            throw new IOException("no valid key state in store file");
+        }
+
+        if (latestEncoding.length != 0)
+        {
+            key = PrivateKeyFactory.createKey(latestEncoding);
+            getUsagesRemaining(key);      // check the key type
+        }
+        sequence = latestSeq;
+        currentSlot = latest;
+    }
+
+    private void checkOpen()
+    {
+        if (closed)
+        {
+            throw new IllegalStateException("store closed");
+        }
+    }
+
+    private int slotOffset(int slot)
+    {
+        return HEADER_SIZE + slot * (SLOT_OVERHEAD + slotCapacity);
+    }
+
+    private static byte[] checksum(long seq, byte[] encoding)
+    {
+        SHA256Digest digest = new SHA256Digest();
+        byte[] check = new byte[digest.getDigestSize()];
+
+        for (int i = 56; i >= 0; i -= 8)
+        {
+            digest.update((byte)(seq >>> i));
+        }
+        digest.update(encoding, 0, encoding.length);
+        digest.doFinal(check, 0);
+
+        return check;
+    }
+
+    private static byte[] encode(AsymmetricKeyParameter key)
+        throws IOException
+    {
+        return PrivateKeyInfoFactory.createPrivateKeyInfo(key).getEncoded();
+    }
+
+    private static FileLock lockFile(RandomAccessFile file)
+        throws IOException
+    {
+        FileLock lock;
+        try
+        {
+            lock = file.getChannel().tryLock();
+        }
+        catch (OverlappingFileLockException e)
+        {
+            lock = null;
+        }
+
+        if (lock == null)
+        {
+            throw new IOException("store file in use");
+        }
+        return lock;
+    }
+
+    private static void checkReservationSize(int reservationSize)
+    {
+        if (reservationSize < 1)
+        {
+            throw new IllegalArgumentException("reservationSize must be at least 1");
+        }
+    }
+
+    private static long getUsagesRemaining(AsymmetricKeyParameter key)
+    {
+        if (key instanceof HSSPrivateKeyParameters)
+        {
+            return ((HSSPrivateKeyParameters)key).getUsagesRemaining();
+        }
+        else if (key instanceof LMSPrivateKeyParameters)
+        {
+            return ((LMSPrivateKeyParameters)key).getUsagesRemaining();
+        }
+        else if (key instanceof XMSSPrivateKeyParameters)
+        {
+            return ((XMSSPrivateKeyParameters)key).getUsagesRemaining();
+        }
+        else if (key instanceof XMSSMTPrivateKeyParameters)
+        {
+            return ((XMSSMTPrivateKeyParameters)key).getUsagesRemaining();
+        }
+
+        throw new IllegalArgumentException("key is not a stateful private key");
+    }
+
+    private static AsymmetricKeyParameter extractKeyShard(AsymmetricKeyParameter key, int usageCount)
+    {
+        if (key instanceof HSSPrivateKeyParameters)
+        {
+            return ((HSSPrivateKeyParameters)key).extractKeyShard(usageCount);
+        }
+        else if (key instanceof LMSPrivateKeyParameters)
+        {
+            return ((LMSPrivateKeyParameters)key).extractKeyShard(usageCount);
+        }
+        else if (key instanceof XMSSPrivateKeyParameters)
+        {
+            return ((XMSSPrivateKeyParameters)key).extractKeyShard(usageCount);
+        }
+        else
+        {
+            return ((XMSSMTPrivateKeyParameters)key).extractKeyShard(usageCount);
+        }
+    }
+}
@@ -365,6 +365,24 @@ public void performTest()
 
         drbg.generate(output, tv.additionalInput(0), tv.predictionResistance());
 
+        // the multi-block path must match block at a time generation
+        int[] lengths = { 1, 15, 16, 17, 255, 256, 257, 1000 };
+        SP80090DRBG multi = new CTRSP800DRBG(AESEngine.newInstance(), 256, 256, new Bit256EntropyProvider().get(256), null, null);
+        SP80090DRBG single = new CTRSP800DRBG(new SingleBlockCipher(AESEngine.newInstance()), 256, 256, new Bit256EntropyProvider().get(256), null, null);
+        for (int i = 0; i != lengths.length; i++)
+        {
+            byte[] multiOutput = new byte[lengths[i]];
+            byte[] singleOutput = new byte[lengths[i]];
+
+            multi.generate(multiOutput, null, false);
+            single.generate(singleOutput, null, false);
+
+            if (!areEqual(singleOutput, multiOutput))
+            {
+                fail("multi-block output mismatch for length " + lengths[i]);
+            }
+        }
+
         // Exception tests
         SP80090DRBG d;
         try
@@ -477,6 +495,44 @@ public void performTest()
         }
     }
 
+    private static class SingleBlockCipher
+        implements BlockCipher
+    {
+        private BlockCipher cipher;
+
+        SingleBlockCipher(BlockCipher cipher)
+        {
+            this.cipher = cipher;
+        }
+
+        public void init(boolean forEncryption, CipherParameters params)
+            throws IllegalArgumentException
+        {
+            cipher.init(forEncryption, params);
+        }
+
+        public String getAlgorithmName()
+        {
+            return cipher.getAlgorithmName();
+        }
+
+        public int getBlockSize()
+        {
+            return cipher.getBlockSize();
+        }
+
+        public int processBlock(byte[] in, int inOff, byte[] out, int outOff)
+            throws DataLengthException, IllegalStateException
+        {
+            return cipher.processBlock(in, inOff, out, outOff);
+        }
+
+        public void reset()
+        {
+            cipher.reset();
+        }
+    }
+
     private class KeyParityCipher
         implements BlockCipher
     {
@@ -7,6 +7,7 @@
 import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.DefaultBufferedBlockCipher;
 import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.MultiBlockCipher;
 import org.bouncycastle.crypto.engines.AESEngine;
 import org.bouncycastle.crypto.modes.CBCBlockCipher;
 import org.bouncycastle.crypto.modes.CFBBlockCipher;
@@ -492,6 +493,63 @@ private void ctrFragmentedTest()
         }
     }
 
+    private void multiBlockTest()
+    {
+        SecureRandom random = new SecureRandom();
+        int[] keySizes = { 16, 24, 32 };
+
+        for (int k = 0; k != keySizes.length; k++)
+        {
+            KeyParameter kp = new KeyParameter(new byte[keySizes[k]]);
+            random.nextBytes(kp.getKey());
+
+            for (int blockCount = 0; blockCount <= 11; ++blockCount)
+            {
+                byte[] in = new byte[3 + blockCount * 16];
+                random.nextBytes(in);
+
+                for (int dir = 0; dir != 2; dir++)
+                {
+                    boolean forEncryption = dir == 0;
+                    MultiBlockCipher single = AESEngine.newInstance();
+                    MultiBlockCipher multi = AESEngine.newInstance();
+                    single.init(forEncryption, kp);
+                    multi.init(forEncryption, kp);
+
+                    byte[] expected = new byte[in.length + 5];
+                    for (int i = 0; i != blockCount; i++)
+                    {
+                        single.processBlock(in, 3 + i * 16, expected, 5 + i * 16);
+                    }
+
+                    byte[] actual = new byte[in.length + 5];
+                    int len = multi.processBlocks(in, 3, blockCount, actual, 5);
+
+                    isEquals("processBlocks length", blockCount * 16, len);
+                    isTrue("processBlocks mismatch: " + keySizes[k] + "/" + blockCount + "/" + forEncryption,
+                        areEqual(expected, actual));
+                }
+
+                CTRModeCipher ctrBulk = SICBlockCipher.newInstance(AESEngine.newInstance());
+                CTRModeCipher ctrBytes = SICBlockCipher.newInstance(AESEngine.newInstance());
+                ParametersWithIV ivParams = new ParametersWithIV(kp, Hex.decode("000102030405060708090a0bfffffffe"));
+                ctrBulk.init(true, ivParams);
+                ctrBytes.init(true, ivParams);
+
+                byte[] expected = new byte[in.length];
+                for (int i = 0; i != in.length; i++)
+                {
+                    expected[i] = ctrBytes.returnByte(in[i]);
+                }
+
+                byte[] actual = new byte[in.length];
+                ctrBulk.processBytes(in, 0, in.length, actual, 0);
+
+                isTrue("SIC bulk mismatch: " + keySizes[k] + "/" + blockCount, areEqual(expected, actual));
+            }
+        }
+    }
+
     public void performTest()
         throws Exception
     {
@@ -538,6 +596,7 @@ public void performTest()
         skipTest();
         ctrCounterTest();
         ctrFragmentedTest();
+        multiBlockTest();
         testLastByte();
     }
 
@@ -1,7 +1,19 @@
 package org.bouncycastle.crypto.test;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
+import java.security.SecureRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.bouncycastle.crypto.CryptoServicePurpose;
 import org.bouncycastle.crypto.digests.Blake3Digest;
 import org.bouncycastle.crypto.params.Blake3Parameters;
+import org.bouncycastle.crypto.util.FileDigester;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.SimpleTest;
@@ -257,6 +269,168 @@ public void performTest()
         runTestCase(TEST16384);
         runTestCase(TEST31744);
         runTestCase(TEST102400);
+
+        testParallel();
+        testParallelFailure();
+    }
+
+    /**
+     * Check that parallel hashing gives the same results as sequential hashing.
+     */
+    private void testParallel()
+        throws Exception
+    {
+        final ExecutorService myExecutor = Executors.newFixedThreadPool(4);
+        try
+        {
+            /* Check against the largest vector */
+            final Blake3Digest myDigest = new Blake3Digest(256, CryptoServicePurpose.ANY, myExecutor);
+            final byte[] myOutput = new byte[TEST102400.theHash.length];
+            myDigest.update(TEST102400.theData, 0, TEST102400.theLength);
+            myDigest.doFinal(myOutput, 0, myOutput.length);
+            isTrue("parallel digest mismatch", Arrays.areEqual(TEST102400.theHash, myOutput));
+
+            myDigest.init(Blake3Parameters.key(BLAKE3KEY));
+            myDigest.update(TEST102400.theData, 0, TEST102400.theLength);
+            myDigest.doFinal(myOutput, 0, myOutput.length);
+            isTrue("parallel keyedDigest mismatch", Arrays.areEqual(TEST102400.theKeyed, myOutput));
+
+            /* Check larger data, starting part way through chunks and blocks */
+            final byte[] myData = new byte[(1 << 20) + 12345];
+            new SecureRandom().nextBytes(myData);
+            final int[] myPrefixes = {0, 1, 63, 64, 65, 1023, 1024, 1025, 3 * 1024, 70000};
+            for (int i = 0; i < myPrefixes.length; i++)
+            {
+                final Blake3Digest mySequential = new Blake3Digest();
+                final Blake3Digest myParallel = new Blake3Digest(256, CryptoServicePurpose.ANY, myExecutor);
+                final int myPrefix = myPrefixes[i];
+
+                mySequential.update(myData, 0, myData.length);
+                myParallel.update(myData, 0, myPrefix);
+                myParallel.update(myData, myPrefix, myData.length - myPrefix);
+
+                final byte[] myExpected = new byte[64];
+                final byte[] myResult = new byte[64];
+                mySequential.doFinal(myExpected, 0, myExpected.length);
+                myParallel.doFinal(myResult, 0, myResult.length);
+                isTrue("parallel mismatch at prefix " + myPrefix, Arrays.areEqual(myExpected, myResult));
+            }
+
+            /* Check the file helper */
+            final File myFile = File.createTempFile("blake3", ".dat");
+            try
+            {
+                final FileOutputStream myOut = new FileOutputStream(myFile);
+                myOut.write(myData);
+                myOut.close();
+
+                final Blake3Digest mySequential = new Blake3Digest();
+                mySequential.update(myData, 0, myData.length);
+                final byte[] myExpected = new byte[32];
+                mySequential.doFinal(myExpected, 0);
+
+                final byte[] myResult = new byte[32];
+                myDigest.init(null);
+                FileDigester.update(myDigest, myFile, 100000);
+                myDigest.doFinal(myResult, 0);
+                isTrue("file digest mismatch", Arrays.areEqual(myExpected, myResult));
+
+                FileDigester.update(myDigest, myFile);
+                myDigest.doFinal(myResult, 0);
+                isTrue("file default region mismatch", Arrays.areEqual(myExpected, myResult));
+
+                final FileInputStream myIn = new FileInputStream(myFile);
+                try
+                {
+                    final FileChannel myChannel = myIn.getChannel();
+                    checkFileRange(myDigest, myChannel, -1, 10);
+                    checkFileRange(myDigest, myChannel, 0, -1);
+                    checkFileRange(myDigest, myChannel, 1, myData.length);
+                }
+                finally
+                {
+                    myIn.close();
+                }
+            }
+            finally
+            {
+                myFile.delete();
+            }
+        }
+        finally
+        {
+            myExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Check that a failed parallel update leaves the digest reset rather than part way through the message.
+     */
+    private void testParallelFailure()
+    {
+        /* Executor that runs the first subtree then refuses any more */
+        final Executor myExecutor = new Executor()
+        {
+            private int theCount;
+
+            public void execute(final Runnable pTask)
+            {
+                if (theCount++ > 0)
+                {
+                    throw new RejectedExecutionException("no more subtrees");
+                }
+                pTask.run();
+            }
+        };
+
+        final byte[] myData = new byte[1 << 20];
+        new SecureRandom().nextBytes(myData);
+        final Blake3Digest myDigest = new Blake3Digest(256, CryptoServicePurpose.ANY, myExecutor);
+        myDigest.update(myData, 0, 100);
+        try
+        {
+            myDigest.update(myData, 100, myData.length - 100);
+            fail("rejected subtree not reported");
+        }
+        catch (RejectedExecutionException e)
+        {
+            // expected
+        }
+
+        final Blake3Digest mySequential = new Blake3Digest();
+        mySequential.update(myData, 0, 1000);
+        myDigest.update(myData, 0, 1000);
+
+        final byte[] myExpected = new byte[32];
+        final byte[] myResult = new byte[32];
+        mySequential.doFinal(myExpected, 0);
+        myDigest.doFinal(myResult, 0);
+        isTrue("digest not reset after failure", Arrays.areEqual(myExpected, myResult));
+    }
+
+    /**
+     * Check that the file helper rejects an out of range section of a channel.
+     *
+     * @param pDigest the digest
+     * @param pChannel the channel
+     * @param pPosition the start of the section
+     * @param pLength the length of the section
+     */
+    private void checkFileRange(final Blake3Digest pDigest,
+                                final FileChannel pChannel,
+                                final long pPosition,
+                                final long pLength)
+        throws Exception
+    {
+        try
+        {
+            FileDigester.update(pDigest, pChannel, pPosition, pLength, 100000);
+            fail("range not rejected: " + pPosition + "/" + pLength);
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
     }
 
     /**
@@ -31,6 +31,7 @@
 import org.bouncycastle.crypto.params.MQVPublicParameters;
 import org.bouncycastle.crypto.params.ParametersWithRandom;
 import org.bouncycastle.crypto.signers.DSADigestSigner;
+import org.bouncycastle.crypto.signers.ECDSABatchVerifier;
 import org.bouncycastle.crypto.signers.ECDSASigner;
 import org.bouncycastle.math.ec.ECConstants;
 import org.bouncycastle.math.ec.ECCurve;
@@ -431,6 +432,77 @@ private void testECDSASecP224k1sha256()
     }
 
     // L4.2  X9.62 2005
+    private void testECDSABatch()
+    {
+        SecureRandom random = new SecureRandom();
+
+        X9ECParameters p256 = CustomNamedCurves.getByName("P-256");
+        X9ECParameters k233 = ECNamedCurveTable.getByName("K-233");
+        ECCurve affine = NISTNamedCurves.getByName("P-256").getCurve().configure()
+            .setCoordinateSystem(ECCurve.COORD_AFFINE).create();
+
+        ECDomainParameters[] domains = new ECDomainParameters[]{
+            new ECDomainParameters(p256),
+            new ECDomainParameters(k233),
+            new ECDomainParameters(affine, affine.importPoint(p256.getG()), p256.getN(), p256.getH()) };
+
+        int count = 30;
+        ECPublicKeyParameters[] pubKeys = new ECPublicKeyParameters[count];
+        byte[][] messages = new byte[count][];
+        BigInteger[][] sigs = new BigInteger[count][];
+
+        ECDSASigner dsa = new ECDSASigner();
+        for (int i = 0; i < count; ++i)
+        {
+            ECKeyPairGenerator kpGen = new ECKeyPairGenerator();
+            kpGen.init(new ECKeyGenerationParameters(domains[i % domains.length], random));
+            AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+            pubKeys[i] = (ECPublicKeyParameters)kp.getPublic();
+            messages[i] = new byte[32];
+            random.nextBytes(messages[i]);
+
+            dsa.init(true, new ParametersWithRandom(kp.getPrivate(), random));
+            sigs[i] = dsa.generateSignature(messages[i]);
+        }
+
+        ECDSABatchVerifier verifier = new ECDSABatchVerifier();
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(pubKeys[i], messages[i], sigs[i][0], sigs[i][1]);
+        }
+        isTrue("batch verification failed", verifier.verify());
+        isEquals(0, verifier.size());
+
+        for (int i = 0; i < count; ++i)
+        {
+            BigInteger r = sigs[i][0], s = sigs[i][1];
+            switch (i)
+            {
+            case 4:
+                s = s.add(ECConstants.ONE);
+                break;
+            case 5:
+                r = pubKeys[i].getParameters().getN();
+                break;
+            case 7:
+                s = ECConstants.ZERO;
+                break;
+            case 11:
+                r = sigs[i - 1][0];
+                break;
+            }
+            verifier.add(pubKeys[i], messages[i], r, s);
+        }
+
+        boolean[] results = verifier.verifyEach();
+        for (int i = 0; i < count; ++i)
+        {
+            boolean expected = !(i == 4 || i == 5 || i == 7 || i == 11);
+            isTrue("batch result " + i + " wrong", results[i] == expected);
+        }
+    }
+
     private void testECDSAP256sha256()
     {
         X9ECParameters p = NISTNamedCurves.getByName("P-256");
@@ -1154,6 +1226,7 @@ public void performTest()
         testECDSAP224sha224();
         testECDSAP224OneByteOver();
         testECDSAP256sha256();
+        testECDSABatch();
         testECDSAP521sha512();
         testECDSASecP224k1sha256();
         testECDSA239bitBinaryAndLargeDigest();
@@ -8,6 +8,7 @@
 import org.bouncycastle.crypto.params.Ed25519KeyGenerationParameters;
 import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
 import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519BatchVerifier;
 import org.bouncycastle.crypto.signers.Ed25519Signer;
 import org.bouncycastle.crypto.signers.Ed25519ctxSigner;
 import org.bouncycastle.crypto.signers.Ed25519phSigner;
@@ -46,6 +47,7 @@ public void performTest()
             testConsistency(Ed25519.Algorithm.Ed25519ph, context);
         }
 
+        testBatch();
         testRegressionInfiniteLoop();
     }
 
@@ -161,6 +163,66 @@ private void testConsistency(int algorithm, byte[] context)
         }
     }
 
+    private void testBatch()
+        throws Exception
+    {
+        Ed25519KeyPairGenerator kpg = new Ed25519KeyPairGenerator();
+        kpg.init(new Ed25519KeyGenerationParameters(RANDOM));
+
+        Ed25519PrivateKeyParameters[] privateKeys = new Ed25519PrivateKeyParameters[3];
+        for (int i = 0; i < privateKeys.length; ++i)
+        {
+            privateKeys[i] = (Ed25519PrivateKeyParameters)kpg.generateKeyPair().getPrivate();
+        }
+
+        int count = 40;
+        Ed25519PublicKeyParameters[] publicKeys = new Ed25519PublicKeyParameters[count];
+        byte[][] msgs = new byte[count][];
+        byte[][] sigs = new byte[count][];
+
+        Signer signer = new Ed25519Signer();
+        for (int i = 0; i < count; ++i)
+        {
+            Ed25519PrivateKeyParameters privateKey = privateKeys[i % privateKeys.length];
+            publicKeys[i] = privateKey.generatePublicKey();
+            msgs[i] = new byte[RANDOM.nextInt() & 255];
+            RANDOM.nextBytes(msgs[i]);
+
+            signer.init(true, privateKey);
+            signer.update(msgs[i], 0, msgs[i].length);
+            sigs[i] = signer.generateSignature();
+        }
+
+        Ed25519BatchVerifier verifier = new Ed25519BatchVerifier(RANDOM);
+
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(publicKeys[i], msgs[i], 0, msgs[i].length, sigs[i]);
+        }
+        isTrue("Ed25519 batch failed to verify", verifier.verify());
+        isEquals(0, verifier.size());
+
+        int bad = (RANDOM.nextInt() >>> 1) % count;
+        sigs[bad] = Arrays.clone(sigs[bad]);
+        sigs[bad][(RANDOM.nextInt() >>> 1) % sigs[bad].length] ^= 1 << (RANDOM.nextInt() & 7);
+
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(publicKeys[i], msgs[i], 0, msgs[i].length, sigs[i]);
+        }
+        isTrue("Ed25519 batch with bad signature incorrectly verified", !verifier.verify());
+
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(publicKeys[i], msgs[i], 0, msgs[i].length, sigs[i]);
+        }
+        boolean[] results = verifier.verifyEach();
+        for (int i = 0; i < count; ++i)
+        {
+            isTrue("Ed25519 batch result wrong at " + i, results[i] == (i != bad));
+        }
+    }
+
     private void testRegressionInfiniteLoop()
         throws Exception
     {
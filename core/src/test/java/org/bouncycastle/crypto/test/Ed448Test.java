@@ -8,6 +8,7 @@
 import org.bouncycastle.crypto.params.Ed448KeyGenerationParameters;
 import org.bouncycastle.crypto.params.Ed448PrivateKeyParameters;
 import org.bouncycastle.crypto.params.Ed448PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed448BatchVerifier;
 import org.bouncycastle.crypto.signers.Ed448Signer;
 import org.bouncycastle.crypto.signers.Ed448phSigner;
 import org.bouncycastle.math.ec.rfc8032.Ed448;
@@ -43,6 +44,7 @@ public void performTest()
             testConsistency(Ed448.Algorithm.Ed448ph, context);
         }
 
+        testBatch();
         testRegressionInfiniteLoop();
     }
 
@@ -170,6 +172,68 @@ private void testConsistency(int algorithm, byte[] context)
         }
     }
 
+    private void testBatch()
+        throws Exception
+    {
+        byte[] context = randomContext(RANDOM.nextInt() & 255);
+
+        Ed448KeyPairGenerator kpg = new Ed448KeyPairGenerator();
+        kpg.init(new Ed448KeyGenerationParameters(RANDOM));
+
+        Ed448PrivateKeyParameters[] privateKeys = new Ed448PrivateKeyParameters[3];
+        for (int i = 0; i < privateKeys.length; ++i)
+        {
+            privateKeys[i] = (Ed448PrivateKeyParameters)kpg.generateKeyPair().getPrivate();
+        }
+
+        int count = 40;
+        Ed448PublicKeyParameters[] publicKeys = new Ed448PublicKeyParameters[count];
+        byte[][] msgs = new byte[count][];
+        byte[][] sigs = new byte[count][];
+
+        Signer signer = new Ed448Signer(context);
+        for (int i = 0; i < count; ++i)
+        {
+            Ed448PrivateKeyParameters privateKey = privateKeys[i % privateKeys.length];
+            publicKeys[i] = privateKey.generatePublicKey();
+            msgs[i] = new byte[RANDOM.nextInt() & 255];
+            RANDOM.nextBytes(msgs[i]);
+
+            signer.init(true, privateKey);
+            signer.update(msgs[i], 0, msgs[i].length);
+            sigs[i] = signer.generateSignature();
+        }
+
+        Ed448BatchVerifier verifier = new Ed448BatchVerifier(context, RANDOM);
+
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(publicKeys[i], msgs[i], 0, msgs[i].length, sigs[i]);
+        }
+        isTrue("Ed448 batch failed to verify", verifier.verify());
+        isEquals(0, verifier.size());
+
+        int bad = (RANDOM.nextInt() >>> 1) % count;
+        sigs[bad] = Arrays.clone(sigs[bad]);
+        sigs[bad][(RANDOM.nextInt() >>> 1) % sigs[bad].length] ^= 1 << (RANDOM.nextInt() & 7);
+
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(publicKeys[i], msgs[i], 0, msgs[i].length, sigs[i]);
+        }
+        isTrue("Ed448 batch with bad signature incorrectly verified", !verifier.verify());
+
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(publicKeys[i], msgs[i], 0, msgs[i].length, sigs[i]);
+        }
+        boolean[] results = verifier.verifyEach();
+        for (int i = 0; i < count; ++i)
+        {
+            isTrue("Ed448 batch result wrong at " + i, results[i] == (i != bad));
+        }
+    }
+
     private void testRegressionInfiniteLoop()
         throws Exception
     {
@@ -3,11 +3,13 @@
 import java.security.SecureRandom;
 
 import org.bouncycastle.crypto.BlockCipher;
+import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.InvalidCipherTextException;
 import org.bouncycastle.crypto.engines.AESEngine;
 import org.bouncycastle.crypto.engines.DESEngine;
 import org.bouncycastle.crypto.modes.GCMBlockCipher;
 import org.bouncycastle.crypto.modes.GCMModeCipher;
+import org.bouncycastle.crypto.modes.gcm.AggregatedGCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.BasicGCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.GCMMultiplier;
 import org.bouncycastle.crypto.modes.gcm.Tables4kGCMMultiplier;
@@ -312,6 +314,87 @@ public void performTest() throws Exception
         outputSizeTests();
         testExceptions();
         testResetBehavior();
+        testMultiBlock();
+    }
+
+    private void testMultiBlock()
+        throws InvalidCipherTextException
+    {
+        SecureRandom random = new SecureRandom();
+
+        for (int i = 0; i < 20; ++i)
+        {
+            byte[] K = new byte[16 + 8 * (i % 3)];
+            byte[] IV = new byte[12];
+            byte[] A = new byte[i * 13];
+            byte[] P = new byte[i * 37 + random.nextInt(200)];
+            random.nextBytes(K);
+            random.nextBytes(IV);
+            random.nextBytes(A);
+            random.nextBytes(P);
+
+            AEADParameters parameters = new AEADParameters(new KeyParameter(K), 128, IV, A);
+
+            // reference: an AES engine that only exposes single block processing
+            final BlockCipher aes = AESEngine.newInstance();
+            GCMModeCipher single = GCMBlockCipher.newInstance(new BlockCipher()
+            {
+                public void init(boolean forEncryption, CipherParameters params)
+                {
+                    aes.init(forEncryption, params);
+                }
+
+                public String getAlgorithmName()
+                {
+                    return aes.getAlgorithmName();
+                }
+
+                public int getBlockSize()
+                {
+                    return aes.getBlockSize();
+                }
+
+                public int processBlock(byte[] in, int inOff, byte[] out, int outOff)
+                {
+                    return aes.processBlock(in, inOff, out, outOff);
+                }
+
+                public void reset()
+                {
+                    aes.reset();
+                }
+            });
+            GCMModeCipher multi = (i % 2 == 0)
+                ? GCMBlockCipher.newInstance(AESEngine.newInstance())
+                : GCMBlockCipher.newInstance(AESEngine.newInstance(), new AggregatedGCMMultiplier());
+
+            single.init(true, parameters);
+            byte[] expected = new byte[single.getOutputSize(P.length)];
+            int len = single.processBytes(P, 0, P.length, expected, 0);
+            single.doFinal(expected, len);
+
+            multi.init(true, parameters);
+            byte[] C = new byte[multi.getOutputSize(P.length)];
+            int split = random.nextInt(P.length + 1);
+            len = multi.processBytes(P, 0, split, C, 0);
+            len += multi.processBytes(P, split, P.length - split, C, len);
+            multi.doFinal(C, len);
+
+            if (!areEqual(expected, C))
+            {
+                fail("multi-block encryption mismatch");
+            }
+
+            multi.init(false, parameters);
+            byte[] decP = new byte[multi.getOutputSize(C.length)];
+            len = multi.processBytes(C, 0, C.length, decP, 0);
+            multi.doFinal(decP, len);
+
+            if (!areEqual(P, decP))
+            {
+                fail("multi-block decryption mismatch");
+            }
+        }
     }
 
 
@@ -460,6 +543,7 @@ private void runTestCase(String[] testVector, int macLength)
         runTestCase(new Tables4kGCMMultiplier(), new Tables4kGCMMultiplier(), testName, K, IV, A, P, C, T);
         runTestCase(new Tables8kGCMMultiplier(), new Tables8kGCMMultiplier(), testName, K, IV, A, P, C, T);
         runTestCase(new Tables64kGCMMultiplier(), new Tables64kGCMMultiplier(), testName, K, IV, A, P, C, T);
+        runTestCase(new AggregatedGCMMultiplier(), new AggregatedGCMMultiplier(), testName, K, IV, A, P, C, T);
     }
 
     private void runTestCase(
@@ -598,6 +682,7 @@ private void randomTests()
         randomTests(srng, new Tables4kGCMMultiplier());
         randomTests(srng, new Tables8kGCMMultiplier());
         randomTests(srng, new Tables64kGCMMultiplier());
+        randomTests(srng, new AggregatedGCMMultiplier());
     }
 
     private void randomTests(SecureRandom srng, GCMMultiplier m)
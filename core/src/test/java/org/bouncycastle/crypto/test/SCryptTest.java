@@ -4,6 +4,10 @@
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.bouncycastle.crypto.generators.SCrypt;
 import org.bouncycastle.test.TestResourceFinder;
@@ -29,6 +33,7 @@ public void performTest()
     {
         testPermutations();
         testParameters();
+        testParallel();
         testVectors();
     }
 
@@ -48,6 +53,55 @@ public void testParameters()
     }
 
 
+    public void testParallel()
+    {
+        // RFC 7914, section 12
+        byte[] expected = Hex.decode("fdbabe1c9d3472007856e7190d01e9fe7c6ad7cbc8237830e77376634b373162"
+            + "2eaf30d92e22a3886ff109279d9830dac727afb94a83ee6d8360cbdfa2cc0640");
+        byte[] P = Strings.toByteArray("password");
+        byte[] S = Strings.toByteArray("NaCl");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            isTrue("parallel p = 16", Arrays.areEqual(expected, SCrypt.generate(P, S, 1024, 8, 16, 64, executor)));
+            isTrue("parallel p = 1", Arrays.areEqual(SCrypt.generate(P, S, 1024, 8, 1, 64),
+                SCrypt.generate(P, S, 1024, 8, 1, 64, executor)));
+            isTrue("parallel p = 3", Arrays.areEqual(SCrypt.generate(P, S, 16, 1, 3, 32),
+                SCrypt.generate(P, S, 16, 1, 3, 32, executor)));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        isTrue("sequential p = 16", Arrays.areEqual(expected, SCrypt.generate(P, S, 1024, 8, 16, 64, null)));
+
+        // an executor that runs one task, then rejects the rest, must fail the derivation cleanly
+        Executor rejecting = new Executor()
+        {
+            private int count = 0;
+
+            public void execute(Runnable command)
+            {
+                if (count++ > 0)
+                {
+                    throw new RejectedExecutionException();
+                }
+                command.run();
+            }
+        };
+        try
+        {
+            SCrypt.generate(P, S, 16, 1, 3, 32, rejecting);
+            fail("no exception for rejected task");
+        }
+        catch (RejectedExecutionException e)
+        {
+            // expected
+        }
+    }
+
     public void testPermutations()
         throws Exception
     {
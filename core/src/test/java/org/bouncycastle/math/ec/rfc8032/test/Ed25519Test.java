@@ -79,6 +79,40 @@ public void testEd25519Consistency()
         }
     }
     
+//    @Test
+    public void testEd25519PublicPointReuse()
+    {
+        byte[] sk = new byte[Ed25519.SECRET_KEY_SIZE];
+        byte[] m = new byte[255];
+        byte[] sig = new byte[Ed25519.SIGNATURE_SIZE];
+
+        Ed25519.generatePrivateKey(RANDOM, sk);
+        Ed25519.PublicPoint publicPoint = Ed25519.generatePublicKey(sk, 0);
+
+        // Enough verifications with the same point that its precomputed table is built and then used
+        for (int i = 0; i < 20; ++i)
+        {
+            RANDOM.nextBytes(m);
+            int mLen = RANDOM.nextInt() & 255;
+
+            Ed25519.sign(sk, 0, m, 0, mLen, sig, 0);
+
+            {
+                boolean shouldVerify = Ed25519.verify(sig, 0, publicPoint, m, 0, mLen);
+
+                assertTrue("Ed25519 reused public point sign/verify #" + i, shouldVerify);
+            }
+
+            sig[Ed25519.SIGNATURE_SIZE - 1 - (i % 8)] ^= 0x01;
+
+            {
+                boolean shouldNotVerify = Ed25519.verify(sig, 0, publicPoint, m, 0, mLen);
+
+                assertFalse("Ed25519 reused public point verification failure #" + i, shouldNotVerify);
+            }
+        }
+    }
+
 //    @Test
     public void testEd25519ctxConsistency()
     {
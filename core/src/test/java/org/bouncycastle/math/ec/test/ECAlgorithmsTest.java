@@ -43,6 +43,17 @@ public void testSumOfMultipliesComplete()
         }
     }
 
+    public void testSumOfManyMultiplies()
+    {
+        String[] names = new String[]{ "secp256r1", "secp256k1", "curve25519" };
+        for (int i = 0; i < names.length; ++i)
+        {
+            X9ECParameters x9 = CustomNamedCurves.getByName(names[i]);
+            assertNotNull(x9);
+            doTestSumOfManyMultiplies(x9, 300);
+        }
+    }
+
     public void testSumOfTwoMultiplies()
     {
         X9ECParameters x9 = CustomNamedCurves.getByName("secp256r1");
@@ -86,6 +97,35 @@ private void doTestSumOfMultiplies(X9ECParameters x9)
         }
     }
 
+    private void doTestSumOfManyMultiplies(X9ECParameters x9, int count)
+    {
+        ECPoint[] points = new ECPoint[count];
+        BigInteger[] scalars = new BigInteger[count];
+        ECPoint u = x9.getCurve().getInfinity();
+        for (int i = 0; i < count; ++i)
+        {
+            points[i] = getRandomPoint(x9);
+            scalars[i] = getRandomScalar(x9);
+            if ((i % 3) == 0)
+            {
+                scalars[i] = scalars[i].negate();
+            }
+            else if ((i % 7) == 0)
+            {
+                scalars[i] = BigInteger.valueOf(i);
+            }
+
+            u = u.add(points[i].multiply(scalars[i]));
+        }
+
+        ECPoint v = ECAlgorithms.sumOfMultiplies(points, scalars);
+
+        ECPoint[] results = new ECPoint[]{ u, v };
+        x9.getCurve().normalizeAll(results);
+
+        assertPointsEqual("ECAlgorithms.sumOfMultiplies is incorrect for " + count + " terms", results[0], results[1]);
+    }
+
     private void doTestSumOfTwoMultiplies(X9ECParameters x9)
     {
         ECPoint p = getRandomPoint(x9);
@@ -15,6 +15,8 @@
 import org.bouncycastle.math.ec.ECAlgorithms;
 import org.bouncycastle.math.ec.ECPoint;
 import org.bouncycastle.math.ec.FixedPointCombMultiplier;
+import org.bouncycastle.math.ec.FixedPointUtil;
+import org.bouncycastle.math.ec.PreCompInfo;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -64,6 +66,66 @@ public void testFixedPointMultiplier()
         }
     }
 
+    public void testConcurrentPrecompute()
+        throws Exception
+    {
+        X9ECParameters x9 = CustomNamedCurves.getByName("secp256r1");
+
+        // a fresh copy of the base point, so that there is no existing precomputation
+        final ECPoint g = x9.getCurve().decodePoint(x9.getG().getEncoded(false));
+        final BigInteger[] ks = new BigInteger[8];
+        final ECPoint[] results = new ECPoint[ks.length];
+
+        Thread[] threads = new Thread[ks.length];
+        for (int i = 0; i < threads.length; ++i)
+        {
+            final int index = i;
+            ks[i] = new BigInteger(x9.getN().bitLength(), RANDOM);
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    FixedPointCombMultiplier m = new FixedPointCombMultiplier();
+                    for (int j = 0; j < 20; ++j)
+                    {
+                        results[index] = m.multiply(g, ks[index]);
+                    }
+                }
+            };
+        }
+
+        for (int i = 0; i < threads.length; ++i)
+        {
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; ++i)
+        {
+            threads[i].join();
+        }
+
+        for (int i = 0; i < ks.length; ++i)
+        {
+            assertPointsEqual("Concurrent fixed-point failure", ECAlgorithms.referenceMultiply(g, ks[i]), results[i]);
+        }
+
+        PreCompInfo info = g.getCurve().getPreCompInfo(g, FixedPointUtil.PRECOMP_NAME);
+        assertNotNull(info);
+        assertSame(info, FixedPointUtil.precompute(g));
+    }
+
+    public void testPrecomputeBasePoint()
+    {
+        assertNull(CustomNamedCurves.precomputeBasePoint("no-such-curve"));
+
+        X9ECParameters x9 = CustomNamedCurves.precomputeBasePoint("P-384");
+        assertSame(CustomNamedCurves.getByName("secp384r1"), x9);
+
+        ECPoint g = x9.getG();
+        PreCompInfo info = g.getCurve().getPreCompInfo(g, FixedPointUtil.PRECOMP_NAME);
+        assertNotNull(info);
+        assertSame(info, FixedPointUtil.precompute(g));
+    }
+
     private List enumToList(Enumeration en)
     {
         List rv = new ArrayList();
@@ -46,6 +46,7 @@ public static Test suite()
         suite.addTestSuite(RainbowVectorTest.class);
         suite.addTestSuite(GeMSSTest.class);
         suite.addTestSuite(XWingTest.class);
+        suite.addTestSuite(StateAwarePrivateKeyStoreTest.class);
         suite.addTestSuite(AllTests.SimpleTestTest.class);
 
         return new BCTestSetup(suite);
@@ -10,6 +10,7 @@
 import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
 import org.bouncycastle.crypto.params.ParametersWithRandom;
 import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumKeyParameters;
 import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumKeyPairGenerator;
 import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumParameters;
 import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumPrivateKeyParameters;
@@ -21,6 +22,7 @@
 import org.bouncycastle.pqc.crypto.util.SubjectPublicKeyInfoFactory;
 import org.bouncycastle.test.TestResourceFinder;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Properties;
 import org.bouncycastle.util.Strings;
 import org.bouncycastle.util.encoders.Hex;
 
@@ -259,4 +261,51 @@ public void testDilithiumRandom()
             assertTrue("count = " + i, verifier.verifySignature(msg, sigGenerated));
         }
     }
+
+    public void testDilithiumCachedMatrix()
+    {
+        DilithiumKeyPairGenerator keyGen = new DilithiumKeyPairGenerator();
+
+        SecureRandom random = new SecureRandom();
+
+        keyGen.init(new DilithiumKeyGenerationParameters(random, DilithiumParameters.dilithium2));
+
+        AsymmetricCipherKeyPair keyPair = keyGen.generateKeyPair();
+        DilithiumPrivateKeyParameters skparam = (DilithiumPrivateKeyParameters)keyPair.getPrivate();
+        DilithiumPublicKeyParameters pkparam = (DilithiumPublicKeyParameters)keyPair.getPublic();
+
+        Properties.setThreadOverride(DilithiumKeyParameters.CACHE_MATRIX, true);
+        try
+        {
+            for (int i = 0; i != 10; i++)
+            {
+                byte[] msg = Strings.toByteArray("Hello World! " + i);
+
+                DilithiumSigner signer = new DilithiumSigner();
+                signer.init(true, new ParametersWithRandom(skparam, random));
+
+                byte[] sigGenerated = signer.generateSignature(msg);
+
+                DilithiumSigner verifier = new DilithiumSigner();
+                verifier.init(false, pkparam);
+
+                assertTrue("count = " + i, verifier.verifySignature(msg, sigGenerated));
+                assertFalse("count = " + i, verifier.verifySignature(Strings.toByteArray("Hello World? " + i), sigGenerated));
+            }
+        }
+        finally
+        {
+            Properties.removeThreadOverride(DilithiumKeyParameters.CACHE_MATRIX);
+        }
+
+        // a key that has cached its matrix keeps using it
+        byte[] msg = Strings.toByteArray("Hello World!");
+        DilithiumSigner signer = new DilithiumSigner();
+        signer.init(true, skparam);
+
+        DilithiumSigner verifier = new DilithiumSigner();
+        verifier.init(false, pkparam);
+
+        assertTrue(verifier.verifySignature(msg, signer.generateSignature(msg)));
+    }
 }
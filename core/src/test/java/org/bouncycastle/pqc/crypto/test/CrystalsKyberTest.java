@@ -29,6 +29,7 @@
 import org.bouncycastle.pqc.crypto.util.SubjectPublicKeyInfoFactory;
 import org.bouncycastle.test.TestResourceFinder;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Properties;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.FixedSecureRandom;
 
@@ -315,4 +316,46 @@ public void testKyberRandom()
             assertTrue(Arrays.areEqual(secretEncap.getSecret(), decryptedSharedSecret));
         }
     }
+
+    public void testKyberCachedMatrix()
+    {
+        SecureRandom random = new SecureRandom();
+        KyberKeyPairGenerator keyGen = new KyberKeyPairGenerator();
+
+        keyGen.init(new KyberKeyGenerationParameters(random, KyberParameters.kyber768));
+
+        AsymmetricCipherKeyPair keyPair = keyGen.generateKeyPair();
+        KyberPublicKeyParameters pubParams = (KyberPublicKeyParameters)keyPair.getPublic();
+        KyberKEMExtractor kemExtract = new KyberKEMExtractor((KyberPrivateKeyParameters)keyPair.getPrivate());
+
+        Properties.setThreadOverride(KyberPublicKeyParameters.CACHE_MATRIX, true);
+        try
+        {
+            for (int i = 0; i != 10; i++)
+            {
+                byte[] coins = new byte[32];
+                random.nextBytes(coins);
+
+                SecretWithEncapsulation secretEncap = new KyberKEMGenerator(new FixedSecureRandom(coins))
+                    .generateEncapsulated(pubParams);
+
+                assertTrue(Arrays.areEqual(secretEncap.getSecret(), kemExtract.extractSecret(secretEncap.getEncapsulation())));
+
+                // the same as encapsulating with a key that has not been prepared
+                Properties.removeThreadOverride(KyberPublicKeyParameters.CACHE_MATRIX);
+
+                SecretWithEncapsulation plainEncap = new KyberKEMGenerator(new FixedSecureRandom(coins))
+                    .generateEncapsulated(new KyberPublicKeyParameters(KyberParameters.kyber768, pubParams.getEncoded()));
+
+                Properties.setThreadOverride(KyberPublicKeyParameters.CACHE_MATRIX, true);
+
+                assertTrue(Arrays.areEqual(plainEncap.getEncapsulation(), secretEncap.getEncapsulation()));
+                assertTrue(Arrays.areEqual(plainEncap.getSecret(), secretEncap.getSecret()));
+            }
+        }
+        finally
+        {
+            Properties.removeThreadOverride(KyberPublicKeyParameters.CACHE_MATRIX);
+        }
+    }
 }
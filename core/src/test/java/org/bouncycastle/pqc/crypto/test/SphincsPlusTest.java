@@ -8,6 +8,12 @@
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import junit.framework.TestCase;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
@@ -26,6 +32,7 @@
 import org.bouncycastle.pqc.crypto.util.SubjectPublicKeyInfoFactory;
 import org.bouncycastle.test.TestResourceFinder;
 import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Strings;
 import org.bouncycastle.util.encoders.Hex;
 import org.bouncycastle.util.test.FixedSecureRandom;
 
@@ -324,6 +331,87 @@ public void testDeterministicSignature()
         assertTrue(signer.verifySignature(msg, sig));
     }
 
+    public void testParallelSignature()
+        throws Exception
+    {
+        SPHINCSPlusParameters[] params = new SPHINCSPlusParameters[]{
+            SPHINCSPlusParameters.sha2_128f, SPHINCSPlusParameters.shake_128f, SPHINCSPlusParameters.haraka_128f_simple };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            for (int i = 0; i != params.length; i++)
+            {
+                SPHINCSPlusKeyPairGenerator kpGen = new SPHINCSPlusKeyPairGenerator();
+
+                kpGen.init(new SPHINCSPlusKeyGenerationParameters(new SecureRandom(), params[i]));
+
+                AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+                byte[] msg = Strings.toByteArray("Hello, parallel world!");
+
+                SPHINCSPlusSigner signer = new SPHINCSPlusSigner();
+
+                signer.init(true, kp.getPrivate());
+
+                byte[] sig = signer.generateSignature(msg);
+
+                SPHINCSPlusSigner parallelSigner = new SPHINCSPlusSigner(executor);
+
+                parallelSigner.init(true, kp.getPrivate());
+
+                byte[] parallelSig = parallelSigner.generateSignature(msg);
+
+                assertTrue(params[i].getName(), Arrays.areEqual(sig, parallelSig));
+
+                signer.init(false, kp.getPublic());
+
+                assertTrue(params[i].getName(), signer.verifySignature(msg, parallelSig));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    public void testParallelSignatureRejected()
+        throws Exception
+    {
+        SPHINCSPlusKeyPairGenerator kpGen = new SPHINCSPlusKeyPairGenerator();
+
+        kpGen.init(new SPHINCSPlusKeyGenerationParameters(new SecureRandom(), SPHINCSPlusParameters.sha2_128f));
+
+        AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+        // one thread and a single queue slot, so most of the signing tasks are rejected
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(1));
+        try
+        {
+            SPHINCSPlusSigner signer = new SPHINCSPlusSigner(executor);
+
+            signer.init(true, kp.getPrivate());
+
+            try
+            {
+                signer.generateSignature(Strings.toByteArray("Hello, parallel world!"));
+                fail("rejected task not reported");
+            }
+            catch (RejectedExecutionException e)
+            {
+                // expected
+            }
+
+            // the accepted tasks have already finished, so nothing is left for the executor to do
+            assertEquals(0, executor.getQueue().size());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     public void testBasicKeyGenerationShake256128fSimple()
     {
         SPHINCSPlusKeyPairGenerator kpGen = new SPHINCSPlusKeyPairGenerator();
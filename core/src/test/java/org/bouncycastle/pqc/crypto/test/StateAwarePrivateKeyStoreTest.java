@@ -0,0 +1,257 @@
+package org.bouncycastle.pqc.crypto.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.security.SecureRandom;
+
+import junit.framework.TestCase;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPairGenerator;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.pqc.crypto.ExhaustedPrivateKeyException;
+import org.bouncycastle.pqc.crypto.lms.HSSKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.lms.HSSKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.lms.HSSPrivateKeyParameters;
+import org.bouncycastle.pqc.crypto.lms.HSSSigner;
+import org.bouncycastle.pqc.crypto.lms.LMOtsParameters;
+import org.bouncycastle.pqc.crypto.lms.LMSKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.lms.LMSKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.lms.LMSParameters;
+import org.bouncycastle.pqc.crypto.lms.LMSPrivateKeyParameters;
+import org.bouncycastle.pqc.crypto.lms.LMSigParameters;
+import org.bouncycastle.pqc.crypto.util.StateAwarePrivateKeyStore;
+import org.bouncycastle.pqc.crypto.xmss.XMSSKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.xmss.XMSSKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.xmss.XMSSParameters;
+import org.bouncycastle.pqc.crypto.xmss.XMSSPrivateKeyParameters;
+import org.bouncycastle.pqc.crypto.xmss.XMSSSigner;
+import org.bouncycastle.util.Strings;
+
+public class StateAwarePrivateKeyStoreTest
+    extends TestCase
+{
+    private File storeFile;
+
+    public void setUp()
+        throws IOException
+    {
+        storeFile = File.createTempFile("bcks", ".state");
+        storeFile.delete();
+    }
+
+    public void tearDown()
+    {
+        storeFile.delete();
+    }
+
+    public void testHSSReservations()
+        throws Exception
+    {
+        byte[] msg = Strings.toByteArray("Hello, world!");
+        AsymmetricCipherKeyPairGenerator kpGen = new HSSKeyPairGenerator();
+
+        kpGen.init(new HSSKeyGenerationParameters(
+            new LMSParameters[]{
+                new LMSParameters(LMSigParameters.lms_sha256_n32_h5, LMOtsParameters.sha256_n32_w4),
+                new LMSParameters(LMSigParameters.lms_sha256_n32_h5, LMOtsParameters.sha256_n32_w4)
+            }, new SecureRandom()));
+
+        AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+        StateAwarePrivateKeyStore store = StateAwarePrivateKeyStore.create(storeFile, kp.getPrivate(), 5);
+
+        HSSSigner signer = new HSSSigner();
+        for (int i = 0; i != 12; i++)
+        {
+            HSSPrivateKeyParameters privKey = (HSSPrivateKeyParameters)store.getNextKey();
+
+            assertEquals(i, privKey.getIndex());
+
+            signer.init(true, privKey);
+
+            byte[] sig = signer.generateSignature(msg);
+
+            signer.init(false, kp.getPublic());
+
+            assertTrue(signer.verifySignature(msg, sig));
+        }
+
+        assertEquals(1024 - 12, store.getUsagesRemaining());
+
+        store.close();
+
+        // the rest of the third reservation is lost
+        store = StateAwarePrivateKeyStore.open(storeFile, 5);
+
+        assertEquals(1024 - 15, store.getUsagesRemaining());
+        assertEquals(15, ((HSSPrivateKeyParameters)store.getNextKey()).getIndex());
+
+        store.close();
+    }
+
+    public void testXMSSReservations()
+        throws Exception
+    {
+        byte[] msg = Strings.toByteArray("Hello, world!");
+        XMSSKeyPairGenerator kpGen = new XMSSKeyPairGenerator();
+
+        kpGen.init(new XMSSKeyGenerationParameters(new XMSSParameters(4, new SHA256Digest()), new SecureRandom()));
+
+        AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+        StateAwarePrivateKeyStore store = StateAwarePrivateKeyStore.create(storeFile, kp.getPrivate(), 3);
+
+        XMSSSigner signer = new XMSSSigner();
+        int index = 0;
+        for (int i = 0; i != 4; i++)
+        {
+            XMSSPrivateKeyParameters privKey = (XMSSPrivateKeyParameters)store.getNextKey();
+
+            assertEquals(index++, privKey.getIndex());
+
+            signer.init(true, privKey);
+
+            byte[] sig = signer.generateSignature(msg);
+
+            signer.init(false, kp.getPublic());
+
+            assertTrue(signer.verifySignature(msg, sig));
+        }
+
+        store.close();
+
+        store = StateAwarePrivateKeyStore.open(storeFile, 3);
+
+        index = 6;
+        while (store.getUsagesRemaining() != 0)
+        {
+            XMSSPrivateKeyParameters privKey = (XMSSPrivateKeyParameters)store.getNextKey();
+
+            assertEquals(index++, privKey.getIndex());
+
+            signer.init(true, privKey);
+
+            byte[] sig = signer.generateSignature(msg);
+
+            signer.init(false, kp.getPublic());
+
+            assertTrue(signer.verifySignature(msg, sig));
+        }
+        assertEquals(16, index);
+
+        try
+        {
+            store.getNextKey();
+            fail("no exception on exhausted key");
+        }
+        catch (ExhaustedPrivateKeyException e)
+        {
+            // expected
+        }
+
+        store.close();
+
+        store = StateAwarePrivateKeyStore.open(storeFile, 3);
+
+        assertEquals(0, store.getUsagesRemaining());
+
+        store.close();
+    }
+
+    public void testLMSUsesAllIndices()
+        throws Exception
+    {
+        LMSKeyPairGenerator kpGen = new LMSKeyPairGenerator();
+
+        kpGen.init(new LMSKeyGenerationParameters(
+            new LMSParameters(LMSigParameters.lms_sha256_n32_h5, LMOtsParameters.sha256_n32_w4), new SecureRandom()));
+
+        AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+        StateAwarePrivateKeyStore store = StateAwarePrivateKeyStore.create(storeFile, kp.getPrivate(), 8);
+
+        for (int i = 0; i != 32; i++)
+        {
+            assertEquals(i, ((LMSPrivateKeyParameters)store.getNextKey()).getIndex());
+        }
+        assertEquals(0, store.getUsagesRemaining());
+
+        store.close();
+    }
+
+    public void testTornWrite()
+        throws Exception
+    {
+        AsymmetricCipherKeyPairGenerator kpGen = new HSSKeyPairGenerator();
+
+        kpGen.init(new HSSKeyGenerationParameters(
+            new LMSParameters[]{
+                new LMSParameters(LMSigParameters.lms_sha256_n32_h5, LMOtsParameters.sha256_n32_w4)
+            }, new SecureRandom()));
+
+        AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+        StateAwarePrivateKeyStore store = StateAwarePrivateKeyStore.create(storeFile, kp.getPrivate(), 4);
+
+        // the initial state goes in slot 0, then reserving [0, 4) writes index 4 to slot 1 and
+        // reserving [4, 8) writes index 8 to slot 0.
+        for (int i = 0; i != 5; i++)
+        {
+            store.getNextKey();
+        }
+
+        store.close();
+
+        // damage the most recent state, as an interrupted write of the reservation of [4, 8) would
+        RandomAccessFile file = new RandomAccessFile(storeFile, "rw");
+        file.seek(16 + 20);
+        int b = file.read();
+        file.seek(16 + 20);
+        file.write(~b & 0xff);
+        file.close();
+
+        store = StateAwarePrivateKeyStore.open(storeFile, 4);
+
+        assertEquals(4, ((HSSPrivateKeyParameters)store.getNextKey()).getIndex());
+
+        store.close();
+    }
+
+    public void testStoreInUse()
+        throws Exception
+    {
+        AsymmetricCipherKeyPairGenerator kpGen = new HSSKeyPairGenerator();
+
+        kpGen.init(new HSSKeyGenerationParameters(
+            new LMSParameters[]{
+                new LMSParameters(LMSigParameters.lms_sha256_n32_h5, LMOtsParameters.sha256_n32_w4)
+            }, new SecureRandom()));
+
+        AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+        StateAwarePrivateKeyStore store = StateAwarePrivateKeyStore.create(storeFile, kp.getPrivate(), 4);
+
+        try
+        {
+            StateAwarePrivateKeyStore.create(storeFile, kp.getPrivate(), 4);
+            fail("no exception on existing store file");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage().endsWith("already exists"));
+        }
+
+        try
+        {
+            StateAwarePrivateKeyStore.open(storeFile, 4);
+            fail("no exception on store file in use");
+        }
+        catch (IOException e)
+        {
+            assertEquals("store file in use", e.getMessage());
+        }
+
+        store.close();
+    }
+}
@@ -0,0 +1,152 @@
+package org.bouncycastle.perf.cert;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.cert.CertPath;
+import java.security.cert.CertPathValidator;
+import java.security.cert.CertPathValidatorResult;
+import java.security.cert.CertificateFactory;
+import java.security.cert.PKIXParameters;
+import java.security.cert.TrustAnchor;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.BasicConstraints;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of PKIX path validation through the BC provider for a freshly generated chain of the
+ * given depth (trust anchor excluded). Revocation checking is disabled so only path processing and
+ * signature verification are measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PKIXCertPathValidatorBenchmark
+{
+    private static final String BC = BouncyCastleProvider.PROVIDER_NAME;
+
+    @Param({"EC", "RSA"})
+    public String keyAlgorithm;
+
+    @Param({"2", "4"})
+    public int depth;
+
+    private CertPathValidator validator;
+    private CertPath path;
+    private PKIXParameters parameters;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        if (Security.getProvider(BC) == null)
+        {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+
+        KeyPairGenerator kpGen = KeyPairGenerator.getInstance(keyAlgorithm, BC);
+        String sigAlg;
+        if ("EC".equals(keyAlgorithm))
+        {
+            kpGen.initialize(new ECGenParameterSpec("P-256"));
+            sigAlg = "SHA256withECDSA";
+        }
+        else
+        {
+            kpGen.initialize(2048);
+            sigAlg = "SHA256withRSA";
+        }
+
+        KeyPair rootKp = kpGen.generateKeyPair();
+        X500Name rootName = new X500Name("CN=Perf Root");
+        X509Certificate root = createCert(sigAlg, rootName, rootKp.getPrivate(), rootName, rootKp.getPublic(), 1, true);
+
+        List<X509Certificate> certs = new ArrayList<X509Certificate>();
+        X500Name issuerName = rootName;
+        PrivateKey issuerKey = rootKp.getPrivate();
+        for (int i = 1; i <= depth; ++i)
+        {
+            boolean ca = i < depth;
+            KeyPair kp = kpGen.generateKeyPair();
+            X500Name subjectName = new X500Name(ca ? "CN=Perf CA " + i : "CN=Perf EE");
+            certs.add(createCert(sigAlg, issuerName, issuerKey, subjectName, kp.getPublic(), i + 1, ca));
+
+            issuerName = subjectName;
+            issuerKey = kp.getPrivate();
+        }
+        Collections.reverse(certs);
+
+        path = CertificateFactory.getInstance("X.509", BC).generateCertPath(certs);
+
+        parameters = new PKIXParameters(Collections.singleton(new TrustAnchor(root, null)));
+        parameters.setRevocationEnabled(false);
+        parameters.setDate(new Date());
+
+        validator = CertPathValidator.getInstance("PKIX", BC);
+    }
+
+    @Benchmark
+    public CertPathValidatorResult validate()
+        throws GeneralSecurityException
+    {
+        return validator.validate(path, parameters);
+    }
+
+    private static X509Certificate createCert(String sigAlg, X500Name issuer, PrivateKey issuerKey,
+        X500Name subject, PublicKey subjectKey, int serial, boolean ca)
+        throws GeneralSecurityException, IOException, OperatorCreationException
+    {
+        long now = System.currentTimeMillis();
+
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(issuer, BigInteger.valueOf(serial),
+            new Date(now - 60000L), new Date(now + 24L * 60 * 60 * 1000), subject, subjectKey);
+
+        if (ca)
+        {
+            builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(true));
+            builder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.keyCertSign | KeyUsage.cRLSign));
+        }
+        else
+        {
+            builder.addExtension(Extension.basicConstraints, true, new BasicConstraints(false));
+            builder.addExtension(Extension.keyUsage, true, new KeyUsage(KeyUsage.digitalSignature));
+        }
+
+        return new JcaX509CertificateConverter().setProvider(BC).getCertificate(
+            builder.build(new JcaContentSignerBuilder(sigAlg).setProvider(BC).build(issuerKey)));
+    }
+}
@@ -0,0 +1,93 @@
+package org.bouncycastle.perf.crypto;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.Blake2bDigest;
+import org.bouncycastle.crypto.digests.Blake2sDigest;
+import org.bouncycastle.crypto.digests.Blake3Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SHA3Digest;
+import org.bouncycastle.crypto.digests.SHA512Digest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the SHA-2, SHA-3 and BLAKE digests over a range of message sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DigestBenchmark
+{
+    @Param({"SHA-256", "SHA-512", "SHA3-256", "BLAKE2b-512", "BLAKE2s-256", "BLAKE3-256"})
+    public String algorithm;
+
+    @Param({"64", "1024", "16384", "1048576"})
+    public int size;
+
+    private Digest digest;
+    private byte[] input;
+    private byte[] output;
+
+    @Setup
+    public void setup()
+    {
+        digest = createDigest(algorithm);
+
+        input = new byte[size];
+        new SecureRandom().nextBytes(input);
+
+        output = new byte[digest.getDigestSize()];
+    }
+
+    @Benchmark
+    public byte[] hash()
+    {
+        digest.update(input, 0, input.length);
+        digest.doFinal(output, 0);
+        return output;
+    }
+
+    private static Digest createDigest(String algorithm)
+    {
+        if ("SHA-256".equals(algorithm))
+        {
+            return new SHA256Digest();
+        }
+        if ("SHA-512".equals(algorithm))
+        {
+            return new SHA512Digest();
+        }
+        if ("SHA3-256".equals(algorithm))
+        {
+            return new SHA3Digest(256);
+        }
+        if ("BLAKE2b-512".equals(algorithm))
+        {
+            return new Blake2bDigest(512);
+        }
+        if ("BLAKE2s-256".equals(algorithm))
+        {
+            return new Blake2sDigest(256);
+        }
+        if ("BLAKE3-256".equals(algorithm))
+        {
+            return new Blake3Digest(256);
+        }
+        throw new IllegalArgumentException("unknown digest: " + algorithm);
+    }
+}
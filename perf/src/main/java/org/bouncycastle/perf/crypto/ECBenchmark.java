@@ -0,0 +1,128 @@
+package org.bouncycastle.perf.crypto;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.CryptoException;
+import org.bouncycastle.crypto.agreement.X25519Agreement;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.generators.ECKeyPairGenerator;
+import org.bouncycastle.crypto.generators.Ed25519KeyPairGenerator;
+import org.bouncycastle.crypto.generators.X25519KeyPairGenerator;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECKeyGenerationParameters;
+import org.bouncycastle.crypto.params.Ed25519KeyGenerationParameters;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.crypto.params.X25519KeyGenerationParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.Ed25519Signer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of ECDSA (P-256), Ed25519 signing/verification and X25519 key agreement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ECBenchmark
+{
+    private final byte[] message = new byte[32];
+
+    private ECDSASigner ecdsaSigner;
+    private ECDSASigner ecdsaVerifier;
+    private BigInteger[] ecdsaSignature;
+
+    private Ed25519Signer ed25519Signer;
+    private Ed25519Signer ed25519Verifier;
+    private byte[] ed25519Signature;
+
+    private X25519Agreement x25519Agreement;
+    private AsymmetricCipherKeyPair x25519Peer;
+    private byte[] x25519Secret;
+
+    @Setup
+    public void setup()
+        throws CryptoException
+    {
+        SecureRandom random = new SecureRandom();
+        random.nextBytes(message);
+
+        X9ECParameters p256 = CustomNamedCurves.getByName("P-256");
+        ECKeyPairGenerator ecGen = new ECKeyPairGenerator();
+        ecGen.init(new ECKeyGenerationParameters(new ECDomainParameters(p256), random));
+        AsymmetricCipherKeyPair ecKp = ecGen.generateKeyPair();
+
+        ecdsaSigner = new ECDSASigner();
+        ecdsaSigner.init(true, new ParametersWithRandom(ecKp.getPrivate(), random));
+        ecdsaVerifier = new ECDSASigner();
+        ecdsaVerifier.init(false, ecKp.getPublic());
+        ecdsaSignature = ecdsaSigner.generateSignature(message);
+
+        Ed25519KeyPairGenerator edGen = new Ed25519KeyPairGenerator();
+        edGen.init(new Ed25519KeyGenerationParameters(random));
+        AsymmetricCipherKeyPair edKp = edGen.generateKeyPair();
+
+        ed25519Signer = new Ed25519Signer();
+        ed25519Signer.init(true, edKp.getPrivate());
+        ed25519Verifier = new Ed25519Signer();
+        ed25519Verifier.init(false, edKp.getPublic());
+        ed25519Signer.update(message, 0, message.length);
+        ed25519Signature = ed25519Signer.generateSignature();
+
+        X25519KeyPairGenerator xGen = new X25519KeyPairGenerator();
+        xGen.init(new X25519KeyGenerationParameters(random));
+        x25519Agreement = new X25519Agreement();
+        x25519Agreement.init(xGen.generateKeyPair().getPrivate());
+        x25519Peer = xGen.generateKeyPair();
+        x25519Secret = new byte[x25519Agreement.getAgreementSize()];
+    }
+
+    @Benchmark
+    public BigInteger[] ecdsaP256Sign()
+    {
+        return ecdsaSigner.generateSignature(message);
+    }
+
+    @Benchmark
+    public boolean ecdsaP256Verify()
+    {
+        return ecdsaVerifier.verifySignature(message, ecdsaSignature[0], ecdsaSignature[1]);
+    }
+
+    @Benchmark
+    public byte[] ed25519Sign()
+        throws CryptoException
+    {
+        ed25519Signer.update(message, 0, message.length);
+        return ed25519Signer.generateSignature();
+    }
+
+    @Benchmark
+    public boolean ed25519Verify()
+    {
+        ed25519Verifier.update(message, 0, message.length);
+        return ed25519Verifier.verifySignature(ed25519Signature);
+    }
+
+    @Benchmark
+    public byte[] x25519Agree()
+    {
+        x25519Agreement.calculateAgreement(x25519Peer.getPublic(), x25519Secret, 0);
+        return x25519Secret;
+    }
+}
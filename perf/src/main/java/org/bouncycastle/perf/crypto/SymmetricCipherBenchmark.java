@@ -0,0 +1,123 @@
+package org.bouncycastle.perf.crypto;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.MultiBlockCipher;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.modes.AEADCipher;
+import org.bouncycastle.crypto.modes.ChaCha20Poly1305;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.util.Pack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the raw AES engine and of the AEAD modes used on the TLS record path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SymmetricCipherBenchmark
+{
+    @Param({"AES/GCM", "ChaCha20Poly1305"})
+    public String algorithm;
+
+    @Param({"64", "1024", "16384"})
+    public int size;
+
+    private MultiBlockCipher aes;
+    private AEADCipher aead;
+    private KeyParameter aeadKey;
+    private AEADParameters parameters;
+    private byte[] encryptNonce;
+    private int encryptCount;
+
+    private byte[] block;
+    private byte[] input;
+    private byte[] cipherText;
+    private byte[] output;
+
+    @Setup
+    public void setup()
+        throws InvalidCipherTextException
+    {
+        SecureRandom random = new SecureRandom();
+
+        byte[] key = new byte[32];
+        byte[] nonce = new byte[12];
+        random.nextBytes(key);
+        random.nextBytes(nonce);
+
+        aes = AESEngine.newInstance();
+        aes.init(true, new KeyParameter(key, 0, 16));
+        block = new byte[aes.getBlockSize()];
+
+        if ("AES/GCM".equals(algorithm))
+        {
+            aead = GCMBlockCipher.newInstance(AESEngine.newInstance());
+            aeadKey = new KeyParameter(key, 0, 16);
+        }
+        else
+        {
+            aead = new ChaCha20Poly1305();
+            aeadKey = new KeyParameter(key);
+        }
+        parameters = new AEADParameters(aeadKey, 128, nonce);
+        encryptNonce = (byte[])nonce.clone();
+
+        input = new byte[size];
+        random.nextBytes(input);
+
+        aead.init(true, parameters);
+        cipherText = new byte[aead.getOutputSize(size)];
+        int len = aead.processBytes(input, 0, size, cipherText, 0);
+        aead.doFinal(cipherText, len);
+
+        output = new byte[cipherText.length];
+    }
+
+    @Benchmark
+    public byte[] aesBlock()
+    {
+        aes.processBlock(block, 0, block, 0);
+        return block;
+    }
+
+    @Benchmark
+    public byte[] encrypt()
+        throws InvalidCipherTextException
+    {
+        // the AEAD modes refuse nonce reuse for encryption, so step the nonce each time.
+        Pack.intToBigEndian(++encryptCount, encryptNonce, 8);
+        aead.init(true, new AEADParameters(aeadKey, 128, encryptNonce));
+        int len = aead.processBytes(input, 0, size, output, 0);
+        aead.doFinal(output, len);
+        return output;
+    }
+
+    @Benchmark
+    public byte[] decrypt()
+        throws InvalidCipherTextException
+    {
+        aead.init(false, parameters);
+        int len = aead.processBytes(cipherText, 0, cipherText.length, output, 0);
+        aead.doFinal(output, len);
+        return output;
+    }
+}
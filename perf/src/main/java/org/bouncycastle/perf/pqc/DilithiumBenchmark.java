@@ -0,0 +1,88 @@
+package org.bouncycastle.perf.pqc;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumParameters;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of Dilithium signing and verification.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DilithiumBenchmark
+{
+    private static final DilithiumParameters[] PARAMETERS = {
+        DilithiumParameters.dilithium2, DilithiumParameters.dilithium3, DilithiumParameters.dilithium5 };
+
+    @Param({"dilithium2", "dilithium3", "dilithium5"})
+    public String parameterSet;
+
+    private final byte[] message = new byte[64];
+
+    private DilithiumSigner signer;
+    private DilithiumSigner verifier;
+    private byte[] signature;
+
+    @Setup
+    public void setup()
+    {
+        SecureRandom random = new SecureRandom();
+        random.nextBytes(message);
+
+        DilithiumKeyPairGenerator kpGen = new DilithiumKeyPairGenerator();
+        kpGen.init(new DilithiumKeyGenerationParameters(random, getParameters(parameterSet)));
+        AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+        signer = new DilithiumSigner();
+        signer.init(true, new ParametersWithRandom(kp.getPrivate(), random));
+        verifier = new DilithiumSigner();
+        verifier.init(false, kp.getPublic());
+
+        signature = signer.generateSignature(message);
+    }
+
+    @Benchmark
+    public byte[] sign()
+    {
+        return signer.generateSignature(message);
+    }
+
+    @Benchmark
+    public boolean verify()
+    {
+        return verifier.verifySignature(message, signature);
+    }
+
+    static DilithiumParameters getParameters(String name)
+    {
+        for (int i = 0; i != PARAMETERS.length; i++)
+        {
+            if (PARAMETERS[i].getName().equals(name))
+            {
+                return PARAMETERS[i];
+            }
+        }
+        throw new IllegalArgumentException("unknown parameter set: " + name);
+    }
+}
@@ -0,0 +1,95 @@
+package org.bouncycastle.perf.pqc;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.SecretWithEncapsulation;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberKEMExtractor;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberKEMGenerator;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberParameters;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberPrivateKeyParameters;
+import org.bouncycastle.pqc.crypto.crystals.kyber.KyberPublicKeyParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of Kyber key generation, encapsulation and decapsulation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KyberBenchmark
+{
+    private static final KyberParameters[] PARAMETERS = {
+        KyberParameters.kyber512, KyberParameters.kyber768, KyberParameters.kyber1024 };
+
+    @Param({"kyber512", "kyber768", "kyber1024"})
+    public String parameterSet;
+
+    private KyberKeyPairGenerator keyPairGenerator;
+    private KyberPublicKeyParameters publicKey;
+    private KyberKEMGenerator generator;
+    private KyberKEMExtractor extractor;
+    private byte[] encapsulation;
+
+    @Setup
+    public void setup()
+    {
+        SecureRandom random = new SecureRandom();
+
+        keyPairGenerator = new KyberKeyPairGenerator();
+        keyPairGenerator.init(new KyberKeyGenerationParameters(random, getParameters(parameterSet)));
+
+        AsymmetricCipherKeyPair kp = keyPairGenerator.generateKeyPair();
+        publicKey = (KyberPublicKeyParameters)kp.getPublic();
+
+        generator = new KyberKEMGenerator(random);
+        extractor = new KyberKEMExtractor((KyberPrivateKeyParameters)kp.getPrivate());
+        encapsulation = generator.generateEncapsulated(publicKey).getEncapsulation();
+    }
+
+    @Benchmark
+    public AsymmetricCipherKeyPair keyGen()
+    {
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    @Benchmark
+    public SecretWithEncapsulation encapsulate()
+    {
+        return generator.generateEncapsulated(publicKey);
+    }
+
+    @Benchmark
+    public byte[] decapsulate()
+    {
+        return extractor.extractSecret(encapsulation);
+    }
+
+    static KyberParameters getParameters(String name)
+    {
+        for (int i = 0; i != PARAMETERS.length; i++)
+        {
+            if (PARAMETERS[i].getName().equals(name))
+            {
+                return PARAMETERS[i];
+            }
+        }
+        throw new IllegalArgumentException("unknown parameter set: " + name);
+    }
+}
@@ -0,0 +1,90 @@
+package org.bouncycastle.perf.pqc;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.pqc.crypto.sphincsplus.SPHINCSPlusKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.sphincsplus.SPHINCSPlusKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.sphincsplus.SPHINCSPlusParameters;
+import org.bouncycastle.pqc.crypto.sphincsplus.SPHINCSPlusSigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of SPHINCS+ signing and verification for the fast and small SHA-2/SHAKE parameter sets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SPHINCSPlusBenchmark
+{
+    private static final SPHINCSPlusParameters[] PARAMETERS = {
+        SPHINCSPlusParameters.sha2_128f, SPHINCSPlusParameters.sha2_128s,
+        SPHINCSPlusParameters.shake_128f, SPHINCSPlusParameters.shake_128s,
+        SPHINCSPlusParameters.sha2_256f, SPHINCSPlusParameters.shake_256f };
+
+    @Param({"sha2-128f", "sha2-128s", "shake-128f", "shake-128s", "sha2-256f", "shake-256f"})
+    public String parameterSet;
+
+    private final byte[] message = new byte[64];
+
+    private SPHINCSPlusSigner signer;
+    private SPHINCSPlusSigner verifier;
+    private byte[] signature;
+
+    @Setup
+    public void setup()
+    {
+        SecureRandom random = new SecureRandom();
+        random.nextBytes(message);
+
+        SPHINCSPlusKeyPairGenerator kpGen = new SPHINCSPlusKeyPairGenerator();
+        kpGen.init(new SPHINCSPlusKeyGenerationParameters(random, getParameters(parameterSet)));
+        AsymmetricCipherKeyPair kp = kpGen.generateKeyPair();
+
+        signer = new SPHINCSPlusSigner();
+        signer.init(true, new ParametersWithRandom(kp.getPrivate(), random));
+        verifier = new SPHINCSPlusSigner();
+        verifier.init(false, kp.getPublic());
+
+        signature = signer.generateSignature(message);
+    }
+
+    @Benchmark
+    public byte[] sign()
+    {
+        return signer.generateSignature(message);
+    }
+
+    @Benchmark
+    public boolean verify()
+    {
+        return verifier.verifySignature(message, signature);
+    }
+
+    static SPHINCSPlusParameters getParameters(String name)
+    {
+        for (int i = 0; i != PARAMETERS.length; i++)
+        {
+            if (PARAMETERS[i].getName().equals(name))
+            {
+                return PARAMETERS[i];
+            }
+        }
+        throw new IllegalArgumentException("unknown parameter set: " + name);
+    }
+}
@@ -0,0 +1,183 @@
+package org.bouncycastle.perf.tls;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.tls.BasicTlsPSKIdentity;
+import org.bouncycastle.tls.CipherSuite;
+import org.bouncycastle.tls.PSKTlsClient;
+import org.bouncycastle.tls.PSKTlsServer;
+import org.bouncycastle.tls.TlsClientProtocol;
+import org.bouncycastle.tls.TlsPSKIdentityManager;
+import org.bouncycastle.tls.TlsProtocol;
+import org.bouncycastle.tls.TlsServerProtocol;
+import org.bouncycastle.tls.crypto.TlsCrypto;
+import org.bouncycastle.tls.crypto.impl.bc.BcTlsCrypto;
+import org.bouncycastle.util.Strings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the TLS 1.2 record layer: application data is written on a connected, non-blocking
+ * client and (for the round trip) fed straight into the matching server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TlsRecordBenchmark
+{
+    @Param({"AES_128_GCM", "AES_256_GCM", "CHACHA20_POLY1305", "AES_128_CBC"})
+    public String cipher;
+
+    @Param({"256", "16384"})
+    public int size;
+
+    private TlsClientProtocol clientProtocol;
+    private TlsServerProtocol serverProtocol;
+
+    private byte[] data;
+    private byte[] record;
+    private byte[] received;
+
+    @Setup
+    public void setup()
+        throws IOException
+    {
+        final int cipherSuite = getCipherSuite(cipher);
+        final byte[] identity = Strings.toUTF8ByteArray("perf");
+        final byte[] psk = new byte[32];
+
+        SecureRandom random = new SecureRandom();
+        random.nextBytes(psk);
+
+        TlsCrypto crypto = new BcTlsCrypto(random);
+
+        PSKTlsClient client = new PSKTlsClient(crypto, new BasicTlsPSKIdentity(identity, psk))
+        {
+            protected int[] getSupportedCipherSuites()
+            {
+                return new int[]{ cipherSuite };
+            }
+        };
+
+        PSKTlsServer server = new PSKTlsServer(crypto, new TlsPSKIdentityManager()
+        {
+            public byte[] getHint()
+            {
+                return null;
+            }
+
+            public byte[] getPSK(byte[] id)
+            {
+                return psk;
+            }
+        })
+        {
+            protected int[] getSupportedCipherSuites()
+            {
+                return new int[]{ cipherSuite };
+            }
+        };
+
+        clientProtocol = new TlsClientProtocol();
+        serverProtocol = new TlsServerProtocol();
+
+        clientProtocol.connect(client);
+        serverProtocol.accept(server);
+
+        boolean hadData = true;
+        while (hadData)
+        {
+            hadData = pump(clientProtocol, serverProtocol) | pump(serverProtocol, clientProtocol);
+        }
+
+        if (!clientProtocol.isConnected() || !serverProtocol.isConnected())
+        {
+            throw new IllegalStateException("handshake did not complete");
+        }
+
+        data = new byte[size];
+        random.nextBytes(data);
+
+        // large enough for one full record plus per-record overhead
+        record = new byte[size + 1024];
+        received = new byte[size];
+    }
+
+    @TearDown
+    public void tearDown()
+        throws IOException
+    {
+        clientProtocol.close();
+        serverProtocol.close();
+    }
+
+    @Benchmark
+    public int encode()
+        throws IOException
+    {
+        clientProtocol.writeApplicationData(data, 0, size);
+        return clientProtocol.readOutput(record, 0, record.length);
+    }
+
+    @Benchmark
+    public int encodeDecode()
+        throws IOException
+    {
+        clientProtocol.writeApplicationData(data, 0, size);
+        int recordLength = clientProtocol.readOutput(record, 0, record.length);
+
+        serverProtocol.offerInput(record, 0, recordLength);
+        return serverProtocol.readInput(received, 0, received.length);
+    }
+
+    private static boolean pump(TlsProtocol from, TlsProtocol to)
+        throws IOException
+    {
+        int count = from.getAvailableOutputBytes();
+        if (count == 0)
+        {
+            return false;
+        }
+
+        byte[] buf = new byte[count];
+        from.readOutput(buf, 0, count);
+        to.offerInput(buf);
+        return true;
+    }
+
+    private static int getCipherSuite(String name)
+    {
+        if ("AES_128_GCM".equals(name))
+        {
+            return CipherSuite.TLS_PSK_WITH_AES_128_GCM_SHA256;
+        }
+        if ("AES_256_GCM".equals(name))
+        {
+            return CipherSuite.TLS_PSK_WITH_AES_256_GCM_SHA384;
+        }
+        if ("CHACHA20_POLY1305".equals(name))
+        {
+            return CipherSuite.TLS_PSK_WITH_CHACHA20_POLY1305_SHA256;
+        }
+        if ("AES_128_CBC".equals(name))
+        {
+            return CipherSuite.TLS_PSK_WITH_AES_128_CBC_SHA256;
+        }
+        throw new IllegalArgumentException("unknown cipher: " + name);
+    }
+}
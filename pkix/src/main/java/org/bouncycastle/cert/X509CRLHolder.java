@@ -27,6 +27,7 @@
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
 import org.bouncycastle.asn1.x509.AltSignatureAlgorithm;
 import org.bouncycastle.asn1.x509.AltSignatureValue;
+import org.bouncycastle.asn1.x509.CRLEntryIndex;
 import org.bouncycastle.asn1.x509.CertificateList;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.Extensions;
@@ -51,6 +52,7 @@
     private transient boolean isIndirect;
     private transient Extensions extensions;
     private transient GeneralNames issuerName;
+    private transient volatile CRLEntryIndex entryIndex;
 
     private static CertificateList parseStream(InputStream stream)
         throws IOException
@@ -120,6 +122,17 @@ public X509CRLHolder(CertificateList x509CRL)
         init(x509CRL);
     }
 
+    private CRLEntryIndex getEntryIndex()
+    {
+        CRLEntryIndex index = entryIndex;
+        if (index == null)
+        {
+            index = new CRLEntryIndex(x509CRL.getTBSCertList(), isIndirect);
+            entryIndex = index;
+        }
+        return index;
+    }
+
     private void init(CertificateList x509CRL)
     {
         this.x509CRL = x509CRL;
@@ -167,30 +180,26 @@ public Date getNextUpdate()
         return null;
     }
 
+    /**
+     * Return the entry for the given serial number, if present. The first lookup builds an index
+     * of the CRL entries which is used for subsequent lookups.
+     *
+     * @param serialNumber the serial number of the revoked certificate.
+     * @return the X509CRLEntryHolder for the serial number, null if not found.
+     */
     public X509CRLEntryHolder getRevokedCertificate(BigInteger serialNumber)
     {
-        GeneralNames currentCA = issuerName;
-        for (Enumeration en = x509CRL.getRevokedCertificateEnumeration(); en.hasMoreElements(); )
-        {
-            TBSCertList.CRLEntry entry = (TBSCertList.CRLEntry)en.nextElement();
-
-            if (entry.getUserCertificate().hasValue(serialNumber))
-            {
-                return new X509CRLEntryHolder(entry, isIndirect, currentCA);
-            }
-
-            if (isIndirect && entry.hasExtensions())
-            {
-                Extension currentCaName = entry.getExtensions().getExtension(Extension.certificateIssuer);
+        CRLEntryIndex index = getEntryIndex();
 
-                if (currentCaName != null)
-                {
-                    currentCA = GeneralNames.getInstance(currentCaName.getParsedValue());
-                }
-            }
+        int position = index.indexOf(serialNumber);
+        if (position < 0)
+        {
+            return null;
         }
 
-        return null;
+        GeneralNames currentCA = index.getCertificateIssuer(position);
+
+        return new X509CRLEntryHolder(index.getEntry(position), isIndirect, currentCA != null ? currentCA : issuerName);
     }
 
     /**
@@ -0,0 +1,365 @@
+package org.bouncycastle.cert;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Date;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+
+/**
+ * A compact, read-only index of the revoked certificates on a CRL, keyed by serial number. An index
+ * is produced by {@link X509CRLStreamParser} and records, for each entry, the serial number, the
+ * revocation date, the reason code and the certificate issuer, without keeping any of the ASN.1
+ * structure of the entries.
+ * <p>
+ * The index is held in a single {@link ByteBuffer} which can be written out with
+ * {@link #writeTo(OutputStream)} and read back, or memory-mapped, with {@link #getInstance(ByteBuffer)}
+ * and {@link #load(File)}.
+ * </p>
+ */
+public class X509CRLSerialIndex
+{
+    static final int MAGIC = 0x42435249; // "BCRI"
+    static final int VERSION = 1;
+
+    static final int FLAG_INDIRECT = 0x01;
+    static final int FLAG_NEXT_UPDATE = 0x02;
+
+    static final int HEADER_LENGTH = 48;
+    static final int RECORD_LENGTH = 24;
+
+    private final ByteBuffer buf;
+    private final int count;
+    private final int flags;
+    private final int recordsOffset;
+    private final int serialsOffset;
+    private final GeneralNames[] issuers;
+    private final Extensions extensions;
+
+    /**
+     * Create an index from its encoded form, as written by {@link #writeTo(OutputStream)}. The buffer
+     * is used directly, so it may be memory-mapped, and must not be modified while the index is in use.
+     *
+     * @param encoding a buffer positioned at the start of the encoded index.
+     * @return an index over the buffer.
+     * @throws IOException if the buffer does not contain a valid index.
+     */
+    public static X509CRLSerialIndex getInstance(ByteBuffer encoding)
+        throws IOException
+    {
+        return new X509CRLSerialIndex(encoding.slice());
+    }
+
+    /**
+     * Memory-map an index previously written to a file with {@link #writeTo(OutputStream)}.
+     *
+     * @param file the file containing the index.
+     * @return an index over the mapped file.
+     * @throws IOException if the file cannot be mapped or does not contain a valid index.
+     */
+    public static X509CRLSerialIndex load(File file)
+        throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try
+        {
+            FileChannel channel = raf.getChannel();
+
+            return new X509CRLSerialIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        finally
+        {
+            raf.close();
+        }
+    }
+
+    X509CRLSerialIndex(ByteBuffer buf)
+        throws IOException
+    {
+        try
+        {
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION)
+            {
+                throw new CertIOException("unrecognised CRL index encoding");
+            }
+
+            this.buf = buf;
+            this.count = buf.getInt(8);
+            this.flags = buf.getInt(12);
+
+            int issuerCount = buf.getInt(32);
+            int extensionsLength = buf.getInt(36);
+            this.recordsOffset = buf.getInt(40);
+            this.serialsOffset = buf.getInt(44);
+
+            if (count < 0 || issuerCount < 1 || recordsOffset < HEADER_LENGTH
+                || serialsOffset - recordsOffset != count * RECORD_LENGTH || serialsOffset > buf.limit())
+            {
+                throw new CertIOException("malformed CRL index");
+            }
+
+            int pos = HEADER_LENGTH;
+            this.issuers = new GeneralNames[issuerCount];
+            for (int i = 0; i != issuerCount; i++)
+            {
+                int length = buf.getInt(pos);
+                issuers[i] = GeneralNames.getInstance(getBytes(pos + 4, length));
+                pos += 4 + length;
+            }
+
+            this.extensions = extensionsLength == 0 ? null : Extensions.getInstance(getBytes(pos, extensionsLength));
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            throw new CertIOException("malformed CRL index: " + e.getMessage(), e);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new CertIOException("malformed CRL index: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Return the issuer of the CRL.
+     *
+     * @return the CRL issuer.
+     */
+    public X500Name getIssuer()
+    {
+        return X500Name.getInstance(issuers[0].getNames()[0].getName());
+    }
+
+    public Date getThisUpdate()
+    {
+        return new Date(buf.getLong(16));
+    }
+
+    public Date getNextUpdate()
+    {
+        if ((flags & FLAG_NEXT_UPDATE) == 0)
+        {
+            return null;
+        }
+
+        return new Date(buf.getLong(24));
+    }
+
+    /**
+     * Return whether the CRL was an indirect CRL.
+     *
+     * @return true if the CRL's issuing distribution point marks it as indirect.
+     */
+    public boolean isIndirectCRL()
+    {
+        return (flags & FLAG_INDIRECT) != 0;
+    }
+
+    /**
+     * Return the extensions of the CRL.
+     *
+     * @return the CRL extensions, or null if there are none.
+     */
+    public Extensions getExtensions()
+    {
+        return extensions;
+    }
+
+    /**
+     * Return the number of revoked certificates in the index.
+     *
+     * @return the number of entries.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Find the entry for a serial number. If the CRL lists a serial number more than once, the first
+     * occurrence on the CRL is returned.
+     *
+     * @param serialNumber the serial number to look for.
+     * @return the position of the entry in the index, or -1 if the serial number is not present.
+     */
+    public int indexOf(BigInteger serialNumber)
+    {
+        byte[] key = serialNumber.toByteArray();
+
+        int low = 0, high = count;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (compareSerial(mid, key) < 0)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+
+        if (low < count && compareSerial(low, key) == 0)
+        {
+            return low;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Check whether a certificate is revoked by this CRL.
+     *
+     * @param certificateIssuer the issuer of the certificate.
+     * @param serialNumber the serial number of the certificate.
+     * @return true if the serial number is on the CRL for the given certificate issuer.
+     */
+    public boolean isRevoked(X500Name certificateIssuer, BigInteger serialNumber)
+    {
+        int position = indexOf(serialNumber);
+        if (position < 0)
+        {
+            return false;
+        }
+
+        return certificateIssuer.equals(getDirectoryName(getCertificateIssuer(position)));
+    }
+
+    /**
+     * Return the serial number of the entry at the given position.
+     *
+     * @param position the position of the entry in the index.
+     * @return the serial number.
+     */
+    public BigInteger getSerialNumber(int position)
+    {
+        int record = getRecord(position);
+
+        return new BigInteger(getBytes(serialsOffset + buf.getInt(record), buf.getInt(record + 4)));
+    }
+
+    /**
+     * Return the revocation date of the entry at the given position.
+     *
+     * @param position the position of the entry in the index.
+     * @return the revocation date.
+     */
+    public Date getRevocationDate(int position)
+    {
+        return new Date(buf.getLong(getRecord(position) + 8));
+    }
+
+    /**
+     * Return the certificate issuer for the entry at the given position. For a CRL that is not indirect
+     * this is always the CRL issuer.
+     *
+     * @param position the position of the entry in the index.
+     * @return the certificate issuer.
+     */
+    public GeneralNames getCertificateIssuer(int position)
+    {
+        return issuers[buf.getInt(getRecord(position) + 16)];
+    }
+
+    /**
+     * Return the reason code of the entry at the given position.
+     *
+     * @param position the position of the entry in the index.
+     * @return the CRLReason value of the entry, or -1 if the entry has no reason code.
+     */
+    public int getReasonCode(int position)
+    {
+        return buf.getInt(getRecord(position) + 20);
+    }
+
+    /**
+     * Write the encoded form of the index to an output stream.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public void writeTo(OutputStream out)
+        throws IOException
+    {
+        ByteBuffer tmp = buf.duplicate();
+        ((java.nio.Buffer)tmp).clear();
+
+        if (tmp.hasArray())
+        {
+            out.write(tmp.array(), tmp.arrayOffset(), tmp.limit());
+            return;
+        }
+
+        byte[] chunk = new byte[8192];
+        while (tmp.hasRemaining())
+        {
+            int len = Math.min(chunk.length, tmp.remaining());
+            tmp.get(chunk, 0, len);
+            out.write(chunk, 0, len);
+        }
+    }
+
+    private static X500Name getDirectoryName(GeneralNames issuer)
+    {
+        GeneralName[] names = issuer.getNames();
+        for (int i = 0; i != names.length; i++)
+        {
+            if (names[i].getTagNo() == GeneralName.directoryName)
+            {
+                return X500Name.getInstance(names[i].getName());
+            }
+        }
+        return null;
+    }
+
+    private int getRecord(int position)
+    {
+        if (position < 0 || position >= count)
+        {
+            throw new IndexOutOfBoundsException("position out of range");
+        }
+
+        return recordsOffset + position * RECORD_LENGTH;
+    }
+
+    private int compareSerial(int position, byte[] key)
+    {
+        int record = recordsOffset + position * RECORD_LENGTH;
+        int offset = serialsOffset + buf.getInt(record);
+        int length = buf.getInt(record + 4);
+
+        if (length != key.length)
+        {
+            return length < key.length ? -1 : 1;
+        }
+
+        for (int i = 0; i != length; i++)
+        {
+            int a = buf.get(offset + i) & 0xff, b = key[i] & 0xff;
+            if (a != b)
+            {
+                return a < b ? -1 : 1;
+            }
+        }
+
+        return 0;
+    }
+
+    private byte[] getBytes(int offset, int length)
+    {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i != length; i++)
+        {
+            bytes[i] = buf.get(offset + i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,649 @@
+package org.bouncycastle.cert;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.bouncycastle.asn1.ASN1BitString;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1GeneralizedTime;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.ASN1SequenceParser;
+import org.bouncycastle.asn1.ASN1StreamParser;
+import org.bouncycastle.asn1.ASN1TaggedObject;
+import org.bouncycastle.asn1.ASN1TaggedObjectParser;
+import org.bouncycastle.asn1.ASN1UTCTime;
+import org.bouncycastle.asn1.BERTags;
+import org.bouncycastle.asn1.InMemoryRepresentable;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.CRLReason;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.IssuingDistributionPoint;
+import org.bouncycastle.asn1.x509.TBSCertList;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.operator.ContentVerifier;
+import org.bouncycastle.operator.ContentVerifierProvider;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Streaming parser for X.509 CRLs, producing an {@link X509CRLSerialIndex} of the revoked certificates.
+ * <p>
+ * The CRL is read once, one entry at a time, and the signature is checked against the bytes as they are
+ * read, so only a single CRL entry is ever held in memory as an ASN.1 structure. This makes it suitable
+ * for very large CRLs which would otherwise be loaded in full by {@link X509CRLHolder}.
+ * </p>
+ * <p>
+ * Note: the CertificateList and TBSCertList must use definite-length encodings, as the signature is
+ * verified over the encoding as read. This is always the case for a DER encoded CRL.
+ * </p>
+ */
+public class X509CRLStreamParser
+{
+    private final InputStream in;
+
+    /**
+     * Base constructor.
+     *
+     * @param in the stream to read the DER encoded CRL from.
+     */
+    public X509CRLStreamParser(InputStream in)
+    {
+        this.in = in;
+    }
+
+    /**
+     * Parse the CRL without checking its signature.
+     *
+     * @return an index of the revoked certificates on the CRL.
+     * @throws IOException in the event of corrupted data, or an incorrect structure.
+     */
+    public X509CRLSerialIndex parse()
+        throws IOException
+    {
+        try
+        {
+            return parse(null);
+        }
+        catch (CertException e)
+        {
+            // can't happen without a verifier provider
+            throw new CertIOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse the CRL, validating its signature as it is read.
+     *
+     * @param verifierProvider a ContentVerifierProvider that can generate a verifier for the signature.
+     * @return an index of the revoked certificates on the CRL.
+     * @throws IOException in the event of corrupted data, or an incorrect structure.
+     * @throws CertException if the signature cannot be processed, or is not valid.
+     */
+    public X509CRLSerialIndex parse(ContentVerifierProvider verifierProvider)
+        throws IOException, CertException
+    {
+        int crlLength = readDefiniteLength(in, BERTags.SEQUENCE | BERTags.CONSTRUCTED);
+
+        LimitedInputStream crlIn = new LimitedInputStream(in, crlLength);
+        TBSInputStream tbsIn = new TBSInputStream(crlIn);
+        int tbsLength = readDefiniteLength(tbsIn, BERTags.SEQUENCE | BERTags.CONSTRUCTED);
+        tbsIn.setLimit(tbsLength);
+
+        ASN1StreamParser tbsParser = new ASN1StreamParser(tbsIn, tbsLength);
+        IndexBuilder builder = new IndexBuilder();
+
+        try
+        {
+            ASN1Encodable obj = tbsParser.readObject();
+            if (obj instanceof ASN1Integer)
+            {
+                obj = tbsParser.readObject();
+            }
+
+            AlgorithmIdentifier signature = AlgorithmIdentifier.getInstance(load(obj));
+
+            ContentVerifier verifier = null;
+            if (verifierProvider != null)
+            {
+                try
+                {
+                    verifier = verifierProvider.get(signature);
+                }
+                catch (Exception e)
+                {
+                    throw new CertException("unable to process signature: " + e.getMessage(), e);
+                }
+            }
+            tbsIn.setOutput(verifier == null ? null : verifier.getOutputStream());
+
+            X500Name issuer = X500Name.getInstance(load(tbsParser.readObject()));
+            Time thisUpdate = Time.getInstance(tbsParser.readObject());
+            Time nextUpdate = null;
+
+            obj = tbsParser.readObject();
+            if (obj instanceof ASN1UTCTime || obj instanceof ASN1GeneralizedTime)
+            {
+                nextUpdate = Time.getInstance(obj);
+                obj = tbsParser.readObject();
+            }
+
+            builder.init(issuer, thisUpdate, nextUpdate);
+
+            if (obj instanceof ASN1SequenceParser)
+            {
+                ASN1SequenceParser entries = (ASN1SequenceParser)obj;
+                ASN1Encodable entry;
+                while ((entry = entries.readObject()) != null)
+                {
+                    builder.addEntry(TBSCertList.CRLEntry.getInstance(load(entry)));
+                }
+                obj = tbsParser.readObject();
+            }
+
+            Extensions extensions = null;
+            if (obj instanceof ASN1TaggedObjectParser && ((ASN1TaggedObjectParser)obj).hasContextTag(0))
+            {
+                extensions = Extensions.getInstance(ASN1TaggedObject.getInstance(load(obj)), true);
+                obj = tbsParser.readObject();
+            }
+
+            if (obj != null || tbsIn.remaining() != 0)
+            {
+                throw new CertIOException("malformed TBSCertList");
+            }
+
+            tbsIn.setOutput(null);
+
+            ASN1StreamParser crlParser = new ASN1StreamParser(crlIn, crlLength);
+
+            AlgorithmIdentifier signatureAlgorithm = AlgorithmIdentifier.getInstance(load(crlParser.readObject()));
+            ASN1BitString signatureValue = ASN1BitString.getInstance(load(crlParser.readObject()));
+
+            if (crlIn.remaining() != 0)
+            {
+                throw new CertIOException("malformed CRL: data found after signature");
+            }
+
+            if (verifier != null)
+            {
+                if (!CertUtils.isAlgIdEqual(signature, signatureAlgorithm))
+                {
+                    throw new CertException("signature invalid - algorithm identifier mismatch");
+                }
+
+                boolean isValid;
+                try
+                {
+                    verifier.getOutputStream().close();
+                    isValid = verifier.verify(signatureValue.getOctets());
+                }
+                catch (Exception e)
+                {
+                    throw new CertException("unable to process signature: " + e.getMessage(), e);
+                }
+
+                if (!isValid)
+                {
+                    throw new CertException("CRL signature invalid");
+                }
+            }
+
+            return builder.build(extensions);
+        }
+        catch (ClassCastException e)
+        {
+            throw new CertIOException("malformed data: " + e.getMessage(), e);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new CertIOException("malformed data: " + e.getMessage(), e);
+        }
+    }
+
+    private static ASN1Primitive load(ASN1Encodable obj)
+        throws IOException
+    {
+        if (obj == null)
+        {
+            throw new CertIOException("malformed CRL: unexpected end of structure");
+        }
+
+        if (obj instanceof InMemoryRepresentable)
+        {
+            return ((InMemoryRepresentable)obj).getLoadedObject();
+        }
+
+        return obj.toASN1Primitive();
+    }
+
+    private static int readDefiniteLength(InputStream in, int expectedTag)
+        throws IOException
+    {
+        int tag = in.read();
+        if (tag != expectedTag)
+        {
+            throw new CertIOException(tag < 0 ? "no content found" : "malformed CRL: unexpected tag");
+        }
+
+        int length = in.read();
+        if (length < 0)
+        {
+            throw new CertIOException("malformed CRL: EOF found when length expected");
+        }
+        if (length == 0x80)
+        {
+            throw new CertIOException("indefinite-length encoding not supported for streamed CRL");
+        }
+        if (length > 127)
+        {
+            int size = length & 0x7f;
+            if (size > 4)
+            {
+                throw new CertIOException("malformed CRL: length too long");
+            }
+
+            length = 0;
+            for (int i = 0; i != size; i++)
+            {
+                int next = in.read();
+                if (next < 0)
+                {
+                    throw new CertIOException("malformed CRL: EOF found reading length");
+                }
+                length = (length << 8) + next;
+            }
+
+            if (length < 0)
+            {
+                throw new CertIOException("malformed CRL: length too long");
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Reads the contents of the CertificateList, ending at its encoded length.
+     */
+    private static class LimitedInputStream
+        extends InputStream
+    {
+        private final InputStream in;
+
+        private int remaining;
+
+        LimitedInputStream(InputStream in, int limit)
+        {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        int remaining()
+        {
+            return remaining;
+        }
+
+        public int read()
+            throws IOException
+        {
+            if (remaining == 0)
+            {
+                return -1;
+            }
+
+            int b = in.read();
+            if (b >= 0)
+            {
+                --remaining;
+            }
+            return b;
+        }
+
+        public int read(byte[] buf, int off, int len)
+            throws IOException
+        {
+            if (remaining == 0)
+            {
+                return -1;
+            }
+
+            int count = in.read(buf, off, Math.min(len, remaining));
+            if (count > 0)
+            {
+                remaining -= count;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Reads the TBSCertList, passing on each byte read to the signature verifier. Bytes read before the
+     * verifier is available are held back until it is.
+     */
+    private static class TBSInputStream
+        extends InputStream
+    {
+        private final InputStream in;
+
+        private OutputStream out = new ByteArrayOutputStream();
+        private int remaining = Integer.MAX_VALUE;
+
+        TBSInputStream(InputStream in)
+        {
+            this.in = in;
+        }
+
+        void setLimit(int limit)
+        {
+            this.remaining = limit;
+        }
+
+        int remaining()
+        {
+            return remaining;
+        }
+
+        void setOutput(OutputStream output)
+            throws IOException
+        {
+            if (out instanceof ByteArrayOutputStream && output != null)
+            {
+                ((ByteArrayOutputStream)out).writeTo(output);
+            }
+            this.out = output;
+        }
+
+        public int read()
+            throws IOException
+        {
+            if (remaining == 0)
+            {
+                return -1;
+            }
+
+            int b = in.read();
+            if (b < 0)
+            {
+                throw new CertIOException("malformed CRL: EOF found inside TBSCertList");
+            }
+
+            --remaining;
+            if (out != null)
+            {
+                out.write(b);
+            }
+            return b;
+        }
+
+        public int read(byte[] buf, int off, int len)
+            throws IOException
+        {
+            if (remaining == 0)
+            {
+                return -1;
+            }
+
+            int count = in.read(buf, off, Math.min(len, remaining));
+            if (count < 0)
+            {
+                throw new CertIOException("malformed CRL: EOF found inside TBSCertList");
+            }
+
+            remaining -= count;
+            if (out != null)
+            {
+                out.write(buf, off, count);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Accumulates the entries of the CRL in primitive arrays, then sorts and encodes them as an index.
+     */
+    private static class IndexBuilder
+    {
+        private Time thisUpdate;
+        private Time nextUpdate;
+
+        private int count = 0;
+        private byte[] serials = new byte[1024];
+        private int serialsLength = 0;
+        private int[] serialOffsets = new int[64];
+        private long[] revocationDates = new long[64];
+        private int[] issuerIndexes = new int[64];
+        private int[] reasonCodes = new int[64];
+
+        private GeneralNames[] issuers = new GeneralNames[4];
+        private int issuerCount = 1;
+        private int currentIssuer = 0;
+
+        void init(X500Name issuer, Time thisUpdate, Time nextUpdate)
+        {
+            this.thisUpdate = thisUpdate;
+            this.nextUpdate = nextUpdate;
+            this.issuers[0] = new GeneralNames(new GeneralName(issuer));
+        }
+
+        void addEntry(TBSCertList.CRLEntry entry)
+        {
+            byte[] serial = entry.getUserCertificate().getValue().toByteArray();
+
+            if (count == serialOffsets.length)
+            {
+                int newLength = count * 2;
+                serialOffsets = Arrays.copyOf(serialOffsets, newLength);
+                revocationDates = Arrays.copyOf(revocationDates, newLength);
+                issuerIndexes = Arrays.copyOf(issuerIndexes, newLength);
+                reasonCodes = Arrays.copyOf(reasonCodes, newLength);
+            }
+            if (serialsLength + serial.length > serials.length)
+            {
+                serials = Arrays.copyOf(serials, Math.max(serials.length * 2, serialsLength + serial.length));
+            }
+
+            int reasonCode = -1;
+
+            Extensions extensions = entry.getExtensions();
+            if (extensions != null)
+            {
+                Extension certificateIssuer = extensions.getExtension(Extension.certificateIssuer);
+                if (certificateIssuer != null)
+                {
+                    addIssuer(GeneralNames.getInstance(certificateIssuer.getParsedValue()));
+                }
+
+                Extension reason = extensions.getExtension(Extension.reasonCode);
+                if (reason != null)
+                {
+                    reasonCode = CRLReason.getInstance(reason.getParsedValue()).getValue().intValue();
+                }
+            }
+
+            System.arraycopy(serial, 0, serials, serialsLength, serial.length);
+            serialOffsets[count] = serialsLength;
+            serialsLength += serial.length;
+
+            revocationDates[count] = entry.getRevocationDate().getDate().getTime();
+            issuerIndexes[count] = currentIssuer;
+            reasonCodes[count] = reasonCode;
+
+            ++count;
+        }
+
+        private void addIssuer(GeneralNames name)
+        {
+            for (int i = 0; i != issuerCount; i++)
+            {
+                if (issuers[i].equals(name))
+                {
+                    currentIssuer = i;
+                    return;
+                }
+            }
+
+            if (issuerCount == issuers.length)
+            {
+                GeneralNames[] tmp = new GeneralNames[issuerCount * 2];
+                System.arraycopy(issuers, 0, tmp, 0, issuerCount);
+                issuers = tmp;
+            }
+
+            issuers[issuerCount] = name;
+            currentIssuer = issuerCount++;
+        }
+
+        X509CRLSerialIndex build(Extensions extensions)
+            throws IOException
+        {
+            boolean isIndirect = isIndirectCRL(extensions);
+            if (!isIndirect)
+            {
+                // certificateIssuer is only meaningful on an indirect CRL
+                issuerCount = 1;
+            }
+
+            byte[][] issuerEncodings = new byte[issuerCount][];
+            int issuersLength = 0;
+            for (int i = 0; i != issuerCount; i++)
+            {
+                issuerEncodings[i] = issuers[i].getEncoded(ASN1Encoding.DER);
+                issuersLength += 4 + issuerEncodings[i].length;
+            }
+
+            byte[] extensionsEncoding = extensions == null ? new byte[0] : extensions.getEncoded(ASN1Encoding.DER);
+
+            int recordsOffset = X509CRLSerialIndex.HEADER_LENGTH + issuersLength + extensionsEncoding.length;
+            int serialsOffset = recordsOffset + count * X509CRLSerialIndex.RECORD_LENGTH;
+
+            ByteBuffer buf = ByteBuffer.allocate(serialsOffset + serialsLength);
+
+            int flags = (isIndirect ? X509CRLSerialIndex.FLAG_INDIRECT : 0)
+                | (nextUpdate != null ? X509CRLSerialIndex.FLAG_NEXT_UPDATE : 0);
+
+            buf.putInt(X509CRLSerialIndex.MAGIC);
+            buf.putInt(X509CRLSerialIndex.VERSION);
+            buf.putInt(count);
+            buf.putInt(flags);
+            buf.putLong(thisUpdate.getDate().getTime());
+            buf.putLong(nextUpdate != null ? nextUpdate.getDate().getTime() : 0L);
+            buf.putInt(issuerCount);
+            buf.putInt(extensionsEncoding.length);
+            buf.putInt(recordsOffset);
+            buf.putInt(serialsOffset);
+
+            for (int i = 0; i != issuerCount; i++)
+            {
+                buf.putInt(issuerEncodings[i].length);
+                buf.put(issuerEncodings[i]);
+            }
+            buf.put(extensionsEncoding);
+
+            int[] order = sortBySerial();
+            for (int i = 0; i != count; i++)
+            {
+                int entry = order[i];
+
+                buf.putInt(serialOffsets[entry]);
+                buf.putInt(getSerialLength(entry));
+                buf.putLong(revocationDates[entry]);
+                buf.putInt(isIndirect ? issuerIndexes[entry] : 0);
+                buf.putInt(reasonCodes[entry]);
+            }
+            buf.put(serials, 0, serialsLength);
+
+            ((java.nio.Buffer)buf).flip();
+
+            return new X509CRLSerialIndex(buf);
+        }
+
+        private static boolean isIndirectCRL(Extensions extensions)
+        {
+            if (extensions == null)
+            {
+                return false;
+            }
+
+            Extension ext = extensions.getExtension(Extension.issuingDistributionPoint);
+
+            return ext != null && IssuingDistributionPoint.getInstance(ext.getParsedValue()).isIndirectCRL();
+        }
+
+        private int getSerialLength(int entry)
+        {
+            int end = (entry + 1 < count) ? serialOffsets[entry + 1] : serialsLength;
+
+            return end - serialOffsets[entry];
+        }
+
+        /*
+         * Stable merge sort of the entry numbers, so that duplicated serial numbers stay in CRL order.
+         */
+        private int[] sortBySerial()
+        {
+            int[] order = new int[count];
+            for (int i = 0; i != count; i++)
+            {
+                order[i] = i;
+            }
+
+            int[] tmp = new int[count];
+            for (int width = 1; width < count; width *= 2)
+            {
+                for (int low = 0; low < count; low += 2 * width)
+                {
+                    int mid = Math.min(low + width, count), high = Math.min(low + 2 * width, count);
+                    int i = low, j = mid, k = low;
+                    while (i < mid && j < high)
+                    {
+                        tmp[k++] = compareSerials(order[j], order[i]) < 0 ? order[j++] : order[i++];
+                    }
+                    while (i < mid)
+                    {
+                        tmp[k++] = order[i++];
+                    }
+                    while (j < high)
+                    {
+                        tmp[k++] = order[j++];
+                    }
+                }
+
+                int[] swap = order;
+                order = tmp;
+                tmp = swap;
+            }
+
+            return order;
+        }
+
+        // same ordering as X509CRLSerialIndex.compareSerial()
+        private int compareSerials(int a, int b)
+        {
+            int aLength = getSerialLength(a), bLength = getSerialLength(b);
+            if (aLength != bLength)
+            {
+                return aLength < bLength ? -1 : 1;
+            }
+
+            int aOff = serialOffsets[a], bOff = serialOffsets[b];
+            for (int i = 0; i != aLength; i++)
+            {
+                int x = serials[aOff + i] & 0xff, y = serials[bOff + i] & 0xff;
+                if (x != y)
+                {
+                    return x < y ? -1 : 1;
+                }
+            }
+
+            return 0;
+        }
+    }
+}
@@ -2,13 +2,17 @@
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.KeyFactory;
 import java.security.KeyPair;
@@ -53,6 +57,7 @@
 import org.bouncycastle.asn1.ASN1ObjectIdentifier;
 import org.bouncycastle.asn1.ASN1OctetString;
 import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.ASN1Sequence;
 import org.bouncycastle.asn1.DERNull;
 import org.bouncycastle.asn1.DEROctetString;
 import org.bouncycastle.asn1.DERSequence;
@@ -86,6 +91,8 @@
 import org.bouncycastle.cert.X509AttributeCertificateHolder;
 import org.bouncycastle.cert.X509CRLEntryHolder;
 import org.bouncycastle.cert.X509CRLHolder;
+import org.bouncycastle.cert.X509CRLSerialIndex;
+import org.bouncycastle.cert.X509CRLStreamParser;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.X509v1CertificateBuilder;
 import org.bouncycastle.cert.X509v2CRLBuilder;
@@ -138,6 +145,7 @@
 import org.bouncycastle.pqc.jcajce.spec.XMSSMTParameterSpec;
 import org.bouncycastle.pqc.jcajce.spec.XMSSParameterSpec;
 import org.bouncycastle.test.TestResourceFinder;
+import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Encodable;
 import org.bouncycastle.util.Strings;
 import org.bouncycastle.util.encoders.Base64;
@@ -5233,6 +5241,255 @@ private void testIndirect()
         }
     }
 
+    private void testIndirectLarge()
+        throws Exception
+    {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12", BC);
+
+        keyStore.load(new ByteArrayInputStream(testCAp12), "test".toCharArray());
+
+        X509Certificate certificate = (X509Certificate)keyStore.getCertificate("ca");
+        PrivateKey privateKey = (PrivateKey)keyStore.getKey("ca", null);
+
+        X500Name caName = X500Name.getInstance(certificate.getIssuerX500Principal().getEncoded());
+        X500Name otherName = new X500Name("CN=Other CA");
+
+        // the certificate is revoked by its own issuer at the end of the CRL, but by another CA in the middle
+        X509CRLHolder revokedHolder = buildLargeIndirectCRL(certificate, privateKey, caName, otherName, 300);
+        X509CRLHolder otherHolder = buildLargeIndirectCRL(certificate, privateKey, caName, otherName, 150);
+
+        for (int i = 0; i < 300; ++i)
+        {
+            X509CRLEntryHolder entry = revokedHolder.getRevokedCertificate(BigInteger.valueOf(1000 + i));
+
+            X500Name expected = ((i / 100) % 2 == 0) ? caName : otherName;
+            isEquals(new GeneralNames(new GeneralName(expected)), entry.getCertificateIssuer());
+            isEquals(BigInteger.valueOf(1000 + i), entry.getSerialNumber());
+        }
+
+        isTrue(null == revokedHolder.getRevokedCertificate(BigInteger.valueOf(999)));
+        isTrue(null == revokedHolder.getRevokedCertificate(BigInteger.valueOf(1300)));
+
+        // duplicated serial numbers return the first entry
+        isEquals(new GeneralNames(new GeneralName(otherName)),
+            otherHolder.getRevokedCertificate(certificate.getSerialNumber()).getCertificateIssuer());
+
+        JcaX509CRLConverter converter = new JcaX509CRLConverter().setProvider(BC);
+
+        X509CRL revokedCRL = converter.getCRL(revokedHolder);
+        X509CRL otherCRL = converter.getCRL(otherHolder);
+
+        isTrue("certificate should be revoked", revokedCRL.isRevoked(certificate));
+        isTrue("certificate revoked by wrong issuer", !otherCRL.isRevoked(certificate));
+
+        isEquals(new X500Principal(otherName.getEncoded()),
+            revokedCRL.getRevokedCertificate(BigInteger.valueOf(1150)).getCertificateIssuer());
+        isEquals(new X500Principal(caName.getEncoded()),
+            revokedCRL.getRevokedCertificate(BigInteger.valueOf(1299)).getCertificateIssuer());
+        isTrue(null == revokedCRL.getRevokedCertificate(BigInteger.valueOf(1300)));
+
+        CertificateFactory fac = CertificateFactory.getInstance("X.509", BC);
+
+        X509CRL jceCRL = (X509CRL)fac.generateCRL(new ByteArrayInputStream(revokedCRL.getEncoded()));
+
+        isTrue("certificate should also be revoked", jceCRL.isRevoked(certificate));
+        isEquals(new X500Principal(otherName.getEncoded()),
+            jceCRL.getRevokedCertificate(BigInteger.valueOf(1101)).getCertificateIssuer());
+    }
+
+    private void testStreamedCRL()
+        throws Exception
+    {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12", BC);
+
+        keyStore.load(new ByteArrayInputStream(testCAp12), "test".toCharArray());
+
+        X509Certificate certificate = (X509Certificate)keyStore.getCertificate("ca");
+        PrivateKey privateKey = (PrivateKey)keyStore.getKey("ca", null);
+
+        X500Name caName = X500Name.getInstance(certificate.getIssuerX500Principal().getEncoded());
+        X500Name otherName = new X500Name("CN=Other CA");
+
+        X509CRLHolder crlHolder = buildLargeIndirectCRL(certificate, privateKey, caName, otherName, 150);
+        byte[] encoding = crlHolder.getEncoded();
+
+        ContentVerifierProvider verifierProvider = new JcaContentVerifierProviderBuilder().setProvider(BC).build(certificate);
+
+        X509CRLSerialIndex index = new X509CRLStreamParser(new ByteArrayInputStream(encoding)).parse(verifierProvider);
+
+        checkSerialIndex(crlHolder, index, certificate, caName);
+
+        // round trip through a memory-mapped file
+        File file = File.createTempFile("bccrl", ".idx");
+        try
+        {
+            OutputStream fOut = new FileOutputStream(file);
+            index.writeTo(fOut);
+            fOut.close();
+
+            checkSerialIndex(crlHolder, X509CRLSerialIndex.load(file), certificate, caName);
+        }
+        finally
+        {
+            file.delete();
+        }
+
+        ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        index.writeTo(bOut);
+        checkSerialIndex(crlHolder, X509CRLSerialIndex.getInstance(ByteBuffer.wrap(bOut.toByteArray())), certificate, caName);
+
+        // a direct CRL with no entries
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(caName, new Date());
+        X509CRLHolder emptyHolder = builder.build(new JcaContentSignerBuilder("SHA256WithRSAEncryption").setProvider(BC).build(privateKey));
+
+        X509CRLSerialIndex emptyIndex = new X509CRLStreamParser(new ByteArrayInputStream(emptyHolder.getEncoded())).parse();
+        isEquals(0, emptyIndex.size());
+        isEquals(caName, emptyIndex.getIssuer());
+        isTrue(null == emptyIndex.getNextUpdate());
+        isTrue(!emptyIndex.isIndirectCRL());
+        isTrue(!emptyIndex.isRevoked(caName, certificate.getSerialNumber()));
+
+        // corrupt a serial number in the middle of the CRL
+        byte[] serial = BigInteger.valueOf(1150).toByteArray();
+        byte[] corrupted = Arrays.clone(encoding);
+        for (int i = 0; i < corrupted.length - serial.length; i++)
+        {
+            if (corrupted[i] == 0x02 && corrupted[i + 1] == serial.length
+                && Arrays.areEqual(serial, Arrays.copyOfRange(corrupted, i + 2, i + 2 + serial.length)))
+            {
+                corrupted[i + 2 + serial.length - 1] ^= 1;
+                break;
+            }
+        }
+
+        try
+        {
+            new X509CRLStreamParser(new ByteArrayInputStream(corrupted)).parse(verifierProvider);
+            fail("corrupted CRL not detected");
+        }
+        catch (CertException e)
+        {
+            isEquals("CRL signature invalid", e.getMessage());
+        }
+
+        try
+        {
+            new X509CRLStreamParser(new ByteArrayInputStream(Arrays.copyOf(encoding, encoding.length / 2))).parse();
+            fail("truncated CRL not detected");
+        }
+        catch (IOException e)
+        {
+            // expected
+        }
+
+        // an extra element after the signature, as rejected by X509CRLHolder
+        ASN1EncodableVector v = new ASN1EncodableVector();
+        v.addAll(ASN1Sequence.getInstance(encoding).toArray());
+        v.add(DERNull.INSTANCE);
+
+        try
+        {
+            new X509CRLStreamParser(new ByteArrayInputStream(new DERSequence(v).getEncoded())).parse();
+            fail("trailing data in CRL not detected");
+        }
+        catch (IOException e)
+        {
+            isEquals("malformed CRL: data found after signature", e.getMessage());
+        }
+
+        // a certificate issuer whose first name is not a directoryName
+        builder = new X509v2CRLBuilder(caName, new Date());
+        builder.addExtension(Extension.issuingDistributionPoint, true, new IssuingDistributionPoint(null, true, false));
+
+        ExtensionsGenerator extGen = new ExtensionsGenerator();
+        extGen.addExtension(Extension.certificateIssuer, true, new GeneralNames(new GeneralName[]{
+            new GeneralName(GeneralName.rfc822Name, "ca@example.com"), new GeneralName(otherName) }));
+        builder.addCRLEntry(BigInteger.valueOf(7), new Date(), extGen.generate());
+
+        X509CRLHolder namesHolder = builder.build(new JcaContentSignerBuilder("SHA256WithRSAEncryption").setProvider(BC).build(privateKey));
+
+        X509CRLSerialIndex namesIndex = new X509CRLStreamParser(new ByteArrayInputStream(namesHolder.getEncoded())).parse();
+        isTrue(namesIndex.isRevoked(otherName, BigInteger.valueOf(7)));
+        isTrue(!namesIndex.isRevoked(caName, BigInteger.valueOf(7)));
+    }
+
+    private void checkSerialIndex(X509CRLHolder crlHolder, X509CRLSerialIndex index, X509Certificate certificate,
+        X500Name caName)
+        throws Exception
+    {
+        isEquals(302, index.size());
+        isTrue(index.isIndirectCRL());
+        isEquals(crlHolder.getIssuer(), index.getIssuer());
+        isEquals(crlHolder.getThisUpdate(), index.getThisUpdate());
+        isEquals(crlHolder.getNextUpdate(), index.getNextUpdate());
+        isEquals(crlHolder.getExtensions(), index.getExtensions());
+
+        for (Iterator it = crlHolder.getRevokedCertificates().iterator(); it.hasNext();)
+        {
+            X509CRLEntryHolder entry = (X509CRLEntryHolder)it.next();
+            X509CRLEntryHolder first = crlHolder.getRevokedCertificate(entry.getSerialNumber());
+
+            int position = index.indexOf(entry.getSerialNumber());
+
+            isTrue(position >= 0);
+            isEquals(first.getSerialNumber(), index.getSerialNumber(position));
+            isEquals(first.getRevocationDate(), index.getRevocationDate(position));
+            isEquals(first.getCertificateIssuer(), index.getCertificateIssuer(position));
+
+            Extension reason = first.getExtension(Extension.reasonCode);
+            isEquals(reason == null ? -1 : CRLReason.getInstance(reason.getParsedValue()).getValue().intValue(),
+                index.getReasonCode(position));
+        }
+
+        isEquals(-1, index.indexOf(BigInteger.valueOf(999)));
+        isEquals(-1, index.indexOf(BigInteger.valueOf(1300)));
+        isEquals(-1, index.indexOf(BigInteger.valueOf(-1150)));
+
+        isTrue(!index.isRevoked(caName, certificate.getSerialNumber()));
+        isTrue(index.isRevoked(new X500Name("CN=Other CA"), certificate.getSerialNumber()));
+        isTrue(index.isRevoked(caName, BigInteger.valueOf(1250)));
+    }
+
+    private X509CRLHolder buildLargeIndirectCRL(X509Certificate certificate, PrivateKey privateKey, X500Name caName,
+        X500Name otherName, int certPosition)
+        throws Exception
+    {
+        X500Name crlIssuer = X500Name.getInstance(certificate.getSubjectX500Principal().getEncoded());
+
+        X509v2CRLBuilder builder = new X509v2CRLBuilder(crlIssuer, new Date());
+
+        builder.setNextUpdate(new Date(System.currentTimeMillis() + 24L * 60 * 60 * 1000));
+
+        builder.addExtension(Extension.issuingDistributionPoint, true, new IssuingDistributionPoint(null, true, false));
+
+        for (int i = 0; i < 300; ++i)
+        {
+            if (i == certPosition)
+            {
+                builder.addCRLEntry(certificate.getSerialNumber(), new Date(), CRLReason.keyCompromise);
+            }
+
+            if (i % 100 == 0)
+            {
+                ExtensionsGenerator extGen = new ExtensionsGenerator();
+
+                X500Name name = ((i / 100) % 2 == 0) ? caName : otherName;
+                extGen.addExtension(Extension.certificateIssuer, true, new GeneralNames(new GeneralName(name)));
+
+                builder.addCRLEntry(BigInteger.valueOf(1000 + i), new Date(), extGen.generate());
+            }
+            else
+            {
+                builder.addCRLEntry(BigInteger.valueOf(1000 + i), new Date(), CRLReason.keyCompromise);
+            }
+        }
+
+        // the last entry falls under the certificate's own issuer, and is a duplicate if certPosition < 300
+        builder.addCRLEntry(certificate.getSerialNumber(), new Date(), CRLReason.keyCompromise);
+
+        return builder.build(new JcaContentSignerBuilder("SHA256WithRSAEncryption").setProvider(BC).build(privateKey));
+    }
+
     private void testIndirect2()
         throws Exception
     {
@@ -5591,6 +5848,8 @@ public void performTest()
         testDirect();
         testIndirect();
         testIndirect2();
+        testIndirectLarge();
+        testStreamedCRL();
         testMalformedIndirect();
 
         checkCertificate(1, cert1);
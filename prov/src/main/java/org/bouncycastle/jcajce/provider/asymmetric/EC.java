@@ -1,12 +1,15 @@
 package org.bouncycastle.jcajce.provider.asymmetric;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
 import org.bouncycastle.asn1.sec.SECObjectIdentifiers;
 import org.bouncycastle.asn1.teletrust.TeleTrusTObjectIdentifiers;
 import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
 import org.bouncycastle.internal.asn1.bsi.BSIObjectIdentifiers;
 import org.bouncycastle.internal.asn1.cms.CMSObjectIdentifiers;
 import org.bouncycastle.internal.asn1.eac.EACObjectIdentifiers;
@@ -140,6 +143,8 @@ public void configure(ConfigurableProvider provider)
             registerOidAlgorithmParameters(provider, SECObjectIdentifiers.dhSinglePass_stdDH_sha512kdf_scheme, "EC");
             registerOidAlgorithmParameters(provider, SECObjectIdentifiers.dhSinglePass_cofactorDH_sha512kdf_scheme, "EC");
 
+            precomputeBasePoints(Properties.asKeySet("org.bouncycastle.ec.precompute_curves"));
+
             if (!Properties.isOverrideSet("org.bouncycastle.ec.disable_mqv"))
             {
                 provider.addAlgorithm("KeyAgreement.ECMQV", PREFIX + "KeyAgreementSpi$MQV", generalEcAttributes);
@@ -292,5 +297,17 @@ public void configure(ConfigurableProvider provider)
             addSignatureAlgorithm(provider, "SHA3-384", "PLAIN-ECDSA", PREFIX + "SignatureSpi$ecCVCDSA3_384", BSIObjectIdentifiers.ecdsa_plain_SHA3_384, generalEcAttributes);
             addSignatureAlgorithm(provider, "SHA3-512", "PLAIN-ECDSA", PREFIX + "SignatureSpi$ecCVCDSA3_512", BSIObjectIdentifiers.ecdsa_plain_SHA3_512, generalEcAttributes);
         }
+
+        /*
+         * Curves listed in the org.bouncycastle.ec.precompute_curves property have their base point tables
+         * built when the provider is configured, rather than by the first operation that uses them.
+         */
+        private static void precomputeBasePoints(Set<String> curveNames)
+        {
+            for (Iterator<String> it = curveNames.iterator(); it.hasNext();)
+            {
+                CustomNamedCurves.precomputeBasePoint(it.next());
+            }
+        }
     }
 }
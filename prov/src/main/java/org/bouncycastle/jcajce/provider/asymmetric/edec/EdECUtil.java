@@ -7,6 +7,7 @@
 import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
 import org.bouncycastle.crypto.util.PrivateKeyFactory;
 import org.bouncycastle.crypto.util.PublicKeyFactory;
+import org.bouncycastle.jcajce.provider.asymmetric.util.PublicKeyParameterCache;
 
 /**
  * utility class for converting jce/jca XDH, and EdDSA
@@ -14,6 +15,8 @@
  */
 class EdECUtil
 {
+    private static final PublicKeyParameterCache PUBLIC_KEY_CACHE = new PublicKeyParameterCache();
+
     public static AsymmetricKeyParameter generatePublicKeyParameter(
         PublicKey key)
         throws InvalidKeyException
@@ -38,7 +41,14 @@ else if (key instanceof BCEdDSAPublicKey)
                     throw new InvalidKeyException("no encoding for EdEC/XDH public key");
                 }
 
-                return PublicKeyFactory.createKey(bytes);
+                // keep the converted key, so any precomputation for it is reused
+                AsymmetricKeyParameter pub = PUBLIC_KEY_CACHE.get(bytes);
+                if (pub == null)
+                {
+                    pub = PublicKeyFactory.createKey(bytes);
+                    PUBLIC_KEY_CACHE.put(bytes, pub);
+                }
+                return pub;
             }
             catch (Exception e)
             {
@@ -39,6 +39,7 @@
     private static class CustomCurves
     {
         private static Map CURVE_MAP = createCurveMap();
+        private static Map BASE_POINT_MAP = createBasePointMap();
 
         private static Map createCurveMap()
         {
@@ -73,11 +74,44 @@ private static Map createCurveMap()
             return map;
         }
 
+        private static Map createBasePointMap()
+        {
+            Map map = new HashMap();
+
+            Enumeration e = CustomNamedCurves.getNames();
+            while (e.hasMoreElements())
+            {
+                X9ECParametersHolder customParams = CustomNamedCurves.getByNameLazy((String)e.nextElement());
+
+                map.put(customParams.getCurve(), customParams);
+            }
+
+            return map;
+        }
+
         static ECCurve substitute(ECCurve c)
         {
             ECCurve custom = (ECCurve)CURVE_MAP.get(c);
             return null != custom ? custom : c;
         }
+
+        /*
+         * Use the named curve's own base point object where possible, as it carries the precomputed
+         * tables for fixed-point multiplication.
+         */
+        static org.bouncycastle.math.ec.ECPoint substitute(org.bouncycastle.math.ec.ECPoint g)
+        {
+            X9ECParametersHolder customParams = (X9ECParametersHolder)BASE_POINT_MAP.get(g.getCurve());
+            if (null != customParams)
+            {
+                org.bouncycastle.math.ec.ECPoint customG = customParams.getParameters().getG();
+                if (customG.equals(g))
+                {
+                    return customG;
+                }
+            }
+            return g;
+        }
     }
 
     public static ECCurve getCurve(
@@ -326,7 +360,7 @@ public static org.bouncycastle.jce.spec.ECParameterSpec convertSpec(ECParameterS
     {
         ECCurve curve = convertCurve(ecSpec.getCurve());
 
-        org.bouncycastle.math.ec.ECPoint g = convertPoint(curve, ecSpec.getGenerator());
+        org.bouncycastle.math.ec.ECPoint g = CustomCurves.substitute(convertPoint(curve, ecSpec.getGenerator()));
         BigInteger n = ecSpec.getOrder();
         BigInteger h = BigInteger.valueOf(ecSpec.getCofactor());
         byte[] seed = ecSpec.getCurve().getSeed();
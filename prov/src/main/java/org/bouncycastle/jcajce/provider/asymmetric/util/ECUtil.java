@@ -42,6 +42,8 @@
  */
 public class ECUtil
 {
+    private static final PublicKeyParameterCache PUBLIC_KEY_CACHE = new PublicKeyParameterCache();
+
     /**
      * Returns a sorted array of middle terms of the reduction polynomial.
      * @param k The unsorted array of middle terms of the reduction polynomial
@@ -189,10 +191,22 @@ public static AsymmetricKeyParameter generatePublicKeyParameter(
         else if (key instanceof java.security.interfaces.ECPublicKey)
         {
             java.security.interfaces.ECPublicKey pubKey = (java.security.interfaces.ECPublicKey)key;
+
+            // keep the converted key, so its point (and any precomputation for it) is reused
+            byte[] encoding = pubKey.getEncoded();
+            AsymmetricKeyParameter cached = PUBLIC_KEY_CACHE.get(encoding);
+            if (cached != null)
+            {
+                return cached;
+            }
+
             ECParameterSpec s = EC5Util.convertSpec(pubKey.getParams());
-            return new ECPublicKeyParameters(
+            AsymmetricKeyParameter pub = new ECPublicKeyParameters(
                 EC5Util.convertPoint(pubKey.getParams(), pubKey.getW()),
                             new ECDomainParameters(s.getCurve(), s.getG(), s.getN(), s.getH(), s.getSeed()));
+
+            PUBLIC_KEY_CACHE.put(encoding, pub);
+            return pub;
         }
         else
         {
@@ -0,0 +1,114 @@
+package org.bouncycastle.jcajce.provider.asymmetric.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.Properties;
+
+/**
+ * A bounded, least-recently-used cache of public key parameters, keyed by the encoding of the public key.
+ * <p>
+ * Public keys that are not from this provider have to be converted to their lightweight equivalents each
+ * time they are used. For EC and EdDSA keys that conversion also discards any precomputation the lightweight
+ * key has accumulated, so keeping the converted parameters for keys that are used repeatedly (for example,
+ * to verify many signatures) saves considerably more than the conversion itself.
+ * </p>
+ * The maximum number of keys held can be set with the "org.bouncycastle.pkey.cache_size" property, a value of
+ * zero disables the cache.
+ */
+public class PublicKeyParameterCache
+{
+    private static final int DEFAULT_MAX_SIZE = 64;
+
+    private final Map cache;
+    private final int maxSize;
+
+    public PublicKeyParameterCache()
+    {
+        this(Properties.asInteger("org.bouncycastle.pkey.cache_size", DEFAULT_MAX_SIZE));
+    }
+
+    public PublicKeyParameterCache(final int maxSize)
+    {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap(16, 0.75f, true)
+        {
+            protected boolean removeEldestEntry(Map.Entry eldest)
+            {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Return the parameters cached for a key encoding, if any.
+     *
+     * @param encoding the encoding of the public key.
+     * @return the cached parameters, null if the encoding is not in the cache.
+     */
+    public AsymmetricKeyParameter get(byte[] encoding)
+    {
+        if (maxSize <= 0 || encoding == null)
+        {
+            return null;
+        }
+
+        synchronized (cache)
+        {
+            return (AsymmetricKeyParameter)cache.get(new Key(encoding));
+        }
+    }
+
+    /**
+     * Add the parameters for a key encoding to the cache, possibly evicting the least recently used entry.
+     *
+     * @param encoding the encoding of the public key.
+     * @param parameters the public key parameters derived from the encoding.
+     */
+    public void put(byte[] encoding, AsymmetricKeyParameter parameters)
+    {
+        if (maxSize <= 0 || encoding == null)
+        {
+            return;
+        }
+
+        synchronized (cache)
+        {
+            cache.put(new Key(Arrays.clone(encoding)), parameters);
+        }
+    }
+
+    private static final class Key
+    {
+        private final byte[] encoding;
+        private final int hashCode;
+
+        Key(byte[] encoding)
+        {
+            this.encoding = encoding;
+            this.hashCode = Arrays.hashCode(encoding);
+        }
+
+        public boolean equals(Object o)
+        {
+            if (o == this)
+            {
+                return true;
+            }
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key other = (Key)o;
+            return hashCode == other.hashCode && Arrays.areEqual(encoding, other.encoding);
+        }
+
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
+}
@@ -40,6 +40,7 @@
 import org.bouncycastle.asn1.util.ASN1Dump;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.CRLEntryIndex;
 import org.bouncycastle.asn1.x509.CRLDistPoint;
 import org.bouncycastle.asn1.x509.CRLNumber;
 import org.bouncycastle.asn1.x509.CertificateList;
@@ -74,6 +75,8 @@
     protected byte[] sigAlgParams;
     protected boolean isIndirect;
 
+    private volatile CRLEntryIndex entryIndex;
+
     X509CRLImpl(JcaJceHelper bcHelper, CertificateList c, String sigAlgName, byte[] sigAlgParams, boolean isIndirect)
     {
         this.bcHelper = bcHelper;
@@ -446,30 +449,15 @@ private Set loadCRLEntries()
 
     public X509CRLEntry getRevokedCertificate(BigInteger serialNumber)
     {
-        Enumeration certs = c.getRevokedCertificateEnumeration();
+        CRLEntryIndex index = getEntryIndex();
 
-        X500Name previousCertificateIssuer = null; // the issuer
-        while (certs.hasMoreElements())
+        int position = index.indexOf(serialNumber);
+        if (position < 0)
         {
-            TBSCertList.CRLEntry entry = (TBSCertList.CRLEntry)certs.nextElement();
-
-            if (entry.getUserCertificate().hasValue(serialNumber))
-            {
-                return new X509CRLEntryObject(entry, isIndirect, previousCertificateIssuer);
-            }
-
-            if (isIndirect && entry.hasExtensions())
-            {
-                Extension currentCaName = entry.getExtensions().getExtension(Extension.certificateIssuer);
-
-                if (currentCaName != null)
-                {
-                    previousCertificateIssuer = X500Name.getInstance(GeneralNames.getInstance(currentCaName.getParsedValue()).getNames()[0].getName());
-                }
-            }
+            return null;
         }
 
-        return null;
+        return new X509CRLEntryObject(index.getEntry(position), isIndirect, getCertificateIssuer(index, position));
     }
 
     public Set getRevokedCertificates()
@@ -643,59 +631,61 @@ public boolean isRevoked(Certificate cert)
             throw new IllegalArgumentException("X.509 CRL used with non X.509 Cert");
         }
 
-        Enumeration certs = c.getRevokedCertificateEnumeration();
-
-        X500Name caName = c.getIssuer();
+        CRLEntryIndex index = getEntryIndex();
 
-        if (certs.hasMoreElements())
+        int position = index.indexOf(((X509Certificate)cert).getSerialNumber());
+        if (position < 0)
         {
-            BigInteger serial = ((X509Certificate)cert).getSerialNumber();
-
-            while (certs.hasMoreElements())
-            {
-                TBSCertList.CRLEntry entry = TBSCertList.CRLEntry.getInstance(certs.nextElement());
+            return false;
+        }
 
-                if (isIndirect && entry.hasExtensions())
-                {
-                    Extension currentCaName = entry.getExtensions().getExtension(Extension.certificateIssuer);
+        X500Name caName = getCertificateIssuer(index, position);
+        if (caName == null)
+        {
+            caName = c.getIssuer();
+        }
 
-                    if (currentCaName != null)
-                    {
-                        caName = X500Name.getInstance(GeneralNames.getInstance(currentCaName.getParsedValue()).getNames()[0].getName());
-                    }
-                }
+        X500Name issuer;
 
-                if (entry.getUserCertificate().hasValue(serial))
-                {
-                    X500Name issuer;
+        if (cert instanceof X509Certificate)
+        {
+            issuer = X500Name.getInstance(((X509Certificate)cert).getIssuerX500Principal().getEncoded());
+        }
+        else
+        {
+            try
+            {
+                issuer = org.bouncycastle.asn1.x509.Certificate.getInstance(cert.getEncoded()).getIssuer();
+            }
+            catch (CertificateEncodingException e)
+            {
+                throw new IllegalArgumentException("Cannot process certificate: " + e.getMessage());
+            }
+        }
 
-                    if (cert instanceof X509Certificate)
-                    {
-                        issuer = X500Name.getInstance(((X509Certificate)cert).getIssuerX500Principal().getEncoded());
-                    }
-                    else
-                    {
-                        try
-                        {
-                            issuer = org.bouncycastle.asn1.x509.Certificate.getInstance(cert.getEncoded()).getIssuer();
-                        }
-                        catch (CertificateEncodingException e)
-                        {
-                            throw new IllegalArgumentException("Cannot process certificate: " + e.getMessage());
-                        }
-                    }
+        return caName.equals(issuer);
+    }
 
-                    if (!caName.equals(issuer))
-                    {
-                        return false;
-                    }
+    private CRLEntryIndex getEntryIndex()
+    {
+        CRLEntryIndex index = entryIndex;
+        if (index == null)
+        {
+            index = new CRLEntryIndex(c.getTBSCertList(), isIndirect);
+            entryIndex = index;
+        }
+        return index;
+    }
 
-                    return true;
-                }
-            }
+    private static X500Name getCertificateIssuer(CRLEntryIndex index, int position)
+    {
+        GeneralNames certificateIssuer = index.getCertificateIssuer(position);
+        if (certificateIssuer == null)
+        {
+            return null;
         }
 
-        return false;
+        return X500Name.getInstance(certificateIssuer.getNames()[0].getName());
     }
 
     protected static byte[] getExtensionOctets(CertificateList c, String oid)
@@ -12,6 +12,7 @@
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.bouncycastle.crypto.digests.SHA512Digest;
 import org.bouncycastle.crypto.macs.HMac;
@@ -48,6 +49,14 @@
  * org.bouncycastle.drbg.entropy_thread - if true the provider will start a single daemon thread for handling entropy requests,
  * rather than starting a thread periodically when samples are required.
  * </p>
+ * <p>
+ * org.bouncycastle.drbg.stripes - if set to a value greater than 1, the DEFAULT and NONCEANDIV SecureRandom
+ * implementations will each spread their callers across that many independently seeded DRBGs, rather than serialising
+ * every thread in the JVM on a single DRBG. A thread always uses the same stripe, and a stripe's DRBG is only created
+ * (and seeded) the first time a thread using it asks for random data. Each DRBG is built in the same way, and so
+ * follows the same reseed policy, as the single DRBG used otherwise. Something around the number of available
+ * processors is a reasonable value.
+ * </p>
  */
 public class DRBG
 {
@@ -111,7 +120,7 @@ public void configure(ConfigurableProvider provider)
     public static class Default
         extends SecureRandomSpi
     {
-        private static final SecureRandom random = createBaseRandom(true);
+        private static final SecureRandom random = createRandom(true);
 
         public Default()
         {
@@ -136,7 +145,7 @@ protected byte[] engineGenerateSeed(int numBytes)
     public static class NonceAndIV
         extends SecureRandomSpi
     {
-        private static final SecureRandom random = createBaseRandom(false);
+        private static final SecureRandom random = createRandom(false);
 
         public NonceAndIV()
         {
@@ -158,6 +167,18 @@ protected byte[] engineGenerateSeed(int numBytes)
         }
     }
 
+    private static SecureRandom createRandom(boolean isPredictionResistant)
+    {
+        int stripeCount = Properties.asInteger("org.bouncycastle.drbg.stripes", 1);
+
+        if (stripeCount > 1)
+        {
+            return new StripedSecureRandom(isPredictionResistant, stripeCount);
+        }
+
+        return createBaseRandom(isPredictionResistant);
+    }
+
     private static SecureRandom createBaseRandom(boolean isPredictionResistant)
     {
         if (Properties.getPropertyValue("org.bouncycastle.drbg.entropysource") != null)
@@ -328,6 +349,102 @@ private static byte[] generateNonceIVPersonalizationString(byte[] seed)
             Pack.longToLittleEndian(Thread.currentThread().getId()), Pack.longToLittleEndian(System.currentTimeMillis()));
     }
 
+    static class StripedSecureRandom
+        extends SecureRandom
+    {
+        private final boolean isPredictionResistant;
+        private final AtomicReferenceArray<SecureRandom> stripes;
+        private final Object[] stripeLocks;
+
+        StripedSecureRandom(boolean isPredictionResistant, int stripeCount)
+        {
+            super(null, null);
+
+            this.isPredictionResistant = isPredictionResistant;
+            this.stripes = new AtomicReferenceArray<SecureRandom>(stripeCount);
+            this.stripeLocks = new Object[stripeCount];
+            for (int i = 0; i != stripeCount; i++)
+            {
+                stripeLocks[i] = new Object();
+            }
+        }
+
+        SecureRandom createStripe()
+        {
+            return createBaseRandom(isPredictionResistant);
+        }
+
+        int getStripeIndex()
+        {
+            return (int)(Thread.currentThread().getId() % stripes.length());
+        }
+
+        SecureRandom getStripe()
+        {
+            int index = getStripeIndex();
+
+            SecureRandom stripe = stripes.get(index);
+            if (stripe == null)
+            {
+                // only one thread seeds a stripe, others needing it wait rather than drawing entropy as well.
+                synchronized (stripeLocks[index])
+                {
+                    stripe = stripes.get(index);
+                    if (stripe == null)
+                    {
+                        stripe = createStripe();
+                        stripes.set(index, stripe);
+                    }
+                }
+            }
+
+            return stripe;
+        }
+
+        public String getAlgorithm()
+        {
+            return getStripe().getAlgorithm();
+        }
+
+        public void setSeed(byte[] seed)
+        {
+            for (int i = 0; i != stripes.length(); i++)
+            {
+                SecureRandom stripe = stripes.get(i);
+                if (stripe != null)
+                {
+                    stripe.setSeed(seed);
+                }
+            }
+        }
+
+        public void setSeed(long seed)
+        {
+            // this will happen when SecureRandom() is created
+            if (stripes != null)
+            {
+                for (int i = 0; i != stripes.length(); i++)
+                {
+                    SecureRandom stripe = stripes.get(i);
+                    if (stripe != null)
+                    {
+                        stripe.setSeed(seed);
+                    }
+                }
+            }
+        }
+
+        public void nextBytes(byte[] bytes)
+        {
+            getStripe().nextBytes(bytes);
+        }
+
+        public byte[] generateSeed(int numBytes)
+        {
+            return getStripe().generateSeed(numBytes);
+        }
+    }
+
     private static class CoreSecureRandom
         extends SecureRandom
     {
@@ -35,6 +35,7 @@
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
@@ -720,6 +721,13 @@ else if (ent.getType().equals(PRIVATE_KEY) || ent.getType().equals(PROTECTED_PRI
 
     private byte[] generateKey(KeyDerivationFunc pbkdAlgorithm, String purpose, char[] password, int defKeySize)
         throws IOException
+    {
+        return generateKey(pbkdAlgorithm, purpose, password, defKeySize, null);
+    }
+
+    private byte[] generateKey(KeyDerivationFunc pbkdAlgorithm, String purpose, char[] password, int defKeySize,
+        Executor scryptExecutor)
+        throws IOException
     {
         byte[] encPassword = PBEParametersGenerator.PKCS12PasswordToBytes(password);
         byte[] differentiator = PBEParametersGenerator.PKCS12PasswordToBytes(purpose.toCharArray());
@@ -740,7 +748,7 @@ else if (keySizeInBytes == -1)
             }
             return SCrypt.generate(Arrays.concatenate(encPassword, differentiator), params.getSalt(),
                 params.getCostParameter().intValue(), params.getBlockSize().intValue(),
-                params.getBlockSize().intValue(), keySizeInBytes);
+                params.getBlockSize().intValue(), keySizeInBytes, scryptExecutor);
         }
         else if (pbkdAlgorithm.getAlgorithm().equals(PKCSObjectIdentifiers.id_PBKDF2))
         {
@@ -797,10 +805,10 @@ private void verifySig(ASN1Encodable store, SignatureCheck integrityCheck, Publi
         }
     }
 
-    private void verifyMac(byte[] content, PbkdMacIntegrityCheck integrityCheck, char[] password)
+    private void verifyMac(byte[] content, PbkdMacIntegrityCheck integrityCheck, char[] password, Executor scryptExecutor)
         throws NoSuchAlgorithmException, IOException, NoSuchProviderException
     {
-        byte[] check = calculateMac(content, integrityCheck.getMacAlgorithm(), integrityCheck.getPbkdAlgorithm(), password);
+        byte[] check = calculateMac(content, integrityCheck.getMacAlgorithm(), integrityCheck.getPbkdAlgorithm(), password, scryptExecutor);
 
         if (!Arrays.constantTimeAreEqual(check, integrityCheck.getMac()))
         {
@@ -808,7 +816,8 @@ private void verifyMac(byte[] content, PbkdMacIntegrityCheck integrityCheck, cha
         }
     }
 
-    private byte[] calculateMac(byte[] content, AlgorithmIdentifier algorithm, KeyDerivationFunc pbkdAlgorithm, char[] password)
+    private byte[] calculateMac(byte[] content, AlgorithmIdentifier algorithm, KeyDerivationFunc pbkdAlgorithm, char[] password,
+        Executor scryptExecutor)
         throws NoSuchAlgorithmException, IOException, NoSuchProviderException
     {
         String algorithmId = algorithm.getAlgorithm().getId();
@@ -818,7 +827,7 @@ private byte[] calculateMac(byte[] content, AlgorithmIdentifier algorithm, KeyDe
         try
         {
             // no default key size for MAC.
-            mac.init(new SecretKeySpec(generateKey(pbkdAlgorithm, "INTEGRITY_CHECK", ((password != null) ? password : new char[0]), -1), algorithmId));
+            mac.init(new SecretKeySpec(generateKey(pbkdAlgorithm, "INTEGRITY_CHECK", ((password != null) ? password : new char[0]), -1, scryptExecutor), algorithmId));
         }
         catch (InvalidKeyException e)
         {
@@ -844,7 +853,7 @@ public void engineStore(KeyStore.LoadStoreParameter parameter)
 
             hmacPkbdAlgorithm = generatePkbdAlgorithmIdentifier(bcParam.getStorePBKDFConfig(), 512 / 8);
 
-            engineStore(bcParam.getOutputStream(), password);
+            engineStore(bcParam.getOutputStream(), password, getScryptExecutor(bcParam.getStorePBKDFConfig()));
         }
         else if (parameter instanceof BCFKSLoadStoreParameter)
         {
@@ -876,7 +885,8 @@ else if (parameter instanceof BCFKSLoadStoreParameter)
 
                 char[] password = ParameterUtil.extractPassword(bcParam);
                 
-                EncryptedObjectStoreData encStoreData = getEncryptedObjectStoreData(signatureAlgorithm, password);
+                EncryptedObjectStoreData encStoreData = getEncryptedObjectStoreData(signatureAlgorithm, password,
+                    getScryptExecutor(bcParam.getStorePBKDFConfig()));
                 
                 try
                 {
@@ -937,7 +947,7 @@ else if (parameter instanceof BCFKSLoadStoreParameter)
                     hmacAlgorithm = new AlgorithmIdentifier(NISTObjectIdentifiers.id_hmacWithSHA3_512, DERNull.INSTANCE);
                 }
 
-                engineStore(bcParam.getOutputStream(), password);
+                engineStore(bcParam.getOutputStream(), password, getScryptExecutor(bcParam.getStorePBKDFConfig()));
             }
         }
         else if (parameter instanceof BCLoadStoreParameter)
@@ -956,13 +966,19 @@ else if (parameter instanceof BCLoadStoreParameter)
 
     public void engineStore(OutputStream outputStream, char[] password)
         throws IOException, NoSuchAlgorithmException, CertificateException
+    {
+        engineStore(outputStream, password, null);
+    }
+
+    private void engineStore(OutputStream outputStream, char[] password, Executor scryptExecutor)
+        throws IOException, NoSuchAlgorithmException, CertificateException
     {
         if (creationDate == null)
         {
             throw new IOException("KeyStore not initialized");
         }
 
-        EncryptedObjectStoreData encStoreData = getEncryptedObjectStoreData(hmacAlgorithm, password);
+        EncryptedObjectStoreData encStoreData = getEncryptedObjectStoreData(hmacAlgorithm, password, scryptExecutor);
 
         // update the salt
         if (MiscObjectIdentifiers.id_scrypt.equals(hmacPkbdAlgorithm.getAlgorithm()))
@@ -980,7 +996,7 @@ public void engineStore(OutputStream outputStream, char[] password)
         byte[] mac;
         try
         {
-            mac = calculateMac(encStoreData.getEncoded(), hmacAlgorithm, hmacPkbdAlgorithm, password);
+            mac = calculateMac(encStoreData.getEncoded(), hmacAlgorithm, hmacPkbdAlgorithm, password, scryptExecutor);
         }
         catch (NoSuchProviderException e)
         {
@@ -994,13 +1010,14 @@ public void engineStore(OutputStream outputStream, char[] password)
         outputStream.flush();
     }
 
-    private EncryptedObjectStoreData getEncryptedObjectStoreData(AlgorithmIdentifier integrityAlgorithm, char[] password)
+    private EncryptedObjectStoreData getEncryptedObjectStoreData(AlgorithmIdentifier integrityAlgorithm, char[] password,
+        Executor scryptExecutor)
         throws IOException, NoSuchAlgorithmException
     {
         ObjectData[] dataArray = (ObjectData[])entries.values().toArray(new ObjectData[entries.size()]);
 
         KeyDerivationFunc pbkdAlgId = generatePkbdAlgorithmIdentifier(hmacPkbdAlgorithm, 256 / 8);
-        byte[] keyBytes = generateKey(pbkdAlgId, "STORE_ENCRYPTION", ((password != null) ? password : new char[0]), 256 / 8);
+        byte[] keyBytes = generateKey(pbkdAlgId, "STORE_ENCRYPTION", ((password != null) ? password : new char[0]), 256 / 8, scryptExecutor);
 
         ObjectStoreData storeData = new ObjectStoreData(integrityAlgorithm, creationDate, lastModifiedDate, new ObjectDataSequence(dataArray), null);
         EncryptedObjectStoreData encStoreData;
@@ -1094,7 +1111,7 @@ else if (parameter instanceof BCFKSLoadStoreParameter)
 
             InputStream inputStream = bcParam.getInputStream();
 
-            engineLoad(inputStream, password);
+            engineLoad(inputStream, password, getScryptExecutor(bcParam.getStorePBKDFConfig()));
 
             if (inputStream != null)
             {
@@ -1166,6 +1183,12 @@ private boolean isSimilarHmacPbkd(PBKDFConfig storePBKDFConfig, KeyDerivationFun
     
     public void engineLoad(InputStream inputStream, char[] password)
         throws IOException, NoSuchAlgorithmException, CertificateException
+    {
+        engineLoad(inputStream, password, null);
+    }
+
+    private void engineLoad(InputStream inputStream, char[] password, Executor scryptExecutor)
+        throws IOException, NoSuchAlgorithmException, CertificateException
     {
         // reset any current values
         entries.clear();
@@ -1215,7 +1238,7 @@ public void engineLoad(InputStream inputStream, char[] password)
 
             try
             {
-                verifyMac(store.getStoreData().toASN1Primitive().getEncoded(), pbkdMacIntegrityCheck, password);
+                verifyMac(store.getStoreData().toASN1Primitive().getEncoded(), pbkdMacIntegrityCheck, password, scryptExecutor);
             }
             catch (NoSuchProviderException e)
             {
@@ -1278,7 +1301,7 @@ else if (integrityCheck.getType() == ObjectStoreIntegrityCheck.SIG_CHECK)
             EncryptedObjectStoreData encryptedStoreData = (EncryptedObjectStoreData)sData;
             AlgorithmIdentifier protectAlgId = encryptedStoreData.getEncryptionAlgorithm();
 
-            storeData = ObjectStoreData.getInstance(decryptData("STORE_ENCRYPTION", protectAlgId, password, encryptedStoreData.getEncryptedContent().getOctets()));
+            storeData = ObjectStoreData.getInstance(decryptData("STORE_ENCRYPTION", protectAlgId, password, encryptedStoreData.getEncryptedContent().getOctets(), scryptExecutor));
         }
         else
         {
@@ -1310,6 +1333,13 @@ else if (integrityCheck.getType() == ObjectStoreIntegrityCheck.SIG_CHECK)
 
     private byte[] decryptData(String purpose, AlgorithmIdentifier protectAlgId, char[] password, byte[] encryptedData)
         throws IOException
+    {
+        return decryptData(purpose, protectAlgId, password, encryptedData, null);
+    }
+
+    private byte[] decryptData(String purpose, AlgorithmIdentifier protectAlgId, char[] password, byte[] encryptedData,
+        Executor scryptExecutor)
+        throws IOException
     {
         if (!protectAlgId.getAlgorithm().equals(PKCSObjectIdentifiers.id_PBES2))
         {
@@ -1342,7 +1372,7 @@ else if (algId.getAlgorithm().equals(NISTObjectIdentifiers.id_aes256_wrap_pad))
                 throw new IOException("BCFKS KeyStore cannot recognize protection encryption algorithm.");
             }
 
-            byte[] keyBytes = generateKey(pbes2Parameters.getKeyDerivationFunc(), purpose, ((password != null) ? password : new char[0]), 32);
+            byte[] keyBytes = generateKey(pbes2Parameters.getKeyDerivationFunc(), purpose, ((password != null) ? password : new char[0]), 32, scryptExecutor);
 
             c.init(Cipher.DECRYPT_MODE, new SecretKeySpec(keyBytes, "AES"), algParams);
 
@@ -1403,6 +1433,15 @@ else if (sigAlg == BCFKSLoadStoreParameter.SignatureAlgorithm.SHA3_512withRSA)
         throw new IOException("unknown signature algorithm");
     }
 
+    /*
+     * NOTE: Only the store-level derivations see the load/store parameter. Entry keys are derived in
+     * engineSetKeyEntry()/engineGetKey(), which have no access to it, so they never use the executor.
+     */
+    private static Executor getScryptExecutor(PBKDFConfig pbkdfConfig)
+    {
+        return (pbkdfConfig instanceof ScryptConfig) ? ((ScryptConfig)pbkdfConfig).getExecutor() : null;
+    }
+
     private KeyDerivationFunc generatePkbdAlgorithmIdentifier(PBKDFConfig pbkdfConfig, int keySizeInBytes)
     {
         if (MiscObjectIdentifiers.id_scrypt.equals(pbkdfConfig.getAlgorithm()))
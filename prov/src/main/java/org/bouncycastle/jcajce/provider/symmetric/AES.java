@@ -33,7 +33,6 @@
 import org.bouncycastle.crypto.modes.CCMBlockCipher;
 import org.bouncycastle.crypto.modes.CCMModeCipher;
 import org.bouncycastle.crypto.modes.CFBBlockCipher;
-import org.bouncycastle.crypto.modes.GCMBlockCipher;
 import org.bouncycastle.crypto.modes.OFBBlockCipher;
 import org.bouncycastle.internal.asn1.cms.CCMParameters;
 import org.bouncycastle.internal.asn1.cms.GCMParameters;
@@ -112,7 +111,7 @@ public OFB()
     {
         public GCM()
         {
-            super(GCMBlockCipher.newInstance(AESEngine.newInstance()));
+            super(GcmSpecUtil.newGCMModeCipher(AESEngine.newInstance()));
         }
     }
 
@@ -139,7 +138,7 @@ public AESCMAC()
     {
         public AESGMAC()
         {
-            super(new GMac(GCMBlockCipher.newInstance(AESEngine.newInstance())));
+            super(new GMac(GcmSpecUtil.newGCMModeCipher(AESEngine.newInstance())));
         }
     }
 
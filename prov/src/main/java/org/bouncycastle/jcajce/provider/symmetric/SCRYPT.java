@@ -66,7 +66,7 @@ protected SecretKey engineGenerateSecret(
                 CipherParameters param = new KeyParameter(SCrypt.generate(
                         PasswordConverter.UTF8.convert(pbeSpec.getPassword()), pbeSpec.getSalt(),
                         pbeSpec.getCostParameter(), pbeSpec.getBlockSize(), pbeSpec.getParallelizationParameter(),
-                        pbeSpec.getKeyLength() / 8));
+                        pbeSpec.getKeyLength() / 8, pbeSpec.getExecutor()));
 
                 return new BCPBEKey(this.algName, param);
             }
@@ -45,7 +45,6 @@
 import org.bouncycastle.crypto.modes.CTSBlockCipher;
 import org.bouncycastle.crypto.modes.EAXBlockCipher;
 import org.bouncycastle.crypto.modes.GCFBBlockCipher;
-import org.bouncycastle.crypto.modes.GCMBlockCipher;
 import org.bouncycastle.crypto.modes.GCMSIVBlockCipher;
 import org.bouncycastle.crypto.modes.GOFBBlockCipher;
 import org.bouncycastle.crypto.modes.KCCMBlockCipher;
@@ -504,7 +503,7 @@ else if (modeName.equals("GCM"))
             else
             {
                 ivLength = 12;
-                cipher = new AEADGenericBlockCipher(GCMBlockCipher.newInstance(baseEngine));
+                cipher = new AEADGenericBlockCipher(GcmSpecUtil.newGCMModeCipher(baseEngine));
             }
         }
         else
@@ -10,10 +10,15 @@
 import java.security.spec.InvalidParameterSpecException;
 
 import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.crypto.BlockCipher;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.modes.GCMModeCipher;
+import org.bouncycastle.crypto.modes.gcm.AggregatedGCMMultiplier;
 import org.bouncycastle.crypto.params.AEADParameters;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.internal.asn1.cms.GCMParameters;
 import org.bouncycastle.util.Integers;
+import org.bouncycastle.util.Properties;
 
 public class GcmSpecUtil
 {
@@ -78,6 +83,23 @@ public Object run()
         }
     }
 
+    /**
+     * Return a GCM mode cipher over the passed in engine. The aggregated GHASH multiplier is used
+     * if the property "org.bouncycastle.gcm.aggregated_ghash" is set to true, otherwise the default.
+     *
+     * @param engine the underlying block cipher.
+     * @return a GCM mode cipher.
+     */
+    public static GCMModeCipher newGCMModeCipher(BlockCipher engine)
+    {
+        if (Properties.isOverrideSet("org.bouncycastle.gcm.aggregated_ghash"))
+        {
+            return GCMBlockCipher.newInstance(engine, new AggregatedGCMMultiplier());
+        }
+
+        return GCMBlockCipher.newInstance(engine);
+    }
+
     public static boolean gcmSpecExists()
     {
         return gcmSpecClass != null;
@@ -1,6 +1,7 @@
 package org.bouncycastle.jcajce.spec;
 
 import java.security.spec.KeySpec;
+import java.util.concurrent.Executor;
 
 import org.bouncycastle.util.Arrays;
 
@@ -16,8 +17,21 @@
     private final int blockSize;
     private final int parallelizationParameter;
     private final int keySize;
+    private final Executor executor;
 
     public ScryptKeySpec(char[] password, byte[] salt, int costParameter, int blockSize, int parallelizationParameter, int keySize)
+    {
+        this(password, salt, costParameter, blockSize, parallelizationParameter, keySize, null);
+    }
+
+    /**
+     * Create a key spec which will have the parallelization lanes of scrypt run concurrently using the passed
+     * in executor. The generated key is the same, but the peak memory used goes up by as much as a factor of
+     * the parallelization parameter.
+     *
+     * @param executor the executor to run the lanes with, null to run them sequentially.
+     */
+    public ScryptKeySpec(char[] password, byte[] salt, int costParameter, int blockSize, int parallelizationParameter, int keySize, Executor executor)
     {
 
         this.password = password;
@@ -26,6 +40,7 @@ public ScryptKeySpec(char[] password, byte[] salt, int costParameter, int blockS
         this.blockSize = blockSize;
         this.parallelizationParameter = parallelizationParameter;
         this.keySize = keySize;
+        this.executor = executor;
     }
 
     public char[] getPassword()
@@ -62,4 +77,14 @@ public int getKeyLength()
     {
         return keySize;
     }
-}
\ No newline at end of file
+
+    /**
+     * Return the executor to run the parallelization lanes with.
+     *
+     * @return an executor, null if the lanes are to be run sequentially.
+     */
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+}
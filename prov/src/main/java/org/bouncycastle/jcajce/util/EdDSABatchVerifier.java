@@ -0,0 +1,173 @@
+package org.bouncycastle.jcajce.util;
+
+import java.security.InvalidKeyException;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+
+import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
+import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.crypto.params.Ed448PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519BatchVerifier;
+import org.bouncycastle.crypto.signers.Ed448BatchVerifier;
+import org.bouncycastle.crypto.util.PublicKeyFactory;
+import org.bouncycastle.jcajce.provider.asymmetric.util.PublicKeyParameterCache;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Batch verifier for EdDSA (Ed25519 and Ed448) signatures made with JCA public keys. Checking
+ * signatures as a batch is considerably faster than using a {@link java.security.Signature} for
+ * each one, especially where many signatures are made under the same key.
+ * <p>
+ * Ed448 signatures are verified with an empty context, as for the "Ed448" Signature algorithm.
+ * </p>
+ */
+public class EdDSABatchVerifier
+{
+    private final PublicKeyParameterCache keyCache = new PublicKeyParameterCache();
+    private final Ed25519BatchVerifier ed25519Verifier;
+    private final Ed448BatchVerifier ed448Verifier;
+
+    private boolean[] isEd448 = new boolean[16];
+    private int count = 0;
+
+    public EdDSABatchVerifier()
+    {
+        this(null);
+    }
+
+    /**
+     * Base constructor.
+     *
+     * @param random source of randomness for the batch check, may be null for the default.
+     */
+    public EdDSABatchVerifier(SecureRandom random)
+    {
+        this.ed25519Verifier = new Ed25519BatchVerifier(random);
+        this.ed448Verifier = new Ed448BatchVerifier(new byte[0], random);
+    }
+
+    /**
+     * Add a signature to the batch.
+     *
+     * @param publicKey an Ed25519 or Ed448 public key.
+     * @param message the signed message.
+     * @param signature the signature.
+     * @throws InvalidKeyException if the public key is not an EdDSA public key.
+     */
+    public void add(PublicKey publicKey, byte[] message, byte[] signature)
+        throws InvalidKeyException
+    {
+        AsymmetricKeyParameter pub = getKeyParameter(publicKey);
+
+        if (count == isEd448.length)
+        {
+            isEd448 = Arrays.copyOf(isEd448, count * 2);
+        }
+
+        if (pub instanceof Ed25519PublicKeyParameters)
+        {
+            ed25519Verifier.add((Ed25519PublicKeyParameters)pub, message, 0, message.length, signature);
+            isEd448[count++] = false;
+        }
+        else if (pub instanceof Ed448PublicKeyParameters)
+        {
+            ed448Verifier.add((Ed448PublicKeyParameters)pub, message, 0, message.length, signature);
+            isEd448[count++] = true;
+        }
+        else
+        {
+            throw new InvalidKeyException("unsupported public key type");
+        }
+    }
+
+    /**
+     * Return the number of signatures in the batch.
+     *
+     * @return the batch size.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Verify all the signatures in the batch, and clear it.
+     *
+     * @return true if every signature in the batch is valid, false otherwise.
+     */
+    public boolean verify()
+    {
+        try
+        {
+            return ed25519Verifier.verify() & ed448Verifier.verify();
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Verify the signatures in the batch, and clear it. If the batch check fails, signatures are
+     * verified individually to find the invalid ones.
+     *
+     * @return the verification result for each signature, in the order they were added.
+     */
+    public boolean[] verifyEach()
+    {
+        try
+        {
+            boolean[] ed25519Results = ed25519Verifier.verifyEach();
+            boolean[] ed448Results = ed448Verifier.verifyEach();
+
+            boolean[] results = new boolean[count];
+            int ed25519Pos = 0, ed448Pos = 0;
+            for (int i = 0; i < count; ++i)
+            {
+                results[i] = isEd448[i] ? ed448Results[ed448Pos++] : ed25519Results[ed25519Pos++];
+            }
+            return results;
+        }
+        finally
+        {
+            reset();
+        }
+    }
+
+    /**
+     * Clear the batch. Recently used converted public keys are kept for use in later batches, up to
+     * the limit set by the "org.bouncycastle.pkey.cache_size" property.
+     */
+    public void reset()
+    {
+        ed25519Verifier.reset();
+        ed448Verifier.reset();
+        count = 0;
+    }
+
+    private AsymmetricKeyParameter getKeyParameter(PublicKey publicKey)
+        throws InvalidKeyException
+    {
+        byte[] bytes = publicKey.getEncoded();
+        if (bytes == null)
+        {
+            throw new InvalidKeyException("no encoding for EdDSA public key");
+        }
+
+        AsymmetricKeyParameter pub = keyCache.get(bytes);
+        if (pub == null)
+        {
+            try
+            {
+                pub = PublicKeyFactory.createKey(bytes);
+            }
+            catch (Exception e)
+            {
+                throw new InvalidKeyException("cannot identify EdDSA public key: " + e.getMessage());
+            }
+
+            keyCache.put(bytes, pub);
+        }
+        return pub;
+    }
+}
@@ -0,0 +1,24 @@
+package org.bouncycastle.jcajce.provider.drbg;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import org.bouncycastle.test.PrintTestResult;
+
+public class AllTests
+    extends TestCase
+{
+    public static void main(String[] args)
+    {
+        PrintTestResult.printResult(junit.textui.TestRunner.run(suite()));
+    }
+
+    public static Test suite()
+    {
+        TestSuite suite = new TestSuite("DRBG Provider Tests");
+
+        suite.addTestSuite(StripedSecureRandomTest.class);
+
+        return suite;
+    }
+}
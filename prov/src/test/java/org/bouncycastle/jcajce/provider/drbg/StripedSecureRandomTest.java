@@ -0,0 +1,163 @@
+package org.bouncycastle.jcajce.provider.drbg;
+
+import java.security.SecureRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import org.bouncycastle.util.Arrays;
+
+public class StripedSecureRandomTest
+    extends TestCase
+{
+    public void testStripeSelection()
+        throws Exception
+    {
+        final CountingStripedRandom random = new CountingStripedRandom(4, 0);
+        final SecureRandom[] stripes = new SecureRandom[8];
+        final int[] indexes = new int[stripes.length];
+
+        Thread[] threads = new Thread[stripes.length];
+        for (int i = 0; i != threads.length; i++)
+        {
+            final int t = i;
+            threads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    indexes[t] = random.getStripeIndex();
+                    stripes[t] = random.getStripe();
+
+                    // a thread always comes back to the same stripe
+                    for (int j = 0; j != 10; j++)
+                    {
+                        if (random.getStripe() != stripes[t])
+                        {
+                            stripes[t] = null;
+                        }
+                    }
+                }
+            });
+        }
+        runAll(threads);
+
+        int used = 0;
+        boolean[] seen = new boolean[4];
+        for (int i = 0; i != threads.length; i++)
+        {
+            assertNotNull(stripes[i]);
+            assertEquals(threads[i].getId() % 4, indexes[i]);
+
+            for (int j = 0; j != threads.length; j++)
+            {
+                assertEquals(indexes[i] == indexes[j], stripes[i] == stripes[j]);
+            }
+
+            if (!seen[indexes[i]])
+            {
+                seen[indexes[i]] = true;
+                used++;
+            }
+        }
+        assertEquals(used, random.created.get());
+    }
+
+    public void testConcurrentFirstUse()
+        throws Exception
+    {
+        // a single stripe that is slow to seed, so every thread wants it at once
+        final CountingStripedRandom random = new CountingStripedRandom(1, 100);
+        final CountDownLatch start = new CountDownLatch(1);
+        final SecureRandom[] stripes = new SecureRandom[8];
+
+        Thread[] threads = new Thread[stripes.length];
+        for (int i = 0; i != threads.length; i++)
+        {
+            final int t = i;
+            threads[i] = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        return;
+                    }
+                    stripes[t] = random.getStripe();
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (int i = 0; i != threads.length; i++)
+        {
+            threads[i].join();
+        }
+
+        assertEquals(1, random.created.get());
+        for (int i = 0; i != threads.length; i++)
+        {
+            assertNotNull(stripes[i]);
+            assertSame(stripes[0], stripes[i]);
+        }
+    }
+
+    public void testOutput()
+    {
+        DRBG.StripedSecureRandom random = new DRBG.StripedSecureRandom(false, 2);
+
+        byte[] a = new byte[32];
+        byte[] b = new byte[32];
+        random.nextBytes(a);
+        random.nextBytes(b);
+
+        assertFalse(Arrays.areEqual(a, b));
+    }
+
+    private static void runAll(Thread[] threads)
+        throws InterruptedException
+    {
+        for (int i = 0; i != threads.length; i++)
+        {
+            threads[i].start();
+        }
+        for (int i = 0; i != threads.length; i++)
+        {
+            threads[i].join();
+        }
+    }
+
+    private static class CountingStripedRandom
+        extends DRBG.StripedSecureRandom
+    {
+        final AtomicInteger created = new AtomicInteger(0);
+        private final long delay;
+
+        CountingStripedRandom(int stripeCount, long delay)
+        {
+            super(false, stripeCount);
+
+            this.delay = delay;
+        }
+
+        SecureRandom createStripe()
+        {
+            created.incrementAndGet();
+            if (delay > 0)
+            {
+                try
+                {
+                    Thread.sleep(delay);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new SecureRandom();
+        }
+    }
+}
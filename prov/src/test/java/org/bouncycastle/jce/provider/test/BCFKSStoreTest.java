@@ -24,6 +24,8 @@
 import java.security.spec.RSAPrivateCrtKeySpec;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.crypto.SecretKey;
@@ -1411,6 +1413,31 @@ private void shouldStoreUsingSCRYPT()
         isEquals(1, sParams.getParallelizationParameter().intValue());
     }
 
+    private void shouldStoreUsingParallelSCRYPT()
+        throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try
+        {
+            byte[] enc = doStoreUsingStoreParameter(new ScryptConfig.Builder(1024, 8, 4)
+                .withExecutor(executor).build());
+
+            ObjectStore store = ObjectStore.getInstance(enc);
+
+            PbkdMacIntegrityCheck check = PbkdMacIntegrityCheck.getInstance(store.getIntegrityCheck().getIntegrityCheck());
+
+            isTrue("wrong PBE", check.getPbkdAlgorithm().getAlgorithm().equals(MiscObjectIdentifiers.id_scrypt));
+
+            ScryptParams sParams = ScryptParams.getInstance(check.getPbkdAlgorithm().getParameters());
+
+            isEquals(4, sParams.getParallelizationParameter().intValue());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     private void shouldStoreUsingKWP()
         throws Exception
     {
@@ -1600,6 +1627,7 @@ public void performTest()
         shouldStoreOneSecretKey();
         shouldStoreSecretKeys();
         shouldStoreUsingSCRYPT();
+        shouldStoreUsingParallelSCRYPT();
         shouldStoreUsingPBKDF2();
         shouldFailOnWrongPassword();
         shouldParseKWPKeyStore();
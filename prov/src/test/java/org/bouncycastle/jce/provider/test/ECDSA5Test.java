@@ -1364,6 +1364,66 @@ public void performTest()
         pointCompressionTest();
         testSHAKE256DSA();
 //        testSHAKE128DSA();
+        testForeignKeyReuse();
+    }
+
+    private void testForeignKeyReuse()
+        throws Exception
+    {
+        KeyPairGenerator kpGen = KeyPairGenerator.getInstance("EC", "BC");
+
+        kpGen.initialize(new ECGenParameterSpec("secp384r1"));
+
+        KeyPair kp = kpGen.generateKeyPair();
+        final ECPublicKey pubKey = (ECPublicKey)kp.getPublic();
+
+        // a key from outside the provider is converted each time it is used, and the conversion cached
+        PublicKey foreignKey = new ECPublicKey()
+        {
+            public ECPoint getW()
+            {
+                return pubKey.getW();
+            }
+
+            public ECParameterSpec getParams()
+            {
+                return pubKey.getParams();
+            }
+
+            public String getAlgorithm()
+            {
+                return pubKey.getAlgorithm();
+            }
+
+            public String getFormat()
+            {
+                return pubKey.getFormat();
+            }
+
+            public byte[] getEncoded()
+            {
+                return pubKey.getEncoded();
+            }
+        };
+
+        Signature s = Signature.getInstance("SHA384withECDSA", "BC");
+
+        for (int i = 0; i < 10; ++i)
+        {
+            byte[] msg = Strings.toByteArray("Hello, world! " + i);
+
+            s.initSign(kp.getPrivate());
+            s.update(msg);
+            byte[] sig = s.sign();
+
+            s.initVerify(foreignKey);
+            s.update(msg);
+            isTrue("foreign key verify " + i, s.verify(sig));
+
+            s.initVerify(foreignKey);
+            s.update(Strings.toByteArray("Hello, World! " + i));
+            isTrue("foreign key verify failure " + i, !s.verify(sig));
+        }
     }
 
     public static void main(
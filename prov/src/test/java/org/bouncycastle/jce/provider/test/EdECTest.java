@@ -42,6 +42,7 @@
 import org.bouncycastle.jcajce.spec.RawEncodedKeySpec;
 import org.bouncycastle.jcajce.spec.UserKeyingMaterialSpec;
 import org.bouncycastle.jcajce.spec.XDHParameterSpec;
+import org.bouncycastle.jcajce.util.EdDSABatchVerifier;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.util.Arrays;
 import org.bouncycastle.util.Strings;
@@ -179,6 +180,9 @@ public void performTest()
         x25519AgreementTest();
         ed448SignatureTest();
         ed25519SignatureTest();
+        batchVerifierTest();
+        foreignKeyReuseTest("Ed25519");
+        foreignKeyReuseTest("Ed448");
         x448withCKDFTest();
         x25519withCKDFTest();
         x448withKDFTest();
@@ -700,6 +704,91 @@ private void unifiedAgreementTest(String algorithm)
         isTrue(!areEqual(sec1, sec3));
     }
 
+    private void batchVerifierTest()
+        throws Exception
+    {
+        KeyPair[] kps = new KeyPair[]{
+            KeyPairGenerator.getInstance("Ed25519", "BC").generateKeyPair(),
+            KeyPairGenerator.getInstance("Ed448", "BC").generateKeyPair(),
+            KeyPairGenerator.getInstance("Ed25519", "BC").generateKeyPair() };
+
+        int count = 12;
+        byte[][] msgs = new byte[count][];
+        byte[][] sigs = new byte[count][];
+
+        EdDSABatchVerifier verifier = new EdDSABatchVerifier();
+        for (int i = 0; i < count; ++i)
+        {
+            KeyPair kp = kps[i % kps.length];
+            Signature signature = Signature.getInstance(kp.getPublic().getAlgorithm(), "BC");
+
+            msgs[i] = Strings.toByteArray("Hello, world! " + i);
+            signature.initSign(kp.getPrivate());
+            signature.update(msgs[i]);
+            sigs[i] = signature.sign();
+
+            verifier.add(kp.getPublic(), msgs[i], sigs[i]);
+        }
+
+        isTrue("batch failed", verifier.verify());
+
+        for (int i = 0; i < count; ++i)
+        {
+            verifier.add(kps[i % kps.length].getPublic(), (i == 4) ? msgs[5] : msgs[i], sigs[i]);
+        }
+
+        boolean[] results = verifier.verifyEach();
+        for (int i = 0; i < count; ++i)
+        {
+            isTrue("batch result " + i, results[i] == (i != 4));
+        }
+    }
+
+    private void foreignKeyReuseTest(String algorithm)
+        throws Exception
+    {
+        KeyPair kp = KeyPairGenerator.getInstance(algorithm, "BC").generateKeyPair();
+        final PublicKey pubKey = kp.getPublic();
+
+        // a key from outside the provider is converted each time it is used, and the conversion cached
+        PublicKey foreignKey = new PublicKey()
+        {
+            public String getAlgorithm()
+            {
+                return pubKey.getAlgorithm();
+            }
+
+            public String getFormat()
+            {
+                return pubKey.getFormat();
+            }
+
+            public byte[] getEncoded()
+            {
+                return pubKey.getEncoded();
+            }
+        };
+
+        Signature signature = Signature.getInstance(algorithm, "BC");
+
+        for (int i = 0; i < 10; ++i)
+        {
+            byte[] msg = Strings.toByteArray("Hello, world! " + i);
+
+            signature.initSign(kp.getPrivate());
+            signature.update(msg);
+            byte[] sig = signature.sign();
+
+            signature.initVerify(foreignKey);
+            signature.update(msg);
+            isTrue("foreign key verify " + i, signature.verify(sig));
+
+            signature.initVerify(foreignKey);
+            signature.update(Strings.toByteArray("Hello, World! " + i));
+            isTrue("foreign key verify failure " + i, !signature.verify(sig));
+        }
+    }
+
     private void signatureTest(String algorithm)
         throws Exception
     {
@@ -0,0 +1,82 @@
+package org.bouncycastle.jsse;
+
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.SSLSessionContext;
+
+import org.bouncycastle.tls.TlsSessionStore;
+
+/**
+ * A BCJSSE-specific extension of {@link SSLSessionContext} providing access to session cache
+ * statistics. The session contexts returned by the BCJSSE {@code SSLContext} implement this interface.
+ */
+public interface BCSSLSessionContext
+    extends SSLSessionContext
+{
+    /**
+     * Returns the number of session lookups that found a valid session in the cache.
+     *
+     * @return The number of cache hits.
+     */
+    long getSessionCacheHits();
+
+    /**
+     * Returns the number of session lookups that did not find a valid session in the cache.
+     *
+     * @return The number of cache misses.
+     */
+    long getSessionCacheMisses();
+
+    /**
+     * Returns the number of sessions removed from the cache because the cache was full or the
+     * session had timed out.
+     *
+     * @return The number of cache evictions.
+     */
+    long getSessionCacheEvictions();
+
+    /**
+     * Returns the number of sessions currently held in the cache.
+     *
+     * @return The current number of cached sessions.
+     */
+    int getSessionCount();
+
+    /**
+     * Returns the external session store used by this context, if any.
+     *
+     * @return The {@link TlsSessionStore}, or null if none has been set.
+     */
+    TlsSessionStore getSessionStore();
+
+    /**
+     * Sets an external session store for this context. Sessions added to the cache are also saved
+     * to the store, and lookups by session ID that miss in the cache fall back to it, so that a
+     * session can be resumed with any server sharing the store. Only sessions that are resumable by
+     * session ID (i.e. not TLS 1.3) are stored. Sessions that expire, are evicted from the cache, or
+     * are invalidated are also removed from the store, as are stored sessions found to be older than
+     * the session timeout.
+     *
+     * @param sessionStore
+     *            The {@link TlsSessionStore} to use, or null for none.
+     */
+    void setSessionStore(TlsSessionStore sessionStore);
+
+    /**
+     * Returns the executor used for writes to the external session store, if any.
+     *
+     * @return The {@link Executor}, or null if writes are made on the handshake thread.
+     */
+    Executor getSessionStoreExecutor();
+
+    /**
+     * Sets an executor for writes (saves and removals) to the external session store, so that a slow
+     * store does not delay handshakes. Writes are submitted in the order they are made; use a
+     * single-threaded executor if the store relies on them being applied in that order. If the
+     * executor rejects a write, it is made on the calling thread instead.
+     *
+     * @param executor
+     *            The {@link Executor} to use, or null (the default) to write on the handshake thread.
+     */
+    void setSessionStoreExecutor(Executor executor);
+}
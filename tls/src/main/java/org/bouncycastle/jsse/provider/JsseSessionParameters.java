@@ -1,6 +1,13 @@
 package org.bouncycastle.jsse.provider;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 import org.bouncycastle.jsse.BCSNIServerName;
+import org.bouncycastle.tls.ServerName;
+import org.bouncycastle.tls.TlsUtils;
+import org.bouncycastle.util.Strings;
 
 class JsseSessionParameters
 {
@@ -22,4 +29,47 @@ public BCSNIServerName getMatchedSNIServerName()
     {
         return matchedSNIServerName;
     }
+
+    void encode(OutputStream output) throws IOException
+    {
+        if (null == endpointIDAlgorithm)
+        {
+            TlsUtils.writeUint8(0, output);
+        }
+        else
+        {
+            TlsUtils.writeUint8(1, output);
+            TlsUtils.writeOpaque16(Strings.toUTF8ByteArray(endpointIDAlgorithm), output);
+        }
+
+        if (null == matchedSNIServerName)
+        {
+            TlsUtils.writeUint8(0, output);
+        }
+        else
+        {
+            TlsUtils.writeUint8(1, output);
+            TlsUtils.writeUint8(matchedSNIServerName.getType(), output);
+            TlsUtils.writeOpaque16(matchedSNIServerName.getEncoded(), output);
+        }
+    }
+
+    static JsseSessionParameters parse(InputStream input) throws IOException
+    {
+        String endpointIDAlgorithm = null;
+        if (TlsUtils.readUint8(input) != 0)
+        {
+            endpointIDAlgorithm = Strings.fromUTF8ByteArray(TlsUtils.readOpaque16(input));
+        }
+
+        BCSNIServerName matchedSNIServerName = null;
+        if (TlsUtils.readUint8(input) != 0)
+        {
+            short nameType = TlsUtils.readUint8(input);
+            byte[] nameData = TlsUtils.readOpaque16(input, 1);
+            matchedSNIServerName = JsseUtils.convertSNIServerName(new ServerName(nameType, nameData));
+        }
+
+        return new JsseSessionParameters(endpointIDAlgorithm, matchedSNIServerName);
+    }
 }
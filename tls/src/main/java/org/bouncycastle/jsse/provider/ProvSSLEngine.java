@@ -53,7 +53,7 @@
 
     protected boolean closedEarly = false;
     protected boolean initialHandshakeBegun = false;
-    protected boolean returnedFinished = false;
+    protected volatile boolean returnedFinished = false;
     protected TlsProtocol protocol = null;
     protected ProvTlsPeer protocolPeer = null;
     protected ProvSSLConnection connection = null;
@@ -61,6 +61,22 @@
 
     protected SSLException deferredException = null;
 
+    /*
+     * Scratch buffers for records that can't be processed directly from the caller's buffers (direct
+     * or read-only buffers, or application data spread over several buffers). Reused across calls.
+     */
+    private byte[] unwrapBuffer = null;
+    private byte[] wrapBuffer = null;
+
+    /*
+     * The inbound and outbound record paths have independent locks, so that once the handshake has
+     * completed (and FINISHED has been returned) a connection can be wrapped and unwrapped concurrently.
+     * Until then, each call also holds the engine monitor, serializing the handshake as before. Lock
+     * order is always unwrapLock/wrapLock, then the engine monitor, then the protocol's record write lock.
+     */
+    private final Object unwrapLock = new Object();
+    private final Object wrapLock = new Object();
+
     protected ProvSSLEngine(ContextData contextData)
     {
         this(contextData, null, -1);
@@ -440,7 +456,42 @@ public synchronized void setWantClientAuth(boolean want)
     }
 
     @Override
-    public synchronized SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, int offset, int length)
+    public SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, int offset, int length)
+        throws SSLException
+    {
+        synchronized (unwrapLock)
+        {
+            if (returnedFinished)
+            {
+                return unwrapImpl(src, dsts, offset, length);
+            }
+
+            synchronized (this)
+            {
+                return unwrapImpl(src, dsts, offset, length);
+            }
+        }
+    }
+
+    @Override
+    public SSLEngineResult wrap(ByteBuffer[] srcs, int offset, int length, ByteBuffer dst)
+        throws SSLException
+    {
+        synchronized (wrapLock)
+        {
+            if (returnedFinished)
+            {
+                return wrapImpl(srcs, offset, length, dst);
+            }
+
+            synchronized (this)
+            {
+                return wrapImpl(srcs, offset, length, dst);
+            }
+        }
+    }
+
+    private SSLEngineResult unwrapImpl(ByteBuffer src, ByteBuffer[] dsts, int offset, int length)
         throws SSLException
     {
         // TODO[jsse] Argument checks - see javadoc
@@ -462,6 +513,15 @@ public synchronized SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, in
         case NEED_UNWRAP:
         case NOT_HANDSHAKING:
             break;
+        case NEED_WRAP:
+        {
+            // Once the handshake has completed, output pending for the outbound side doesn't hold up input
+            if (returnedFinished && !protocol.isHandshaking())
+            {
+                break;
+            }
+            return new SSLEngineResult(Status.OK, initialHandshakeStatus, 0, 0);
+        }
         default:
             return new SSLEngineResult(Status.OK, initialHandshakeStatus, 0, 0);
         }
@@ -480,10 +540,15 @@ public synchronized SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, in
             }
 
             bytesConsumed = preview.getRecordSize();
-            byte[] record = new byte[bytesConsumed];
-            src.get(record);
 
-            protocol.offerInput(record, 0, record.length);
+            /*
+             * NOTE: Records are decrypted in place, so the record is always copied out of 'src' (into a
+             * buffer reused across calls) to leave the caller's data untouched.
+             */
+            byte[] record = unwrapBuffer = getBuffer(unwrapBuffer, bytesConsumed);
+            src.get(record, 0, bytesConsumed);
+
+            protocol.offerInput(record, 0, bytesConsumed);
         }
         catch (IOException e)
         {
@@ -535,8 +600,7 @@ public synchronized SSLEngineResult unwrap(ByteBuffer src, ByteBuffer[] dsts, in
         return new SSLEngineResult(getStatus(), resultHandshakeStatus, bytesConsumed, bytesProduced);
     }
 
-    @Override
-    public synchronized SSLEngineResult wrap(ByteBuffer[] srcs, int offset, int length, ByteBuffer dst)
+    private SSLEngineResult wrapImpl(ByteBuffer[] srcs, int offset, int length, ByteBuffer dst)
         throws SSLException
     {
         if (deferredException != null)
@@ -614,31 +678,49 @@ else if (protocol.isConnected())
                         return new SSLEngineResult(Status.BUFFER_OVERFLOW, HandshakeStatus.NOT_HANDSHAKING, 0, 0);
                     }
 
-                    // TODO Support writing application data using ByteBuffer array directly
-
-                    byte[] buffer = new byte[srcLimit];
-
-                    for (int srcIndex = 0; srcIndex < length && bytesConsumed < srcLimit; ++srcIndex)
+                    ByteBuffer firstSrc = getFirstRemaining(srcs, offset, length);
+                    if (firstSrc.hasArray() && firstSrc.remaining() >= srcLimit)
                     {
-                        ByteBuffer src = srcs[offset + srcIndex];
-                        int count = Math.min(src.remaining(), srcLimit - bytesConsumed);
-                        if (count > 0)
-                        {
-                            src.get(buffer, bytesConsumed, count);
-                            bytesConsumed += count;
-                        }
+                        /*
+                         * The whole record comes from one heap buffer, so encrypt directly from its array.
+                         */
+                        int position = firstSrc.position();
+                        protocol.writeApplicationData(firstSrc.array(), firstSrc.arrayOffset() + position, srcLimit);
+                        ((java.nio.Buffer)firstSrc).position(position + srcLimit);
+
+                        bytesConsumed = srcLimit;
                     }
+                    else
+                    {
+                        byte[] buffer = wrapBuffer = getBuffer(wrapBuffer, srcLimit);
 
-                    protocol.writeApplicationData(buffer, 0, bytesConsumed);
+                        for (int srcIndex = 0; srcIndex < length && bytesConsumed < srcLimit; ++srcIndex)
+                        {
+                            ByteBuffer src = srcs[offset + srcIndex];
+                            int count = Math.min(src.remaining(), srcLimit - bytesConsumed);
+                            if (count > 0)
+                            {
+                                src.get(buffer, bytesConsumed, count);
+                                bytesConsumed += count;
+                            }
+                        }
 
-                    bytesProduced = protocol.getAvailableOutputBytes();
-                    assert bytesProduced <= dstLimit;
+                        protocol.writeApplicationData(buffer, 0, bytesConsumed);
+                    }
 
-                    int numRead = protocol.readOutput(dst, bytesProduced);
-                    assert numRead == bytesProduced;
+                    /*
+                     * NOTE: Processing input on another thread may have queued records (e.g. an alert)
+                     * ahead of ours, so only whole records that fit are taken; any others are left for
+                     * the next call.
+                     */
+                    bytesProduced = readOutputRecords(dst);
                 }
 
-                return new SSLEngineResult(getStatus(), HandshakeStatus.NOT_HANDSHAKING, bytesConsumed, bytesProduced);
+                HandshakeStatus resultHandshakeStatus = protocol.getAvailableOutputBytes() > 0
+                    ?   HandshakeStatus.NEED_WRAP
+                    :   HandshakeStatus.NOT_HANDSHAKING;
+
+                return new SSLEngineResult(getStatus(), resultHandshakeStatus, bytesConsumed, bytesProduced);
             }
             catch (IOException e)
             {
@@ -739,6 +821,42 @@ private RecordPreview getRecordPreview(ByteBuffer src)
         return protocol.previewInputRecord(recordHeader);
     }
 
+    private int readOutputRecords(ByteBuffer dst)
+    {
+        int bytesProduced = 0;
+        for (;;)
+        {
+            int recordSize = protocol.previewOutputRecord();
+            if (recordSize < 1 || dst.remaining() < recordSize)
+            {
+                return bytesProduced;
+            }
+
+            int numRead = protocol.readOutput(dst, recordSize);
+            assert numRead == recordSize;
+
+            bytesProduced += recordSize;
+        }
+    }
+
+    private ByteBuffer getFirstRemaining(ByteBuffer[] bufs, int off, int len)
+    {
+        for (int i = 0; i < len; ++i)
+        {
+            ByteBuffer buf = bufs[off + i];
+            if (buf.hasRemaining())
+            {
+                return buf;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static byte[] getBuffer(byte[] buf, int len)
+    {
+        return (buf != null && buf.length >= len) ? buf : new byte[len];
+    }
+
     private Status getStatus()
     {
         return protocol.isClosed() ? Status.CLOSED : Status.OK;
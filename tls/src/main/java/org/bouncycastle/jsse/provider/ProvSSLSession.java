@@ -23,7 +23,13 @@
     ProvSSLSession(ProvSSLSessionContext sslSessionContext, String peerHost, int peerPort, TlsSession tlsSession,
         JsseSessionParameters jsseSessionParameters)
     {
-        super(sslSessionContext, peerHost, peerPort);
+        this(sslSessionContext, peerHost, peerPort, tlsSession, jsseSessionParameters, System.currentTimeMillis());
+    }
+
+    ProvSSLSession(ProvSSLSessionContext sslSessionContext, String peerHost, int peerPort, TlsSession tlsSession,
+        JsseSessionParameters jsseSessionParameters, long creationTime)
+    {
+        super(sslSessionContext, peerHost, peerPort, creationTime);
 
         this.tlsSession = tlsSession;
         this.sessionParameters = tlsSession == null ? null : tlsSession.exportSessionParameters();
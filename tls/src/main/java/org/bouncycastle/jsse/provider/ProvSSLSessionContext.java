@@ -1,58 +1,79 @@
 package org.bouncycastle.jsse.provider;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.net.ssl.SSLSession;
-import javax.net.ssl.SSLSessionContext;
 
+import org.bouncycastle.jsse.BCSSLSessionContext;
 import org.bouncycastle.tls.SessionID;
+import org.bouncycastle.tls.SessionParameters;
 import org.bouncycastle.tls.TlsSession;
+import org.bouncycastle.tls.TlsSessionStore;
 import org.bouncycastle.tls.TlsUtils;
 import org.bouncycastle.tls.crypto.impl.jcajce.JcaTlsCrypto;
 
 class ProvSSLSessionContext
-    implements SSLSessionContext
+    implements BCSSLSessionContext
 {
     private static final Logger LOG = Logger.getLogger(ProvSSLSessionContext.class.getName());
 
     private static final int provSessionCacheSize = PropertyUtils
         .getIntegerSystemProperty("javax.net.ssl.sessionCacheSize", 20480, 0, Integer.MAX_VALUE);
 
-    // NOTE: This is configured as a simple LRU cache using the "access order" constructor
-    @SuppressWarnings("serial")
-    protected final Map<SessionID, SessionEntry> sessionsByID = new LinkedHashMap<SessionID, SessionEntry>(16, 0.75f, true)
-    {
-        protected boolean removeEldestEntry(Map.Entry<SessionID, SessionEntry> eldest)
-        {
-            boolean shouldRemove = sessionCacheSize > 0 && size() > sessionCacheSize;
-            if (shouldRemove)
-            {
-                removeSessionByPeer(eldest.getValue());
-            }
-            return shouldRemove;
-        }
-    };
-    protected final Map<String, SessionEntry> sessionsByPeer = new HashMap<String, SessionEntry>();
+    // NOTE: Must be a power of 2
+    private static final int SHARD_COUNT = 16;
+
+    /*
+     * NOTE: Sessions are spread over independently locked shards, each an LRU cache using the "access
+     * order" constructor, so that concurrent handshakes rarely contend. The size limit is applied
+     * to the total across all shards, but eviction takes the eldest entry of the shard being added to,
+     * so the LRU order is only approximate.
+     */
+    protected final SessionShard[] shards = new SessionShard[SHARD_COUNT];
+    protected final ConcurrentHashMap<String, SessionEntry> sessionsByPeer = new ConcurrentHashMap<String, SessionEntry>();
     protected final ReferenceQueue<ProvSSLSession> sessionsQueue = new ReferenceQueue<ProvSSLSession>();
 
     protected final ContextData contextData;
 
-    protected int sessionCacheSize = provSessionCacheSize;
-    protected int sessionTimeoutSeconds = 86400; // 24hrs (in seconds)
+    protected final AtomicInteger sessionCount = new AtomicInteger(0);
+    protected final AtomicLong cacheHits = new AtomicLong(0L);
+    protected final AtomicLong cacheMisses = new AtomicLong(0L);
+    protected final AtomicLong cacheEvictions = new AtomicLong(0L);
+
+    protected volatile int sessionCacheSize = provSessionCacheSize;
+    protected volatile int sessionTimeoutSeconds = 86400; // 24hrs (in seconds)
+    protected volatile TlsSessionStore sessionStore = null;
+    protected volatile Executor sessionStoreExecutor = null;
 
     ProvSSLSessionContext(ContextData contextData)
     {
         this.contextData = contextData;
+
+        for (int i = 0; i < SHARD_COUNT; ++i)
+        {
+            shards[i] = new SessionShard();
+        }
     }
 
     ProvSSLContextSpi getSSLContext()
@@ -65,14 +86,21 @@ JcaTlsCrypto getCrypto()
         return contextData.getCrypto();
     }
 
-    synchronized ProvSSLSession getSessionImpl(byte[] sessionID)
+    ProvSSLSession getSessionImpl(byte[] sessionID)
     {
         processQueue();
 
-        return accessSession(mapGet(sessionsByID, makeSessionID(sessionID)));
+        SessionID id = makeSessionID(sessionID);
+        SessionEntry sessionEntry = id == null ? null : getShard(id).get(id);
+        if (null == sessionEntry && null != id)
+        {
+            sessionEntry = loadSession(id);
+        }
+
+        return accessSession(sessionEntry);
     }
 
-    synchronized ProvSSLSession getSessionImpl(String hostName, int port)
+    ProvSSLSession getSessionImpl(String hostName, int port)
     {
         processQueue();
 
@@ -80,22 +108,29 @@ synchronized ProvSSLSession getSessionImpl(String hostName, int port)
         ProvSSLSession session = accessSession(sessionEntry);
         if (session != null)
         {
-            // NOTE: For the current simple cache implementation, need to 'access' the sessionByIDs entry
-            sessionsByID.get(sessionEntry.getSessionID());
+            // NOTE: Need to 'access' the entry in its shard so that it counts as recently used
+            SessionID id = sessionEntry.getSessionID();
+            getShard(id).get(id);
         }
         return session;
     }
 
-    synchronized void removeSession(byte[] sessionID)
+    void removeSession(byte[] sessionID)
     {
-        SessionEntry sessionEntry = mapRemove(sessionsByID, makeSessionID(sessionID));
-        if (null != sessionEntry)
+        SessionID id = makeSessionID(sessionID);
+        if (null != id)
         {
-            removeSessionByPeer(sessionEntry);
+            SessionEntry sessionEntry = getShard(id).remove(id);
+            if (null != sessionEntry)
+            {
+                removeSessionByPeer(sessionEntry);
+            }
+
+            removeStoredSession(id);
         }
     }
 
-    synchronized ProvSSLSession reportSession(String peerHost, int peerPort, TlsSession tlsSession,
+    ProvSSLSession reportSession(String peerHost, int peerPort, TlsSession tlsSession,
         JsseSessionParameters jsseSessionParameters, boolean addToCache)
     {
         processQueue();
@@ -106,7 +141,8 @@ synchronized ProvSSLSession reportSession(String peerHost, int peerPort, TlsSess
         }
 
         SessionID sessionID = makeSessionID(tlsSession.getSessionID());
-        SessionEntry sessionEntry = mapGet(sessionsByID, sessionID);
+        SessionShard shard = sessionID == null ? null : getShard(sessionID);
+        SessionEntry sessionEntry = shard == null ? null : shard.get(sessionID);
 
         ProvSSLSession session = sessionEntry == null ? null : sessionEntry.get();
         if (null == session || session.getTlsSession() != tlsSession)
@@ -116,7 +152,9 @@ synchronized ProvSSLSession reportSession(String peerHost, int peerPort, TlsSess
             if (null != sessionID)
             {
                 sessionEntry = new SessionEntry(sessionID, session, sessionsQueue);
-                sessionsByID.put(sessionID, sessionEntry);
+
+                addSession(shard, sessionEntry);
+                saveSession(sessionID, tlsSession, jsseSessionParameters);
             }
         }
 
@@ -128,14 +166,14 @@ synchronized ProvSSLSession reportSession(String peerHost, int peerPort, TlsSess
         return session;
     }
 
-    public synchronized Enumeration<byte[]> getIds()
+    public Enumeration<byte[]> getIds()
     {
         removeAllExpiredSessions();
 
-        ArrayList<byte[]> ids = new ArrayList<byte[]>(sessionsByID.size());
-        for (SessionID sessionID : sessionsByID.keySet())
+        ArrayList<byte[]> ids = new ArrayList<byte[]>(sessionCount.get());
+        for (int i = 0; i < SHARD_COUNT; ++i)
         {
-            ids.add(sessionID.getBytes());
+            shards[i].collectIds(ids);
         }
         return Collections.enumeration(ids);
     }
@@ -150,16 +188,56 @@ public SSLSession getSession(byte[] sessionID)
         return getSessionImpl(sessionID);
     }
 
-    public synchronized int getSessionCacheSize()
+    public int getSessionCacheSize()
     {
         return sessionCacheSize;
     }
 
-    public synchronized int getSessionTimeout()
+    public int getSessionTimeout()
     {
         return sessionTimeoutSeconds;
     }
 
+    public long getSessionCacheHits()
+    {
+        return cacheHits.get();
+    }
+
+    public long getSessionCacheMisses()
+    {
+        return cacheMisses.get();
+    }
+
+    public long getSessionCacheEvictions()
+    {
+        return cacheEvictions.get();
+    }
+
+    public int getSessionCount()
+    {
+        return sessionCount.get();
+    }
+
+    public TlsSessionStore getSessionStore()
+    {
+        return sessionStore;
+    }
+
+    public void setSessionStore(TlsSessionStore sessionStore)
+    {
+        this.sessionStore = sessionStore;
+    }
+
+    public Executor getSessionStoreExecutor()
+    {
+        return sessionStoreExecutor;
+    }
+
+    public void setSessionStoreExecutor(Executor executor)
+    {
+        this.sessionStoreExecutor = executor;
+    }
+
     public synchronized void setSessionCacheSize(int size) throws IllegalArgumentException
     {
         if (sessionCacheSize == size)
@@ -177,21 +255,7 @@ public synchronized void setSessionCacheSize(int size) throws IllegalArgumentExc
         removeAllExpiredSessions();
 
         // Immediately remove LRU sessions in excess of the new limit
-        if (sessionCacheSize > 0)
-        {
-            int currentSize = sessionsByID.size();
-            if (currentSize > sessionCacheSize)
-            {
-                Iterator<SessionEntry> iter = sessionsByID.values().iterator();
-                while (iter.hasNext() && currentSize > sessionCacheSize)
-                {
-                    SessionEntry sessionEntry = iter.next();
-                    iter.remove();
-                    removeSessionByPeer(sessionEntry);
-                    --currentSize;
-                }
-            }
-        }
+        removeExcessSessions(0, null);
     }
 
     public synchronized void setSessionTimeout(int seconds) throws IllegalArgumentException
@@ -222,20 +286,160 @@ private ProvSSLSession accessSession(SessionEntry sessionEntry)
                 if (!invalidateIfCreatedBefore(sessionEntry, getCreationTimeLimit(currentTimeMillis)))
                 {
                     session.accessedAt(currentTimeMillis);
+                    cacheHits.incrementAndGet();
                     return session;
                 }
             }
 
-            removeSession(sessionEntry);
+            // NOTE: A collected session is still valid, so the stored copy is only removed if it expired
+            removeSession(sessionEntry, null != session);
         }
+
+        cacheMisses.incrementAndGet();
         return null;
     }
 
+    private void addSession(SessionShard shard, SessionEntry sessionEntry)
+    {
+        ArrayList<SessionEntry> expired = new ArrayList<SessionEntry>(0);
+        SessionEntry replaced = shard.put(sessionEntry, getCreationTimeLimit(System.currentTimeMillis()), expired);
+        if (null != replaced)
+        {
+            removeSessionByPeer(replaced);
+        }
+
+        removeStoredSessions(expired);
+        removeExcessSessions(getShardIndex(sessionEntry.getSessionID()), sessionEntry);
+    }
+
+    private SessionEntry loadSession(SessionID sessionID)
+    {
+        TlsSessionStore sessionStore = this.sessionStore;
+        if (null == sessionStore)
+        {
+            return null;
+        }
+
+        try
+        {
+            byte[] encoding = sessionStore.load(sessionID.getBytes());
+            if (null == encoding)
+            {
+                return null;
+            }
+
+            ByteArrayInputStream input = new ByteArrayInputStream(encoding);
+            SessionParameters sessionParameters = SessionParameters.parse(getCrypto(), input);
+
+            long creationTime = sessionParameters.getCreationTime();
+            if (creationTime < getCreationTimeLimit(System.currentTimeMillis()))
+            {
+                sessionParameters.clear();
+                removeStoredSession(sessionID);
+                return null;
+            }
+
+            JsseSessionParameters jsseSessionParameters = JsseSessionParameters.parse(input);
+
+            TlsSession tlsSession = TlsUtils.importSession(sessionID.getBytes(), sessionParameters);
+
+            // NOTE: The peer of the original connection is unknown, so this session is only found by ID
+            ProvSSLSession session = new ProvSSLSession(this, null, -1, tlsSession, jsseSessionParameters,
+                creationTime);
+            SessionEntry sessionEntry = new SessionEntry(sessionID, session, sessionsQueue);
+
+            addSession(getShard(sessionID), sessionEntry);
+            return sessionEntry;
+        }
+        catch (IOException e)
+        {
+            LOG.log(Level.FINE, "Unable to load session from external store", e);
+            return null;
+        }
+    }
+
+    private void saveSession(SessionID sessionID, TlsSession tlsSession, JsseSessionParameters jsseSessionParameters)
+    {
+        TlsSessionStore sessionStore = this.sessionStore;
+        if (null == sessionStore || !tlsSession.isResumable())
+        {
+            return;
+        }
+
+        SessionParameters sessionParameters = tlsSession.exportSessionParameters();
+        if (null == sessionParameters || TlsUtils.isTLSv13(sessionParameters.getNegotiatedVersion()))
+        {
+            return;
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try
+        {
+            sessionParameters.encode(getCrypto(), output);
+            jsseSessionParameters.encode(output);
+        }
+        catch (IOException e)
+        {
+            LOG.log(Level.FINE, "Unable to encode session for external store", e);
+            return;
+        }
+
+        writeStore(new StoreWrite(sessionStore, sessionID.getBytes(), output.toByteArray()));
+    }
+
+    private void removeStoredSession(SessionID sessionID)
+    {
+        TlsSessionStore sessionStore = this.sessionStore;
+        if (null != sessionStore)
+        {
+            writeStore(new StoreWrite(sessionStore, sessionID.getBytes(), null));
+        }
+    }
+
+    private void removeStoredSessions(List<SessionEntry> sessionEntries)
+    {
+        for (int i = 0; i < sessionEntries.size(); ++i)
+        {
+            removeStoredSession(sessionEntries.get(i).getSessionID());
+        }
+    }
+
+    private void writeStore(StoreWrite storeWrite)
+    {
+        Executor executor = this.sessionStoreExecutor;
+        if (null != executor)
+        {
+            try
+            {
+                executor.execute(storeWrite);
+                return;
+            }
+            catch (RejectedExecutionException e)
+            {
+                LOG.log(Level.FINE, "Session store executor rejected write; writing on calling thread", e);
+            }
+        }
+
+        storeWrite.run();
+    }
+
     private long getCreationTimeLimit(long expiryTimeMillis)
     {
         return sessionTimeoutSeconds < 1 ? Long.MIN_VALUE : (expiryTimeMillis - 1000L * sessionTimeoutSeconds);
     }
 
+    private SessionShard getShard(SessionID sessionID)
+    {
+        return shards[getShardIndex(sessionID)];
+    }
+
+    private static int getShardIndex(SessionID sessionID)
+    {
+        int h = sessionID.hashCode();
+        h ^= (h >>> 16);
+        return h & (SHARD_COUNT - 1);
+    }
+
     private boolean invalidateIfCreatedBefore(SessionEntry sessionEntry, long creationTimeLimit)
     {
         ProvSSLSession session = sessionEntry.get();
@@ -257,7 +461,7 @@ private void processQueue()
         SessionEntry sessionEntry;
         while ((sessionEntry = (SessionEntry)sessionsQueue.poll()) != null)
         {
-            removeSession(sessionEntry);
+            removeSession(sessionEntry, false);
             ++count;
         }
 
@@ -273,28 +477,92 @@ private void removeAllExpiredSessions()
 
         long creationTimeLimit = getCreationTimeLimit(System.currentTimeMillis());
 
-        Iterator<SessionEntry> iter = sessionsByID.values().iterator();
-        while (iter.hasNext())
+        ArrayList<SessionEntry> expired = new ArrayList<SessionEntry>(0);
+        for (int i = 0; i < SHARD_COUNT; ++i)
         {
-            SessionEntry sessionEntry = iter.next();
-            if (invalidateIfCreatedBefore(sessionEntry, creationTimeLimit))
+            shards[i].removeAllExpired(creationTimeLimit, expired);
+        }
+
+        removeStoredSessions(expired);
+    }
+
+    private void removeExcessSessions(int shardIndex, SessionEntry justAdded)
+    {
+        int limit = sessionCacheSize;
+        if (limit < 1)
+        {
+            return;
+        }
+
+        for (;;)
+        {
+            int count = sessionCount.get();
+            if (count <= limit)
             {
-                iter.remove();
-                removeSessionByPeer(sessionEntry);
+                break;
+            }
+
+            /*
+             * NOTE: Each eviction is claimed by decrementing the count first, so concurrent inserters
+             * only evict as many entries as there are in excess of the limit between them.
+             */
+            if (!sessionCount.compareAndSet(count, count - 1))
+            {
+                continue;
+            }
+
+            SessionEntry evicted = evictEldest(shardIndex, justAdded);
+            if (null == evicted)
+            {
+                sessionCount.incrementAndGet();
+                break;
+            }
+
+            removeStoredSession(evicted.getSessionID());
+
+            // When shrinking the whole cache, take from each shard in turn
+            if (null == justAdded)
+            {
+                shardIndex = (shardIndex + 1) & (SHARD_COUNT - 1);
             }
         }
     }
 
-    private void removeSession(SessionEntry sessionEntry)
+    /*
+     * NOTE: The shard at 'shardIndex' is tried first, and normally has an entry to evict, so only its
+     * lock is taken. The others are only tried (one at a time) when it holds nothing but 'exclude'.
+     */
+    private SessionEntry evictEldest(int shardIndex, SessionEntry exclude)
+    {
+        for (int i = 0; i < SHARD_COUNT; ++i)
+        {
+            SessionEntry evicted = shards[(shardIndex + i) & (SHARD_COUNT - 1)].removeEldest(exclude);
+            if (null != evicted)
+            {
+                return evicted;
+            }
+        }
+        return null;
+    }
+
+    private void removeSession(SessionEntry sessionEntry, boolean removeFromStore)
     {
-        mapRemove(sessionsByID, sessionEntry.getSessionID(), sessionEntry);
+        SessionID id = sessionEntry.getSessionID();
+        getShard(id).remove(id, sessionEntry);
 
         removeSessionByPeer(sessionEntry);
+
+        if (removeFromStore)
+        {
+            removeStoredSession(id);
+        }
     }
 
     private boolean removeSessionByPeer(SessionEntry sessionEntry)
     {
-        return mapRemove(sessionsByPeer, sessionEntry.getPeerKey(), sessionEntry);
+        String peerKey = sessionEntry.getPeerKey();
+
+        return peerKey != null && sessionsByPeer.remove(peerKey, sessionEntry);
     }
 
     private static String makePeerKey(ProvSSLSession session)
@@ -333,42 +601,209 @@ private static <K, V> V mapGet(Map<K, V> map, K key)
         return key == null ? null : map.get(key);
     }
 
-    private static <K, V> V mapRemove(Map<K, V> map, K key)
+    /*
+     * One lock-protected part of the session cache. Besides the access-ordered map used for LRU
+     * eviction, entries are kept sorted by creation time: the timeout is the same for every session in
+     * the context, so expired sessions are always found at the head of that set and can be removed
+     * without scanning the rest of the shard. Sessions loaded from the external store keep their
+     * original creation time, so they can land anywhere in that order.
+     */
+    private final class SessionShard
     {
-        if (map == null)
+        private final LinkedHashMap<SessionID, SessionEntry> byAccess = new LinkedHashMap<SessionID, SessionEntry>(16, 0.75f, true);
+        private final TreeSet<SessionEntry> byCreation = new TreeSet<SessionEntry>(SessionEntry.CREATION_ORDER);
+
+        synchronized void collectIds(ArrayList<byte[]> ids)
         {
-            throw new NullPointerException();
+            for (SessionID sessionID : byAccess.keySet())
+            {
+                ids.add(sessionID.getBytes());
+            }
+        }
+
+        synchronized SessionEntry get(SessionID sessionID)
+        {
+            return byAccess.get(sessionID);
+        }
+
+        synchronized SessionEntry put(SessionEntry sessionEntry, long creationTimeLimit, List<SessionEntry> expired)
+        {
+            removeExpired(creationTimeLimit, false, expired);
+
+            SessionID sessionID = sessionEntry.getSessionID();
+
+            SessionEntry replaced = byAccess.put(sessionID, sessionEntry);
+            if (null == replaced)
+            {
+                sessionCount.incrementAndGet();
+            }
+            else
+            {
+                byCreation.remove(replaced);
+            }
+
+            byCreation.add(sessionEntry);
+            return replaced;
+        }
+
+        synchronized SessionEntry remove(SessionID sessionID)
+        {
+            SessionEntry removed = byAccess.remove(sessionID);
+            if (null != removed)
+            {
+                byCreation.remove(removed);
+                sessionCount.decrementAndGet();
+            }
+            return removed;
+        }
+
+        synchronized boolean remove(SessionID sessionID, SessionEntry sessionEntry)
+        {
+            if (byAccess.get(sessionID) != sessionEntry)
+            {
+                return false;
+            }
+
+            remove(sessionID);
+            return true;
+        }
+
+        /*
+         * NOTE: The caller has already taken the evicted entry off 'sessionCount'.
+         */
+        synchronized SessionEntry removeEldest(SessionEntry exclude)
+        {
+            Iterator<SessionEntry> iter = byAccess.values().iterator();
+            SessionEntry sessionEntry = getEldest(iter, exclude);
+            if (null == sessionEntry)
+            {
+                return null;
+            }
+
+            iter.remove();
+            byCreation.remove(sessionEntry);
+            cacheEvictions.incrementAndGet();
+
+            removeSessionByPeer(sessionEntry);
+            return sessionEntry;
+        }
+
+        private SessionEntry getEldest(Iterator<SessionEntry> iter, SessionEntry exclude)
+        {
+            while (iter.hasNext())
+            {
+                SessionEntry sessionEntry = iter.next();
+                if (sessionEntry != exclude)
+                {
+                    return sessionEntry;
+                }
+            }
+            return null;
+        }
+
+        synchronized void removeAllExpired(long creationTimeLimit, List<SessionEntry> expired)
+        {
+            removeExpired(creationTimeLimit, true, expired);
+        }
+
+        private void removeExpired(long creationTimeLimit, boolean checkAll, List<SessionEntry> expired)
+        {
+            Iterator<SessionEntry> iter = byCreation.iterator();
+            while (iter.hasNext())
+            {
+                SessionEntry sessionEntry = iter.next();
+                if (!invalidateIfCreatedBefore(sessionEntry, creationTimeLimit))
+                {
+                    if (checkAll)
+                    {
+                        continue;
+                    }
+                    break;
+                }
+
+                iter.remove();
+                byAccess.remove(sessionEntry.getSessionID());
+                sessionCount.decrementAndGet();
+                cacheEvictions.incrementAndGet();
+
+                removeSessionByPeer(sessionEntry);
+
+                // NOTE: A collected session is still valid, so the stored copy is only removed if it expired
+                if (null != sessionEntry.get() || sessionEntry.getCreationTime() < creationTimeLimit)
+                {
+                    expired.add(sessionEntry);
+                }
+            }
         }
-        return key == null ? null : map.remove(key);
     }
 
-    private static <K, V> boolean mapRemove(Map<K, V> map, K key, V value)
+    /*
+     * A save (or, with a null encoding, a removal) of a session in the external store, so that writes
+     * can be handed to the configured executor.
+     */
+    private static final class StoreWrite
+        implements Runnable
     {
-        if (map == null || value == null)
+        private final TlsSessionStore sessionStore;
+        private final byte[] sessionID;
+        private final byte[] encoding;
+
+        StoreWrite(TlsSessionStore sessionStore, byte[] sessionID, byte[] encoding)
         {
-            throw new NullPointerException();
+            this.sessionStore = sessionStore;
+            this.sessionID = sessionID;
+            this.encoding = encoding;
         }
-        if (key != null)
+
+        public void run()
         {
-            // TODO[jsse] From 1.8 there is a 2-argument remove method to accomplish this 
-            V removed = map.remove(key);
-            if (removed == value)
+            try
             {
-                return true;
+                if (null == encoding)
+                {
+                    sessionStore.remove(sessionID);
+                }
+                else
+                {
+                    sessionStore.save(sessionID, encoding);
+                }
             }
-            if (removed != null)
+            catch (IOException e)
             {
-                map.put(key, removed);
+                LOG.log(Level.FINE, "Unable to update session in external store", e);
             }
         }
-        return false;
     }
 
     private static final class SessionEntry
         extends SoftReference<ProvSSLSession>
     {
+        /*
+         * NOTE: Orders by the session's creation time, then by when the entry was made, so that distinct
+         * entries never compare equal.
+         */
+        static final Comparator<SessionEntry> CREATION_ORDER = new Comparator<SessionEntry>()
+        {
+            public int compare(SessionEntry a, SessionEntry b)
+            {
+                if (a.creationTime != b.creationTime)
+                {
+                    return a.creationTime < b.creationTime ? -1 : 1;
+                }
+                if (a.sequence != b.sequence)
+                {
+                    return a.sequence < b.sequence ? -1 : 1;
+                }
+                return 0;
+            }
+        };
+
+        private static final AtomicLong nextSequence = new AtomicLong(0L);
+
         private final SessionID sessionID;
         private final String peerKey;
+        private final long creationTime;
+        private final long sequence;
 
         SessionEntry(SessionID sessionID, ProvSSLSession session, ReferenceQueue<ProvSSLSession> queue)
         {
@@ -381,6 +816,13 @@ private static <K, V> boolean mapRemove(Map<K, V> map, K key, V value)
 
             this.sessionID = sessionID;
             this.peerKey = makePeerKey(session);
+            this.creationTime = session.getCreationTime();
+            this.sequence = nextSequence.getAndIncrement();
+        }
+
+        public long getCreationTime()
+        {
+            return creationTime;
         }
 
         public String getPeerKey()
@@ -1,5 +1,7 @@
 package org.bouncycastle.tls;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Hashtable;
 import java.util.Vector;
@@ -304,14 +306,75 @@ public void notifyHandshakeBeginning() throws IOException
         this.serverExtensions.clear();
     }
 
-    public TlsSession getSessionToResume(byte[] sessionID)
+    /**
+     * Override to supply an external store for resumable sessions. When a store is supplied, new
+     * (pre-TLS 1.3) sessions are given a session ID and saved to it once the handshake completes
+     * (subclasses overriding {@link #notifyHandshakeComplete()} must call it), and session IDs offered by
+     * clients are looked up in it, so that sessions can be resumed on any server sharing the store.
+     *
+     * @return the {@link TlsSessionStore} to use, or null (the default) for none.
+     */
+    protected TlsSessionStore getSessionStore()
     {
         return null;
     }
 
+    /**
+     * Override to change how long sessions in the {@link #getSessionStore() session store} may be
+     * resumed for. Older entries offered by a client are removed from the store instead.
+     *
+     * @return the session lifetime in seconds, or 0 for no limit. The default is 86400 (24 hours).
+     */
+    protected int getSessionTimeout()
+    {
+        return 86400;
+    }
+
+    public TlsSession getSessionToResume(byte[] sessionID)
+    {
+        TlsSessionStore sessionStore = getSessionStore();
+        if (null == sessionStore || TlsUtils.isNullOrEmpty(sessionID))
+        {
+            return null;
+        }
+
+        try
+        {
+            byte[] encoding = sessionStore.load(sessionID);
+            if (null == encoding)
+            {
+                return null;
+            }
+
+            SessionParameters sessionParameters = SessionParameters.parse(getCrypto(),
+                new ByteArrayInputStream(encoding));
+
+            int sessionTimeout = getSessionTimeout();
+            if (sessionTimeout > 0
+                && sessionParameters.getCreationTime() < System.currentTimeMillis() - 1000L * sessionTimeout)
+            {
+                sessionParameters.clear();
+                sessionStore.remove(sessionID);
+                return null;
+            }
+
+            return TlsUtils.importSession(sessionID, sessionParameters);
+        }
+        catch (IOException e)
+        {
+            // an unreadable entry just means a full handshake
+            return null;
+        }
+    }
+
     public byte[] getNewSessionID()
     {
-        return null;
+        if (null == getSessionStore() || TlsUtils.isTLSv13(context))
+        {
+            return null;
+        }
+
+        return context.getNonceGenerator().generateNonce(32);
     }
 
     public TlsPSKExternal getExternalPSK(Vector identities)
@@ -323,6 +386,40 @@ public void notifySession(TlsSession session)
     {
     }
 
+    public void notifyHandshakeComplete() throws IOException
+    {
+        super.notifyHandshakeComplete();
+
+        TlsSessionStore sessionStore = getSessionStore();
+        if (null == sessionStore || context.getSecurityParametersConnection().isResumedSession())
+        {
+            return;
+        }
+
+        TlsSession session = context.getSession();
+        if (null == session || !session.isResumable())
+        {
+            return;
+        }
+
+        SessionParameters sessionParameters = session.exportSessionParameters();
+        if (null == sessionParameters || TlsUtils.isTLSv13(sessionParameters.getNegotiatedVersion()))
+        {
+            return;
+        }
+
+        try
+        {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream();
+            sessionParameters.encode(getCrypto(), buf);
+            sessionStore.save(session.getSessionID(), buf.toByteArray());
+        }
+        catch (IOException e)
+        {
+            // the session remains usable locally; failing to share it is not fatal
+        }
+    }
+
     public void notifyClientVersion(ProtocolVersion clientVersion)
         throws IOException
     {
@@ -0,0 +1,126 @@
+package org.bouncycastle.tls;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.bouncycastle.util.encoders.Hex;
+import org.bouncycastle.util.io.Streams;
+
+/**
+ * A {@link TlsSessionStore} keeping one file per session in a directory, e.g. on a file system
+ * shared by the nodes of a cluster. Files are written to a temporary name and then renamed, so a
+ * reader never sees a partially written session.
+ * <p>
+ * NOTE: Session files contain master secrets in the clear; the directory must only be accessible to
+ * the servers using it. Expired sessions are not removed automatically.
+ * </p>
+ */
+public class FileTlsSessionStore
+    implements TlsSessionStore
+{
+    private static final String SUFFIX = ".session";
+
+    private final File directory;
+
+    public FileTlsSessionStore(File directory)
+    {
+        if (directory == null)
+        {
+            throw new NullPointerException("'directory' cannot be null");
+        }
+        if (!directory.isDirectory())
+        {
+            throw new IllegalArgumentException("'directory' must be an existing directory");
+        }
+
+        this.directory = directory;
+    }
+
+    public byte[] load(byte[] sessionID) throws IOException
+    {
+        File file = getFile(sessionID);
+        if (!file.exists())
+        {
+            return null;
+        }
+
+        FileInputStream input;
+        try
+        {
+            input = new FileInputStream(file);
+        }
+        catch (FileNotFoundException e)
+        {
+            // removed since the existence check
+            return null;
+        }
+
+        try
+        {
+            return Streams.readAll(input);
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    public void save(byte[] sessionID, byte[] encoding) throws IOException
+    {
+        File file = getFile(sessionID);
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+
+        try
+        {
+            FileOutputStream output = new FileOutputStream(temp);
+            try
+            {
+                output.write(encoding);
+                output.getFD().sync();
+            }
+            finally
+            {
+                output.close();
+            }
+
+            if (!temp.renameTo(file))
+            {
+                // some platforms will not rename over an existing file
+                file.delete();
+                if (!temp.renameTo(file))
+                {
+                    throw new IOException("unable to rename session file: " + temp);
+                }
+            }
+        }
+        finally
+        {
+            if (temp.exists())
+            {
+                temp.delete();
+            }
+        }
+    }
+
+    public void remove(byte[] sessionID) throws IOException
+    {
+        File file = getFile(sessionID);
+        if (file.exists() && !file.delete() && file.exists())
+        {
+            throw new IOException("unable to delete session file: " + file);
+        }
+    }
+
+    private File getFile(byte[] sessionID)
+    {
+        if (TlsUtils.isNullOrEmpty(sessionID))
+        {
+            throw new IllegalArgumentException("'sessionID' cannot be null or empty");
+        }
+
+        return new File(directory, Hex.toHexString(sessionID) + SUFFIX);
+    }
+}
@@ -0,0 +1,57 @@
+package org.bouncycastle.tls;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bouncycastle.util.Arrays;
+
+/**
+ * A simple {@link TlsSessionStore} holding at most a fixed number of sessions in memory, discarding
+ * the least recently used when full. Suitable for sharing between the servers of a single process,
+ * or as a base for a store backed by a distributed cache.
+ */
+public class InMemoryTlsSessionStore
+    implements TlsSessionStore
+{
+    private final Map sessions;
+
+    public InMemoryTlsSessionStore(final int maxSessions)
+    {
+        if (maxSessions < 1)
+        {
+            throw new IllegalArgumentException("'maxSessions' must be > 0");
+        }
+
+        this.sessions = new LinkedHashMap(16, 0.75f, true)
+        {
+            protected boolean removeEldestEntry(Map.Entry eldest)
+            {
+                return size() > maxSessions;
+            }
+        };
+    }
+
+    public synchronized byte[] load(byte[] sessionID)
+    {
+        return Arrays.clone((byte[])sessions.get(new SessionID(sessionID)));
+    }
+
+    public synchronized void save(byte[] sessionID, byte[] encoding)
+    {
+        sessions.put(new SessionID(sessionID), Arrays.clone(encoding));
+    }
+
+    public synchronized void remove(byte[] sessionID)
+    {
+        byte[] encoding = (byte[])sessions.remove(new SessionID(sessionID));
+        if (encoding != null)
+        {
+            Arrays.fill(encoding, (byte)0);
+        }
+    }
+
+    public synchronized int size()
+    {
+        return sessions.size();
+    }
+}
@@ -6,6 +6,7 @@
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
 
+import org.bouncycastle.tls.crypto.TlsBufferArena;
 import org.bouncycastle.tls.crypto.TlsCipher;
 import org.bouncycastle.tls.crypto.TlsDecodeResult;
 import org.bouncycastle.tls.crypto.TlsEncodeResult;
@@ -28,6 +29,7 @@
     private TlsCipher readCipher = TlsNullNullCipher.INSTANCE;
     private TlsCipher readCipherDeferred = null;
     private TlsCipher writeCipher = TlsNullNullCipher.INSTANCE;
+    private volatile TlsBufferArena bufferArena = new TlsBufferArena();
 
     private ProtocolVersion writeVersion = null;
 
@@ -53,6 +55,16 @@ void setPlaintextLimit(int plaintextLimit)
         this.ciphertextLimit = readCipher.getCiphertextDecodeLimit(plaintextLimit);
     }
 
+    TlsBufferArena getBufferArena()
+    {
+        return bufferArena;
+    }
+
+    void setBufferArena(TlsBufferArena bufferArena)
+    {
+        this.bufferArena = bufferArena;
+    }
+
     void setWriteVersion(ProtocolVersion writeVersion)
     {
         this.writeVersion = writeVersion;
@@ -226,26 +238,56 @@ boolean readRecord()
 
         checkLength(length, ciphertextLimit, AlertDescription.record_overflow);
 
-        inputRecord.readFragment(input, length);
+        TlsBufferArena arena = bufferArena;
 
-        TlsDecodeResult decoded;
+        inputRecord.readFragment(input, length, arena);
+
+        if (null == arena)
+        {
+            TlsDecodeResult decoded;
+            try
+            {
+                if (ignoreChangeCipherSpec && ContentType.change_cipher_spec == recordType)
+                {
+                    checkChangeCipherSpec(inputRecord.buf, RecordFormat.FRAGMENT_OFFSET, length);
+                    return true;
+                }
+
+                decoded = decodeAndVerify(recordType, recordVersion, inputRecord.buf, RecordFormat.FRAGMENT_OFFSET, length);
+            }
+            finally
+            {
+                inputRecord.reset();
+            }
+
+            handler.processRecord(decoded.contentType, decoded.buf, decoded.off, decoded.len);
+            return true;
+        }
+
+        /*
+         * The record is decrypted in place in a buffer that goes back to the arena, so it can only be
+         * released once the record has been processed.
+         */
+        byte[] buf = inputRecord.buf;
         try
         {
             if (ignoreChangeCipherSpec && ContentType.change_cipher_spec == recordType)
             {
-                checkChangeCipherSpec(inputRecord.buf, RecordFormat.FRAGMENT_OFFSET, length);
+                checkChangeCipherSpec(buf, RecordFormat.FRAGMENT_OFFSET, length);
                 return true;
             }
 
-            decoded = decodeAndVerify(recordType, recordVersion, inputRecord.buf, RecordFormat.FRAGMENT_OFFSET, length);
+            TlsDecodeResult decoded = decodeAndVerify(recordType, recordVersion, buf, RecordFormat.FRAGMENT_OFFSET,
+                length);
+
+            handler.processRecord(decoded.contentType, decoded.buf, decoded.off, decoded.len);
+            return true;
         }
         finally
         {
             inputRecord.reset();
+            arena.release(buf);
         }
-
-        handler.processRecord(decoded.contentType, decoded.buf, decoded.off, decoded.len);
-        return true;
     }
 
     TlsDecodeResult decodeAndVerify(short recordType, ProtocolVersion recordVersion, byte[] ciphertext, int off, int len)
@@ -312,12 +354,35 @@ void writeRecord(short contentType, byte[] plaintext, int plaintextOffset, int p
         {
             throw new TlsFatalAlert(AlertDescription.internal_error, e);
         }
+        finally
+        {
+            TlsBufferArena arena = bufferArena;
+            if (null != arena)
+            {
+                arena.release(encoded.buf);
+            }
+        }
 
         output.flush();
     }
 
+    void releaseBuffers()
+    {
+        /*
+         * NOTE: Callers must hold off concurrent writes, which may still be using buffers from the arena.
+         */
+        TlsBufferArena arena = bufferArena;
+        if (null != arena)
+        {
+            arena.close();
+        }
+    }
+
     void close() throws IOException
     {
+        /*
+         * NOTE: A reader may still hold the current input buffer, so it is not released to the arena.
+         */
         inputRecord.reset();
 
         IOException io = null;
@@ -465,10 +530,10 @@ void fillTo(InputStream input, int length) throws IOException
             }
         }
 
-        void readFragment(InputStream input, int fragmentLength) throws IOException
+        void readFragment(InputStream input, int fragmentLength, TlsBufferArena arena) throws IOException
         {
             int recordLength = RecordFormat.FRAGMENT_OFFSET + fragmentLength;
-            resize(recordLength);
+            resize(recordLength, arena);
             fillTo(input, recordLength);
             if (pos < recordLength)
             {
@@ -496,11 +561,11 @@ void reset()
             pos = 0;
         }
 
-        private void resize(int length)
+        private void resize(int length, TlsBufferArena arena)
         {
             if (buf.length < length)
             {
-                byte[] tmp = new byte[length];
+                byte[] tmp = null == arena ? new byte[length] : arena.allocate(length);
                 System.arraycopy(buf, 0, tmp, 0, pos);
                 buf = tmp;
             }
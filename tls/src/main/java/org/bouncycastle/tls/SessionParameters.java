@@ -3,13 +3,19 @@
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Hashtable;
 
+import org.bouncycastle.tls.crypto.TlsCertificate;
+import org.bouncycastle.tls.crypto.TlsCrypto;
 import org.bouncycastle.tls.crypto.TlsSecret;
 import org.bouncycastle.util.Arrays;
 
 public final class SessionParameters
 {
+    private static final short ENCODING_VERSION = 2;
+
     public static final class Builder
     {
         private int cipherSuite = -1;
@@ -21,6 +27,7 @@
         private byte[] srpIdentity = null;
         private byte[] encodedServerExtensions = null;
         private boolean extendedMasterSecret = false;
+        private long creationTime = -1L;
 
         public Builder()
         {
@@ -30,8 +37,10 @@ public SessionParameters build()
         {
             validate(this.cipherSuite >= 0, "cipherSuite");
             validate(this.masterSecret != null, "masterSecret");
+            long creationTime = this.creationTime < 0L ? System.currentTimeMillis() : this.creationTime;
             return new SessionParameters(cipherSuite, localCertificate, masterSecret, negotiatedVersion,
-                peerCertificate, pskIdentity, srpIdentity, encodedServerExtensions, extendedMasterSecret);
+                peerCertificate, pskIdentity, srpIdentity, encodedServerExtensions, extendedMasterSecret,
+                creationTime);
         }
 
         public Builder setCipherSuite(int cipherSuite)
@@ -40,6 +49,16 @@ public Builder setCipherSuite(int cipherSuite)
             return this;
         }
 
+        /**
+         * Set the time the session was established, in milliseconds since the epoch. If not set, the
+         * time {@link #build()} is called is used.
+         */
+        public Builder setCreationTime(long creationTime)
+        {
+            this.creationTime = creationTime;
+            return this;
+        }
+
         public Builder setExtendedMasterSecret(boolean extendedMasterSecret)
         {
             this.extendedMasterSecret = extendedMasterSecret;
@@ -115,10 +134,11 @@ private void validate(boolean condition, String parameter)
     private byte[] srpIdentity = null;
     private byte[] encodedServerExtensions;
     private boolean extendedMasterSecret;
+    private long creationTime;
 
     private SessionParameters(int cipherSuite, Certificate localCertificate, TlsSecret masterSecret,
         ProtocolVersion negotiatedVersion, Certificate peerCertificate, byte[] pskIdentity, byte[] srpIdentity,
-        byte[] encodedServerExtensions, boolean extendedMasterSecret)
+        byte[] encodedServerExtensions, boolean extendedMasterSecret, long creationTime)
     {
         this.cipherSuite = cipherSuite;
         this.localCertificate = localCertificate;
@@ -129,6 +149,7 @@ private SessionParameters(int cipherSuite, Certificate localCertificate, TlsSecr
         this.srpIdentity = Arrays.clone(srpIdentity);
         this.encodedServerExtensions = encodedServerExtensions;
         this.extendedMasterSecret = extendedMasterSecret;
+        this.creationTime = creationTime;
     }
 
     public void clear()
@@ -142,7 +163,7 @@ public void clear()
     public SessionParameters copy()
     {
         return new SessionParameters(cipherSuite, localCertificate, masterSecret, negotiatedVersion, peerCertificate,
-            pskIdentity, srpIdentity, encodedServerExtensions, extendedMasterSecret);
+            pskIdentity, srpIdentity, encodedServerExtensions, extendedMasterSecret, creationTime);
     }
 
     public int getCipherSuite()
@@ -150,6 +171,15 @@ public int getCipherSuite()
         return cipherSuite;
     }
 
+    /**
+     * Return the time the session was established, in milliseconds since the epoch. This is preserved
+     * by {@link #encode(TlsCrypto, OutputStream)}, so that a store can expire sessions by their age.
+     */
+    public long getCreationTime()
+    {
+        return creationTime;
+    }
+
     public Certificate getLocalCertificate()
     {
         return localCertificate;
@@ -195,4 +225,134 @@ public Hashtable readServerExtensions() throws IOException
         ByteArrayInputStream buf = new ByteArrayInputStream(encodedServerExtensions);
         return TlsProtocol.readExtensions(buf);
     }
+
+    /**
+     * Encode these session parameters to an {@link OutputStream}, e.g. for use by a
+     * {@link TlsSessionStore}. The master secret is copied rather than extracted, so these parameters
+     * remain usable afterwards.
+     * <p>
+     * NOTE: The encoding contains the master secret in the clear and must be protected accordingly.
+     * </p>
+     *
+     * @param crypto the {@link TlsCrypto} the master secret belongs to.
+     * @param output the {@link OutputStream} to encode to.
+     * @throws IOException
+     */
+    public void encode(TlsCrypto crypto, OutputStream output) throws IOException
+    {
+        TlsUtils.writeUint8(ENCODING_VERSION, output);
+        TlsUtils.writeUint16(cipherSuite, output);
+        TlsUtils.writeVersion(negotiatedVersion, output);
+
+        byte[] secret = crypto.adoptSecret(masterSecret).extract();
+        try
+        {
+            TlsUtils.writeOpaque8(secret, output);
+        }
+        finally
+        {
+            Arrays.fill(secret, (byte)0);
+        }
+
+        encodeCertificate(localCertificate, output);
+        encodeCertificate(peerCertificate, output);
+        encodeOptional(pskIdentity, output);
+        encodeOptional(srpIdentity, output);
+        encodeOptional(encodedServerExtensions, output);
+        TlsUtils.writeUint8(extendedMasterSecret ? 1 : 0, output);
+        TlsUtils.writeUint64(creationTime, output);
+    }
+
+    /**
+     * Parse session parameters from an {@link InputStream}, as written by
+     * {@link #encode(TlsCrypto, OutputStream)}.
+     *
+     * @param crypto the {@link TlsCrypto} to create the master secret and certificates with.
+     * @param input the {@link InputStream} to parse from.
+     * @return a {@link SessionParameters} object.
+     * @throws IOException if the encoding is malformed or of an unsupported version.
+     */
+    public static SessionParameters parse(TlsCrypto crypto, InputStream input) throws IOException
+    {
+        short version = TlsUtils.readUint8(input);
+        if (version != ENCODING_VERSION)
+        {
+            throw new IOException("unsupported session parameters encoding version: " + version);
+        }
+
+        int cipherSuite = TlsUtils.readUint16(input);
+        ProtocolVersion negotiatedVersion = TlsUtils.readVersion(input);
+
+        byte[] secret = TlsUtils.readOpaque8(input, 1);
+        TlsSecret masterSecret = crypto.createSecret(secret);
+        Arrays.fill(secret, (byte)0);
+
+        Certificate localCertificate = parseCertificate(crypto, input);
+        Certificate peerCertificate = parseCertificate(crypto, input);
+        byte[] pskIdentity = parseOptional(input);
+        byte[] srpIdentity = parseOptional(input);
+        byte[] encodedServerExtensions = parseOptional(input);
+        boolean extendedMasterSecret = TlsUtils.readUint8(input) != 0;
+        long creationTime = (TlsUtils.readUint32(input) << 32) | TlsUtils.readUint32(input);
+
+        return new SessionParameters(cipherSuite, localCertificate, masterSecret, negotiatedVersion, peerCertificate,
+            pskIdentity, srpIdentity, encodedServerExtensions, extendedMasterSecret, creationTime);
+    }
+
+    private static void encodeCertificate(Certificate certificate, OutputStream output) throws IOException
+    {
+        if (certificate == null)
+        {
+            TlsUtils.writeUint8(0, output);
+            return;
+        }
+
+        TlsUtils.writeUint8(1, output);
+        TlsUtils.writeUint8(certificate.getCertificateType(), output);
+
+        TlsCertificate[] certificateList = certificate.getCertificateList();
+        TlsUtils.writeUint16(certificateList.length, output);
+        for (int i = 0; i < certificateList.length; ++i)
+        {
+            TlsUtils.writeOpaque24(certificateList[i].getEncoded(), output);
+        }
+    }
+
+    private static Certificate parseCertificate(TlsCrypto crypto, InputStream input) throws IOException
+    {
+        if (TlsUtils.readUint8(input) == 0)
+        {
+            return null;
+        }
+
+        short certificateType = TlsUtils.readUint8(input);
+
+        int count = TlsUtils.readUint16(input);
+        CertificateEntry[] certificateEntryList = new CertificateEntry[count];
+        for (int i = 0; i < count; ++i)
+        {
+            TlsCertificate cert = crypto.createCertificate(certificateType, TlsUtils.readOpaque24(input, 1));
+            certificateEntryList[i] = new CertificateEntry(cert, null);
+        }
+
+        return new Certificate(certificateType, null, certificateEntryList);
+    }
+
+    private static void encodeOptional(byte[] data, OutputStream output) throws IOException
+    {
+        if (data == null)
+        {
+            TlsUtils.writeUint8(0, output);
+        }
+        else
+        {
+            TlsUtils.writeUint8(1, output);
+            TlsUtils.writeOpaque16(data, output);
+        }
+    }
+
+    private static byte[] parseOptional(InputStream input) throws IOException
+    {
+        return TlsUtils.readUint8(input) == 0 ? null : TlsUtils.readOpaque16(input);
+    }
 }
@@ -643,7 +643,7 @@ protected void handleHandshakeMessage(short type, HandshakeMessageInput buf)
                     establishMasterSecret(tlsClientContext, keyExchange);
                 }
 
-                recordStream.setPendingCipher(TlsUtils.initCipher(tlsClientContext));
+                recordStream.setPendingCipher(TlsUtils.initCipher(tlsClientContext, recordStream.getBufferArena()));
 
                 if (clientAuthSigner != null)
                 {
@@ -1439,7 +1439,7 @@ else if (TlsUtils.hasExpectedEmptyExtensionData(sessionServerExtensions, TlsExte
         if (securityParameters.isResumedSession())
         {
             securityParameters.masterSecret = sessionMasterSecret;
-            this.recordStream.setPendingCipher(TlsUtils.initCipher(tlsClientContext));
+            this.recordStream.setPendingCipher(TlsUtils.initCipher(tlsClientContext, recordStream.getBufferArena()));
         }
         else
         {
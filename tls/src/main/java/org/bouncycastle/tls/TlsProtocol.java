@@ -12,6 +12,7 @@
 import java.util.Hashtable;
 import java.util.Vector;
 
+import org.bouncycastle.tls.crypto.TlsBufferArena;
 import org.bouncycastle.tls.crypto.TlsCrypto;
 import org.bouncycastle.tls.crypto.TlsSecret;
 import org.bouncycastle.util.Arrays;
@@ -215,7 +216,22 @@ public void resumeHandshake() throws IOException
 
     protected void closeConnection() throws IOException
     {
-        recordStream.close();
+        try
+        {
+            recordStream.close();
+        }
+        finally
+        {
+            /*
+             * NOTE: A concurrent write may still be using buffers from the arena, so they are only
+             * released under the record write lock. The streams are closed first, outside it, so that a
+             * write blocked on the transport can't hold up the close.
+             */
+            synchronized (recordWriteLock)
+            {
+                recordStream.releaseBuffers();
+            }
+        }
     }
 
     protected abstract TlsContext getContext();
@@ -947,7 +963,14 @@ protected void safeWriteRecord(short type, byte[] buf, int offset, int len)
     {
         try
         {
-            recordStream.writeRecord(type, buf, offset, len);
+            /*
+             * NOTE: Records may also be written while processing input (e.g. alerts), possibly on another
+             * thread, so every write holds the record write lock to keep output record-aligned.
+             */
+            synchronized (recordWriteLock)
+            {
+                recordStream.writeRecord(type, buf, offset, len);
+            }
         }
         catch (TlsFatalAlert e)
         {
@@ -1088,6 +1111,24 @@ public void setAppDataSplitMode(int appDataSplitMode)
         this.appDataSplitMode = appDataSplitMode;
     }
 
+    public TlsBufferArena getBufferArena()
+    {
+        return recordStream.getBufferArena();
+    }
+
+    /**
+     * Set the arena from which record buffers are reused for this connection. By default each
+     * connection has its own {@link TlsBufferArena}; pass an arena built on a shared
+     * {@link org.bouncycastle.tls.crypto.TlsBufferPool} to reuse buffers across connections, or null
+     * to allocate fresh buffers for every record. Should be called before the handshake begins.
+     *
+     * @param bufferArena the arena to use, or null.
+     */
+    public void setBufferArena(TlsBufferArena bufferArena)
+    {
+        recordStream.setBufferArena(bufferArena);
+    }
+
     public boolean isResumableHandshake()
     {
         return resumableHandshake;
@@ -1242,27 +1283,40 @@ public int previewOutputRecord()
             throw new IllegalStateException("Cannot use previewOutputRecord() in blocking mode!");
         }
 
-        ByteQueue buffer = outputBuffer.getBuffer();
-        int available = buffer.available();
-        if (available < 1)
-        {
-            return 0;
-        }
-
-        if (available >= RecordFormat.FRAGMENT_OFFSET)
+        synchronized (recordWriteLock)
         {
-            int length = buffer.readUint16(RecordFormat.LENGTH_OFFSET);
-            int recordSize = RecordFormat.FRAGMENT_OFFSET + length;
+            ByteQueue buffer = outputBuffer.getBuffer();
+            int available = buffer.available();
+            if (available < 1)
+            {
+                return 0;
+            }
 
-            if (available >= recordSize)
+            if (available >= RecordFormat.FRAGMENT_OFFSET)
             {
-                return recordSize;
+                int length = buffer.readUint16(RecordFormat.LENGTH_OFFSET);
+                int recordSize = RecordFormat.FRAGMENT_OFFSET + length;
+
+                if (available >= recordSize)
+                {
+                    return recordSize;
+                }
             }
         }
 
         throw new IllegalStateException("Can only use previewOutputRecord() for record-aligned output.");
     }
 
+    /**
+     * Preview the output that writing the given amount of application data would produce. Only
+     * allowed in non-blocking mode.<br>
+     * <br>
+     * NOTE: The preview covers only the records for this application data, not any output already
+     * available (which may grow concurrently while input is being offered on another thread).
+     * @param applicationDataSize The amount of application data to be written
+     * @return A {@link RecordPreview} giving the content and record size limits
+     * @throws IOException If the connection is closed
+     */
     public RecordPreview previewOutputRecord(int applicationDataSize) throws IOException
     {
         if (!appDataReady)
@@ -1273,10 +1327,6 @@ public RecordPreview previewOutputRecord(int applicationDataSize) throws IOExcep
         {
             throw new IllegalStateException("Cannot use previewOutputRecord() in blocking mode!");
         }
-        if (outputBuffer.getBuffer().available() != 0)
-        {
-            throw new IllegalStateException("Can only use previewOutputRecord() for record-aligned output.");
-        }
 
         if (closed)
         {
@@ -1347,7 +1397,10 @@ public void offerInput(byte[] input) throws IOException
      * can be obtained using {@link #readInput(byte[], int, int)}. If any records
      * containing protocol data were processed, a response may have been generated.
      * You should always check to see if there is any available output after calling
-     * this method by calling {@link #getAvailableOutputBytes()}.
+     * this method by calling {@link #getAvailableOutputBytes()}.<br>
+     * <br>
+     * NOTE: A complete record offered on its own may be decrypted in place, so the offered
+     * range of the input buffer should be considered consumed once this method is called.
      * @param input The input buffer to offer
      * @param inputOff The offset within the input buffer that input begins
      * @param inputLen The number of bytes of input being offered
@@ -1506,8 +1559,11 @@ public int getAvailableOutputBytes()
         {
             throw new IllegalStateException("Cannot use getAvailableOutputBytes() in blocking mode! Use getOutputStream() instead.");
         }
-        
-        return outputBuffer.getBuffer().available();
+
+        synchronized (recordWriteLock)
+        {
+            return outputBuffer.getBuffer().available();
+        }
     }
 
     /**
@@ -1530,9 +1586,12 @@ public int readOutput(byte[] buffer, int offset, int length)
             throw new IllegalStateException("Cannot use readOutput() in blocking mode! Use getOutputStream() instead.");
         }
         
-        int bytesToRead = Math.min(getAvailableOutputBytes(), length);
-        outputBuffer.getBuffer().removeData(buffer, offset, bytesToRead, 0);
-        return bytesToRead;
+        synchronized (recordWriteLock)
+        {
+            int bytesToRead = Math.min(getAvailableOutputBytes(), length);
+            outputBuffer.getBuffer().removeData(buffer, offset, bytesToRead, 0);
+            return bytesToRead;
+        }
     }
 
     /**
@@ -1554,9 +1613,12 @@ public int readOutput(ByteBuffer buffer, int length)
             throw new IllegalStateException("Cannot use readOutput() in blocking mode! Use getOutputStream() instead.");
         }
 
-        int bytesToRead = Math.min(getAvailableOutputBytes(), length);
-        outputBuffer.getBuffer().removeData(buffer, bytesToRead, 0);
-        return bytesToRead;
+        synchronized (recordWriteLock)
+        {
+            int bytesToRead = Math.min(getAvailableOutputBytes(), length);
+            outputBuffer.getBuffer().removeData(buffer, bytesToRead, 0);
+            return bytesToRead;
+        }
     }
 
     protected boolean establishSession(TlsSession sessionToResume)
@@ -1711,7 +1773,10 @@ protected void raiseAlertFatal(short alertDescription, String message, Throwable
 
         try
         {
-            recordStream.writeRecord(ContentType.alert, alert, 0, 2);
+            synchronized (recordWriteLock)
+            {
+                recordStream.writeRecord(ContentType.alert, alert, 0, 2);
+            }
         }
         catch (Exception e)
         {
@@ -1749,11 +1814,18 @@ protected void receive13KeyUpdate(ByteArrayInputStream buf) throws IOException
 
         boolean updateRequested = (KeyUpdateRequest.update_requested == requestUpdate);
 
-        TlsUtils.update13TrafficSecretPeer(getContext());
-        recordStream.notifyKeyUpdateReceived();
+        /*
+         * NOTE: Input may be processed on a different thread to output, and the write side reads both the
+         * cipher state and 'keyUpdatePendingSend', so they are only changed under the record write lock.
+         */
+        synchronized (recordWriteLock)
+        {
+            TlsUtils.update13TrafficSecretPeer(getContext());
+            recordStream.notifyKeyUpdateReceived();
 
-//        this.keyUpdatePendingReceive &= updateRequested;
-        this.keyUpdatePendingSend |= updateRequested;
+//            this.keyUpdatePendingReceive &= updateRequested;
+            this.keyUpdatePendingSend |= updateRequested;
+        }
     }
 
     protected void sendCertificateMessage(Certificate certificate, OutputStream endPointHash)
@@ -1100,7 +1100,7 @@ protected void handleHandshakeMessage(short type, HandshakeMessageInput buf)
                 if (securityParameters.isResumedSession())
                 {
                     securityParameters.masterSecret = sessionMasterSecret;
-                    recordStream.setPendingCipher(TlsUtils.initCipher(tlsServerContext));
+                    recordStream.setPendingCipher(TlsUtils.initCipher(tlsServerContext, recordStream.getBufferArena()));
 
                     sendChangeCipherSpec();
                     sendFinishedMessage();
@@ -1546,7 +1546,7 @@ protected void receiveClientKeyExchangeMessage(ByteArrayInputStream buf)
             establishMasterSecret(tlsServerContext, keyExchange);
         }
 
-        recordStream.setPendingCipher(TlsUtils.initCipher(tlsServerContext));
+        recordStream.setPendingCipher(TlsUtils.initCipher(tlsServerContext, recordStream.getBufferArena()));
 
         if (!expectCertificateVerifyMessage())
         {
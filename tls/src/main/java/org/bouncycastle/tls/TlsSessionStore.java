@@ -0,0 +1,42 @@
+package org.bouncycastle.tls;
+
+import java.io.IOException;
+
+/**
+ * Interface for a store of encoded resumable sessions, keyed by session ID, that may be shared
+ * outside the current process (e.g. by the nodes of a cluster) so that a session established with
+ * one server can be resumed with another. Entries are encoded {@link SessionParameters}, see
+ * {@link SessionParameters#encode(org.bouncycastle.tls.crypto.TlsCrypto, java.io.OutputStream)}.
+ * <p>
+ * NOTE: Entries contain master secrets in the clear, so a store must be protected accordingly.
+ * Implementations must be safe for use by multiple threads.
+ * </p>
+ */
+public interface TlsSessionStore
+{
+    /**
+     * Return the encoded session stored under the given session ID.
+     *
+     * @param sessionID the session ID to look up.
+     * @return the encoded session, or null if there is none.
+     * @throws IOException if the store could not be read.
+     */
+    byte[] load(byte[] sessionID) throws IOException;
+
+    /**
+     * Store an encoded session under the given session ID, replacing any existing entry.
+     *
+     * @param sessionID the session ID.
+     * @param encoding the encoded session.
+     * @throws IOException if the store could not be written.
+     */
+    void save(byte[] sessionID, byte[] encoding) throws IOException;
+
+    /**
+     * Remove any session stored under the given session ID.
+     *
+     * @param sessionID the session ID.
+     * @throws IOException if the store could not be written.
+     */
+    void remove(byte[] sessionID) throws IOException;
+}
@@ -30,6 +30,7 @@
 import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
 import org.bouncycastle.tls.crypto.Tls13Verifier;
 import org.bouncycastle.tls.crypto.TlsAgreement;
+import org.bouncycastle.tls.crypto.TlsBufferArena;
 import org.bouncycastle.tls.crypto.TlsCertificate;
 import org.bouncycastle.tls.crypto.TlsCipher;
 import org.bouncycastle.tls.crypto.TlsCrypto;
@@ -1874,7 +1875,7 @@ private static void establish13TrafficSecrets(TlsContext context, byte[] transcr
 
         // TODO[tls13] Early data (client->server only)
 
-        recordStream.setPendingCipher(initCipher(context));
+        recordStream.setPendingCipher(initCipher(context, recordStream.getBufferArena()));
     }
 
     static void establish13PhaseApplication(TlsContext context, byte[] serverFinishedTranscriptHash,
@@ -4572,6 +4573,11 @@ static TlsKeyExchange initKeyExchangeServer(TlsServerContext serverContext, TlsS
     }
 
     static TlsCipher initCipher(TlsContext context) throws IOException
+    {
+        return initCipher(context, null);
+    }
+
+    static TlsCipher initCipher(TlsContext context, TlsBufferArena bufferArena) throws IOException
     {
         SecurityParameters securityParameters = context.getSecurityParametersHandshake();
         int cipherSuite = securityParameters.getCipherSuite();
@@ -4583,7 +4589,8 @@ static TlsCipher initCipher(TlsContext context) throws IOException
             throw new TlsFatalAlert(AlertDescription.internal_error);
         }
 
-        return context.getCrypto().createCipher(new TlsCryptoParameters(context), encryptionAlgorithm, macAlgorithm);
+        return context.getCrypto().createCipher(new TlsCryptoParameters(context, bufferArena), encryptionAlgorithm,
+            macAlgorithm);
     }
 
     /**
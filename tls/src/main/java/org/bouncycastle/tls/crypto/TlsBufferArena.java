@@ -0,0 +1,164 @@
+package org.bouncycastle.tls.crypto;
+
+/**
+ * Per-connection source of reusable record buffers, so that steady-state record encryption and
+ * decryption need not allocate. Buffers handed out by {@link #allocate(int)} are returned with
+ * {@link #release(byte[])} once the record has been consumed, and are kept for the next record. An
+ * optional {@link TlsBufferPool} allows buffers to be reused across connections.
+ * <p>
+ * An arena must not be shared between connections.
+ * </p>
+ */
+public class TlsBufferArena
+{
+    private static final int MAX_RETAINED = 2;
+    private static final int MAX_OUTSTANDING = 4;
+
+    private final TlsBufferPool pool;
+    private final byte[][] retained = new byte[MAX_RETAINED][];
+    private final byte[][] outstanding = new byte[MAX_OUTSTANDING][];
+    private int retainedCount = 0;
+    private int outstandingPos = 0;
+    private boolean closed = false;
+
+    /**
+     * Create an arena that only reuses buffers within its own connection.
+     */
+    public TlsBufferArena()
+    {
+        this(null);
+    }
+
+    /**
+     * Create an arena that draws on, and on closing returns its buffers to, a shared pool.
+     *
+     * @param pool the pool to share buffers with, or null.
+     */
+    public TlsBufferArena(TlsBufferPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * Return a buffer of at least the given length. The buffer may be longer than requested and is
+     * not guaranteed to be zeroed.
+     *
+     * @param length the minimum length of the buffer.
+     * @return a buffer of at least 'length' bytes.
+     */
+    public synchronized byte[] allocate(int length)
+    {
+        byte[] buf = null;
+
+        for (int i = 0; i < retainedCount; ++i)
+        {
+            if (retained[i].length >= length)
+            {
+                buf = retained[i];
+                retained[i] = retained[--retainedCount];
+                retained[retainedCount] = null;
+                break;
+            }
+        }
+
+        if (buf == null && pool != null && !closed)
+        {
+            buf = pool.acquire(length);
+        }
+
+        if (buf == null)
+        {
+            buf = new byte[length];
+        }
+
+        outstanding[outstandingPos] = buf;
+        outstandingPos = (outstandingPos + 1) % MAX_OUTSTANDING;
+
+        return buf;
+    }
+
+    /**
+     * Hand back a buffer previously returned by {@link #allocate(int)}. Buffers that did not come
+     * from this arena are ignored, so callers may safely release any buffer they own.
+     *
+     * @param buf the buffer to release.
+     */
+    public synchronized void release(byte[] buf)
+    {
+        if (buf == null || !removeOutstanding(buf) || closed)
+        {
+            return;
+        }
+
+        if (retainedCount < MAX_RETAINED)
+        {
+            retained[retainedCount++] = buf;
+            return;
+        }
+
+        int smallest = retained[0].length <= retained[1].length ? 0 : 1;
+        if (retained[smallest].length < buf.length)
+        {
+            byte[] dropped = retained[smallest];
+            retained[smallest] = buf;
+            buf = dropped;
+        }
+
+        if (pool != null)
+        {
+            pool.release(buf);
+        }
+    }
+
+    /**
+     * Release any retained buffers to the shared pool, if there is one. Buffers released after
+     * closing are simply dropped.
+     */
+    public void close()
+    {
+        byte[][] toRelease;
+
+        synchronized (this)
+        {
+            if (closed)
+            {
+                return;
+            }
+            this.closed = true;
+
+            toRelease = new byte[retainedCount][];
+            System.arraycopy(retained, 0, toRelease, 0, retainedCount);
+
+            for (int i = 0; i < MAX_RETAINED; ++i)
+            {
+                retained[i] = null;
+            }
+            for (int i = 0; i < MAX_OUTSTANDING; ++i)
+            {
+                outstanding[i] = null;
+            }
+            retainedCount = 0;
+        }
+
+        if (pool != null)
+        {
+            for (int i = 0; i < toRelease.length; ++i)
+            {
+                pool.release(toRelease[i]);
+            }
+        }
+    }
+
+    private boolean removeOutstanding(byte[] buf)
+    {
+        for (int i = 0; i < MAX_OUTSTANDING; ++i)
+        {
+            if (outstanding[i] == buf)
+            {
+                outstanding[i] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+}
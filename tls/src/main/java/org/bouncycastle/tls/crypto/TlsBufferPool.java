@@ -0,0 +1,92 @@
+package org.bouncycastle.tls.crypto;
+
+import org.bouncycastle.util.Arrays;
+
+/**
+ * A bounded pool of record buffers that can be shared between connections. Buffers are returned to
+ * the pool by {@link TlsBufferArena#close()} when a connection closes, and are cleared on return.
+ */
+public class TlsBufferPool
+{
+    private final byte[][] buffers;
+    private int count = 0;
+
+    /**
+     * Base constructor.
+     *
+     * @param maxBuffers the maximum number of buffers the pool will hold.
+     */
+    public TlsBufferPool(int maxBuffers)
+    {
+        if (maxBuffers < 1)
+        {
+            throw new IllegalArgumentException("'maxBuffers' must be positive");
+        }
+
+        this.buffers = new byte[maxBuffers][];
+    }
+
+    /**
+     * Take a buffer of at least the given length from the pool.
+     *
+     * @param length the minimum length of the buffer.
+     * @return a buffer from the pool, or null if there was no suitable buffer available.
+     */
+    public synchronized byte[] acquire(int length)
+    {
+        for (int i = count - 1; i >= 0; --i)
+        {
+            byte[] buf = buffers[i];
+            if (buf.length >= length)
+            {
+                buffers[i] = buffers[--count];
+                buffers[count] = null;
+                return buf;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return a buffer to the pool. If the pool is full, the smallest buffer it holds is dropped in
+     * favour of a larger one.
+     *
+     * @param buf the buffer to return.
+     */
+    public void release(byte[] buf)
+    {
+        Arrays.fill(buf, (byte)0);
+
+        synchronized (this)
+        {
+            if (count < buffers.length)
+            {
+                buffers[count++] = buf;
+                return;
+            }
+
+            int smallest = 0;
+            for (int i = 1; i < count; ++i)
+            {
+                if (buffers[i].length < buffers[smallest].length)
+                {
+                    smallest = i;
+                }
+            }
+            if (buffers[smallest].length < buf.length)
+            {
+                buffers[smallest] = buf;
+            }
+        }
+    }
+
+    /**
+     * Return the number of buffers currently held by the pool.
+     *
+     * @return the number of pooled buffers.
+     */
+    public synchronized int size()
+    {
+        return count;
+    }
+}
@@ -10,6 +10,7 @@
 public class TlsCryptoParameters
 {
     private final TlsContext context;
+    private final TlsBufferArena bufferArena;
 
     /**
      * Base constructor.
@@ -17,8 +18,30 @@
      * @param context the context for this parameters object.
      */
     public TlsCryptoParameters(TlsContext context)
+    {
+        this(context, null);
+    }
+
+    /**
+     * Constructor for ciphers that may reuse record buffers.
+     *
+     * @param context the context for this parameters object.
+     * @param bufferArena the connection's buffer arena, or null if buffers should not be reused.
+     */
+    public TlsCryptoParameters(TlsContext context, TlsBufferArena bufferArena)
     {
         this.context = context;
+        this.bufferArena = bufferArena;
+    }
+
+    /**
+     * Return the buffer arena ciphers should use for record buffers.
+     *
+     * @return the connection's buffer arena, or null if each record should use fresh buffers.
+     */
+    public TlsBufferArena getBufferArena()
+    {
+        return bufferArena;
     }
 
     public SecurityParameters getSecurityParametersConnection()
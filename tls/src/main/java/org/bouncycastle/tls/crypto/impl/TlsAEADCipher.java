@@ -8,6 +8,7 @@
 import org.bouncycastle.tls.SecurityParameters;
 import org.bouncycastle.tls.TlsFatalAlert;
 import org.bouncycastle.tls.TlsUtils;
+import org.bouncycastle.tls.crypto.TlsBufferArena;
 import org.bouncycastle.tls.crypto.TlsCipher;
 import org.bouncycastle.tls.crypto.TlsCryptoParameters;
 import org.bouncycastle.tls.crypto.TlsCryptoUtils;
@@ -31,6 +32,7 @@
     private static final long SEQUENCE_NUMBER_PLACEHOLDER = -1L;
 
     private final TlsCryptoParameters cryptoParams;
+    private final TlsBufferArena bufferArena;
     private final int keySize;
     private final int macSize;
     private final int fixed_iv_length;
@@ -44,6 +46,10 @@
     private final boolean isTLSv13;
     private final int nonceMode;
 
+    // Per-record working buffers, reused when the connection has a buffer arena
+    private byte[] decryptRecordNonce, encryptRecordNonce;
+    private byte[] decryptAdditionalData, encryptAdditionalData;
+
     public TlsAEADCipher(TlsCryptoParameters cryptoParams, TlsAEADCipherImpl encryptCipher, TlsAEADCipherImpl decryptCipher,
         int keySize, int macSize, int aeadType) throws IOException
     {
@@ -79,6 +85,7 @@ public TlsAEADCipher(TlsCryptoParameters cryptoParams, TlsAEADCipherImpl encrypt
         }
 
         this.cryptoParams = cryptoParams;
+        this.bufferArena = cryptoParams.getBufferArena();
         this.keySize = keySize;
         this.macSize = macSize;
 
@@ -154,7 +161,7 @@ public int getPlaintextEncodeLimit(int ciphertextLimit)
     public TlsEncodeResult encodePlaintext(long seqNo, short contentType, ProtocolVersion recordVersion,
         int headerAllocation, byte[] plaintext, int plaintextOffset, int plaintextLength) throws IOException
     {
-        byte[] nonce = new byte[encryptNonce.length + record_iv_length];
+        byte[] nonce = encryptRecordNonce = getRecordNonce(encryptRecordNonce);
 
         switch (nonceMode)
         {
@@ -164,6 +171,7 @@ public TlsEncodeResult encodePlaintext(long seqNo, short contentType, ProtocolVe
             TlsUtils.writeUint64(seqNo, nonce, encryptNonce.length);
             break;
         case NONCE_RFC7905:
+            Arrays.fill(nonce, 0, nonce.length - 8, (byte)0);
             TlsUtils.writeUint64(seqNo, nonce, nonce.length - 8);
             for (int i = 0; i < encryptNonce.length; ++i)
             {
@@ -182,7 +190,8 @@ public TlsEncodeResult encodePlaintext(long seqNo, short contentType, ProtocolVe
         int encryptionLength = encryptCipher.getOutputSize(innerPlaintextLength);
         int ciphertextLength = record_iv_length + encryptionLength;
 
-        byte[] output = new byte[headerAllocation + ciphertextLength];
+        int outputLength = headerAllocation + ciphertextLength;
+        byte[] output = null == bufferArena ? new byte[outputLength] : bufferArena.allocate(outputLength);
         int outputPos = headerAllocation;
 
         if (record_iv_length != 0)
@@ -197,8 +206,8 @@ public TlsEncodeResult encodePlaintext(long seqNo, short contentType, ProtocolVe
             recordType = isTLSv13 ? ContentType.application_data : ContentType.tls12_cid;
         }
 
-        byte[] additionalData = getAdditionalData(seqNo, recordType, recordVersion, ciphertextLength,
-            innerPlaintextLength, encryptConnectionID);
+        byte[] additionalData = encryptAdditionalData = getAdditionalData(encryptAdditionalData, seqNo, recordType,
+            recordVersion, ciphertextLength, innerPlaintextLength, encryptConnectionID);
 
         try
         {
@@ -216,13 +225,13 @@ public TlsEncodeResult encodePlaintext(long seqNo, short contentType, ProtocolVe
             throw new TlsFatalAlert(AlertDescription.internal_error, e);
         }
 
-        if (outputPos != output.length)
+        if (outputPos != outputLength)
         {
             // NOTE: The additional data mechanism for AEAD ciphers requires exact output size prediction.
             throw new TlsFatalAlert(AlertDescription.internal_error);
         }
 
-        return new TlsEncodeResult(output, 0, output.length, recordType);
+        return new TlsEncodeResult(output, 0, outputLength, recordType);
     }
 
     public TlsDecodeResult decodeCiphertext(long seqNo, short recordType, ProtocolVersion recordVersion,
@@ -233,7 +242,7 @@ public TlsDecodeResult decodeCiphertext(long seqNo, short recordType, ProtocolVe
             throw new TlsFatalAlert(AlertDescription.decode_error);
         }
 
-        byte[] nonce = new byte[decryptNonce.length + record_iv_length];
+        byte[] nonce = decryptRecordNonce = getRecordNonce(decryptRecordNonce);
 
         switch (nonceMode)
         {
@@ -242,6 +251,7 @@ public TlsDecodeResult decodeCiphertext(long seqNo, short recordType, ProtocolVe
             System.arraycopy(ciphertext, ciphertextOffset, nonce, nonce.length - record_iv_length, record_iv_length);
             break;
         case NONCE_RFC7905:
+            Arrays.fill(nonce, 0, nonce.length - 8, (byte)0);
             TlsUtils.writeUint64(seqNo, nonce, nonce.length - 8);
             for (int i = 0; i < decryptNonce.length; ++i)
             {
@@ -258,8 +268,8 @@ public TlsDecodeResult decodeCiphertext(long seqNo, short recordType, ProtocolVe
         int encryptionLength = ciphertextLength - record_iv_length;
         int innerPlaintextLength = decryptCipher.getOutputSize(encryptionLength);
 
-        byte[] additionalData = getAdditionalData(seqNo, recordType, recordVersion, ciphertextLength,
-            innerPlaintextLength, decryptConnectionID);
+        byte[] additionalData = decryptAdditionalData = getAdditionalData(decryptAdditionalData, seqNo, recordType,
+            recordVersion, ciphertextLength, innerPlaintextLength, decryptConnectionID);
 
         int outputPos;
         try
@@ -323,9 +333,21 @@ public boolean usesOpaqueRecordTypeEncode()
         return encryptUseInnerPlaintext;
     }
 
-    private byte[] getAdditionalData(long seqNo, short recordType, ProtocolVersion recordVersion,
+    private byte[] getRecordNonce(byte[] previous)
+    {
+        if (null != bufferArena && null != previous)
+        {
+            return previous;
+        }
+        return new byte[fixed_iv_length + record_iv_length];
+    }
+
+    private byte[] getAdditionalData(byte[] previous, long seqNo, short recordType, ProtocolVersion recordVersion,
         int ciphertextLength, int plaintextLength, byte[] connectionID) throws IOException
     {
+        // NOTE: The layout depends only on values fixed for the lifetime of the cipher
+        byte[] reuse = null == bufferArena ? null : previous;
+
         if (!Arrays.isNullOrEmpty(connectionID))
         {
             /*
@@ -333,7 +355,7 @@ private byte[] getAdditionalData(long seqNo, short recordType, ProtocolVersion r
              *     + sequence_number + cid + length_of_DTLSInnerPlaintext
              */
             int cidLength = connectionID.length;
-            byte[] additional_data = new byte[23 + cidLength];
+            byte[] additional_data = null != reuse ? reuse : new byte[23 + cidLength];
             TlsUtils.writeUint64(SEQUENCE_NUMBER_PLACEHOLDER, additional_data, 0);
             TlsUtils.writeUint8(ContentType.tls12_cid, additional_data, 8);
             TlsUtils.writeUint8(cidLength, additional_data, 9);
@@ -349,7 +371,7 @@ else if (isTLSv13)
             /*
              * TLSCiphertext.opaque_type || TLSCiphertext.legacy_record_version || TLSCiphertext.length
              */
-            byte[] additional_data = new byte[5];
+            byte[] additional_data = null != reuse ? reuse : new byte[5];
             TlsUtils.writeUint8(recordType, additional_data, 0);
             TlsUtils.writeVersion(recordVersion, additional_data, 1);
             TlsUtils.writeUint16(ciphertextLength, additional_data, 3);
@@ -360,7 +382,7 @@ else if (isTLSv13)
             /*
              * seq_num + TLSCompressed.type + TLSCompressed.version + TLSCompressed.length
              */
-            byte[] additional_data = new byte[13];
+            byte[] additional_data = null != reuse ? reuse : new byte[13];
             TlsUtils.writeUint64(seqNo, additional_data, 0);
             TlsUtils.writeUint8(recordType, additional_data, 8);
             TlsUtils.writeVersion(recordVersion, additional_data, 9);
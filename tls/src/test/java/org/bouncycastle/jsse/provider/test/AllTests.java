@@ -28,6 +28,9 @@ public static Test suite()
         suite.addTestSuite(InstanceTest.class);
         suite.addTestSuite(KeyManagerFactoryTest.class);
         suite.addTestSuite(PSSCredentialsTest.class);
+        suite.addTestSuite(SessionCacheTest.class);
+        suite.addTestSuite(SSLEngineBufferTest.class);
+        suite.addTestSuite(SSLEngineDuplexTest.class);
         suite.addTestSuite(SSLServerSocketTest.class);
         suite.addTestSuite(SSLSocketTest.class);
 
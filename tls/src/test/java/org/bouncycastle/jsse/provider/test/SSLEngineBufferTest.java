@@ -0,0 +1,240 @@
+package org.bouncycastle.jsse.provider.test;
+
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.TrustManagerFactory;
+
+import junit.framework.TestCase;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Exchange application data through {@link SSLEngine} using heap, direct, read-only and scattered buffers.
+ */
+public class SSLEngineBufferTest
+    extends TestCase
+{
+    private static final String HOST = "localhost";
+
+    private SSLEngine clientEngine;
+    private SSLEngine serverEngine;
+    private int appBufSize;
+    private int netBufSize;
+
+    protected void setUp()
+        throws Exception
+    {
+        ProviderUtils.setupLowPriority(false);
+
+        char[] keyPass = "keyPassword".toCharArray();
+
+        KeyPair caKeyPair = TestUtils.generateECKeyPair();
+        X509Certificate caCert = TestUtils.generateRootCert(caKeyPair);
+
+        KeyStore ks = KeyStore.getInstance("JKS");
+        ks.load(null, null);
+        ks.setKeyEntry("server", caKeyPair.getPrivate(), keyPass, new X509Certificate[]{ caCert });
+
+        KeyStore ts = KeyStore.getInstance("JKS");
+        ts.load(null, null);
+        ts.setCertificateEntry("ca", caCert);
+
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance("PKIX", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        tmf.init(ts);
+
+        SSLContext clientContext = SSLContext.getInstance("TLS", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        clientContext.init(null, tmf.getTrustManagers(),
+            SecureRandom.getInstance("DEFAULT", ProviderUtils.PROVIDER_NAME_BC));
+
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance("PKIX", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        kmf.init(ks, keyPass);
+
+        SSLContext serverContext = SSLContext.getInstance("TLS", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        serverContext.init(kmf.getKeyManagers(), null,
+            SecureRandom.getInstance("DEFAULT", ProviderUtils.PROVIDER_NAME_BC));
+
+        clientEngine = clientContext.createSSLEngine(HOST, 443);
+        clientEngine.setUseClientMode(true);
+
+        serverEngine = serverContext.createSSLEngine();
+        serverEngine.setUseClientMode(false);
+
+        appBufSize = clientEngine.getSession().getApplicationBufferSize();
+        netBufSize = clientEngine.getSession().getPacketBufferSize();
+
+        handshake();
+    }
+
+    public void testHeapBuffers()
+        throws Exception
+    {
+        byte[] data = createData(3 * appBufSize + 17);
+
+        byte[] received = transfer(new ByteBuffer[]{ ByteBuffer.wrap(data) }, ByteBuffer.allocate(netBufSize),
+            ByteBuffer.allocate(data.length));
+        assertTrue(Arrays.areEqual(data, received));
+    }
+
+    public void testDirectBuffers()
+        throws Exception
+    {
+        byte[] data = createData(3 * appBufSize + 17);
+
+        ByteBuffer src = ByteBuffer.allocateDirect(data.length);
+        src.put(data);
+        ((java.nio.Buffer)src).flip();
+
+        byte[] received = transfer(new ByteBuffer[]{ src }, ByteBuffer.allocateDirect(netBufSize),
+            ByteBuffer.allocateDirect(data.length));
+        assertTrue(Arrays.areEqual(data, received));
+    }
+
+    public void testReadOnlyBuffers()
+        throws Exception
+    {
+        byte[] data = createData(2 * appBufSize + 5);
+
+        byte[] received = transfer(new ByteBuffer[]{ ByteBuffer.wrap(data).asReadOnlyBuffer() },
+            ByteBuffer.allocate(netBufSize), ByteBuffer.allocate(data.length));
+        assertTrue(Arrays.areEqual(data, received));
+    }
+
+    public void testScatteredBuffers()
+        throws Exception
+    {
+        byte[] data = createData(2 * appBufSize + 1000);
+
+        int split1 = 10, split2 = appBufSize + 3;
+        ByteBuffer direct = ByteBuffer.allocateDirect(split2 - split1);
+        direct.put(data, split1, split2 - split1);
+        ((java.nio.Buffer)direct).flip();
+
+        ByteBuffer[] srcs = new ByteBuffer[]{ ByteBuffer.wrap(data, 0, split1), ByteBuffer.allocate(0), direct,
+            ByteBuffer.wrap(data, split2, data.length - split2) };
+
+        byte[] received = transfer(srcs, ByteBuffer.allocate(netBufSize), ByteBuffer.allocate(data.length));
+        assertTrue(Arrays.areEqual(data, received));
+    }
+
+    public void testUnwrapLeavesSourceUnchanged()
+        throws Exception
+    {
+        byte[] data = createData(appBufSize / 2);
+
+        ByteBuffer net = ByteBuffer.allocate(netBufSize);
+        SSLEngineResult wrapResult = clientEngine.wrap(ByteBuffer.wrap(data), net);
+        assertEquals(SSLEngineResult.Status.OK, wrapResult.getStatus());
+        ((java.nio.Buffer)net).flip();
+
+        byte[] record = Arrays.copyOfRange(net.array(), net.arrayOffset(), net.arrayOffset() + net.limit());
+
+        ByteBuffer dst = ByteBuffer.allocate(appBufSize);
+        SSLEngineResult unwrapResult = serverEngine.unwrap(net, dst);
+        assertEquals(SSLEngineResult.Status.OK, unwrapResult.getStatus());
+        assertEquals(record.length, unwrapResult.bytesConsumed());
+
+        assertTrue(Arrays.areEqual(record,
+            Arrays.copyOfRange(net.array(), net.arrayOffset(), net.arrayOffset() + net.limit())));
+        assertTrue(Arrays.areEqual(data, Arrays.copyOfRange(dst.array(), 0, dst.position())));
+    }
+
+    private byte[] transfer(ByteBuffer[] srcs, ByteBuffer net, ByteBuffer dst)
+        throws Exception
+    {
+        int total = 0;
+        for (int i = 0; i < srcs.length; ++i)
+        {
+            total += srcs[i].remaining();
+        }
+
+        while (dst.position() < total)
+        {
+            SSLEngineResult wrapResult = clientEngine.wrap(srcs, net);
+            assertEquals(SSLEngineResult.Status.OK, wrapResult.getStatus());
+            assertTrue(wrapResult.bytesConsumed() > 0);
+
+            ((java.nio.Buffer)net).flip();
+            while (net.hasRemaining())
+            {
+                SSLEngineResult unwrapResult = serverEngine.unwrap(net, dst);
+                assertEquals(SSLEngineResult.Status.OK, unwrapResult.getStatus());
+            }
+            ((java.nio.Buffer)net).clear();
+        }
+
+        for (int i = 0; i < srcs.length; ++i)
+        {
+            assertFalse(srcs[i].hasRemaining());
+        }
+
+        ((java.nio.Buffer)dst).flip();
+        byte[] received = new byte[dst.remaining()];
+        dst.get(received);
+        return received;
+    }
+
+    private void handshake()
+        throws Exception
+    {
+        ByteBuffer clientIn = ByteBuffer.allocate(appBufSize);
+        ByteBuffer serverIn = ByteBuffer.allocate(appBufSize);
+        ByteBuffer clientToServer = ByteBuffer.allocate(netBufSize);
+        ByteBuffer serverToClient = ByteBuffer.allocate(netBufSize);
+        ByteBuffer empty = ByteBuffer.allocate(0);
+
+        clientEngine.beginHandshake();
+        serverEngine.beginHandshake();
+
+        for (int i = 0; i < 100 && !(isHandshakeDone(clientEngine) && isHandshakeDone(serverEngine)); ++i)
+        {
+            runDelegatedTasks(clientEngine, clientEngine.wrap(empty, clientToServer));
+            runDelegatedTasks(serverEngine, serverEngine.wrap(empty, serverToClient));
+
+            ((java.nio.Buffer)clientToServer).flip();
+            ((java.nio.Buffer)serverToClient).flip();
+
+            runDelegatedTasks(clientEngine, clientEngine.unwrap(serverToClient, clientIn));
+            runDelegatedTasks(serverEngine, serverEngine.unwrap(clientToServer, serverIn));
+
+            clientToServer.compact();
+            serverToClient.compact();
+        }
+
+        assertTrue(isHandshakeDone(clientEngine));
+        assertTrue(isHandshakeDone(serverEngine));
+    }
+
+    private static byte[] createData(int length)
+    {
+        byte[] data = new byte[length];
+        new SecureRandom().nextBytes(data);
+        return data;
+    }
+
+    private static boolean isHandshakeDone(SSLEngine engine)
+    {
+        return HandshakeStatus.NOT_HANDSHAKING == engine.getHandshakeStatus();
+    }
+
+    private static void runDelegatedTasks(SSLEngine engine, SSLEngineResult result)
+    {
+        if (HandshakeStatus.NEED_TASK != result.getHandshakeStatus())
+        {
+            return;
+        }
+
+        Runnable runnable;
+        while ((runnable = engine.getDelegatedTask()) != null)
+        {
+            runnable.run();
+        }
+    }
+}
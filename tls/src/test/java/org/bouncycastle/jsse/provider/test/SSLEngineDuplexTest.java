@@ -0,0 +1,249 @@
+package org.bouncycastle.jsse.provider.test;
+
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.TrustManagerFactory;
+
+import junit.framework.TestCase;
+import org.bouncycastle.util.Arrays;
+
+/**
+ * Run both directions of an {@link SSLEngine} connection at once, with separate threads wrapping and
+ * unwrapping on each engine.
+ */
+public class SSLEngineDuplexTest
+    extends TestCase
+{
+    private static final String HOST = "localhost";
+    private static final int DATA_LENGTH = 1 << 20;
+
+    private SSLEngine clientEngine;
+    private SSLEngine serverEngine;
+    private int appBufSize;
+    private int netBufSize;
+
+    protected void setUp()
+        throws Exception
+    {
+        ProviderUtils.setupLowPriority(false);
+
+        char[] keyPass = "keyPassword".toCharArray();
+
+        KeyPair caKeyPair = TestUtils.generateECKeyPair();
+        X509Certificate caCert = TestUtils.generateRootCert(caKeyPair);
+
+        KeyStore ks = KeyStore.getInstance("JKS");
+        ks.load(null, null);
+        ks.setKeyEntry("server", caKeyPair.getPrivate(), keyPass, new X509Certificate[]{ caCert });
+
+        KeyStore ts = KeyStore.getInstance("JKS");
+        ts.load(null, null);
+        ts.setCertificateEntry("ca", caCert);
+
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance("PKIX", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        tmf.init(ts);
+
+        SSLContext clientContext = SSLContext.getInstance("TLS", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        clientContext.init(null, tmf.getTrustManagers(),
+            SecureRandom.getInstance("DEFAULT", ProviderUtils.PROVIDER_NAME_BC));
+
+        KeyManagerFactory kmf = KeyManagerFactory.getInstance("PKIX", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        kmf.init(ks, keyPass);
+
+        SSLContext serverContext = SSLContext.getInstance("TLS", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        serverContext.init(kmf.getKeyManagers(), null,
+            SecureRandom.getInstance("DEFAULT", ProviderUtils.PROVIDER_NAME_BC));
+
+        clientEngine = clientContext.createSSLEngine(HOST, 443);
+        clientEngine.setUseClientMode(true);
+
+        serverEngine = serverContext.createSSLEngine();
+        serverEngine.setUseClientMode(false);
+
+        appBufSize = clientEngine.getSession().getApplicationBufferSize();
+        netBufSize = clientEngine.getSession().getPacketBufferSize();
+
+        handshake();
+    }
+
+    public void testConcurrentWrapUnwrap()
+        throws Exception
+    {
+        BlockingQueue<ByteBuffer> clientToServer = new ArrayBlockingQueue<ByteBuffer>(16);
+        BlockingQueue<ByteBuffer> serverToClient = new ArrayBlockingQueue<ByteBuffer>(16);
+
+        byte[] clientData = createData(DATA_LENGTH);
+        byte[] serverData = createData(DATA_LENGTH);
+
+        Sender clientSender = new Sender(clientEngine, clientData, clientToServer);
+        Sender serverSender = new Sender(serverEngine, serverData, serverToClient);
+        Receiver clientReceiver = new Receiver(clientEngine, serverToClient);
+        Receiver serverReceiver = new Receiver(serverEngine, clientToServer);
+
+        Worker[] workers = new Worker[]{ clientSender, serverSender, clientReceiver, serverReceiver };
+        for (int i = 0; i < workers.length; ++i)
+        {
+            workers[i].start();
+        }
+        for (int i = 0; i < workers.length; ++i)
+        {
+            workers[i].join(60000);
+            assertFalse(workers[i].isAlive());
+            if (null != workers[i].failure)
+            {
+                throw workers[i].failure;
+            }
+        }
+
+        assertTrue(Arrays.areEqual(clientData, serverReceiver.received));
+        assertTrue(Arrays.areEqual(serverData, clientReceiver.received));
+    }
+
+    private abstract class Worker
+        extends Thread
+    {
+        Exception failure;
+
+        public void run()
+        {
+            try
+            {
+                work();
+            }
+            catch (Exception e)
+            {
+                failure = e;
+            }
+        }
+
+        abstract void work() throws Exception;
+    }
+
+    private class Sender
+        extends Worker
+    {
+        private final SSLEngine engine;
+        private final byte[] data;
+        private final BlockingQueue<ByteBuffer> output;
+
+        Sender(SSLEngine engine, byte[] data, BlockingQueue<ByteBuffer> output)
+        {
+            this.engine = engine;
+            this.data = data;
+            this.output = output;
+        }
+
+        void work() throws Exception
+        {
+            ByteBuffer src = ByteBuffer.wrap(data);
+            while (src.hasRemaining())
+            {
+                ByteBuffer net = ByteBuffer.allocate(netBufSize);
+                SSLEngineResult result = engine.wrap(src, net);
+                assertEquals(SSLEngineResult.Status.OK, result.getStatus());
+
+                ((java.nio.Buffer)net).flip();
+                output.put(net);
+            }
+        }
+    }
+
+    private class Receiver
+        extends Worker
+    {
+        private final SSLEngine engine;
+        private final BlockingQueue<ByteBuffer> input;
+        private final byte[] received = new byte[DATA_LENGTH];
+
+        Receiver(SSLEngine engine, BlockingQueue<ByteBuffer> input)
+        {
+            this.engine = engine;
+            this.input = input;
+        }
+
+        void work() throws Exception
+        {
+            ByteBuffer dst = ByteBuffer.wrap(received);
+            while (dst.hasRemaining())
+            {
+                ByteBuffer net = input.poll(30, TimeUnit.SECONDS);
+                assertNotNull(net);
+
+                while (net.hasRemaining())
+                {
+                    SSLEngineResult result = engine.unwrap(net, dst);
+                    assertEquals(SSLEngineResult.Status.OK, result.getStatus());
+                }
+            }
+        }
+    }
+
+    private void handshake()
+        throws Exception
+    {
+        ByteBuffer clientIn = ByteBuffer.allocate(appBufSize);
+        ByteBuffer serverIn = ByteBuffer.allocate(appBufSize);
+        ByteBuffer clientToServer = ByteBuffer.allocate(netBufSize);
+        ByteBuffer serverToClient = ByteBuffer.allocate(netBufSize);
+        ByteBuffer empty = ByteBuffer.allocate(0);
+
+        clientEngine.beginHandshake();
+        serverEngine.beginHandshake();
+
+        for (int i = 0; i < 100 && !(isHandshakeDone(clientEngine) && isHandshakeDone(serverEngine)); ++i)
+        {
+            runDelegatedTasks(clientEngine, clientEngine.wrap(empty, clientToServer));
+            runDelegatedTasks(serverEngine, serverEngine.wrap(empty, serverToClient));
+
+            ((java.nio.Buffer)clientToServer).flip();
+            ((java.nio.Buffer)serverToClient).flip();
+
+            runDelegatedTasks(clientEngine, clientEngine.unwrap(serverToClient, clientIn));
+            runDelegatedTasks(serverEngine, serverEngine.unwrap(clientToServer, serverIn));
+
+            clientToServer.compact();
+            serverToClient.compact();
+        }
+
+        assertTrue(isHandshakeDone(clientEngine));
+        assertTrue(isHandshakeDone(serverEngine));
+    }
+
+    private static byte[] createData(int length)
+    {
+        byte[] data = new byte[length];
+        new SecureRandom().nextBytes(data);
+        return data;
+    }
+
+    private static boolean isHandshakeDone(SSLEngine engine)
+    {
+        return HandshakeStatus.NOT_HANDSHAKING == engine.getHandshakeStatus();
+    }
+
+    private static void runDelegatedTasks(SSLEngine engine, SSLEngineResult result)
+    {
+        if (HandshakeStatus.NEED_TASK != result.getHandshakeStatus())
+        {
+            return;
+        }
+
+        Runnable runnable;
+        while ((runnable = engine.getDelegatedTask()) != null)
+        {
+            runnable.run();
+        }
+    }
+}
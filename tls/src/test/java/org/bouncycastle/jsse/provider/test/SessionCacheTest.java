@@ -0,0 +1,271 @@
+package org.bouncycastle.jsse.provider.test;
+
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.Enumeration;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.TrustManagerFactory;
+
+import junit.framework.TestCase;
+import org.bouncycastle.jsse.BCSSLSessionContext;
+import org.bouncycastle.tls.InMemoryTlsSessionStore;
+import org.bouncycastle.util.Arrays;
+
+public class SessionCacheTest
+    extends TestCase
+{
+    private static final String HOST = "localhost";
+
+    private KeyManagerFactory kmf;
+    private SSLContext clientContext;
+    private SSLContext serverContext;
+
+    protected void setUp()
+        throws Exception
+    {
+        ProviderUtils.setupLowPriority(false);
+
+        char[] keyPass = "keyPassword".toCharArray();
+
+        KeyPair caKeyPair = TestUtils.generateECKeyPair();
+        X509Certificate caCert = TestUtils.generateRootCert(caKeyPair);
+
+        KeyStore ks = KeyStore.getInstance("JKS");
+        ks.load(null, null);
+        ks.setKeyEntry("server", caKeyPair.getPrivate(), keyPass, new X509Certificate[]{ caCert });
+
+        KeyStore ts = KeyStore.getInstance("JKS");
+        ts.load(null, null);
+        ts.setCertificateEntry("ca", caCert);
+
+        TrustManagerFactory tmf = TrustManagerFactory.getInstance("PKIX", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        tmf.init(ts);
+
+        clientContext = SSLContext.getInstance("TLS", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        clientContext.init(null, tmf.getTrustManagers(),
+            SecureRandom.getInstance("DEFAULT", ProviderUtils.PROVIDER_NAME_BC));
+
+        kmf = KeyManagerFactory.getInstance("PKIX", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        kmf.init(ks, keyPass);
+
+        serverContext = createServerContext();
+    }
+
+    public void testResumption()
+        throws Exception
+    {
+        BCSSLSessionContext clientSessions = (BCSSLSessionContext)clientContext.getClientSessionContext();
+        BCSSLSessionContext serverSessions = (BCSSLSessionContext)serverContext.getServerSessionContext();
+
+        byte[] id1 = connect(443);
+        assertEquals(1, serverSessions.getSessionCount());
+        assertEquals(1, clientSessions.getSessionCount());
+        assertEquals(0, serverSessions.getSessionCacheHits());
+
+        byte[] id2 = connect(443);
+        assertTrue(Arrays.areEqual(id1, id2));
+        assertEquals(1, serverSessions.getSessionCount());
+        assertTrue(serverSessions.getSessionCacheHits() >= 1);
+        assertTrue(clientSessions.getSessionCacheHits() >= 1);
+
+        assertNotNull(serverSessions.getSession(id1));
+        assertNull(serverSessions.getSession(new byte[32]));
+        assertTrue(serverSessions.getSessionCacheMisses() >= 1);
+
+        serverSessions.getSession(id1).invalidate();
+        assertEquals(0, serverSessions.getSessionCount());
+        assertFalse(Arrays.areEqual(id1, connect(443)));
+    }
+
+    public void testSizeLimit()
+        throws Exception
+    {
+        BCSSLSessionContext serverSessions = (BCSSLSessionContext)serverContext.getServerSessionContext();
+        serverSessions.setSessionCacheSize(2);
+
+        for (int port = 1000; port < 1005; ++port)
+        {
+            connect(port);
+        }
+
+        assertEquals(2, serverSessions.getSessionCount());
+        assertEquals(3, serverSessions.getSessionCacheEvictions());
+
+        serverSessions.setSessionCacheSize(1);
+        assertEquals(1, serverSessions.getSessionCount());
+        assertEquals(4, serverSessions.getSessionCacheEvictions());
+
+        int count = 0;
+        for (Enumeration<byte[]> ids = serverSessions.getIds(); ids.hasMoreElements(); ids.nextElement())
+        {
+            ++count;
+        }
+        assertEquals(1, count);
+    }
+
+    public void testEvictionKeepsNewestSession()
+        throws Exception
+    {
+        BCSSLSessionContext serverSessions = (BCSSLSessionContext)serverContext.getServerSessionContext();
+        serverSessions.setSessionCacheSize(2);
+
+        // eviction is only approximately LRU, but the session just added is never the one evicted
+        for (int port = 1000; port < 1010; ++port)
+        {
+            byte[] id = connect(port);
+
+            assertTrue(serverSessions.getSessionCount() <= 2);
+            assertNotNull(serverSessions.getSession(id));
+        }
+        assertEquals(2, serverSessions.getSessionCount());
+        assertEquals(8, serverSessions.getSessionCacheEvictions());
+
+        serverSessions.setSessionCacheSize(1);
+        byte[] id = connect(1010);
+        assertEquals(1, serverSessions.getSessionCount());
+        assertNotNull(serverSessions.getSession(id));
+    }
+
+    public void testExternalStore()
+        throws Exception
+    {
+        InMemoryTlsSessionStore store = new InMemoryTlsSessionStore(10);
+
+        SSLContext otherServerContext = createServerContext();
+
+        BCSSLSessionContext serverSessions = (BCSSLSessionContext)serverContext.getServerSessionContext();
+        BCSSLSessionContext otherServerSessions = (BCSSLSessionContext)otherServerContext.getServerSessionContext();
+        serverSessions.setSessionStore(store);
+        otherServerSessions.setSessionStore(store);
+
+        byte[] id1 = connect(serverContext, 443);
+        assertEquals(1, store.size());
+
+        // a different server context, sharing only the store, resumes the session
+        byte[] id2 = connect(otherServerContext, 443);
+        assertTrue(Arrays.areEqual(id1, id2));
+        assertEquals(1, otherServerSessions.getSessionCacheHits());
+        assertEquals(1, otherServerSessions.getSessionCount());
+
+        otherServerSessions.getSession(id1).invalidate();
+        assertEquals(0, store.size());
+        assertFalse(Arrays.areEqual(id1, connect(otherServerContext, 443)));
+    }
+
+    public void testExternalStoreExpiry()
+        throws Exception
+    {
+        InMemoryTlsSessionStore store = new InMemoryTlsSessionStore(10);
+
+        SSLContext otherServerContext = createServerContext();
+
+        BCSSLSessionContext serverSessions = (BCSSLSessionContext)serverContext.getServerSessionContext();
+        BCSSLSessionContext otherServerSessions = (BCSSLSessionContext)otherServerContext.getServerSessionContext();
+        serverSessions.setSessionStore(store);
+        otherServerSessions.setSessionStore(store);
+
+        // evicting a session from the cache also removes it from the store
+        serverSessions.setSessionCacheSize(1);
+        byte[] id1 = connect(serverContext, 1000);
+        byte[] id2 = connect(serverContext, 1001);
+        assertNull(store.load(id1));
+        assertNotNull(store.load(id2));
+
+        // the stored session keeps its original creation time, so it is not resumed once expired
+        otherServerSessions.setSessionTimeout(1);
+        Thread.sleep(1100);
+
+        byte[] id3 = connect(otherServerContext, 1001);
+        assertFalse(Arrays.areEqual(id2, id3));
+        assertNull(store.load(id2));
+        assertNotNull(store.load(id3));
+    }
+
+    private SSLContext createServerContext()
+        throws Exception
+    {
+        SSLContext context = SSLContext.getInstance("TLS", ProviderUtils.PROVIDER_NAME_BCJSSE);
+        context.init(kmf.getKeyManagers(), null,
+            SecureRandom.getInstance("DEFAULT", ProviderUtils.PROVIDER_NAME_BC));
+        return context;
+    }
+
+    private byte[] connect(int port)
+        throws Exception
+    {
+        return connect(serverContext, port);
+    }
+
+    private byte[] connect(SSLContext serverContext, int port)
+        throws Exception
+    {
+        SSLEngine clientEngine = clientContext.createSSLEngine(HOST, port);
+        clientEngine.setEnabledProtocols(new String[]{ "TLSv1.2" });
+        clientEngine.setUseClientMode(true);
+
+        SSLEngine serverEngine = serverContext.createSSLEngine();
+        serverEngine.setEnabledProtocols(new String[]{ "TLSv1.2" });
+        serverEngine.setUseClientMode(false);
+
+        int appBufSize = clientEngine.getSession().getApplicationBufferSize() + 64;
+        int netBufSize = clientEngine.getSession().getPacketBufferSize();
+
+        ByteBuffer clientIn = ByteBuffer.allocate(appBufSize);
+        ByteBuffer serverIn = ByteBuffer.allocate(appBufSize);
+        ByteBuffer clientToServer = ByteBuffer.allocate(netBufSize);
+        ByteBuffer serverToClient = ByteBuffer.allocate(netBufSize);
+        ByteBuffer empty = ByteBuffer.allocate(0);
+
+        clientEngine.beginHandshake();
+        serverEngine.beginHandshake();
+
+        for (int i = 0; i < 100 && !(isHandshakeDone(clientEngine) && isHandshakeDone(serverEngine)); ++i)
+        {
+            runDelegatedTasks(clientEngine, clientEngine.wrap(empty, clientToServer));
+            runDelegatedTasks(serverEngine, serverEngine.wrap(empty, serverToClient));
+
+            ((java.nio.Buffer)clientToServer).flip();
+            ((java.nio.Buffer)serverToClient).flip();
+
+            runDelegatedTasks(clientEngine, clientEngine.unwrap(serverToClient, clientIn));
+            runDelegatedTasks(serverEngine, serverEngine.unwrap(clientToServer, serverIn));
+
+            clientToServer.compact();
+            serverToClient.compact();
+        }
+
+        assertTrue(isHandshakeDone(clientEngine));
+        assertTrue(isHandshakeDone(serverEngine));
+
+        byte[] id = serverEngine.getSession().getId();
+        assertTrue(Arrays.areEqual(id, clientEngine.getSession().getId()));
+        return id;
+    }
+
+    private static boolean isHandshakeDone(SSLEngine engine)
+    {
+        return HandshakeStatus.NOT_HANDSHAKING == engine.getHandshakeStatus();
+    }
+
+    private static void runDelegatedTasks(SSLEngine engine, SSLEngineResult result)
+    {
+        if (HandshakeStatus.NEED_TASK != result.getHandshakeStatus())
+        {
+            return;
+        }
+
+        Runnable runnable;
+        while ((runnable = engine.getDelegatedTask()) != null)
+        {
+            runnable.run();
+        }
+    }
+}
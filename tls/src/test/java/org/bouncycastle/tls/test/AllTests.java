@@ -31,11 +31,13 @@ public static Test suite()
         suite.addTestSuite(OCSPTest.class);
         suite.addTestSuite(PRFTest.class);
         suite.addTestSuite(Tls13PSKProtocolTest.class);
+        suite.addTestSuite(TlsBufferArenaTest.class);
         suite.addTestSuite(TlsProtocolNonBlockingTest.class);
         suite.addTestSuite(TlsProtocolTest.class);
         suite.addTestSuite(TlsPSKProtocolTest.class);
         suite.addTestSuite(TlsRawKeysProtocolTest.class);
         suite.addTestSuite(TlsSRPProtocolTest.class);
+        suite.addTestSuite(TlsSessionStoreTest.class);
         suite.addTestSuite(TlsUtilsTest.class);
 
         suite.addTest(DTLSTestSuite.suite());
@@ -0,0 +1,144 @@
+package org.bouncycastle.tls.test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+
+import junit.framework.TestCase;
+import org.bouncycastle.tls.ProtocolVersion;
+import org.bouncycastle.tls.TlsClientProtocol;
+import org.bouncycastle.tls.TlsServerProtocol;
+import org.bouncycastle.tls.crypto.TlsBufferArena;
+import org.bouncycastle.tls.crypto.TlsBufferPool;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.io.Streams;
+
+public class TlsBufferArenaTest
+    extends TestCase
+{
+    public void testArenaReuse()
+    {
+        TlsBufferPool pool = new TlsBufferPool(4);
+        TlsBufferArena arena = new TlsBufferArena(pool);
+
+        byte[] a = arena.allocate(100);
+        arena.release(a);
+        assertSame(a, arena.allocate(50));
+
+        byte[] b = arena.allocate(200);
+        assertNotSame(a, b);
+        assertEquals(200, b.length);
+
+        // buffers the arena didn't hand out are ignored
+        arena.release(new byte[1000]);
+        assertNotSame(a, arena.allocate(100));
+
+        arena.release(a);
+        arena.release(b);
+        arena.close();
+        assertEquals(2, pool.size());
+
+        byte[] pooled = new TlsBufferArena(pool).allocate(150);
+        assertSame(b, pooled);
+        assertEquals(1, pool.size());
+    }
+
+    public void testPoolKeepsLargest()
+    {
+        TlsBufferPool pool = new TlsBufferPool(1);
+        pool.release(new byte[10]);
+        pool.release(new byte[20]);
+        pool.release(new byte[5]);
+        assertEquals(1, pool.size());
+        assertNull(pool.acquire(21));
+        assertEquals(20, pool.acquire(15).length);
+        assertEquals(0, pool.size());
+    }
+
+    public void testSharedPool() throws Exception
+    {
+        TlsBufferPool pool = new TlsBufferPool(16);
+
+        for (int i = 0; i < 3; ++i)
+        {
+            checkEcho(new TlsBufferArena(pool), new TlsBufferArena(pool), ProtocolVersion.TLSv12);
+            checkEcho(new TlsBufferArena(pool), new TlsBufferArena(pool), ProtocolVersion.TLSv13);
+        }
+
+        assertTrue(pool.size() > 0);
+    }
+
+    public void testNoArena() throws Exception
+    {
+        checkEcho(null, null, ProtocolVersion.TLSv12);
+        checkEcho(null, null, ProtocolVersion.TLSv13);
+    }
+
+    private static void checkEcho(TlsBufferArena clientArena, final TlsBufferArena serverArena,
+        final ProtocolVersion version) throws Exception
+    {
+        PipedInputStream clientRead = TlsTestUtils.createPipedInputStream();
+        PipedInputStream serverRead = TlsTestUtils.createPipedInputStream();
+        PipedOutputStream clientWrite = new PipedOutputStream(serverRead);
+        PipedOutputStream serverWrite = new PipedOutputStream(clientRead);
+
+        TlsClientProtocol clientProtocol = new TlsClientProtocol(clientRead, clientWrite);
+        final TlsServerProtocol serverProtocol = new TlsServerProtocol(serverRead, serverWrite);
+
+        clientProtocol.setBufferArena(clientArena);
+        serverProtocol.setBufferArena(serverArena);
+
+        Thread serverThread = new Thread()
+        {
+            public void run()
+            {
+                try
+                {
+                    serverProtocol.accept(new MockTlsServer()
+                    {
+                        protected ProtocolVersion[] getSupportedVersions()
+                        {
+                            return version.only();
+                        }
+                    });
+                    Streams.pipeAll(serverProtocol.getInputStream(), serverProtocol.getOutputStream());
+                    serverProtocol.close();
+                }
+                catch (Exception e)
+                {
+                }
+            }
+        };
+        serverThread.start();
+
+        MockTlsClient client = new MockTlsClient(null)
+        {
+            protected ProtocolVersion[] getSupportedVersions()
+            {
+                return version.only();
+            }
+        };
+        clientProtocol.connect(client);
+
+        OutputStream output = clientProtocol.getOutputStream();
+        InputStream input = clientProtocol.getInputStream();
+
+        // NOTE: Each write must fit in the pipe, since we write-all before we read-any
+        for (int length = 1; length <= 1000; length *= 10)
+        {
+            byte[] data = new byte[length];
+            client.getCrypto().getSecureRandom().nextBytes(data);
+
+            output.write(data);
+
+            byte[] echo = new byte[length];
+            assertEquals(length, Streams.readFully(input, echo));
+            assertTrue(Arrays.areEqual(data, echo));
+        }
+
+        output.close();
+
+        serverThread.join();
+    }
+}
@@ -0,0 +1,212 @@
+package org.bouncycastle.tls.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+
+import junit.framework.TestCase;
+import org.bouncycastle.tls.FileTlsSessionStore;
+import org.bouncycastle.tls.InMemoryTlsSessionStore;
+import org.bouncycastle.tls.ProtocolVersion;
+import org.bouncycastle.tls.SessionParameters;
+import org.bouncycastle.tls.TlsClientProtocol;
+import org.bouncycastle.tls.TlsServerProtocol;
+import org.bouncycastle.tls.TlsSession;
+import org.bouncycastle.tls.TlsSessionStore;
+import org.bouncycastle.tls.crypto.TlsCrypto;
+import org.bouncycastle.util.Arrays;
+import org.bouncycastle.util.io.Streams;
+
+public class TlsSessionStoreTest
+    extends TestCase
+{
+    public void testSessionParametersEncoding() throws Exception
+    {
+        StoreTlsClient client = connect(new InMemoryTlsSessionStore(10), null);
+        TlsCrypto crypto = client.getCrypto();
+
+        SessionParameters sessionParameters = client.session.exportSessionParameters();
+
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        sessionParameters.encode(crypto, buf);
+
+        SessionParameters parsed = SessionParameters.parse(crypto, new ByteArrayInputStream(buf.toByteArray()));
+
+        assertEquals(sessionParameters.getCipherSuite(), parsed.getCipherSuite());
+        assertEquals(sessionParameters.getCreationTime(), parsed.getCreationTime());
+        assertEquals(sessionParameters.getNegotiatedVersion(), parsed.getNegotiatedVersion());
+        assertEquals(sessionParameters.isExtendedMasterSecret(), parsed.isExtendedMasterSecret());
+        assertEquals(sessionParameters.getPeerCertificate().getLength(), parsed.getPeerCertificate().getLength());
+        assertTrue(Arrays.areEqual(sessionParameters.getPeerCertificate().getCertificateAt(0).getEncoded(),
+            parsed.getPeerCertificate().getCertificateAt(0).getEncoded()));
+        assertEquals(sessionParameters.getLocalCertificate().getLength(), parsed.getLocalCertificate().getLength());
+        assertEquals(sessionParameters.readServerExtensions().keySet(), parsed.readServerExtensions().keySet());
+
+        // encoding must not consume the original master secret
+        assertTrue(sessionParameters.getMasterSecret().isAlive());
+        assertTrue(Arrays.areEqual(crypto.adoptSecret(sessionParameters.getMasterSecret()).extract(),
+            parsed.getMasterSecret().extract()));
+    }
+
+    public void testInMemoryStore() throws Exception
+    {
+        InMemoryTlsSessionStore store = new InMemoryTlsSessionStore(10);
+
+        checkResumption(store);
+        assertEquals(1, store.size());
+    }
+
+    public void testFileStore() throws Exception
+    {
+        File dir = File.createTempFile("tls-sessions", "");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdir());
+
+        try
+        {
+            checkResumption(new FileTlsSessionStore(dir));
+            assertEquals(1, dir.listFiles().length);
+        }
+        finally
+        {
+            File[] files = dir.listFiles();
+            for (int i = 0; i != files.length; i++)
+            {
+                files[i].delete();
+            }
+            dir.delete();
+        }
+    }
+
+    public void testStaleSession() throws Exception
+    {
+        InMemoryTlsSessionStore store = new InMemoryTlsSessionStore(10);
+
+        StoreTlsClient first = connect(store, null, 1);
+        byte[] sessionID = first.session.getSessionID();
+
+        Thread.sleep(1100);
+
+        // the stored session has outlived the timeout, so it is removed instead of resumed
+        StoreTlsClient second = connect(store, first.session, 1);
+        assertFalse(second.resumed);
+        assertNull(store.load(sessionID));
+    }
+
+    private void checkResumption(TlsSessionStore store) throws Exception
+    {
+        StoreTlsClient first = connect(store, null);
+        assertFalse(first.resumed);
+
+        byte[] sessionID = first.session.getSessionID();
+        assertNotNull(store.load(sessionID));
+
+        // each connection uses a fresh server instance, so resumption can only come from the store
+        StoreTlsClient second = connect(store, first.session);
+        assertTrue(second.resumed);
+        assertTrue(Arrays.areEqual(sessionID, second.session.getSessionID()));
+
+        store.remove(sessionID);
+        assertNull(store.load(sessionID));
+
+        StoreTlsClient third = connect(store, first.session);
+        assertFalse(third.resumed);
+    }
+
+    private static StoreTlsClient connect(TlsSessionStore store, TlsSession session) throws Exception
+    {
+        return connect(store, session, 86400);
+    }
+
+    private static StoreTlsClient connect(TlsSessionStore store, TlsSession session, int sessionTimeout)
+        throws Exception
+    {
+        PipedInputStream clientRead = TlsTestUtils.createPipedInputStream();
+        PipedInputStream serverRead = TlsTestUtils.createPipedInputStream();
+        PipedOutputStream clientWrite = new PipedOutputStream(serverRead);
+        PipedOutputStream serverWrite = new PipedOutputStream(clientRead);
+
+        TlsClientProtocol clientProtocol = new TlsClientProtocol(clientRead, clientWrite);
+        final TlsServerProtocol serverProtocol = new TlsServerProtocol(serverRead, serverWrite);
+        final StoreTlsServer server = new StoreTlsServer(store, sessionTimeout);
+
+        Thread serverThread = new Thread()
+        {
+            public void run()
+            {
+                try
+                {
+                    serverProtocol.accept(server);
+                    Streams.drain(serverProtocol.getInputStream());
+                    serverProtocol.close();
+                }
+                catch (IOException e)
+                {
+                }
+            }
+        };
+        serverThread.start();
+
+        StoreTlsClient client = new StoreTlsClient(session);
+        clientProtocol.connect(client);
+        clientProtocol.close();
+
+        serverThread.join();
+
+        return client;
+    }
+
+    static class StoreTlsClient
+        extends MockTlsClient
+    {
+        boolean resumed;
+
+        StoreTlsClient(TlsSession session)
+        {
+            super(session);
+        }
+
+        protected ProtocolVersion[] getSupportedVersions()
+        {
+            return ProtocolVersion.TLSv12.only();
+        }
+
+        public void notifyHandshakeComplete() throws IOException
+        {
+            super.notifyHandshakeComplete();
+
+            this.resumed = context.getSecurityParametersConnection().isResumedSession();
+        }
+    }
+
+    static class StoreTlsServer
+        extends MockTlsServer
+    {
+        private final TlsSessionStore store;
+        private final int sessionTimeout;
+
+        StoreTlsServer(TlsSessionStore store, int sessionTimeout)
+        {
+            this.store = store;
+            this.sessionTimeout = sessionTimeout;
+        }
+
+        protected TlsSessionStore getSessionStore()
+        {
+            return store;
+        }
+
+        protected int getSessionTimeout()
+        {
+            return sessionTimeout;
+        }
+
+        protected ProtocolVersion[] getSupportedVersions()
+        {
+            return ProtocolVersion.TLSv12.only();
+        }
+    }
+}